@@ -0,0 +1,58 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.analyze.model.AnalyzerModel;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.gui.start.CircuitGenerator;
+import com.cburch.logisim.instance.Instance;
+import com.cburch.logisim.proj.Project;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Truth table computation for a ripple-carry adder, which simulates the
+ * circuit once for each of the 2<sup>2 bits + 1</sup> input rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AnalyzeBenchmark {
+
+    @Param({"2", "4", "5"})
+    int bits;
+
+    private Project project;
+    private Circuit circuit;
+    private Map<Instance, String> pinLabels;
+
+    @Setup
+    public void setUp() throws Exception {
+        CircuitGenerator circuits = new CircuitGenerator(new Loader(null));
+        circuit = circuits.rippleAdder(bits, false);
+        project = new Project(circuits.getFile());
+        pinLabels = Analyze.getPinLabels(circuit);
+    }
+
+    @Benchmark
+    public AnalyzerModel computeTable() {
+        AnalyzerModel model = new AnalyzerModel();
+        Analyze.computeTable(model, project, circuit, pinLabels);
+        return model;
+    }
+}
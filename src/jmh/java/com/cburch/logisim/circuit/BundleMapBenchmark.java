@@ -0,0 +1,62 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.comp.EndData;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.gui.start.CircuitGenerator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Recomputation of the bundle map of a long inverter chain, as happens
+ * after every edit of a circuit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BundleMapBenchmark {
+
+    @Param({"1000", "10000"})
+    int gates;
+
+    private CircuitWires wires;
+    private Component component;
+    private EndData end;
+
+    @Setup
+    public void setUp() throws Exception {
+        Circuit circuit = new CircuitGenerator(new Loader(null)).inverterChain(gates);
+        wires = circuit.wires;
+        component = circuit.getNonWires().iterator().next();
+        end = component.getEnd(0);
+    }
+
+    @Setup(Level.Invocation)
+    public void voidBundleMap() {
+        // removing and restoring an end discards the computed map
+        wires.remove(component, end);
+        wires.add(component, end);
+    }
+
+    @Benchmark
+    public void computeBundleMap() {
+        wires.ensureComputed();
+    }
+}
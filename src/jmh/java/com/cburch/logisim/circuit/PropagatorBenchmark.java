@@ -0,0 +1,81 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.data.Value;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.gui.start.CircuitGenerator;
+import com.cburch.logisim.instance.Instance;
+import com.cburch.logisim.instance.InstanceState;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.wiring.Pin;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Propagation through a clocked ripple-carry adder. The b inputs are held
+ * at one and the a inputs at zero, so that both a change of a0 and a
+ * clock tick on the carry in ripple through every stage.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropagatorBenchmark {
+
+    @Param({"8", "32", "128"})
+    int bits;
+
+    private Propagator propagator;
+    private InstanceState a0;
+    private Value nextA0 = Value.TRUE;
+
+    @Setup
+    public void setUp() throws Exception {
+        CircuitGenerator circuits = new CircuitGenerator(new Loader(null));
+        Circuit circuit = circuits.rippleAdder(bits, true);
+        CircuitState state = new CircuitState(new Project(circuits.getFile()), circuit);
+        propagator = state.getPropagator();
+        propagator.propagate();
+        for (Map.Entry<Instance, String> entry : Analyze.getPinLabels(circuit).entrySet()) {
+            InstanceState pin = state.getInstanceState(entry.getKey());
+            if (entry.getValue().startsWith("b")) {
+                Pin.FACTORY.setValue(pin, Value.TRUE);
+                pin.fireInvalidated();
+            } else if (entry.getValue().equals("a0")) {
+                a0 = pin;
+            }
+        }
+        propagator.propagate();
+    }
+
+    @Benchmark
+    public boolean propagate() {
+        Pin.FACTORY.setValue(a0, nextA0);
+        a0.fireInvalidated();
+        nextA0 = nextA0.not();
+        propagator.propagate();
+        return propagator.isOscillating();
+    }
+
+    @Benchmark
+    public boolean tick() {
+        boolean ret = propagator.tick();
+        propagator.propagate();
+        return ret;
+    }
+}
@@ -0,0 +1,69 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.data.Value;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.gui.start.CircuitGenerator;
+import com.cburch.logisim.instance.Instance;
+import com.cburch.logisim.instance.InstanceState;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.wiring.Pin;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Propagation of a toggled input through subcircuits nested
+ * <code>depth</code> deep, with 2<sup>depth</sup> gates at the bottom.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SubcircuitBenchmark {
+
+    @Param({"4", "8", "12"})
+    int depth;
+
+    private Propagator propagator;
+    private InstanceState in;
+    private Value nextIn = Value.TRUE;
+
+    @Setup
+    public void setUp() throws Exception {
+        CircuitGenerator circuits = new CircuitGenerator(new Loader(null));
+        Circuit circuit = circuits.hierarchy(depth, 2);
+        CircuitState state = new CircuitState(new Project(circuits.getFile()), circuit);
+        propagator = state.getPropagator();
+        for (Map.Entry<Instance, String> entry : Analyze.getPinLabels(circuit).entrySet()) {
+            if (entry.getValue().equals("in")) {
+                in = state.getInstanceState(entry.getKey());
+            }
+        }
+        Pin.FACTORY.setValue(in, Value.FALSE);
+        propagator.propagate();
+    }
+
+    @Benchmark
+    public boolean propagate() {
+        Pin.FACTORY.setValue(in, nextIn);
+        in.fireInvalidated();
+        nextIn = nextIn.not();
+        propagator.propagate();
+        return propagator.isOscillating();
+    }
+}
@@ -0,0 +1,67 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.data;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creation and combination of values, cycling through a fixed table of
+ * pseudo-random bit masks with mostly defined bits.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValueBenchmark {
+
+    private static final int TABLE_SIZE = 1024;
+
+    @Param({"1", "8", "32", "64"})
+    int width;
+
+    private final int[] errors = new int[TABLE_SIZE];
+    private final int[] unknowns = new int[TABLE_SIZE];
+    private final int[] values = new int[TABLE_SIZE];
+    private final Value[] created = new Value[TABLE_SIZE];
+    private int index = 0;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(TABLE_SIZE);
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            errors[i] = random.nextInt() & random.nextInt() & random.nextInt() & random.nextInt();
+            unknowns[i] = random.nextInt() & random.nextInt() & random.nextInt();
+            values[i] = random.nextInt();
+            created[i] = Value.create(width, errors[i], unknowns[i], values[i]);
+        }
+    }
+
+    @Benchmark
+    public Value create() {
+        int i = index;
+        index = (i + 1) & (TABLE_SIZE - 1);
+        return Value.create(width, errors[i], unknowns[i], values[i]);
+    }
+
+    @Benchmark
+    public Value combine() {
+        int i = index;
+        index = (i + 1) & (TABLE_SIZE - 1);
+        return created[i].combine(created[(i + 1) & (TABLE_SIZE - 1)]);
+    }
+}
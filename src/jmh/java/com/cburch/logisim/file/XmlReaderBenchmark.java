@@ -0,0 +1,62 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.file;
+
+import com.cburch.logisim.gui.start.CircuitGenerator;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading of generated circuit files, from the XML already in memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class XmlReaderBenchmark {
+
+    @Param({"ripple", "chain", "hierarchy"})
+    String shape;
+
+    private byte[] contents;
+
+    @Setup
+    public void setUp() throws Exception {
+        CircuitGenerator circuits = new CircuitGenerator(new Loader(null));
+        switch (shape) {
+            case "ripple":
+                circuits.rippleAdder(256, true);
+                break;
+            case "chain":
+                circuits.inverterChain(10000);
+                break;
+            default:
+                circuits.hierarchy(8, 2);
+                break;
+        }
+        LogisimFile file = circuits.getFile();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        file.write(out, file.getLoader());
+        contents = out.toByteArray();
+    }
+
+    @Benchmark
+    public LogisimFile load() throws Exception {
+        return new Loader(null).openLogisimFile(new ByteArrayInputStream(contents));
+    }
+}
@@ -0,0 +1,69 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.std.memory;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Random reads and writes of a RAM-sized memory, with the addresses drawn
+ * in advance from a fixed seed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MemContentsBenchmark {
+
+    private static final int TABLE_SIZE = 4096;
+
+    @Param({"12", "20", "24"})
+    int addrBits;
+
+    @Param({"8", "32"})
+    int dataBits;
+
+    private MemContents contents;
+    private final long[] addresses = new long[TABLE_SIZE];
+    private final int[] data = new int[TABLE_SIZE];
+    private int index = 0;
+
+    @Setup
+    public void setUp() {
+        contents = MemContents.create(addrBits, dataBits);
+        Random random = new Random(addrBits);
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            addresses[i] = random.nextInt(1 << addrBits);
+            data[i] = random.nextInt();
+            contents.set(addresses[i], data[i]);
+        }
+    }
+
+    @Benchmark
+    public int get() {
+        int i = index;
+        index = (i + 1) & (TABLE_SIZE - 1);
+        return contents.get(addresses[i]);
+    }
+
+    @Benchmark
+    public void set() {
+        int i = index;
+        index = (i + 1) & (TABLE_SIZE - 1);
+        contents.set(addresses[i], data[(i + 1) & (TABLE_SIZE - 1)]);
+    }
+}
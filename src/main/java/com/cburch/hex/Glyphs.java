@@ -0,0 +1,130 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.hex;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * The sixteen hex digits of one font and color, drawn once into an image
+ * so that the editor can copy them into place rather than lay out a
+ * string for every cell it paints. Each digit is centered in a slot as
+ * wide as the widest digit, the same width by which the cells are
+ * measured, with room to either side for a slanted digit to lean into.
+ * The image is drawn at the scale of the device, so that digits are as
+ * sharp as text drawn directly.
+ */
+class Glyphs {
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Font font;
+    private final Color color;
+    private final double scaleX;
+    private final double scaleY;
+    private final int charWidth;
+    private final int pad;
+    private final int ascent;
+    private final int height;
+    private final BufferedImage image;
+    private final int imageSlotWidth;
+    private final int imageHeight;
+
+    private Glyphs(Graphics graphics, Font font, Color color, double scaleX, double scaleY) {
+        this.font = font;
+        this.color = color;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+
+        FontMetrics fm = graphics.getFontMetrics(font);
+        int width = 0;
+        for (char digit : DIGITS) {
+            width = Math.max(width, fm.charWidth(digit));
+        }
+        this.charWidth = Math.max(1, width);
+        this.ascent = fm.getAscent();
+        this.height = Math.max(1, fm.getAscent() + fm.getDescent());
+        this.pad = (height + 3) / 4;
+        this.imageSlotWidth = (int) Math.ceil((charWidth + 2 * pad) * scaleX);
+        this.imageHeight = (int) Math.ceil(height * scaleY);
+
+        GraphicsConfiguration config = graphics instanceof Graphics2D
+            ? ((Graphics2D) graphics).getDeviceConfiguration() : null;
+        int imageWidth = DIGITS.length * imageSlotWidth;
+        if (config == null) {
+            image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
+        } else {
+            image = config.createCompatibleImage(imageWidth, imageHeight, Transparency.TRANSLUCENT);
+        }
+        Graphics2D g = image.createGraphics();
+        if (graphics instanceof Graphics2D) {
+            Object aa = ((Graphics2D) graphics).getRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING);
+            if (aa != null && aa != RenderingHints.VALUE_TEXT_ANTIALIAS_OFF
+                && aa != RenderingHints.VALUE_TEXT_ANTIALIAS_DEFAULT) {
+                // subpixel text can't be drawn onto a transparent image
+                aa = RenderingHints.VALUE_TEXT_ANTIALIAS_ON;
+            }
+            if (aa != null) {
+                g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, aa);
+            }
+        }
+        g.scale(scaleX, scaleY);
+        g.setFont(font);
+        g.setColor(color);
+        for (int i = 0; i < DIGITS.length; i++) {
+            int x = (int) Math.round(i * imageSlotWidth / scaleX) + pad;
+            g.drawChars(DIGITS, i, 1, x + (charWidth - fm.charWidth(DIGITS[i])) / 2, ascent);
+        }
+        g.dispose();
+    }
+
+    /**
+     * Returns glyphs for drawing with the given font and color into the
+     * given graphics, reusing the given glyphs if they will do.
+     */
+    static Glyphs get(Glyphs cached, Graphics graphics, Font font, Color color) {
+        double scaleX = 1.0;
+        double scaleY = 1.0;
+        if (graphics instanceof Graphics2D) {
+            AffineTransform xform = ((Graphics2D) graphics).getTransform();
+            scaleX = Math.abs(xform.getScaleX());
+            scaleY = Math.abs(xform.getScaleY());
+            if (scaleX == 0.0 || scaleY == 0.0) {
+                scaleX = 1.0;
+                scaleY = 1.0;
+            }
+        }
+        if (cached != null && cached.font.equals(font) && cached.color.equals(color)
+            && cached.scaleX == scaleX && cached.scaleY == scaleY) {
+            return cached;
+        }
+        return new Glyphs(graphics, font, color, scaleX, scaleY);
+    }
+
+    int getCharWidth() {
+        return charWidth;
+    }
+
+    /**
+     * Draws the given number of low-order hex digits of the value, with the
+     * left edge at x and the baseline at y.
+     */
+    void draw(Graphics g, long value, int chars, int x, int y) {
+        int top = y - ascent;
+        for (int i = chars - 1; i >= 0; i--, x += charWidth) {
+            int digit = i < 16 ? (int) (value >>> (4 * i)) & 0xf : 0;
+            int sx = digit * imageSlotWidth;
+            g.drawImage(image, x - pad, top, x + charWidth + pad, top + height,
+                sx, 0, sx + imageSlotWidth, imageHeight, null);
+        }
+    }
+}
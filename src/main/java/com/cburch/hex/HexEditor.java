@@ -9,6 +9,7 @@ import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Rectangle;
+import java.util.Collection;
 import javax.swing.JComponent;
 import javax.swing.Scrollable;
 import javax.swing.SwingConstants;
@@ -20,6 +21,8 @@ public class HexEditor extends JComponent implements Scrollable {
     private final Caret caret;
     private final Highlighter highlighter;
     private HexModel model;
+    private Glyphs valueGlyphs = null;
+    private Glyphs labelGlyphs = null;
 
     public HexEditor(HexModel model) {
         this.model = model;
@@ -69,7 +72,7 @@ public class HexEditor extends JComponent implements Scrollable {
         return caret;
     }
 
-    public Object addHighlight(int start, int end, Color color) {
+    public Object addHighlight(long start, long end, Color color) {
         return highlighter.add(start, end, color);
     }
 
@@ -77,7 +80,11 @@ public class HexEditor extends JComponent implements Scrollable {
         highlighter.remove(tag);
     }
 
-    public void scrollAddressToVisible(int start, int end) {
+    public void removeHighlights(Collection<?> tags) {
+        highlighter.removeAll(tags);
+    }
+
+    public void scrollAddressToVisible(long start, long end) {
         if (start < 0 || end < 0) {
             return;
         }
@@ -128,27 +135,24 @@ public class HexEditor extends JComponent implements Scrollable {
         graphics.setColor(getForeground());
         Font baseFont = graphics.getFont();
         FontMetrics baseFm = graphics.getFontMetrics(baseFont);
-        Font labelFont = baseFont.deriveFont(Font.ITALIC);
-        FontMetrics labelFm = graphics.getFontMetrics(labelFont);
+        Color color = graphics.getColor();
+        valueGlyphs = Glyphs.get(valueGlyphs, graphics, baseFont, color);
+        labelGlyphs = Glyphs.get(labelGlyphs, graphics, baseFont.deriveFont(Font.ITALIC), color);
         int columnCount = measures.getColumnCount();
         int baseX = measures.getBaseX();
         int baseY = measures.toY(xaddr0) + baseFm.getAscent() + baseFm.getLeading() / 2;
         int dy = measures.getCellHeight();
         int labelWidth = measures.getLabelWidth();
         int labelChars = measures.getLabelChars();
-        int cellWidth = measures.getCellWidth();
+        int labelX = baseX - labelWidth + (labelWidth - labelChars * labelGlyphs.getCharWidth()) / 2;
         int cellChars = measures.getCellChars();
+        int cellX = (measures.getCellWidth() - cellChars * valueGlyphs.getCharWidth()) / 2;
         for (long a = xaddr0; a < xaddr1; a += columnCount, baseY += dy) {
-            String label = toHex(a, labelChars);
-            graphics.setFont(labelFont);
-            graphics.drawString(label, baseX - labelWidth + (labelWidth - labelFm.stringWidth(label)) / 2, baseY);
-            graphics.setFont(baseFont);
+            labelGlyphs.draw(graphics, a, labelChars, labelX, baseY);
             long b = a;
             for (int j = 0; j < columnCount; j++, b++) {
                 if (b >= addr0 && b <= addr1) {
-                    String val = toHex(model.get(b), cellChars);
-                    int x = measures.toX(b) + (cellWidth - baseFm.stringWidth(val)) / 2;
-                    graphics.drawString(val, x, baseY);
+                    valueGlyphs.draw(graphics, model.get(b), cellChars, measures.toX(b) + cellX, baseY);
                 }
             }
         }
@@ -156,22 +160,6 @@ public class HexEditor extends JComponent implements Scrollable {
         caret.paintForeground(graphics, xaddr0, xaddr1);
     }
 
-    private String toHex(long value, int chars) {
-        StringBuilder hex = new StringBuilder(Long.toHexString(value));
-        int retLen = hex.length();
-        if (retLen < chars) {
-            hex.insert(0, "0");
-            for (int i = retLen + 1; i < chars; i++) {
-                hex.insert(0, "0");
-            }
-            return hex.toString();
-        } else if (retLen == chars) {
-            return hex.toString();
-        } else {
-            return hex.substring(retLen - chars);
-        }
-    }
-
     //
     // selection methods
     //
@@ -254,8 +242,9 @@ public class HexEditor extends JComponent implements Scrollable {
         }
 
         public void bytesChanged(HexModel source, long start, long numBytes, int[] oldValues) {
-            repaint(0, measures.toY(start),
-                getWidth(), measures.toY(start + numBytes) + measures.getCellHeight());
+            int y0 = measures.toY(start);
+            int y1 = measures.toY(start + numBytes - 1);
+            repaint(0, y0, getWidth(), y1 - y0 + measures.getCellHeight());
         }
     }
 }
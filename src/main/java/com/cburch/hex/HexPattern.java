@@ -0,0 +1,83 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.hex;
+
+import java.util.Arrays;
+
+/**
+ * A sequence of values to search for, each compared only in the bits of
+ * its mask. A pattern of one value with a full mask finds that value; a
+ * longer pattern finds the values in order at consecutive addresses.
+ */
+public final class HexPattern {
+
+    private final int[] values;
+    private final int[] masks;
+
+    private HexPattern(int[] values, int[] masks) {
+        if (values.length == 0 || values.length != masks.length) {
+            throw new IllegalArgumentException("pattern needs one mask per value");
+        }
+        this.values = new int[values.length];
+        this.masks = masks.clone();
+        for (int i = 0; i < values.length; i++) {
+            this.values[i] = values[i] & masks[i];
+        }
+    }
+
+    /**
+     * Returns a pattern matching the given values exactly.
+     */
+    public static HexPattern create(int... values) {
+        int[] masks = new int[values.length];
+        Arrays.fill(masks, -1);
+        return new HexPattern(values, masks);
+    }
+
+    /**
+     * Returns a pattern matching the given values in the bits set in the
+     * corresponding masks.
+     */
+    public static HexPattern createMasked(int[] values, int[] masks) {
+        return new HexPattern(values, masks);
+    }
+
+    public int getLength() {
+        return values.length;
+    }
+
+    public int getValue(int index) {
+        return values[index];
+    }
+
+    public int getMask(int index) {
+        return masks[index];
+    }
+
+    /**
+     * Returns true if a run of zeroes matches the pattern, so that a
+     * search can't pass over memory that holds nothing.
+     */
+    public boolean matchesZeroes() {
+        for (int value : values) {
+            if (value != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the pattern matches the given data starting at the
+     * given position, which must leave room for the whole pattern.
+     */
+    public boolean matches(int[] data, int start) {
+        for (int i = 0; i < values.length; i++) {
+            if ((data[start + i] & masks[i]) != values[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
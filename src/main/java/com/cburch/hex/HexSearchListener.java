@@ -0,0 +1,15 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.hex;
+
+public interface HexSearchListener {
+
+    /**
+     * Notes that the pattern begins at each of the given number of
+     * consecutive addresses, returning false if the search should stop.
+     * Parts of a search may run at once on several threads, each
+     * reporting what it finds as it goes.
+     */
+    boolean found(long start, long count);
+}
@@ -6,6 +6,8 @@ package com.cburch.hex;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 
 class Highlighter {
 
@@ -33,7 +35,7 @@ class Highlighter {
         if (end > model.getLastOffset()) {
             end = model.getLastOffset();
         }
-        if (start >= end) {
+        if (start > end) {
             return null;
         }
 
@@ -50,10 +52,16 @@ class Highlighter {
         }
     }
 
+    public synchronized void removeAll(Collection<?> tags) {
+        if (entries.removeAll(new HashSet<>(tags))) {
+            hex.repaint();
+        }
+    }
+
     public synchronized void clear() {
         ArrayList<Entry> oldEntries = entries;
         entries = new ArrayList<>();
-        for (int i = oldEntries.size(); i >= 0; i--) {
+        for (int i = oldEntries.size() - 1; i >= 0; i--) {
             expose(oldEntries.get(i));
         }
     }
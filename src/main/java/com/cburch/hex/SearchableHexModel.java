@@ -0,0 +1,14 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.hex;
+
+public interface SearchableHexModel extends HexModel {
+
+    /**
+     * Finds every address at which the pattern begins, reporting the
+     * matches to the listener as they are found and returning once the
+     * whole model has been searched or the listener has asked to stop.
+     */
+    void search(HexPattern pattern, HexSearchListener listener);
+}
@@ -28,6 +28,8 @@ class MinimizedTab extends AnalyzerTab {
     private final KarnaughMapPanel karnaughMap;
     private final JLabel formatLabel = new JLabel();
     private final JComboBox<Object> formatChoice = new JComboBox<>(new FormatModel());
+    private final JLabel minimizerLabel = new JLabel();
+    private final JComboBox<Object> minimizerChoice = new JComboBox<>(new MinimizerModel());
     private final ExpressionView minimizedExpr = new ExpressionView();
     private final JButton setAsExpr = new JButton();
     private final AnalyzerModel model;
@@ -45,6 +47,7 @@ class MinimizedTab extends AnalyzerTab {
         karnaughMap.addMouseListener(new TruthTableMouseListener());
         setAsExpr.addActionListener(myListener);
         formatChoice.addItemListener(myListener);
+        minimizerChoice.addItemListener(myListener);
 
         JPanel buttons = new JPanel(new GridLayout(1, 1));
         buttons.add(setAsExpr);
@@ -60,6 +63,7 @@ class MinimizedTab extends AnalyzerTab {
         gc.gridy = 0;
         addRow(gb, gc, selector.getLabel(), selector.getComboBox());
         addRow(gb, gc, formatLabel, formatChoice);
+        addRow(gb, gc, minimizerLabel, minimizerChoice);
 
         gc.weightx = 0.0;
         gc.gridx = 0;
@@ -108,6 +112,8 @@ class MinimizedTab extends AnalyzerTab {
         setAsExpr.setText(Strings.get("minimizedSetButton"));
         formatLabel.setText(Strings.get("minimizedFormat"));
         ((FormatModel) formatChoice.getModel()).localeChanged();
+        minimizerLabel.setText(Strings.get("minimizedMinimizer"));
+        ((MinimizerModel) minimizerChoice.getModel()).localeChanged();
     }
 
     @Override
@@ -116,10 +122,17 @@ class MinimizedTab extends AnalyzerTab {
         karnaughMap.setOutput(output);
         int format = outputExpressions.getMinimizedFormat(output);
         formatChoice.setSelectedIndex(FormatModel.getFormatIndex(format));
+        updateMinimizer();
         minimizedExpr.setExpression(outputExpressions.getMinimalExpression(output));
         setAsExpr.setEnabled(output != null && !outputExpressions.isExpressionMinimal(output));
     }
 
+    // the exact minimizer can't be chosen for tables too large for it
+    private void updateMinimizer() {
+        minimizerChoice.setEnabled(model.getInputs().size() <= AnalyzerModel.MAX_EXACT_INPUTS);
+        minimizerChoice.setSelectedIndex(MinimizerModel.getMinimizerIndex(model.getMinimizer()));
+    }
+
     private String getCurrentVariable() {
         return selector.getSelectedOutput();
     }
@@ -176,6 +189,58 @@ class MinimizedTab extends AnalyzerTab {
         }
     }
 
+    private static class MinimizerModel extends AbstractListModel<Object> implements ComboBoxModel<Object> {
+
+        private final String[] choices;
+        private int selected;
+
+        private MinimizerModel() {
+            selected = 0;
+            choices = new String[2];
+            localeChanged();
+        }
+
+        static int getMinimizerIndex(int choice) {
+            if (choice == AnalyzerModel.MINIMIZER_HEURISTIC) {
+                return 1;
+            }
+            return 0;
+        }
+
+        void localeChanged() {
+            choices[0] = Strings.get("minimizedExact");
+            choices[1] = Strings.get("minimizedHeuristic");
+            fireContentsChanged(this, 0, choices.length);
+        }
+
+        int getSelectedMinimizer() {
+            if (selected == 1) {
+                return AnalyzerModel.MINIMIZER_HEURISTIC;
+            }
+            return AnalyzerModel.MINIMIZER_EXACT;
+        }
+
+        public int getSize() {
+            return choices.length;
+        }
+
+        public Object getElementAt(int index) {
+            return choices[index];
+        }
+
+        public Object getSelectedItem() {
+            return choices[selected];
+        }
+
+        public void setSelectedItem(Object value) {
+            for (int i = 0; i < choices.length; i++) {
+                if (choices[i].equals(value)) {
+                    selected = i;
+                }
+            }
+        }
+    }
+
     private class MyListener
         implements OutputExpressionsListener, ActionListener, ItemListener {
 
@@ -189,6 +254,7 @@ class MinimizedTab extends AnalyzerTab {
             setAsExpr.setEnabled(output != null && !outputExpressions.isExpressionMinimal(output));
             int format = outputExpressions.getMinimizedFormat(output);
             formatChoice.setSelectedIndex(FormatModel.getFormatIndex(format));
+            updateMinimizer();
         }
 
         public void actionPerformed(ActionEvent event) {
@@ -203,6 +269,11 @@ class MinimizedTab extends AnalyzerTab {
                 String output = getCurrentVariable();
                 FormatModel model = (FormatModel) formatChoice.getModel();
                 outputExpressions.setMinimizedFormat(output, model.getSelectedFormat());
+            } else if (event.getSource() == minimizerChoice) {
+                if (minimizerChoice.isEnabled()) {
+                    MinimizerModel choice = (MinimizerModel) minimizerChoice.getModel();
+                    MinimizedTab.this.model.setMinimizer(choice.getSelectedMinimizer());
+                }
             } else {
                 updateTab();
             }
@@ -9,18 +9,25 @@ import java.util.List;
 
 public class AnalyzerModel {
 
-    public static final int MAX_INPUTS = 12;
+    public static final int MAX_INPUTS = 20;
     public static final int MAX_OUTPUTS = 12;
+    // the exact minimizer enumerates prime implicants, which grow too
+    // many beyond this, so larger tables are always minimized heuristically
+    public static final int MAX_EXACT_INPUTS = 12;
 
     public static final int FORMAT_SUM_OF_PRODUCTS = 0;
     public static final int FORMAT_PRODUCT_OF_SUMS = 1;
 
+    public static final int MINIMIZER_EXACT = 0;
+    public static final int MINIMIZER_HEURISTIC = 1;
+
     private final VariableList inputs = new VariableList(MAX_INPUTS);
     private final VariableList outputs = new VariableList(MAX_OUTPUTS);
     private final TruthTable table;
     private final OutputExpressions outputExpressions;
     private Project currentProject = null;
     private Circuit currentCircuit = null;
+    private int minimizer = MINIMIZER_EXACT;
 
     public AnalyzerModel() {
         // the order here is important, because the output expressions
@@ -56,6 +63,18 @@ public class AnalyzerModel {
         return outputExpressions;
     }
 
+    /**
+     * Returns the minimizer used for the current inputs, which is the
+     * heuristic one whatever was chosen once there are more than
+     * MAX_EXACT_INPUTS of them.
+     */
+    public int getMinimizer() {
+        if (inputs.size() > MAX_EXACT_INPUTS) {
+            return MINIMIZER_HEURISTIC;
+        }
+        return minimizer;
+    }
+
     //
     // modifier methods
     //
@@ -64,6 +83,13 @@ public class AnalyzerModel {
         currentCircuit = circuit;
     }
 
+    public void setMinimizer(int value) {
+        if (minimizer != value) {
+            minimizer = value;
+            outputExpressions.invalidateAll();
+        }
+    }
+
     public void setVariables(List<String> inputs, List<String> outputs) {
         this.inputs.setAll(inputs);
         this.outputs.setAll(outputs);
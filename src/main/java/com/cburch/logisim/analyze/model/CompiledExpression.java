@@ -0,0 +1,155 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.analyze.model;
+
+import java.util.Arrays;
+
+/**
+ * An expression flattened into a straight-line program over
+ * <code>long</code> registers, so that a truth table column can be
+ * computed 64 rows at a time with bitwise operations instead of walking
+ * the expression tree once per row. Registers are allocated by tree
+ * depth, so the register file stays as small as the expression is deep.
+ */
+class CompiledExpression {
+
+    private static final int OP_AND = 0;
+    private static final int OP_OR = 1;
+    private static final int OP_XOR = 2;
+    private static final int OP_NOT = 3;
+    private static final int OP_INPUT = 4;
+    private static final int OP_CONSTANT = 5;
+
+    // bit i of pattern k is bit k of i, for the inputs that vary within a word
+    private static final long[] ROW_PATTERNS = {
+        0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+        0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L,
+    };
+
+    private final int length;
+    private final int[] ops;
+    private final int[] dests;
+    private final int[] args;
+    private final long[] registers;
+
+    private CompiledExpression(int length, int[] ops, int[] dests, int[] args, int registerCount) {
+        this.length = length;
+        this.ops = ops;
+        this.dests = dests;
+        this.args = args;
+        this.registers = new long[registerCount];
+    }
+
+    static CompiledExpression compile(Expression expression, TruthTable table) {
+        Compiler compiler = new Compiler(table);
+        expression.visit(compiler);
+        return new CompiledExpression(compiler.length, compiler.ops, compiler.dests,
+            compiler.args, compiler.maxDepth);
+    }
+
+    /**
+     * Evaluates the expression for the 64 rows starting at
+     * <code>firstRow</code>, which must be a multiple of 64; bit
+     * <code>i</code> of the result is the value for row
+     * <code>firstRow + i</code>.
+     */
+    long evaluate(int firstRow) {
+        long[] regs = registers;
+        for (int pc = 0; pc < length; pc++) {
+            int dest = dests[pc];
+            int arg = args[pc];
+            switch (ops[pc]) {
+                case OP_AND:
+                    regs[dest] &= regs[arg];
+                    break;
+                case OP_OR:
+                    regs[dest] |= regs[arg];
+                    break;
+                case OP_XOR:
+                    regs[dest] ^= regs[arg];
+                    break;
+                case OP_NOT:
+                    regs[dest] = ~regs[dest];
+                    break;
+                case OP_INPUT:
+                    if (arg < 0) {
+                        regs[dest] = 0;
+                    } else if (arg < ROW_PATTERNS.length) {
+                        regs[dest] = ROW_PATTERNS[arg];
+                    } else {
+                        regs[dest] = ((firstRow >>> arg) & 1) != 0 ? -1L : 0L;
+                    }
+                    break;
+                default: // OP_CONSTANT
+                    regs[dest] = (arg & 1) != 0 ? -1L : 0L;
+                    break;
+            }
+        }
+        return regs[0];
+    }
+
+    private static class Compiler implements Expression.Visitor {
+
+        private final TruthTable table;
+        private int length = 0;
+        private int[] ops = new int[16];
+        private int[] dests = new int[16];
+        private int[] args = new int[16];
+        private int depth = 0;
+        private int maxDepth = 1;
+
+        Compiler(TruthTable table) {
+            this.table = table;
+        }
+
+        private void emit(int op, int dest, int arg) {
+            if (length == ops.length) {
+                ops = Arrays.copyOf(ops, 2 * length);
+                dests = Arrays.copyOf(dests, 2 * length);
+                args = Arrays.copyOf(args, 2 * length);
+            }
+            ops[length] = op;
+            dests[length] = dest;
+            args[length] = arg;
+            length++;
+        }
+
+        private void binary(int op, Expression a, Expression b) {
+            int dest = depth;
+            a.visit(this);
+            depth++;
+            maxDepth = Math.max(maxDepth, depth + 1);
+            b.visit(this);
+            depth--;
+            emit(op, dest, dest + 1);
+        }
+
+        public void visitAnd(Expression a, Expression b) {
+            binary(OP_AND, a, b);
+        }
+
+        public void visitOr(Expression a, Expression b) {
+            binary(OP_OR, a, b);
+        }
+
+        public void visitXor(Expression a, Expression b) {
+            binary(OP_XOR, a, b);
+        }
+
+        public void visitNot(Expression a) {
+            a.visit(this);
+            emit(OP_NOT, depth, 0);
+        }
+
+        public void visitVariable(String name) {
+            int column = table.getInputIndex(name);
+            int bit = column < 0 ? -1 : table.getInputColumnCount() - 1 - column;
+            emit(OP_INPUT, depth, bit);
+        }
+
+        public void visitConstant(int value) {
+            emit(OP_CONSTANT, depth, value);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.analyze.model;
+
+import java.util.HashMap;
+
+/**
+ * A truth table output column packed two bits per row into
+ * <code>long</code> words. The high bit of each cell says whether the row
+ * is defined (0 or 1) and the low bit gives its value; an undefined cell
+ * is either a don't-care or, with the low bit set, an error. Since errors
+ * come in several kinds, the particular error is kept in a side table.
+ */
+class EntryColumn {
+
+    static final int ROWS_PER_WORD = 32;
+
+    static final long DEFINED_BITS = 0xAAAAAAAAAAAAAAAAL;
+    static final long VALUE_BITS = 0x5555555555555555L;
+
+    private static final int CODE_DONT_CARE = 0;
+    private static final int CODE_ERROR = 1;
+    private static final int CODE_ZERO = 2;
+    private static final int CODE_ONE = 3;
+
+    private final int size;
+    private final long[] words;
+    private HashMap<Integer, Entry> errors = null;
+
+    EntryColumn(int size) {
+        this.size = size;
+        this.words = new long[(size + ROWS_PER_WORD - 1) / ROWS_PER_WORD];
+    }
+
+    EntryColumn(Entry[] entries) {
+        this(entries.length);
+        for (int i = 0; i < entries.length; i++) {
+            set(i, entries[i]);
+        }
+    }
+
+    private static int toCode(Entry value) {
+        if (value == Entry.ZERO) {
+            return CODE_ZERO;
+        } else if (value == Entry.ONE) {
+            return CODE_ONE;
+        } else if (value.isError()) {
+            return CODE_ERROR;
+        } else {
+            return CODE_DONT_CARE;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    Entry get(int row) {
+        int code = (int) (words[row / ROWS_PER_WORD] >>> (2 * (row % ROWS_PER_WORD))) & 0x3;
+        switch (code) {
+            case CODE_ZERO:
+                return Entry.ZERO;
+            case CODE_ONE:
+                return Entry.ONE;
+            case CODE_ERROR:
+                return errors.get(row);
+            default:
+                return Entry.DONT_CARE;
+        }
+    }
+
+    /**
+     * Stores a value in the given row, returning whether the row changed.
+     */
+    boolean set(int row, Entry value) {
+        int code = toCode(value);
+        int index = row / ROWS_PER_WORD;
+        int shift = 2 * (row % ROWS_PER_WORD);
+        long old = words[index];
+        int oldCode = (int) (old >>> shift) & 0x3;
+        if (oldCode == CODE_ERROR) {
+            if (errors.get(row) == value) {
+                return false;
+            }
+            errors.remove(row);
+        } else if (oldCode == code) {
+            return false;
+        }
+        if (code == CODE_ERROR) {
+            if (errors == null) {
+                errors = new HashMap<>();
+            }
+            errors.put(row, value);
+        }
+        words[index] = (old & ~(0x3L << shift)) | ((long) code << shift);
+        return true;
+    }
+
+    /**
+     * Stores 64 consecutive defined rows at once, starting at a multiple
+     * of 64. Bit <code>i</code> of <code>values</code> gives the value of
+     * row <code>firstRow + i</code>; bits past the end of the column are
+     * ignored.
+     */
+    void setDefined(int firstRow, long values) {
+        int index = firstRow / ROWS_PER_WORD;
+        words[index] = spread((int) values);
+        if (index + 1 < words.length) {
+            words[index + 1] = spread((int) (values >>> 32));
+        } else if (size < ROWS_PER_WORD) {
+            words[index] &= (1L << (2 * size)) - 1;
+        }
+        if (errors != null) {
+            for (int i = 0; i < 64; i++) {
+                errors.remove(firstRow + i);
+            }
+        }
+    }
+
+    private static long spread(int bits) {
+        long x = bits & 0xFFFFFFFFL;
+        x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        x = (x | (x << 1)) & VALUE_BITS;
+        return x | DEFINED_BITS;
+    }
+
+    /**
+     * Returns true if no row is defined in both columns with differing
+     * values, comparing a word of rows at a time.
+     */
+    boolean matches(EntryColumn other) {
+        if (size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < words.length; i++) {
+            long a = words[i];
+            long b = other.words[i];
+            long bothDefined = (a & b & DEFINED_BITS) >>> 1;
+            if ((bothDefined & (a ^ b)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isAllUndefined() {
+        for (long word : words) {
+            if ((word & DEFINED_BITS) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Entry[] toArray() {
+        Entry[] ret = new Entry[size];
+        for (int i = 0; i < size; i++) {
+            ret[i] = get(i);
+        }
+        return ret;
+    }
+}
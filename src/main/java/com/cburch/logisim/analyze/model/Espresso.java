@@ -0,0 +1,388 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.analyze.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Heuristic two-level minimizer in the style of Espresso. Rather than
+ * generating every prime implicant as {@link Implicant#computeMinimal}
+ * does, it repeatedly expands, prunes and reduces a single cube cover,
+ * keeping whichever cover is cheapest. The result is not guaranteed to
+ * be minimal, but the work done is proportional to the size of the
+ * cubes produced rather than to the number of prime implicants.
+ *
+ * <p>The on-set and off-set are held as bitsets, one bit per row, and
+ * whether a row is covered is decided by testing it against the cubes
+ * of the cover that could hold it, found through a {@link CubeIndex}, so
+ * no count is kept per row.
+ */
+class Espresso {
+
+    private static final int MAX_PASSES = 8;
+
+    private final int inputMask;
+    private final long[] onSet;
+    private final long[] offSet;
+    private long[] uncovered = null; // on-set rows the first cover misses so far
+
+    private Espresso(int inputs) {
+        int rows = 1 << inputs;
+        this.inputMask = rows - 1;
+        this.onSet = new long[(rows + 63) >> 6];
+        this.offSet = new long[(rows + 63) >> 6];
+    }
+
+    static List<Implicant> computeMinimal(int format, AnalyzerModel model, String variable) {
+        TruthTable table = model.getTruthTable();
+        int column = model.getOutputs().indexOf(variable);
+        if (column < 0) {
+            return Collections.emptyList();
+        }
+
+        Entry desired = format == AnalyzerModel.FORMAT_SUM_OF_PRODUCTS
+            ? Entry.ONE : Entry.ZERO;
+        Entry undesired = desired == Entry.ONE ? Entry.ZERO : Entry.ONE;
+
+        Espresso espresso = new Espresso(table.getInputColumnCount());
+        boolean knownFound = false;
+        for (int i = 0; i < table.getRowCount(); i++) {
+            Entry entry = table.getOutputEntry(i, column);
+            if (entry == undesired) {
+                knownFound = true;
+                espresso.offSet[i >> 6] |= 1L << i;
+            } else if (entry == desired) {
+                knownFound = true;
+                espresso.onSet[i >> 6] |= 1L << i;
+            }
+        }
+        if (!knownFound) {
+            return null;
+        }
+
+        List<Implicant> ret = new ArrayList<>();
+        for (Cube cube : espresso.minimize()) {
+            ret.add(new Implicant(cube.unknowns, cube.values));
+        }
+        Collections.sort(ret);
+        return ret;
+    }
+
+    private int[] cost(List<Cube> cover) {
+        int literals = 0;
+        for (Cube cube : cover) {
+            literals += Integer.bitCount(inputMask & ~cube.unknowns);
+        }
+        return new int[]{cover.size(), literals};
+    }
+
+    private static boolean cheaper(int[] a, int[] b) {
+        return a[0] < b[0] || (a[0] == b[0] && a[1] < b[1]);
+    }
+
+    private static List<Cube> copy(List<Cube> cover) {
+        List<Cube> ret = new ArrayList<>(cover.size());
+        for (Cube cube : cover) {
+            ret.add(new Cube(cube.unknowns, cube.values));
+        }
+        return ret;
+    }
+
+    private static boolean isSet(long[] bits, int row) {
+        return (bits[row >> 6] & (1L << row)) != 0;
+    }
+
+    private boolean isOn(int row) {
+        return isSet(onSet, row);
+    }
+
+    private boolean isOff(int row) {
+        return isSet(offSet, row);
+    }
+
+    private List<Cube> minimize() {
+        // the first cover takes each on-set row that no cube holds yet as
+        // a cube of its own and expands it
+        List<Cube> cover = new ArrayList<>();
+        uncovered = onSet.clone();
+        for (int index = 0; index < uncovered.length; index++) {
+            while (uncovered[index] != 0) {
+                int row = (index << 6) + Long.numberOfTrailingZeros(uncovered[index]);
+                Cube cube = new Cube(0, row);
+                expand(cube);
+                int sub = 0;
+                do {
+                    int r = cube.values | sub;
+                    uncovered[r >> 6] &= ~(1L << r);
+                    sub = (sub - cube.unknowns) & cube.unknowns;
+                } while (sub != 0);
+                cover.add(cube);
+            }
+        }
+        uncovered = null;
+        irredundant(cover);
+
+        List<Cube> best = copy(cover);
+        int[] bestCost = cost(best);
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            reduce(cover);
+            cover.sort((a, b) -> Integer.bitCount(b.unknowns) - Integer.bitCount(a.unknowns));
+            for (Cube cube : cover) {
+                expand(cube);
+            }
+            irredundant(cover);
+
+            int[] curCost = cost(cover);
+            if (!cheaper(curCost, bestCost)) {
+                break;
+            }
+            best = copy(cover);
+            bestCost = curCost;
+        }
+        return best;
+    }
+
+    /**
+     * Raises literals of the cube, one at a time, for as long as the cube
+     * stays clear of the off-set. Among the legal raises, the one that picks
+     * up the most uncovered on-set rows is preferred, then the one that
+     * overlaps the most on-set rows. A raise that is illegal once stays
+     * illegal for every larger cube, so each literal is rejected at most once.
+     * Only the first cover leaves rows uncovered, since reducing a cover
+     * never drops a row from it.
+     */
+    private void expand(Cube cube) {
+        int candidates = inputMask & ~cube.unknowns;
+        while (candidates != 0) {
+            int bestBit = 0;
+            int bestUncovered = -1;
+            int bestOn = -1;
+            for (int rest = candidates; rest != 0; rest &= rest - 1) {
+                int bit = rest & -rest;
+                int flipped = cube.values ^ bit;
+                int uncoveredCount = 0;
+                int on = 0;
+                boolean legal = true;
+                int sub = 0;
+                do {
+                    int row = flipped | sub;
+                    if (isOff(row)) {
+                        legal = false;
+                        break;
+                    }
+                    if (isOn(row)) {
+                        on++;
+                        if (uncovered != null && isSet(uncovered, row)) {
+                            uncoveredCount++;
+                        }
+                    }
+                    sub = (sub - cube.unknowns) & cube.unknowns;
+                } while (sub != 0);
+
+                if (!legal) {
+                    candidates &= ~bit;
+                } else if (uncoveredCount > bestUncovered
+                    || (uncoveredCount == bestUncovered && on > bestOn)) {
+                    bestBit = bit;
+                    bestUncovered = uncoveredCount;
+                    bestOn = on;
+                }
+            }
+            if (bestBit == 0) {
+                break;
+            }
+            cube.unknowns |= bestBit;
+            cube.values &= ~bestBit;
+            candidates &= ~bestBit;
+        }
+    }
+
+    /**
+     * Removes cubes all of whose on-set rows are also covered by some
+     * other cube of the cover, smallest cubes first.
+     */
+    private void irredundant(List<Cube> cover) {
+        cover.sort((a, b) -> Integer.bitCount(b.unknowns) - Integer.bitCount(a.unknowns));
+        long[] shared = findShared(cover);
+        CubeIndex index = new CubeIndex(inputMask, cover);
+        for (int i = cover.size() - 1; i >= 0; i--) {
+            Cube cube = cover.get(i);
+            if (isRedundant(cube, index, shared)) {
+                index.remove(cube);
+                cover.remove(i);
+            }
+        }
+    }
+
+    private boolean isRedundant(Cube cube, CubeIndex index, long[] shared) {
+        // a row held by no other cube when the pass began can't be held
+        // by one now, which settles most cubes without looking further
+        int sub = 0;
+        do {
+            int row = cube.values | sub;
+            if (isOn(row) && !isSet(shared, row)) {
+                return false;
+            }
+            sub = (sub - cube.unknowns) & cube.unknowns;
+        } while (sub != 0);
+
+        sub = 0;
+        do {
+            int row = cube.values | sub;
+            if (isOn(row) && !index.containsOther(cube, row)) {
+                return false;
+            }
+            sub = (sub - cube.unknowns) & cube.unknowns;
+        } while (sub != 0);
+        return true;
+    }
+
+    /**
+     * Shrinks each cube, largest first, to the smallest cube containing
+     * the on-set rows that no other cube covers, giving the following
+     * expand pass room to move the cover out of a local minimum.
+     */
+    private void reduce(List<Cube> cover) {
+        cover.sort((a, b) -> Integer.bitCount(a.unknowns) - Integer.bitCount(b.unknowns));
+        long[] shared = findShared(cover);
+        CubeIndex index = new CubeIndex(inputMask, cover);
+        for (int i = cover.size() - 1; i >= 0; i--) {
+            Cube cube = cover.get(i);
+            int and = inputMask;
+            int or = 0;
+            boolean found = false;
+            int sub = 0;
+            do {
+                int row = cube.values | sub;
+                if (isOn(row)) {
+                    if (!isSet(shared, row) || !index.containsOther(cube, row)) {
+                        and &= row;
+                        or |= row;
+                        found = true;
+                    }
+                }
+                sub = (sub - cube.unknowns) & cube.unknowns;
+            } while (sub != 0);
+
+            index.remove(cube);
+            if (found) {
+                cube.unknowns = or & ~and;
+                cube.values = and;
+                index.add(cube);
+            } else {
+                cover.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Returns the on-set rows held by more than one cube of the cover.
+     */
+    private long[] findShared(List<Cube> cover) {
+        long[] seen = new long[onSet.length];
+        long[] shared = new long[onSet.length];
+        for (Cube cube : cover) {
+            int sub = 0;
+            do {
+                int row = cube.values | sub;
+                if (isOn(row)) {
+                    if (isSet(seen, row)) {
+                        shared[row >> 6] |= 1L << row;
+                    } else {
+                        seen[row >> 6] |= 1L << row;
+                    }
+                }
+                sub = (sub - cube.unknowns) & cube.unknowns;
+            } while (sub != 0);
+        }
+        return shared;
+    }
+
+    /**
+     * The cubes of a cover filed by their values on the highest inputs,
+     * so that the cubes that might hold a row are found without looking
+     * through the whole cover. A cube leaving only a few of those inputs
+     * open is filed under each value they can take; one leaving more is
+     * kept apart and tried for every row.
+     */
+    private static class CubeIndex {
+
+        private static final int KEY_INPUTS = 12;
+        private static final int MAX_OPEN_KEYS = 4;
+
+        private final int keyShift;
+        private final List<List<Cube>> buckets;
+        private final List<Cube> wide = new ArrayList<>();
+
+        CubeIndex(int inputMask, List<Cube> cover) {
+            int inputs = Integer.bitCount(inputMask);
+            keyShift = Math.max(0, inputs - KEY_INPUTS);
+            int size = 1 << (inputs - keyShift);
+            buckets = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                buckets.add(new ArrayList<>());
+            }
+            for (Cube cube : cover) {
+                add(cube);
+            }
+        }
+
+        void add(Cube cube) {
+            int open = cube.unknowns >>> keyShift;
+            if (Integer.bitCount(open) > MAX_OPEN_KEYS) {
+                wide.add(cube);
+                return;
+            }
+            int key = cube.values >>> keyShift;
+            int sub = 0;
+            do {
+                buckets.get(key | sub).add(cube);
+                sub = (sub - open) & open;
+            } while (sub != 0);
+        }
+
+        void remove(Cube cube) {
+            int open = cube.unknowns >>> keyShift;
+            if (Integer.bitCount(open) > MAX_OPEN_KEYS) {
+                wide.remove(cube);
+                return;
+            }
+            int key = cube.values >>> keyShift;
+            int sub = 0;
+            do {
+                buckets.get(key | sub).remove(cube);
+                sub = (sub - open) & open;
+            } while (sub != 0);
+        }
+
+        /**
+         * Returns true if some cube other than the given one holds the row.
+         */
+        boolean containsOther(Cube cube, int row) {
+            return contains(buckets.get(row >>> keyShift), cube, row) || contains(wide, cube, row);
+        }
+
+        private static boolean contains(List<Cube> cubes, Cube except, int row) {
+            for (Cube other : cubes) {
+                if (other != except && (row & ~other.unknowns) == other.values) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class Cube {
+
+        int unknowns;
+        int values;
+
+        Cube(int unknowns, int values) {
+            this.unknowns = unknowns;
+            this.values = values;
+        }
+    }
+}
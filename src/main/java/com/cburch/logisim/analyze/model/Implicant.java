@@ -18,7 +18,7 @@ public class Implicant implements Comparable<Implicant> {
     private final int unknowns;
     private final int values;
 
-    private Implicant(int unknowns, int values) {
+    Implicant(int unknowns, int values) {
         this.unknowns = unknowns;
         this.values = values;
     }
@@ -45,6 +45,10 @@ public class Implicant implements Comparable<Implicant> {
 
     static List<Implicant> computeMinimal(int format, AnalyzerModel model,
         String variable) {
+        if (model.getMinimizer() == AnalyzerModel.MINIMIZER_HEURISTIC) {
+            return Espresso.computeMinimal(format, model, variable);
+        }
+
         TruthTable table = model.getTruthTable();
         int column = model.getOutputs().indexOf(variable);
         if (column < 0) {
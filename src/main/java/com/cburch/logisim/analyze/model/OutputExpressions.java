@@ -4,7 +4,6 @@
 package com.cburch.logisim.analyze.model;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -24,50 +23,18 @@ public class OutputExpressions {
         model.getTruthTable().addTruthTableListener(myListener);
     }
 
-    private static Entry[] computeColumn(TruthTable table, Expression expression) {
+    private static EntryColumn computeColumn(TruthTable table, Expression expression) {
         int rows = table.getRowCount();
-        int columns = table.getInputColumnCount();
-        Entry[] entries = new Entry[rows];
-        if (expression == null) {
-            Arrays.fill(entries, Entry.DONT_CARE);
-        } else {
-            Assignments assignments = new Assignments();
-            for (int i = 0; i < rows; i++) {
-                for (int j = 0; j < columns; j++) {
-                    assignments.put(table.getInputHeader(j),
-                        TruthTable.isInputSet(i, j, columns));
-                }
-                entries[i] = expression.evaluate(assignments) ? Entry.ONE : Entry.ZERO;
+        EntryColumn entries = new EntryColumn(rows);
+        if (expression != null) {
+            CompiledExpression program = CompiledExpression.compile(expression, table);
+            for (int base = 0; base < rows; base += 64) {
+                entries.setDefined(base, program.evaluate(base));
             }
         }
         return entries;
     }
 
-    private static boolean columnsMatch(Entry[] a, Entry[] b) {
-        if (a.length != b.length) {
-            return false;
-        }
-        for (int i = 0; i < a.length; i++) {
-            if (a[i] != b[i]) {
-                boolean bothDefined = (a[i] == Entry.ZERO || a[i] == Entry.ONE)
-                    && (b[i] == Entry.ZERO || b[i] == Entry.ONE);
-                if (bothDefined) {
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
-
-    private static boolean isAllUndefined(Entry[] entries) {
-        for (Entry entry : entries) {
-            if (entry == Entry.ZERO || entry == Entry.ONE) {
-                return false;
-            }
-        }
-        return true;
-    }
-
     private static boolean implicantsSame(List<Implicant> implicantAList, List<Implicant> implicantBList) {
         if (implicantAList == null) {
             return implicantBList == null || implicantBList.size() == 0;
@@ -189,6 +156,12 @@ public class OutputExpressions {
         }
     }
 
+    void invalidateAll() {
+        for (OutputData data : outputData.values()) {
+            data.invalidate(false, false);
+        }
+    }
+
     private OutputData getOutputData(String output, boolean create) {
         if (output == null) {
             throw new IllegalArgumentException("null output name");
@@ -264,11 +237,11 @@ public class OutputExpressions {
             expressionString = newExpressionString;
 
             if (expression != minimalExpression) { // for efficiency to avoid recomputation
-                Entry[] values = computeColumn(model.getTruthTable(), expression);
+                EntryColumn values = computeColumn(model.getTruthTable(), expression);
                 int outputColumn = model.getOutputs().indexOf(output);
                 updatingTable = true;
                 try {
-                    model.getTruthTable().setOutputColumn(outputColumn, values);
+                    model.getTruthTable().setPackedOutputColumn(outputColumn, values);
                 } finally {
                     updatingTable = false;
                 }
@@ -335,11 +308,11 @@ public class OutputExpressions {
                 if (!updatingTable) {
                     // see whether the expression is still consistent with the truth table
                     TruthTable table = model.getTruthTable();
-                    Entry[] outputColumn = computeColumn(model.getTruthTable(), expression);
+                    EntryColumn outputColumn = computeColumn(model.getTruthTable(), expression);
                     int outputIndex = model.getOutputs().indexOf(output);
 
-                    Entry[] currentColumn = table.getOutputColumn(outputIndex);
-                    if (!columnsMatch(currentColumn, outputColumn) || isAllUndefined(outputColumn) || formatChanged) {
+                    EntryColumn currentColumn = table.getPackedOutputColumn(outputIndex);
+                    if (!currentColumn.matches(outputColumn) || outputColumn.isAllUndefined() || formatChanged) {
                         // if not, then we need to change the expression to maintain consistency
                         boolean expressionChanged = expression != oldMinimalExpression || minimalChanged;
                         expression = minimalExpression;
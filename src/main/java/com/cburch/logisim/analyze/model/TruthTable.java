@@ -4,7 +4,6 @@
 package com.cburch.logisim.analyze.model;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,7 +14,7 @@ public class TruthTable {
     private final MyListener myListener = new MyListener();
     private final List<TruthTableListener> listeners = new ArrayList<>();
     private final AnalyzerModel model;
-    private final HashMap<String, Entry[]> outputColumns = new HashMap<>();
+    private final HashMap<String, EntryColumn> outputColumns = new HashMap<>();
 
     public TruthTable(AnalyzerModel model) {
         this.model = model;
@@ -97,14 +96,14 @@ public class TruthTable {
             return Entry.DONT_CARE;
         } else {
             String outputName = model.getOutputs().get(column);
-            Entry[] columnData = outputColumns.get(outputName);
+            EntryColumn columnData = outputColumns.get(outputName);
             if (columnData == null) {
                 return DEFAULT_ENTRY;
             }
-            if (row < 0 || row >= columnData.length) {
+            if (row < 0 || row >= columnData.size()) {
                 return Entry.DONT_CARE;
             }
-            return columnData[row];
+            return columnData.get(row);
         }
     }
 
@@ -119,37 +118,36 @@ public class TruthTable {
         }
 
         String outputName = model.getOutputs().get(column);
-        Entry[] columnData = outputColumns.get(outputName);
+        EntryColumn columnData = outputColumns.get(outputName);
 
         if (columnData == null) {
             if (value == DEFAULT_ENTRY) {
                 return;
             }
-            columnData = new Entry[getRowCount()];
+            columnData = new EntryColumn(getRowCount());
             outputColumns.put(outputName, columnData);
-            Arrays.fill(columnData, DEFAULT_ENTRY);
-            columnData[row] = value;
-        } else {
-            if (columnData[row] == value) {
-                return;
-            }
-            columnData[row] = value;
+            columnData.set(row, value);
+        } else if (!columnData.set(row, value)) {
+            return;
         }
 
         fireCellsChanged(column);
     }
 
     public Entry[] getOutputColumn(int column) {
+        return getPackedOutputColumn(column).toArray();
+    }
+
+    EntryColumn getPackedOutputColumn(int column) {
         int outputs = model.getOutputs().size();
         if (column < 0 || column >= outputs) {
             throw new IllegalArgumentException("index: " + column + " size: " + outputs);
         }
 
         String outputName = model.getOutputs().get(column);
-        Entry[] columnData = outputColumns.get(outputName);
+        EntryColumn columnData = outputColumns.get(outputName);
         if (columnData == null) {
-            columnData = new Entry[getRowCount()];
-            Arrays.fill(columnData, DEFAULT_ENTRY);
+            columnData = new EntryColumn(getRowCount());
             outputColumns.put(outputName, columnData);
         }
         return columnData;
@@ -159,6 +157,13 @@ public class TruthTable {
         if (values != null && values.length != getRowCount()) {
             throw new IllegalArgumentException("argument to setOutputColumn is wrong length");
         }
+        setPackedOutputColumn(column, values == null ? null : new EntryColumn(values));
+    }
+
+    void setPackedOutputColumn(int column, EntryColumn values) {
+        if (values != null && values.size() != getRowCount()) {
+            throw new IllegalArgumentException("argument to setOutputColumn is wrong length");
+        }
 
         int outputs = model.getOutputs().size();
         if (column < 0 || column >= outputs) {
@@ -166,7 +171,7 @@ public class TruthTable {
         }
 
         String outputName = model.getOutputs().get(column);
-        Entry[] oldValues = outputColumns.get(outputName);
+        EntryColumn oldValues = outputColumns.get(outputName);
         if (oldValues == values) {
             return;
         } else if (values == null) {
@@ -191,31 +196,32 @@ public class TruthTable {
         private void inputsChanged(VariableListEvent event) {
             int action = event.getType();
             if (action == VariableListEvent.ADD) {
-                for (Map.Entry<String, Entry[]> curEntry : outputColumns.entrySet()) {
+                for (Map.Entry<String, EntryColumn> curEntry : outputColumns.entrySet()) {
                     String output = curEntry.getKey();
-                    Entry[] column = curEntry.getValue();
-                    Entry[] newColumn = new Entry[2 * column.length];
-                    for (int i = 0; i < column.length; i++) {
-                        newColumn[2 * i] = column[i];
-                        newColumn[2 * i + 1] = column[i];
+                    EntryColumn column = curEntry.getValue();
+                    EntryColumn newColumn = new EntryColumn(2 * column.size());
+                    for (int i = 0; i < column.size(); i++) {
+                        Entry entry = column.get(i);
+                        newColumn.set(2 * i, entry);
+                        newColumn.set(2 * i + 1, entry);
                     }
                     outputColumns.put(output, newColumn);
                 }
             } else if (action == VariableListEvent.REMOVE) {
                 int index = (Integer) event.getData();
-                for (Map.Entry<String, Entry[]> curEntry : outputColumns.entrySet()) {
+                for (Map.Entry<String, EntryColumn> curEntry : outputColumns.entrySet()) {
                     String output = curEntry.getKey();
-                    Entry[] column = curEntry.getValue();
-                    Entry[] newColumn = removeInput(column, index);
+                    EntryColumn column = curEntry.getValue();
+                    EntryColumn newColumn = removeInput(column, index);
                     outputColumns.put(output, newColumn);
                 }
             } else if (action == VariableListEvent.MOVE) {
                 int delta = (Integer) event.getData();
                 int newIndex = model.getInputs().indexOf(event.getVariable());
-                for (Map.Entry<String, Entry[]> curEntry : outputColumns.entrySet()) {
+                for (Map.Entry<String, EntryColumn> curEntry : outputColumns.entrySet()) {
                     String output = curEntry.getKey();
-                    Entry[] column = curEntry.getValue();
-                    Entry[] newColumn = moveInput(column, newIndex - delta, newIndex);
+                    EntryColumn column = curEntry.getValue();
+                    EntryColumn newColumn = moveInput(column, newIndex - delta, newIndex);
                     outputColumns.put(output, newColumn);
                 }
             }
@@ -228,7 +234,7 @@ public class TruthTable {
             } else if (action == VariableListEvent.REMOVE) {
                 outputColumns.remove(event.getVariable());
             } else if (action == VariableListEvent.REPLACE) {
-                Entry[] column = outputColumns.remove(event.getVariable());
+                EntryColumn column = outputColumns.remove(event.getVariable());
                 if (column != null) {
                     int index = (Integer) event.getData();
                     String newVariable = model.getOutputs().get(index);
@@ -237,34 +243,34 @@ public class TruthTable {
             }
         }
 
-        private Entry[] removeInput(Entry[] old, int index) {
+        private EntryColumn removeInput(EntryColumn old, int index) {
             int oldInputCount = model.getInputs().size() + 1;
-            Entry[] ret = new Entry[old.length / 2];
+            EntryColumn ret = new EntryColumn(old.size() / 2);
             int j = 0;
             int mask = 1 << (oldInputCount - 1 - index);
-            for (int i = 0; i < old.length; i++) {
+            for (int i = 0; i < old.size(); i++) {
                 if ((i & mask) == 0) {
-                    Entry e0 = old[i];
-                    Entry e1 = old[i | mask];
-                    ret[j] = (e0 == e1 ? e0 : Entry.DONT_CARE);
+                    Entry e0 = old.get(i);
+                    Entry e1 = old.get(i | mask);
+                    ret.set(j, e0 == e1 ? e0 : Entry.DONT_CARE);
                     j++;
                 }
             }
             return ret;
         }
 
-        private Entry[] moveInput(Entry[] old, int oldIndex, int newIndex) {
+        private EntryColumn moveInput(EntryColumn old, int oldIndex, int newIndex) {
             int inputs = model.getInputs().size();
             oldIndex = inputs - 1 - oldIndex;
             newIndex = inputs - 1 - newIndex;
-            Entry[] ret = new Entry[old.length];
-            int sameMask = (old.length - 1) ^ ((1 << (1 + Math.max(oldIndex, newIndex))) - 1)
+            EntryColumn ret = new EntryColumn(old.size());
+            int sameMask = (old.size() - 1) ^ ((1 << (1 + Math.max(oldIndex, newIndex))) - 1)
                 ^ ((1 << Math.min(oldIndex, newIndex)) - 1);        // bits that don't change
             int moveMask = 1 << oldIndex;                           // bit that moves
             int moveDist = Math.abs(newIndex - oldIndex);
             boolean moveLeft = newIndex > oldIndex;
-            int blockMask = (old.length - 1) ^ sameMask ^ moveMask; // bits that move by one
-            for (int i = 0; i < old.length; i++) {
+            int blockMask = (old.size() - 1) ^ sameMask ^ moveMask; // bits that move by one
+            for (int i = 0; i < old.size(); i++) {
                 int j; // new index
                 if (moveLeft) {
                     j = (i & sameMask) | ((i & moveMask) << moveDist)
@@ -273,7 +279,7 @@ public class TruthTable {
                     j = (i & sameMask) | ((i & moveMask) >> moveDist)
                         | ((i & blockMask) << 1);
                 }
-                ret[j] = old[i];
+                ret.set(j, old.get(i));
             }
             return ret;
         }
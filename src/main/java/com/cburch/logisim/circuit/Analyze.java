@@ -371,6 +371,9 @@ public class Analyze {
                     columns[j][i] = out;
                 }
             }
+            // with up to a million rows, each state's listener on the
+            // options mustn't outlive the row
+            prop.dispose();
         }
 
         model.setVariables(inputNames, outputNames);
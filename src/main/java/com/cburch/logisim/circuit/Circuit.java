@@ -29,10 +29,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Circuit {
 
     private static final PrintStream DEBUG_STREAM = null;
+    // counts the edits to all circuits, for the caches of simulation results
+    private static final AtomicInteger modificationStamp = new AtomicInteger();
     private final MyComponentListener myComponentListener = new MyComponentListener();
     private final EventSourceWeakSupport<CircuitListener> listeners = new EventSourceWeakSupport<>();
     // wires is package-protected for CircuitState and Analyze only.
@@ -60,6 +63,21 @@ public class Circuit {
         return component.getEnd(0).getType() != EndData.INPUT_ONLY;
     }
 
+    /**
+     * Returns a number that changes whenever any circuit is edited.
+     */
+    static int getModificationStamp() {
+        return modificationStamp.get();
+    }
+
+    /**
+     * Changes the modification stamp for an edit that fires no event of
+     * its own, such as to the contents of a ROM.
+     */
+    static void noteModified() {
+        modificationStamp.incrementAndGet();
+    }
+
     CircuitLocker getLocker() {
         return locker;
     }
@@ -109,6 +127,10 @@ public class Circuit {
     }
 
     private void fireEvent(CircuitEvent event) {
+        if (event.getAction() != CircuitEvent.ACTION_INVALIDATE) {
+            // invalidations only ask for a repaint or a new propagation
+            modificationStamp.incrementAndGet();
+        }
         for (CircuitListener listener : listeners) {
             listener.circuitChanged(event);
         }
@@ -10,7 +10,7 @@ import com.cburch.logisim.util.StringGetter;
 public class CircuitAction extends Action {
 
     private final StringGetter name;
-    private final CircuitTransaction forward;
+    private CircuitTransaction forward;
     private CircuitTransaction reverse;
 
     CircuitAction(StringGetter name, CircuitMutation forward) {
@@ -29,6 +29,7 @@ public class CircuitAction extends Action {
         if (result != null) {
             reverse = result.getReverseTransaction();
         }
+        forward = null; // only the reverse is needed once the action is logged
     }
 
     @Override
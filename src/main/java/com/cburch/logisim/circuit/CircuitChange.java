@@ -7,7 +7,9 @@ import com.cburch.logisim.comp.Component;
 import com.cburch.logisim.data.Attribute;
 import com.cburch.logisim.instance.StdAttr;
 import com.cburch.logisim.std.wiring.Pin;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 class CircuitChange {
 
@@ -144,6 +146,73 @@ class CircuitChange {
         }
     }
 
+    /**
+     * Merges each run of changes that can be executed as one: consecutive
+     * additions to a circuit, consecutive removals from it, and consecutive
+     * settings of the same attribute of the same component.
+     */
+    static List<CircuitChange> compact(List<CircuitChange> changes) {
+        ArrayList<CircuitChange> ret = new ArrayList<>();
+        int n = changes.size();
+        int i = 0;
+        while (i < n) {
+            CircuitChange first = changes.get(i);
+            int j = i + 1;
+            while (j < n && first.canMergeWith(changes.get(j))) {
+                j++;
+            }
+            if (j == i + 1) {
+                ret.add(first);
+            } else if (first.type == SET) {
+                CircuitChange last = changes.get(j - 1);
+                ret.add(set(first.circuit, first.comp, first.attr,
+                    first.oldValue, last.newValue));
+            } else {
+                ArrayList<Component> comps = new ArrayList<>();
+                for (int k = i; k < j; k++) {
+                    CircuitChange change = changes.get(k);
+                    if (change.comps == null) {
+                        comps.add(change.comp);
+                    } else {
+                        comps.addAll(change.comps);
+                    }
+                }
+                if (first.getBulkType() == ADD_ALL) {
+                    ret.add(addAll(first.circuit, comps));
+                } else {
+                    ret.add(removeAll(first.circuit, comps));
+                }
+            }
+            i = j;
+        }
+        ret.trimToSize();
+        return ret;
+    }
+
+    private int getBulkType() {
+        switch (type) {
+            case ADD:
+            case ADD_ALL:
+                return ADD_ALL;
+            case REMOVE:
+            case REMOVE_ALL:
+                return REMOVE_ALL;
+            default:
+                return -1;
+        }
+    }
+
+    private boolean canMergeWith(CircuitChange next) {
+        if (next.circuit != circuit) {
+            return false;
+        } else if (type == SET) {
+            return next.type == SET && next.comp == comp && next.attr == attr;
+        } else {
+            int bulk = getBulkType();
+            return bulk >= 0 && next.getBulkType() == bulk;
+        }
+    }
+
     void execute(CircuitMutator mutator, ReplacementMap prevReplacements) {
         switch (type) {
             case CLEAR:
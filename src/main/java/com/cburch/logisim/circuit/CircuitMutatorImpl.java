@@ -119,10 +119,14 @@ class CircuitMutatorImpl implements CircuitMutator {
     }
 
     CircuitTransaction getReverseTransaction() {
-        CircuitMutation ret = new CircuitMutation();
-        ArrayList<CircuitChange> log = this.log;
+        ArrayList<CircuitChange> reversed = new ArrayList<>(log.size());
         for (int i = log.size() - 1; i >= 0; i--) {
-            ret.change(log.get(i).getReverseChange());
+            reversed.add(log.get(i).getReverseChange());
+        }
+        // the reverse lives as long as its undo entry, so keep it small
+        CircuitMutation ret = new CircuitMutation();
+        for (CircuitChange change : CircuitChange.compact(reversed)) {
+            ret.change(change);
         }
         return ret;
     }
@@ -7,6 +7,7 @@ import com.cburch.logisim.circuit.Propagator.SetData;
 import com.cburch.logisim.comp.Component;
 import com.cburch.logisim.comp.ComponentDrawContext;
 import com.cburch.logisim.comp.ComponentState;
+import com.cburch.logisim.comp.EndData;
 import com.cburch.logisim.data.BitWidth;
 import com.cburch.logisim.data.Location;
 import com.cburch.logisim.data.Value;
@@ -28,6 +29,7 @@ import java.util.Set;
 
 public class CircuitState implements InstanceData {
 
+    private static final Object[] NO_COMPONENTS = new Object[0];
     private static int lastId = 0;
     private final MyCircuitListener myCircuitListener = new MyCircuitListener();
     private final Project project; // project where circuit lies
@@ -71,6 +73,28 @@ public class CircuitState implements InstanceData {
         return ret;
     }
 
+    /**
+     * Stops listening to the circuits of this state and its substates.
+     */
+    void dispose() {
+        circuit.removeCircuitListener(myCircuitListener);
+        for (CircuitState sub : substates) {
+            sub.dispose();
+        }
+    }
+
+    /**
+     * Returns a copy of this state and its substates that belongs to no
+     * tree, ready to be given to a subcircuit with {@link #setData}.
+     */
+    CircuitState copyState() {
+        CircuitState ret = new CircuitState(project, circuit);
+        ret.copyFrom(this, null);
+        ret.parentComp = null;
+        ret.parentState = null;
+        return ret;
+    }
+
     private void copyFrom(CircuitState src, Propagator base) {
         this.base = base;
         this.parentComp = src.parentComp;
@@ -78,7 +102,7 @@ public class CircuitState implements InstanceData {
         HashMap<CircuitState, CircuitState> substateData = new HashMap<>();
         this.substates = new ArraySet<>();
         for (CircuitState oldSub : src.substates) {
-            CircuitState newSub = new CircuitState(src.project, oldSub.circuit);
+            CircuitState newSub = new CircuitState(project, oldSub.circuit);
             newSub.copyFrom(oldSub, base);
             newSub.parentState = this;
             this.substates.add(newSub);
@@ -156,7 +180,8 @@ public class CircuitState implements InstanceData {
 
     public void setData(Component comp, Object data) {
         if (data instanceof CircuitState) {
-            CircuitState oldState = (CircuitState) componentData.get(comp);
+            Object oldData = componentData.get(comp);
+            CircuitState oldState = oldData instanceof CircuitState ? (CircuitState) oldData : null;
             CircuitState newState = (CircuitState) data;
             if (oldState != newState) {
                 // There's something new going on with this subcircuit.
@@ -171,11 +196,14 @@ public class CircuitState implements InstanceData {
                 if (newState != null && newState.parentState != this) {
                     // this is the first time I've heard about this CircuitState
                     substates.add(newState);
-                    newState.base = this.base;
+                    newState.setBase(this.base);
                     newState.parentState = this;
                     newState.parentComp = comp;
                     newState.markAllComponentsDirty();
                 }
+                if (base != null) {
+                    base.invalidateSchedule();
+                }
             }
         }
         componentData.put(comp, data);
@@ -242,34 +270,11 @@ public class CircuitState implements InstanceData {
 
     void processDirtyComponents() {
         if (!dirtyComponents.isEmpty()) {
-            // This seeming wasted copy is to avoid ConcurrentModifications
-            // if we used an iterator instead.
-            Object[] toProcess;
-            RuntimeException firstException = null;
-            for (int tries = 4; true; tries--) {
-                try {
-                    toProcess = dirtyComponents.toArray();
-                    break;
-                } catch (RuntimeException e) {
-                    if (firstException == null) {
-                        firstException = e;
-                    }
-                    if (tries == 0) {
-                        toProcess = new Object[0];
-                        dirtyComponents = new SmallSet<>();
-                        throw firstException;
-                    }
-                }
-            }
-            dirtyComponents.clear();
+            Object[] toProcess = takeDirtyComponents();
+            PropagationProfile profile = getPropagator().getProfile();
             for (Object componentObject : toProcess) {
                 if (componentObject instanceof Component) {
-                    Component comp = (Component) componentObject;
-                    comp.propagate(this);
-                    if (comp.getFactory() instanceof Pin && parentState != null) {
-                        // should be propagated in superstate
-                        parentComp.propagate(parentState);
-                    }
+                    propagateComponent((Component) componentObject, profile);
                 }
             }
         }
@@ -280,7 +285,62 @@ public class CircuitState implements InstanceData {
         }
     }
 
+    /**
+     * Removes and returns the components of this state, but not of its
+     * substates, that are marked as dirty.
+     */
+    Object[] takeDirtyComponents() {
+        if (dirtyComponents.isEmpty()) {
+            return NO_COMPONENTS;
+        }
+        // This seeming wasted copy is to avoid ConcurrentModifications
+        // if we used an iterator instead.
+        Object[] toProcess;
+        RuntimeException firstException = null;
+        for (int tries = 4; true; tries--) {
+            try {
+                toProcess = dirtyComponents.toArray();
+                break;
+            } catch (RuntimeException e) {
+                if (firstException == null) {
+                    firstException = e;
+                }
+                if (tries == 0) {
+                    dirtyComponents = new SmallSet<>();
+                    throw firstException;
+                }
+            }
+        }
+        dirtyComponents.clear();
+        return toProcess;
+    }
+
+    void propagateComponent(Component comp, PropagationProfile profile) {
+        if (profile == null) {
+            comp.propagate(this);
+        } else {
+            long start = System.nanoTime();
+            comp.propagate(this);
+            profile.componentPropagated(this, comp, System.nanoTime() - start);
+        }
+        if (comp.getFactory() instanceof Pin && parentState != null) {
+            // should be propagated in superstate
+            parentComp.propagate(parentState);
+        }
+    }
+
     void processDirtyPoints() {
+        if (!dirtyPoints.isEmpty() || circuit.wires.isMapVoided()) {
+            propagateDirtyPoints();
+        }
+
+        CircuitState[] subs = new CircuitState[substates.size()];
+        for (CircuitState substate : substates.toArray(subs)) {
+            substate.processDirtyPoints();
+        }
+    }
+
+    private void propagateDirtyPoints() {
         HashSet<Location> dirty = new HashSet<>(dirtyPoints);
         dirtyPoints.clear();
         if (circuit.wires.isMapVoided()) {
@@ -304,16 +364,13 @@ public class CircuitState implements InstanceData {
         if (!dirty.isEmpty()) {
             circuit.wires.propagate(this, dirty);
         }
-
-        CircuitState[] subs = new CircuitState[substates.size()];
-        for (CircuitState substate : substates.toArray(subs)) {
-            substate.processDirtyPoints();
-        }
     }
 
     void reset() {
         wireData = null;
-        componentData.keySet().removeIf(comp -> !(comp.getFactory() instanceof SubcircuitFactory));
+        // shared substates depend on the inputs seen since the last reset
+        componentData.entrySet().removeIf(entry -> !(entry.getKey().getFactory() instanceof SubcircuitFactory)
+            || !(entry.getValue() instanceof CircuitState));
         values.clear();
         dirtyComponents.clear();
         dirtyPoints.clear();
@@ -368,10 +425,13 @@ public class CircuitState implements InstanceData {
         }
         if (changed) {
             boolean found = false;
+            boolean readersOnly = base != null && base.isLevelizing();
             for (Component comp : circuit.getComponents(p)) {
                 if (!(comp instanceof Wire) && !(comp instanceof Splitter)) {
                     found = true;
-                    markComponentAsDirty(comp);
+                    if (!readersOnly || readsAt(comp, p)) {
+                        markComponentAsDirty(comp);
+                    }
                 }
             }
             // NOTE: this will cause a double-propagation on components
@@ -386,14 +446,50 @@ public class CircuitState implements InstanceData {
     //
     // private methods
     //
+    private static boolean readsAt(Component comp, Location p) {
+        for (EndData end : comp.getEnds()) {
+            if (end.isInput() && end.getLocation().equals(p)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void markAllComponentsDirty() {
         dirtyComponents.addAll(circuit.getNonWires());
     }
 
+    private void setBase(Propagator value) {
+        base = value;
+        for (CircuitState sub : substates) {
+            sub.setBase(value);
+        }
+    }
+
+    /**
+     * Marks as dirty every subcircuit in this tree whose substate is
+     * shared or memoized, so that it checks whether the shared state or
+     * the memoized outputs still hold.
+     */
+    void markSharedSubstatesDirty() {
+        for (Map.Entry<Component, Object> entry : componentData.entrySet()) {
+            Object data = entry.getValue();
+            if (data instanceof SharedSubstates.Node || data == SubcircuitMemo.MEMOIZED) {
+                markComponentAsDirty(entry.getKey());
+            }
+        }
+        for (CircuitState sub : substates) {
+            sub.markSharedSubstatesDirty();
+        }
+    }
+
     private class MyCircuitListener implements CircuitListener {
 
         public void circuitChanged(CircuitEvent event) {
             int action = event.getAction();
+            if (base != null) {
+                base.invalidateSchedule();
+            }
             if (action == CircuitEvent.ACTION_ADD) {
                 Component comp = (Component) event.getData();
                 if (comp instanceof Wire) {
@@ -407,7 +503,8 @@ public class CircuitState implements InstanceData {
                 Component comp = (Component) event.getData();
                 if (comp.getFactory() instanceof SubcircuitFactory) {
                     // disconnect from tree
-                    CircuitState substate = (CircuitState) getData(comp);
+                    Object data = getData(comp);
+                    CircuitState substate = data instanceof CircuitState ? (CircuitState) data : null;
                     if (substate != null && substate.parentComp == comp) {
                         substates.remove(substate);
                         substate.parentState = null;
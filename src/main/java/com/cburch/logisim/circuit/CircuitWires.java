@@ -135,6 +135,29 @@ class CircuitWires {
         return bmap.getBundleAt(query);
     }
 
+    /**
+     * Returns the points of the net through the given location, following
+     * its bits through any splitters. A location without wires is a net of
+     * its own.
+     */
+    Set<Location> getNetPoints(Location loc) {
+        HashSet<Location> points = new HashSet<>();
+        WireBundle bundle = getWireBundle(loc);
+        if (bundle == null) {
+            points.add(loc);
+        } else {
+            points.addAll(bundle.points);
+            if (bundle.threads != null) {
+                for (WireThread thread : bundle.threads) {
+                    for (ThreadBundle tb : thread.getBundles()) {
+                        points.addAll(tb.b.points);
+                    }
+                }
+            }
+        }
+        return points;
+    }
+
     WireSet getWireSet(Wire start) {
         WireBundle bundle = getWireBundle(start.start);
         if (bundle == null) {
@@ -306,7 +329,7 @@ class CircuitWires {
                 // do nothing
             } else if (b.threads.length == 1) {
                 bv = s.thr_values.get(b.threads[0]);
-            } else {
+            } else if (b.threads.length > 32) {
                 Value[] tvs = new Value[b.threads.length];
                 boolean tvs_valid = true;
                 for (int i = 0; i < tvs.length; i++) {
@@ -320,6 +343,26 @@ class CircuitWires {
                 if (tvs_valid) {
                     bv = Value.create(tvs);
                 }
+            } else {
+                // assemble the bundle's bit masks from its one-bit threads
+                // directly rather than through an intermediate Value array
+                int error = 0;
+                int unknown = 0;
+                int value = 0;
+                boolean tvs_valid = true;
+                for (int i = 0; i < b.threads.length; i++) {
+                    Value tv = s.thr_values.get(b.threads[i]);
+                    if (tv == null) {
+                        tvs_valid = false;
+                        break;
+                    }
+                    error |= (tv.getErrorBits() & 1) << i;
+                    unknown |= (tv.getUnknownBits() & 1) << i;
+                    value |= (tv.getValueBits() & 1) << i;
+                }
+                if (tvs_valid) {
+                    bv = Value.create(b.threads.length, error, unknown, value);
+                }
             }
 
             if (bv != null) {
@@ -472,7 +515,9 @@ class CircuitWires {
             for (int tries = 4; tries >= 0; tries--) {
                 try {
                     ret = new BundleMap();
+                    long start = System.nanoTime();
                     computeBundleMap(ret);
+                    SimulatorMetrics.recordBundleMapRebuild(System.nanoTime() - start);
                     bundleMap = ret;
                     break;
                 } catch (Throwable t) {
@@ -0,0 +1,34 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.data.Value;
+import java.util.Arrays;
+
+/**
+ * The values at the inputs of a subcircuit, in an order fixed by the
+ * subcircuit, for looking up the results of simulating it.
+ */
+class InputKey {
+
+    final Value[] values;
+    private final int hashCode;
+
+    InputKey(Value[] values) {
+        this.values = values;
+        this.hashCode = Arrays.hashCode(values);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof InputKey
+            && hashCode == ((InputKey) other).hashCode
+            && Arrays.equals(values, ((InputKey) other).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
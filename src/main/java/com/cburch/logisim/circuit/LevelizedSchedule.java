@@ -0,0 +1,368 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.comp.ComponentFactory;
+import com.cburch.logisim.comp.EndData;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.instance.Instance;
+import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.std.wiring.PullResistor;
+import com.cburch.logisim.std.wiring.Tunnel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The order in which the cycle-based simulation mode propagates the
+ * components of a tree of circuit states. The components are levelized
+ * once, so that each level depends only on the levels before it: first the
+ * logic that depends on no sequential component, such as the paths of
+ * clocks and inputs; then every sequential component together, so that
+ * each sees its inputs as they were before the clock edge; and last the
+ * logic fed by the sequential components. A subcircuit has an entry for
+ * each of its inputs, while its outputs are driven by the output pins in
+ * its substate, so that the levels run through the hierarchy. A subcircuit
+ * whose substate is shared with identical instances, or whose outputs are
+ * memoized, is a single entry.
+ *
+ * <p>The levels come from a topological sort, which takes time linear in
+ * the number of connections and also finds any combinational loop. A tree
+ * containing a loop, or a subcircuit not yet simulated, has no schedule
+ * and must be propagated by events.</p>
+ */
+class LevelizedSchedule {
+
+    private final CircuitState[] states;   // state of each entry, by level
+    private final Component[] components;  // component of each entry
+    private final int[] levels;            // level of each entry
+    private final int[] levelStarts;       // first entry of each level, then the entry count
+    private final List<CircuitState> allStates;
+    private final HashMap<CircuitState, HashMap<Component, int[]>> entries;
+
+    private LevelizedSchedule(List<Node> order, int levelCount, List<CircuitState> allStates) {
+        int n = order.size();
+        this.states = new CircuitState[n];
+        this.components = new Component[n];
+        this.levels = new int[n];
+        this.levelStarts = new int[levelCount + 1];
+        this.allStates = allStates;
+        this.entries = new HashMap<>();
+        int level = -1;
+        for (int i = 0; i < n; i++) {
+            Node node = order.get(i);
+            states[i] = node.state;
+            components[i] = node.comp;
+            levels[i] = node.level;
+            while (level < node.level) {
+                level++;
+                levelStarts[level] = i;
+            }
+            HashMap<Component, int[]> map = entries.computeIfAbsent(node.state, k -> new HashMap<>());
+            int[] old = map.get(node.comp);
+            int[] indices;
+            if (old == null) {
+                indices = new int[]{i};
+            } else {
+                indices = new int[old.length + 1];
+                System.arraycopy(old, 0, indices, 0, old.length);
+                indices[old.length] = i;
+            }
+            map.put(node.comp, indices);
+        }
+        while (level < levelCount) {
+            level++;
+            levelStarts[level] = n;
+        }
+    }
+
+    /**
+     * Levelizes the tree of states under the given root, returning null
+     * if the tree cannot be levelized.
+     */
+    static LevelizedSchedule create(CircuitState root) {
+        Builder builder = new Builder();
+        if (!builder.addState(root)) {
+            return null;
+        }
+        builder.connect();
+        return builder.build();
+    }
+
+    List<CircuitState> getStates() {
+        return allStates;
+    }
+
+    int getLevel(int entry) {
+        return levels[entry];
+    }
+
+    /**
+     * Returns the first entry of the given level, or the number of entries
+     * if the level is the level count.
+     */
+    int getLevelStart(int level) {
+        return levelStarts[level];
+    }
+
+    CircuitState getState(int entry) {
+        return states[entry];
+    }
+
+    Component getComponent(int entry) {
+        return components[entry];
+    }
+
+    /**
+     * Returns the entries of the given component in ascending order, or
+     * null if the component isn't scheduled.
+     */
+    int[] getEntries(CircuitState state, Component comp) {
+        HashMap<Component, int[]> map = entries.get(state);
+        return map == null ? null : map.get(comp);
+    }
+
+    private static class Node {
+
+        private final CircuitState state;
+        private final Component comp;
+        private final int port; // input of a subcircuit, or -1
+        private final boolean sequential;
+        private final ArrayList<Node> successors = new ArrayList<>();
+        private int predecessors = 0;
+        private boolean downstream = false; // fed by a sequential component
+        private int level = 0;
+
+        private Node(CircuitState state, Component comp, int port, boolean sequential) {
+            this.state = state;
+            this.comp = comp;
+            this.port = port;
+            this.sequential = sequential;
+        }
+    }
+
+    private static class Builder {
+
+        private final ArrayList<Node> nodes = new ArrayList<>();
+        private final ArrayList<CircuitState> states = new ArrayList<>();
+        private final HashMap<CircuitState, HashMap<Component, Node[]>> nodeMap = new HashMap<>();
+        // the readers of each net, keyed by its bundle, or by its location
+        // if it has no wires
+        private final HashMap<CircuitState, HashMap<Object, List<Node>>> readerMap = new HashMap<>();
+
+        private boolean addState(CircuitState state) {
+            states.add(state);
+            HashMap<Component, Node[]> map = new HashMap<>();
+            nodeMap.put(state, map);
+            for (Component comp : state.getCircuit().getNonWires()) {
+                ComponentFactory factory = comp.getFactory();
+                if (comp instanceof Splitter || factory instanceof Tunnel
+                    || factory instanceof PullResistor) {
+                    continue; // these are handled by CircuitWires
+                }
+                if (factory instanceof SubcircuitFactory) {
+                    Object data = state.getData(comp);
+                    if (data instanceof SharedSubstates.Node || data == SubcircuitMemo.MEMOIZED) {
+                        // a shared or memoized substate settles at once, like a gate
+                        map.put(comp, new Node[]{addNode(state, comp, -1, false)});
+                        continue;
+                    }
+                    if (!(data instanceof CircuitState)
+                        || ((CircuitState) data).getSubcircuit() != comp) {
+                        return false;
+                    }
+                    List<EndData> ends = comp.getEnds();
+                    ArrayList<Node> ports = new ArrayList<>();
+                    for (int i = 0; i < ends.size(); i++) {
+                        if (ends.get(i).isInput()) {
+                            ports.add(addNode(state, comp, i, false));
+                        }
+                    }
+                    if (ports.isEmpty()) {
+                        ports.add(addNode(state, comp, -1, false));
+                    }
+                    map.put(comp, ports.toArray(new Node[0]));
+                    if (!addState((CircuitState) data)) {
+                        return false;
+                    }
+                } else {
+                    Object seq = factory.getFeature(ComponentFactory.SEQUENTIAL, comp.getAttributeSet());
+                    map.put(comp, new Node[]{addNode(state, comp, -1, Boolean.TRUE.equals(seq))});
+                }
+            }
+            return true;
+        }
+
+        private Node addNode(CircuitState state, Component comp, int port, boolean sequential) {
+            Node ret = new Node(state, comp, port, sequential);
+            nodes.add(ret);
+            return ret;
+        }
+
+        private void connect() {
+            for (Node node : nodes) {
+                CircuitState state = node.state;
+                Component comp = node.comp;
+                if (comp.getFactory() instanceof SubcircuitFactory
+                    && state.getData(comp) instanceof CircuitState) {
+                    if (node.port >= 0) {
+                        // an input feeds the corresponding pin in the substate
+                        CircuitState sub = (CircuitState) state.getData(comp);
+                        Instance pin = pinsOf(comp)[node.port];
+                        addEdge(node, nodeMap.get(sub).get(Instance.getComponentFor(pin))[0]);
+                    }
+                    continue;
+                }
+                for (EndData end : comp.getEnds()) {
+                    if (end.isOutput()) {
+                        addEdges(node, getReaders(state, end.getLocation()));
+                    }
+                }
+                Component parent = state.getSubcircuit();
+                if (comp.getFactory() instanceof Pin && parent != null) {
+                    // an output pin drives the subcircuit's end in the superstate
+                    Instance[] pins = pinsOf(parent);
+                    for (int i = 0; i < pins.length; i++) {
+                        if (Instance.getComponentFor(pins[i]) == comp
+                            && !Pin.FACTORY.isInputPin(pins[i])) {
+                            Location loc = parent.getEnds().get(i).getLocation();
+                            addEdges(node, getReaders(state.getParentState(), loc));
+                        }
+                    }
+                }
+            }
+        }
+
+        private static Instance[] pinsOf(Component subcircuit) {
+            return ((CircuitAttributes) subcircuit.getAttributeSet()).getPinInstances();
+        }
+
+        private void addEdges(Node from, List<Node> readers) {
+            for (Node to : readers) {
+                addEdge(from, to);
+            }
+        }
+
+        private void addEdge(Node from, Node to) {
+            // a sequential component doesn't wait for its inputs
+            if (from != to && !to.sequential) {
+                from.successors.add(to);
+                to.predecessors++;
+            }
+        }
+
+        private List<Node> getReaders(CircuitState state, Location loc) {
+            Circuit circuit = state.getCircuit();
+            WireBundle bundle = circuit.wires.getWireBundle(loc);
+            Object key = bundle == null ? loc : bundle;
+            HashMap<Object, List<Node>> cache = readerMap.computeIfAbsent(state, k -> new HashMap<>());
+            List<Node> ret = cache.get(key);
+            if (ret != null) {
+                return ret;
+            }
+
+            Set<Location> points = circuit.wires.getNetPoints(loc);
+            HashMap<Component, Node[]> map = nodeMap.get(state);
+            LinkedHashSet<Node> readers = new LinkedHashSet<>();
+            for (Location point : points) {
+                for (Component comp : circuit.getNonWires(point)) {
+                    Node[] compNodes = map.get(comp);
+                    if (compNodes == null) {
+                        continue;
+                    }
+                    List<EndData> ends = comp.getEnds();
+                    for (int i = 0; i < ends.size(); i++) {
+                        EndData end = ends.get(i);
+                        if (end.isInput() && end.getLocation().equals(point)) {
+                            readers.add(findPort(compNodes, i));
+                        }
+                    }
+                }
+            }
+            ret = readers.isEmpty() ? Collections.emptyList() : new ArrayList<>(readers);
+            cache.put(key, ret);
+            return ret;
+        }
+
+        private static Node findPort(Node[] compNodes, int port) {
+            for (Node node : compNodes) {
+                if (node.port == port) {
+                    return node;
+                }
+            }
+            return compNodes[0];
+        }
+
+        private LevelizedSchedule build() {
+            // sort topologically, failing on a combinational loop
+            ArrayList<Node> order = new ArrayList<>(nodes.size());
+            ArrayDeque<Node> ready = new ArrayDeque<>();
+            for (Node node : nodes) {
+                if (node.predecessors == 0) {
+                    ready.add(node);
+                }
+            }
+            while (!ready.isEmpty()) {
+                Node node = ready.remove();
+                order.add(node);
+                for (Node next : node.successors) {
+                    if (--next.predecessors == 0) {
+                        ready.add(next);
+                    }
+                }
+            }
+            if (order.size() < nodes.size()) {
+                return null;
+            }
+
+            // mark the logic fed by sequential components
+            for (Node node : order) {
+                if (node.sequential || node.downstream) {
+                    for (Node next : node.successors) {
+                        next.downstream = true;
+                    }
+                }
+            }
+
+            // level each phase by its longest path
+            int firstPhaseLevels = 0;
+            boolean hasSequential = false;
+            for (Node node : order) {
+                for (Node next : node.successors) {
+                    if (next.downstream == node.downstream && !node.sequential) {
+                        next.level = Math.max(next.level, node.level + 1);
+                    }
+                }
+                if (node.sequential) {
+                    hasSequential = true;
+                } else if (!node.downstream) {
+                    firstPhaseLevels = Math.max(firstPhaseLevels, node.level + 1);
+                }
+            }
+            int levelCount = firstPhaseLevels;
+            int sequentialLevel = firstPhaseLevels;
+            if (hasSequential) {
+                levelCount++;
+            }
+            int downstreamStart = levelCount;
+            for (Node node : order) {
+                if (node.sequential) {
+                    node.level = sequentialLevel;
+                } else if (node.downstream) {
+                    node.level += downstreamStart;
+                    levelCount = Math.max(levelCount, node.level + 1);
+                }
+            }
+
+            // stable, so that each component's entries stay in order
+            order.sort((a, b) -> Integer.compare(a.level, b.level));
+            return new LevelizedSchedule(order, levelCount, states);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.comp.ComponentDrawContext;
+import com.cburch.logisim.comp.EndData;
+import com.cburch.logisim.data.Bounds;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.instance.Instance;
+import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.util.GraphicsUtil;
+import java.awt.Graphics;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The components and nets of an oscillating circuit that keep each other
+ * changing. While the propagator watches a period of the oscillation, it
+ * notes every component whose output changed a net; the loop is then the
+ * strongly connected part of the graph in which each such component leads
+ * to the changing components that read its nets, through the pins of any
+ * subcircuits. Components that merely follow the oscillation, without
+ * feeding it back, are left out.
+ */
+public class OscillationLoop {
+
+    private final int period;
+    private final HashMap<CircuitState, Set<Component>> components = new HashMap<>();
+    private final HashMap<CircuitState, Set<Location>> points = new HashMap<>();
+
+    private OscillationLoop(int period) {
+        this.period = period;
+    }
+
+    /**
+     * Returns the number of steps after which the circuit returns to the
+     * same state, or 0 if the oscillation was found only because the
+     * propagation went on too long.
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    public boolean isEmpty() {
+        return components.isEmpty();
+    }
+
+    /**
+     * Returns the states holding components of the loop, in order of
+     * their circuits' names.
+     */
+    public List<CircuitState> getStates() {
+        ArrayList<CircuitState> ret = new ArrayList<>(components.keySet());
+        ret.sort((a, b) -> a.getCircuit().getName().compareTo(b.getCircuit().getName()));
+        return ret;
+    }
+
+    /**
+     * Returns the components of the loop within the given state, in order
+     * of location.
+     */
+    public List<Component> getComponents(CircuitState state) {
+        Set<Component> comps = components.get(state);
+        if (comps == null) {
+            return Collections.emptyList();
+        }
+        ArrayList<Component> ret = new ArrayList<>(comps);
+        ret.sort((a, b) -> a.getLocation().compareTo(b.getLocation()));
+        return ret;
+    }
+
+    /**
+     * Returns the points within the given state at which the loop's
+     * components drive one another.
+     */
+    public Set<Location> getPoints(CircuitState state) {
+        Set<Location> ret = points.get(state);
+        return ret == null ? Collections.emptySet() : Collections.unmodifiableSet(ret);
+    }
+
+    void draw(ComponentDrawContext context) {
+        CircuitState state = context.getCircuitState();
+        HashMap<CircuitState, Component> subcircuits = new HashMap<>();
+        for (CircuitState sub : state.getSubstates()) {
+            addSubstates(subcircuits, sub, sub.getSubcircuit());
+        }
+
+        Graphics g = context.getGraphics();
+        GraphicsUtil.switchToWidth(g, 2);
+        for (Map.Entry<CircuitState, Set<Component>> entry : components.entrySet()) {
+            if (entry.getKey() == state) {
+                for (Component comp : entry.getValue()) {
+                    Bounds b = comp.getBounds();
+                    g.drawRect(b.getX() - 2, b.getY() - 2, b.getWidth() + 4, b.getHeight() + 4);
+                }
+                for (Location p : getPoints(state)) {
+                    g.drawOval(p.getX() - 4, p.getY() - 4, 8, 8);
+                }
+            } else {
+                Component subcirc = subcircuits.get(entry.getKey());
+                if (subcirc != null) {
+                    Bounds b = subcirc.getBounds();
+                    g.drawRect(b.getX(), b.getY(), b.getWidth(), b.getHeight());
+                }
+            }
+        }
+        GraphicsUtil.switchToWidth(g, 1);
+    }
+
+    private static void addSubstates(HashMap<CircuitState, Component> map,
+        CircuitState source, Component value) {
+        map.put(source, value);
+        for (CircuitState s : source.getSubstates()) {
+            addSubstates(map, s, value);
+        }
+    }
+
+    /**
+     * Collects the changes seen while watching an oscillation.
+     */
+    static class Builder {
+
+        private final HashMap<CircuitState, HashSet<Component>> drivers = new HashMap<>();
+        private final HashMap<CircuitState, HashSet<Location>> touched = new HashMap<>();
+
+        /**
+         * Notes that the given component changed the value of a net.
+         */
+        void addDriver(CircuitState state, Component comp) {
+            drivers.computeIfAbsent(state, k -> new HashSet<>()).add(comp);
+        }
+
+        /**
+         * Notes that the value of a net read by some component changed at
+         * the given point.
+         */
+        void addTouched(CircuitState state, Location loc) {
+            touched.computeIfAbsent(state, k -> new HashSet<>()).add(loc);
+        }
+
+        OscillationLoop build(int period) {
+            HashMap<CircuitState, HashMap<Component, Node>> nodeMap = new HashMap<>();
+            ArrayList<Node> nodes = new ArrayList<>();
+            for (Map.Entry<CircuitState, HashSet<Component>> entry : drivers.entrySet()) {
+                for (Component comp : entry.getValue()) {
+                    addNode(nodeMap, nodes, entry.getKey(), comp);
+                }
+            }
+            // an output pin of a substate drives nothing within its own
+            // circuit, but passes a changing value on to the superstate
+            for (Map.Entry<CircuitState, HashSet<Location>> entry : touched.entrySet()) {
+                CircuitState state = entry.getKey();
+                if (state.getSubcircuit() == null) {
+                    continue;
+                }
+                for (Location loc : entry.getValue()) {
+                    for (Component comp : state.getCircuit().getNonWires(loc)) {
+                        if (isOutputPin(comp)) {
+                            addNode(nodeMap, nodes, state, comp);
+                        }
+                    }
+                }
+            }
+
+            for (Node node : nodes) {
+                connect(nodeMap, node);
+            }
+
+            OscillationLoop ret = new OscillationLoop(period);
+            for (List<Node> component : stronglyConnected(nodes)) {
+                if (component.size() == 1 && !component.get(0).successors.contains(component.get(0))) {
+                    continue;
+                }
+                HashSet<Node> members = new HashSet<>(component);
+                for (Node node : component) {
+                    ret.components.computeIfAbsent(node.state, k -> new HashSet<>()).add(node.comp);
+                    for (int i = 0; i < node.successors.size(); i++) {
+                        if (members.contains(node.successors.get(i))) {
+                            ret.points.computeIfAbsent(node.state, k -> new HashSet<>())
+                                .add(node.via.get(i));
+                        }
+                    }
+                }
+            }
+            return ret;
+        }
+
+        private static void addNode(HashMap<CircuitState, HashMap<Component, Node>> nodeMap,
+            ArrayList<Node> nodes, CircuitState state, Component comp) {
+            HashMap<Component, Node> map = nodeMap.computeIfAbsent(state, k -> new HashMap<>());
+            if (!map.containsKey(comp)) {
+                Node node = new Node(state, comp);
+                map.put(comp, node);
+                nodes.add(node);
+            }
+        }
+
+        private static void connect(HashMap<CircuitState, HashMap<Component, Node>> nodeMap, Node node) {
+            CircuitState state = node.state;
+            Component comp = node.comp;
+            if (isOutputPin(comp) && state.getSubcircuit() != null) {
+                Node to = find(nodeMap, state.getParentState(), state.getSubcircuit());
+                if (to != null) {
+                    node.addSuccessor(to, comp.getLocation());
+                }
+                return;
+            }
+            Circuit circuit = state.getCircuit();
+            for (EndData out : comp.getEnds()) {
+                if (!out.isOutput()) {
+                    continue;
+                }
+                Location loc = out.getLocation();
+                for (Location point : circuit.wires.getNetPoints(loc)) {
+                    for (Component reader : circuit.getNonWires(point)) {
+                        List<EndData> ends = reader.getEnds();
+                        for (int i = 0; i < ends.size(); i++) {
+                            EndData end = ends.get(i);
+                            if (end.isInput() && end.getLocation().equals(point)) {
+                                Node to = findReader(nodeMap, state, reader, i);
+                                if (to != null) {
+                                    node.addSuccessor(to, loc);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // finds the node that reads the given end, which for a subcircuit
+        // is the corresponding pin in its substate
+        private static Node findReader(HashMap<CircuitState, HashMap<Component, Node>> nodeMap,
+            CircuitState state, Component reader, int end) {
+            if (reader.getFactory() instanceof SubcircuitFactory) {
+                Object data = state.getData(reader);
+                if (data instanceof CircuitState) {
+                    Instance[] pins = ((CircuitAttributes) reader.getAttributeSet()).getPinInstances();
+                    return find(nodeMap, (CircuitState) data, Instance.getComponentFor(pins[end]));
+                }
+            }
+            return find(nodeMap, state, reader);
+        }
+
+        private static Node find(HashMap<CircuitState, HashMap<Component, Node>> nodeMap,
+            CircuitState state, Component comp) {
+            HashMap<Component, Node> map = nodeMap.get(state);
+            return map == null ? null : map.get(comp);
+        }
+
+        private static boolean isOutputPin(Component comp) {
+            return comp.getFactory() instanceof Pin
+                && !Pin.FACTORY.isInputPin(Instance.getInstanceFor(comp));
+        }
+
+        /**
+         * Finds the strongly connected components of the graph by Tarjan's
+         * algorithm, kept iterative so that long loops don't overflow the
+         * stack.
+         */
+        private static List<List<Node>> stronglyConnected(List<Node> nodes) {
+            ArrayList<List<Node>> ret = new ArrayList<>();
+            ArrayDeque<Node> stack = new ArrayDeque<>();
+            ArrayDeque<Node> path = new ArrayDeque<>();
+            int index = 0;
+            for (Node root : nodes) {
+                if (root.index >= 0) {
+                    continue;
+                }
+                root.index = root.lowLink = index++;
+                root.onStack = true;
+                stack.push(root);
+                path.push(root);
+                while (!path.isEmpty()) {
+                    Node node = path.peek();
+                    if (node.next < node.successors.size()) {
+                        Node to = node.successors.get(node.next++);
+                        if (to.index < 0) {
+                            to.index = to.lowLink = index++;
+                            to.onStack = true;
+                            stack.push(to);
+                            path.push(to);
+                        } else if (to.onStack) {
+                            node.lowLink = Math.min(node.lowLink, to.index);
+                        }
+                        continue;
+                    }
+                    path.pop();
+                    if (!path.isEmpty()) {
+                        Node parent = path.peek();
+                        parent.lowLink = Math.min(parent.lowLink, node.lowLink);
+                    }
+                    if (node.lowLink == node.index) {
+                        ArrayList<Node> component = new ArrayList<>();
+                        Node member;
+                        do {
+                            member = stack.pop();
+                            member.onStack = false;
+                            component.add(member);
+                        } while (member != node);
+                        ret.add(component);
+                    }
+                }
+            }
+            return ret;
+        }
+    }
+
+    private static class Node {
+
+        private final CircuitState state;
+        private final Component comp;
+        private final ArrayList<Node> successors = new ArrayList<>();
+        private final ArrayList<Location> via = new ArrayList<>(); // point driving each successor
+        private int index = -1;
+        private int lowLink;
+        private int next = 0;
+        private boolean onStack = false;
+
+        private Node(CircuitState state, Component comp) {
+            this.state = state;
+            this.comp = comp;
+        }
+
+        private void addSuccessor(Node to, Location loc) {
+            successors.add(to);
+            via.add(loc);
+        }
+    }
+}
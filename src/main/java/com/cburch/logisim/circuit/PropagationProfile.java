@@ -0,0 +1,284 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.comp.ComponentDrawContext;
+import com.cburch.logisim.comp.ComponentFactory;
+import com.cburch.logisim.data.Bounds;
+import com.cburch.logisim.data.Location;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts, while attached to a {@link Propagator}, how often each component
+ * is propagated and for how long, how many value changes each component
+ * schedules, and how often each point toggles. The counts are kept per
+ * circuit state, so that they can be drawn over the canvas as a heat map
+ * for the state being viewed, and summarized by component type, by
+ * circuit and by point. A propagator without a profile pays only a null
+ * check per event.
+ */
+public class PropagationProfile {
+
+    private static final Color HOT_COMPONENT_COLOR = new Color(255, 0, 0);
+    private static final Color HOT_POINT_COLOR = new Color(255, 128, 0);
+
+    private final HashMap<Key, Counter> counters = new HashMap<>();
+    private final long startTime = System.nanoTime();
+
+    private Counter getCounter(CircuitState state, Object item) {
+        Key key = new Key(state, item);
+        Counter ret = counters.get(key);
+        if (ret == null) {
+            ret = new Counter();
+            counters.put(key, ret);
+        }
+        return ret;
+    }
+
+    synchronized void componentPropagated(CircuitState state, Component comp, long nanos) {
+        Counter counter = getCounter(state, comp);
+        counter.calls++;
+        counter.nanos += nanos;
+    }
+
+    synchronized void valueScheduled(CircuitState state, Component cause) {
+        getCounter(state, cause).events++;
+    }
+
+    synchronized void pointToggled(CircuitState state, Location loc) {
+        getCounter(state, loc).toggles++;
+    }
+
+    /**
+     * Returns the nanoseconds elapsed since profiling began.
+     */
+    public long getElapsedNanos() {
+        return System.nanoTime() - startTime;
+    }
+
+    /**
+     * Returns the counts summed by component type, most expensive first.
+     */
+    public synchronized List<Count> getFactoryCounts() {
+        HashMap<ComponentFactory, Counter> sums = new HashMap<>();
+        for (Map.Entry<Key, Counter> entry : counters.entrySet()) {
+            Object item = entry.getKey().item;
+            if (item instanceof Component) {
+                sum(sums, ((Component) item).getFactory(), entry.getValue());
+            }
+        }
+        List<Count> ret = new ArrayList<>();
+        for (Map.Entry<ComponentFactory, Counter> entry : sums.entrySet()) {
+            ret.add(new Count(entry.getKey().getDisplayName(), entry.getValue()));
+        }
+        ret.sort(Count.BY_TIME);
+        return ret;
+    }
+
+    /**
+     * Returns the counts summed over the components and points of each
+     * circuit, across all of its instances, most expensive first.
+     */
+    public synchronized List<Count> getCircuitCounts() {
+        HashMap<Circuit, Counter> sums = new HashMap<>();
+        for (Map.Entry<Key, Counter> entry : counters.entrySet()) {
+            sum(sums, entry.getKey().state.getCircuit(), entry.getValue());
+        }
+        List<Count> ret = new ArrayList<>();
+        for (Map.Entry<Circuit, Counter> entry : sums.entrySet()) {
+            ret.add(new Count(entry.getKey().getName(), entry.getValue()));
+        }
+        ret.sort(Count.BY_TIME);
+        return ret;
+    }
+
+    /**
+     * Returns the toggle counts of each point of each circuit, across all
+     * of the circuit's instances, most frequently toggled first.
+     */
+    public synchronized List<Count> getPointCounts() {
+        HashMap<String, Counter> sums = new HashMap<>();
+        for (Map.Entry<Key, Counter> entry : counters.entrySet()) {
+            Key key = entry.getKey();
+            if (key.item instanceof Location) {
+                sum(sums, key.state.getCircuit().getName() + " " + key.item, entry.getValue());
+            }
+        }
+        List<Count> ret = new ArrayList<>();
+        for (Map.Entry<String, Counter> entry : sums.entrySet()) {
+            ret.add(new Count(entry.getKey(), entry.getValue()));
+        }
+        ret.sort(Count.BY_TOGGLES);
+        return ret;
+    }
+
+    private static <K> void sum(HashMap<K, Counter> sums, K key, Counter counter) {
+        Counter sum = sums.get(key);
+        if (sum == null) {
+            sum = new Counter();
+            sums.put(key, sum);
+        }
+        sum.add(counter);
+    }
+
+    /**
+     * Shades each component of the drawn state by the time spent
+     * propagating it, counting the whole of a subcircuit's state toward
+     * its component, and circles each point by how often it toggled.
+     */
+    public void draw(ComponentDrawContext context) {
+        CircuitState state = context.getCircuitState();
+        HashMap<CircuitState, Component> stateMap = new HashMap<>();
+        for (CircuitState sub : state.getSubstates()) {
+            addSubstates(stateMap, sub, sub.getSubcircuit());
+        }
+
+        HashMap<Component, Long> componentNanos = new HashMap<>();
+        HashMap<Location, Long> pointToggles = new HashMap<>();
+        synchronized (this) {
+            for (Map.Entry<Key, Counter> entry : counters.entrySet()) {
+                Key key = entry.getKey();
+                Counter counter = entry.getValue();
+                if (key.state == state) {
+                    if (key.item instanceof Component) {
+                        componentNanos.merge((Component) key.item, counter.nanos, Long::sum);
+                    } else {
+                        pointToggles.merge((Location) key.item, counter.toggles, Long::sum);
+                    }
+                } else if (key.item instanceof Component) {
+                    Component subcircuit = stateMap.get(key.state);
+                    if (subcircuit != null) {
+                        componentNanos.merge(subcircuit, counter.nanos, Long::sum);
+                    }
+                }
+            }
+        }
+
+        Graphics g = context.getGraphics();
+        long maxNanos = 1;
+        for (long nanos : componentNanos.values()) {
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+        for (Map.Entry<Component, Long> entry : componentNanos.entrySet()) {
+            if (entry.getValue() > 0) {
+                int alpha = (int) (32 + 160 * entry.getValue() / maxNanos);
+                g.setColor(withAlpha(HOT_COMPONENT_COLOR, alpha));
+                Bounds b = entry.getKey().getBounds();
+                g.fillRect(b.getX(), b.getY(), b.getWidth(), b.getHeight());
+            }
+        }
+        long maxToggles = 1;
+        for (long toggles : pointToggles.values()) {
+            maxToggles = Math.max(maxToggles, toggles);
+        }
+        for (Map.Entry<Location, Long> entry : pointToggles.entrySet()) {
+            int radius = (int) (3 + 7 * entry.getValue() / maxToggles);
+            int alpha = (int) (64 + 128 * entry.getValue() / maxToggles);
+            g.setColor(withAlpha(HOT_POINT_COLOR, alpha));
+            Location p = entry.getKey();
+            g.fillOval(p.getX() - radius, p.getY() - radius, 2 * radius, 2 * radius);
+        }
+    }
+
+    private static Color withAlpha(Color color, int alpha) {
+        return new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha);
+    }
+
+    private static void addSubstates(HashMap<CircuitState, Component> map,
+        CircuitState source, Component value) {
+        map.put(source, value);
+        for (CircuitState sub : source.getSubstates()) {
+            addSubstates(map, sub, value);
+        }
+    }
+
+    public static class Count {
+
+        private static final Comparator<Count> BY_TIME
+            = Comparator.comparingLong((Count count) -> -count.nanos).thenComparing(Count::getName);
+        private static final Comparator<Count> BY_TOGGLES
+            = Comparator.comparingLong((Count count) -> -count.toggles).thenComparing(Count::getName);
+
+        private final String name;
+        private final long calls;
+        private final long nanos;
+        private final long events;
+        private final long toggles;
+
+        private Count(String name, Counter counter) {
+            this.name = name;
+            this.calls = counter.calls;
+            this.nanos = counter.nanos;
+            this.events = counter.events;
+            this.toggles = counter.toggles;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getEvents() {
+            return events;
+        }
+
+        public long getToggles() {
+            return toggles;
+        }
+    }
+
+    private static class Counter {
+
+        private long calls;
+        private long nanos;
+        private long events;
+        private long toggles;
+
+        private void add(Counter other) {
+            calls += other.calls;
+            nanos += other.nanos;
+            events += other.events;
+            toggles += other.toggles;
+        }
+    }
+
+    private static class Key {
+
+        private final CircuitState state;
+        private final Object item; // a Component or a Location
+
+        private Key(CircuitState state, Object item) {
+            this.state = state;
+            this.item = item;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key o = (Key) other;
+            return state == o.state && item.equals(o.item);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(state) * 31 + item.hashCode();
+        }
+    }
+}
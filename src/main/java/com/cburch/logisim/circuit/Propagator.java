@@ -12,6 +12,7 @@ import com.cburch.logisim.data.Location;
 import com.cburch.logisim.data.Value;
 import com.cburch.logisim.file.Options;
 import java.lang.ref.WeakReference;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.PriorityQueue;
@@ -20,10 +21,29 @@ import java.util.Random;
 public class Propagator {
 
     /**
-     * The number of clock cycles to let pass before deciding that the
-     * circuit is oscillating.
+     * The number of steps after which a propagation that has neither
+     * settled nor returned to an earlier state is taken to be oscillating.
+     * With random delays, when a repeated state isn't trusted, the
+     * project's simulation limit applies instead, so that an oscillation
+     * is given up on as soon as it was before repeats were looked for.
      */
-    private static final int SIM_LIMIT = 1000;
+    private static final int SIM_LIMIT = 100000;
+    /**
+     * The number of steps watched to find the loop of an oscillation found
+     * by the limit rather than by a repeated state.
+     */
+    private static final int LOCATE_STEPS = 250;
+    /**
+     * The base whose powers weigh each pending event by how far off it is,
+     * and its multiplicative inverse.
+     */
+    private static final long HASH_BASE = 0x9E3779B97F4A7C15L;
+    private static final long HASH_BASE_INVERSE = inverse(HASH_BASE);
+    /**
+     * The number of sweeps through the levels of a cycle-based schedule
+     * after which the remaining work is left to the event-driven loop.
+     */
+    private static final int CYCLE_LIMIT = 100;
     private static int lastId = 0;
     private final int id = lastId++;
     private final CircuitState root; // root of state tree
@@ -37,19 +57,61 @@ public class Propagator {
      * practice).
      */
     private volatile int simulateRandomShift;
+    private volatile int simulateLimit;
     private int clock = 0;
     private boolean isOscillating = false;
     private boolean oscillatorAdding = false;
     private PropagationPoints oscillatorPoints = new PropagationPoints();
+    private OscillationLoop oscillationLoop = null;
+    private OscillationLoop.Builder loopBuilder = null;
+    /*
+     * The state of the propagation is hashed as it changes, so that a
+     * return to an earlier state is seen at once: valueHash is the XOR of a
+     * term for each cause's value at each point, and queueHash the sum of a
+     * term for each pending event, weighed by HASH_BASE to the power of its
+     * time. Multiplied by clockInverse, the sum weighs each event by how far
+     * off it is, which doesn't change when the same events are pending some
+     * time later. State kept within components without reaching any point
+     * isn't hashed. Random delays aren't hashed either, so a repeat is only
+     * trusted without them: with them, a race between two paths can look
+     * like a loop for many periods before the noise resolves it.
+     */
+    private long valueHash = 0;
+    private long queueHash = 0;
+    private long clockPower = 1;   // HASH_BASE to the power of clock
+    private long clockInverse = 1; // HASH_BASE_INVERSE to the power of clock
     private int ticks = 0;
     private int noiseCount = 0;
     private int setDataSerialNumber = 0;
+    private volatile PropagationProfile profile = null;
+    private volatile SimulatorMetrics metrics = null;
+    private int eventCount = 0;
+    private volatile boolean cycleBased = false;
+    private volatile boolean scheduleValid = false;
+    private LevelizedSchedule schedule = null;
+    private boolean levelizing = false;
+    private final BitSet pendingEntries = new BitSet();
+    private int circuitStamp = Circuit.getModificationStamp();
+    private final Listener listener;
 
     public Propagator(CircuitState root) {
         this.root = root;
-        Listener l = new Listener(this);
-        root.getProject().getOptions().getAttributeSet().addAttributeListener(l);
+        listener = new Listener(this);
+        root.getProject().getOptions().getAttributeSet().addAttributeListener(listener);
         updateRandomness();
+        updateMode();
+    }
+
+    /**
+     * Stops following the project's options and, for every state in the
+     * tree, its circuit. The listeners otherwise stay registered until the
+     * options or circuits next change, so a caller that makes many
+     * short-lived states, with nothing ever changing, should dispose of
+     * each propagator once done with it.
+     */
+    public void dispose() {
+        root.getProject().getOptions().getAttributeSet().removeAttributeListener(listener);
+        root.dispose();
     }
 
     //
@@ -59,6 +121,79 @@ public class Propagator {
         if (causes == null) {
             return Value.NIL;
         }
+        if (causes.next == null) {
+            return causes.value;
+        }
+        // fold the bit masks of all causes together, as Value.combine would,
+        // so that only the final value is looked up or allocated
+        int width = 0;
+        int error = 0;
+        int unknown = -1;
+        int value = 0;
+        for (SetData data = causes; data != null; data = data.next) {
+            Value v = data.value;
+            if (v == null || v == Value.NIL) {
+                continue;
+            }
+            if (v.getWidth() > 32) {
+                // masks of wide values don't fit in an int
+                return combineValues(causes);
+            }
+            int vUnknown = v.getUnknownBits();
+            int vValue = v.getValueBits();
+            error |= v.getErrorBits() | ((value ^ vValue) & ~(unknown | vUnknown));
+            value = (value & ~unknown) | (vValue & ~vUnknown);
+            unknown &= vUnknown;
+            width = Math.max(width, v.getWidth());
+        }
+        return width == 0 ? Value.NIL : Value.create(width, error, unknown, value);
+    }
+
+    private static long hashTerm(CircuitState state, Location location, Component cause, Value value) {
+        long ret = System.identityHashCode(state);
+        ret = ret * HASH_BASE + location.hashCode();
+        ret = ret * HASH_BASE + System.identityHashCode(cause);
+        if (value != null) {
+            if (value.getWidth() > 32) {
+                ret = mix(ret * HASH_BASE + value.hashCode());
+            } else {
+                // Value.hashCode mixes its masks into an int, where they can collide
+                ret = mix(ret * HASH_BASE + ((long) value.getWidth() << 32 | value.getErrorBits() & 0xffffffffL));
+                ret = ret * HASH_BASE + ((long) value.getUnknownBits() << 32 | value.getValueBits() & 0xffffffffL);
+            }
+        }
+        return mix(ret);
+    }
+
+    // the finalizer of the SplitMix64 generator
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    private static long power(long base, long exponent) {
+        long ret = 1;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                ret *= base;
+            }
+            base *= base;
+            exponent >>>= 1;
+        }
+        return ret;
+    }
+
+    // the inverse of an odd number modulo 2**64, by Newton's method
+    private static long inverse(long value) {
+        long ret = value;
+        for (int i = 0; i < 5; i++) {
+            ret *= 2 - value * ret;
+        }
+        return ret;
+    }
+
+    private static Value combineValues(SetData causes) {
         Value value = causes.value;
         for (SetData data = causes.next; data != null; data = data.next) {
             value = value.combine(data.value);
@@ -74,12 +209,58 @@ public class Propagator {
             logValue++;
         }
         simulateRandomShift = logValue;
+        simulateLimit = Math.max(1, options.getAttributeSet().getValue(Options.SIMULATOR_LIMIT_ATTRIBUTE));
+    }
+
+    private void updateMode() {
+        Options options = root.getProject().getOptions();
+        Object value = options.getAttributeSet().getValue(Options.SIMULATOR_MODE_ATTRIBUTE);
+        cycleBased = value == Options.SIMULATOR_MODE_CYCLE;
     }
 
     public boolean isOscillating() {
         return isOscillating;
     }
 
+    /**
+     * Returns the loop of components that keeps the circuit oscillating,
+     * or null if it isn't oscillating. The loop is empty if no components
+     * could be found that feed each other.
+     */
+    public OscillationLoop getOscillationLoop() {
+        return isOscillating ? oscillationLoop : null;
+    }
+
+    /**
+     * Restarts the noise that lengthens random delays from the given seed,
+     * so that a simulation begun from the same state can be repeated
+     * exactly.
+     */
+    public void setNoiseSeed(long seed) {
+        noiseSource.setSeed(seed);
+        noiseCount = 0;
+    }
+
+    public PropagationProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Attaches the metrics into which each propagation and tick is
+     * recorded, or detaches them if null.
+     */
+    public void setMetrics(SimulatorMetrics value) {
+        metrics = value;
+    }
+
+    /**
+     * Attaches a profile to collect counts of the propagation through
+     * this propagator's circuit states, or detaches it if null.
+     */
+    public void setProfile(PropagationProfile value) {
+        profile = value;
+    }
+
     @Override
     public String toString() {
         return "Prop" + id;
@@ -87,7 +268,12 @@ public class Propagator {
 
     public void drawOscillatingPoints(ComponentDrawContext context) {
         if (isOscillating) {
-            oscillatorPoints.draw(context);
+            OscillationLoop loop = oscillationLoop;
+            if (loop != null && !loop.isEmpty()) {
+                loop.draw(context);
+            } else {
+                oscillatorPoints.draw(context);
+            }
         }
     }
 
@@ -100,35 +286,239 @@ public class Propagator {
 
     void reset() {
         toProcess.clear();
+        queueHash = 0;
         root.reset();
         isOscillating = false;
+        oscillationLoop = null;
+        invalidateSchedule();
+    }
+
+    /**
+     * Notes that the tree of states or a circuit in it has changed, so
+     * that the cycle-based schedule must be levelized again.
+     */
+    void invalidateSchedule() {
+        scheduleValid = false;
+    }
+
+    boolean isLevelizing() {
+        return levelizing;
     }
 
     public void propagate() {
+        SimulatorMetrics metrics = this.metrics;
+        long start = 0;
+        if (metrics != null) {
+            start = System.nanoTime();
+            eventCount = 0;
+        }
+
         oscillatorPoints.clear();
+        oscillationLoop = null;
+        int stamp = Circuit.getModificationStamp();
+        if (stamp != circuitStamp) {
+            // an edit may have changed what the shared or memoized substates hold
+            circuitStamp = stamp;
+            root.markSharedSubstatesDirty();
+        }
+        int sweeps = 0;
+        if (cycleBased) {
+            LevelizedSchedule levels = getSchedule();
+            if (levels != null) {
+                sweeps = propagateLevelized(levels);
+            }
+        }
         clearDirtyPoints();
         clearDirtyComponents();
 
-        int oscillatorThreshold = SIM_LIMIT;
-        int logThreshold = 3 * oscillatorThreshold / 4;
+        // Brent's algorithm: compare each state with the one saved at the
+        // last power of two, which finds a repeat within twice the steps
+        // taken to enter the cycle and go round it once
+        boolean detecting = simulateRandomShift == 0;
+        int limit = detecting ? SIM_LIMIT : simulateLimit;
         int count = 0;
+        long saved = getStateHash();
+        int power = 1;
+        int length = 0;
         while (!toProcess.isEmpty()) {
             count++;
+            if (metrics != null) {
+                metrics.recordQueueDepth(toProcess.size());
+            }
 
-            if (count < logThreshold) {
-                stepInternal(null);
-            } else if (count < oscillatorThreshold) {
-                oscillatorAdding = true;
-                stepInternal(oscillatorPoints);
-            } else {
-                isOscillating = true;
-                oscillatorAdding = false;
-                return;
+            stepInternal(null);
+            length++;
+            long current = getStateHash();
+            int period = 0;
+            if (current == saved && detecting) {
+                period = length;
+            } else if (length == power) {
+                saved = current;
+                power <<= 1;
+                length = 0;
+            }
+            if (period > 0 || count >= limit) {
+                count += locateLoop(period > 0 ? period : LOCATE_STEPS, period);
+                if (isOscillating) {
+                    if (metrics != null) {
+                        metrics.recordPropagation(System.nanoTime() - start, sweeps + count, eventCount, true);
+                    }
+                    return;
+                }
             }
         }
         isOscillating = false;
-        oscillatorAdding = false;
         oscillatorPoints.clear();
+        if (metrics != null) {
+            metrics.recordPropagation(System.nanoTime() - start, sweeps + count, eventCount, false);
+        }
+    }
+
+    /**
+     * Returns the hash of the values at all points and of the pending
+     * events, relative to the current time.
+     */
+    private long getStateHash() {
+        return valueHash ^ mix(queueHash * clockInverse);
+    }
+
+    /**
+     * Watches the given number of steps of an apparent oscillation, noting
+     * the components that change, and finds the loop among them, unless
+     * the circuit settles meanwhile.
+     *
+     * @return the number of steps taken
+     */
+    private int locateLoop(int steps, int period) {
+        OscillationLoop.Builder builder = new OscillationLoop.Builder();
+        loopBuilder = builder;
+        oscillatorAdding = true;
+        int count = 0;
+        try {
+            while (count < steps && !toProcess.isEmpty()) {
+                count++;
+                stepInternal(oscillatorPoints);
+            }
+        } finally {
+            loopBuilder = null;
+            oscillatorAdding = false;
+        }
+        if (!toProcess.isEmpty()) {
+            isOscillating = true;
+            oscillationLoop = builder.build(period);
+        }
+        return count;
+    }
+
+    private LevelizedSchedule getSchedule() {
+        if (!scheduleValid) {
+            scheduleValid = true;
+            try {
+                schedule = LevelizedSchedule.create(root);
+            } catch (RuntimeException e) {
+                // the circuit is being edited; levelize it next time
+                schedule = null;
+                scheduleValid = false;
+            }
+        }
+        return schedule;
+    }
+
+    /**
+     * Propagates by sweeping the levels of the schedule in order,
+     * propagating each dirty component of a level and then applying all of
+     * the level's changes at once, whatever the components' delays. A
+     * component made dirty again after its level has passed, as is a
+     * register whose inputs change, waits for the next sweep. Whatever
+     * remains after the last sweep, including components missing from the
+     * schedule, is left to the event-driven loop, which also catches any
+     * oscillation.
+     *
+     * @return the number of sweeps made
+     */
+    private int propagateLevelized(LevelizedSchedule levels) {
+        BitSet pending = pendingEntries;
+        PropagationProfile prof = profile;
+        int sweeps = 0;
+        levelizing = true;
+        try {
+            applyEvents();
+            gatherDirtyComponents(levels, pending, 0);
+            while (!pending.isEmpty() && sweeps < CYCLE_LIMIT) {
+                sweeps++;
+                int next = pending.nextSetBit(0);
+                while (next >= 0) {
+                    int end = levels.getLevelStart(levels.getLevel(next) + 1);
+                    for (int i = next; i >= 0 && i < end; i = pending.nextSetBit(i + 1)) {
+                        pending.clear(i);
+                        levels.getState(i).propagateComponent(levels.getComponent(i), prof);
+                    }
+                    applyEvents();
+                    gatherDirtyComponents(levels, pending, end);
+                    next = pending.nextSetBit(end);
+                }
+            }
+        } finally {
+            levelizing = false;
+            for (int i = pending.nextSetBit(0); i >= 0; i = pending.nextSetBit(i + 1)) {
+                levels.getState(i).markComponentAsDirty(levels.getComponent(i));
+            }
+            pending.clear();
+        }
+        return sweeps;
+    }
+
+    /**
+     * Applies every pending event in order, as if all of them were due
+     * now, and then updates the wires.
+     */
+    private void applyEvents() {
+        SetData data;
+        while ((data = toProcess.poll()) != null) {
+            queueHash -= data.hashTerm;
+            eventCount++;
+            CircuitState state = data.state;
+            SetData oldHead = state.causes.get(data.location);
+            Value oldValue = computeValue(oldHead);
+            SetData newHead = addCause(state, oldHead, data);
+            Value newValue = computeValue(newHead);
+            if (!newValue.equals(oldValue)) {
+                state.markPointAsDirty(data.location);
+                PropagationProfile prof = profile;
+                if (prof != null) {
+                    prof.pointToggled(state, data.location);
+                }
+            }
+        }
+        clearDirtyPoints();
+    }
+
+    /**
+     * Moves the dirty components of the scheduled states into the pending
+     * entries, each at its first entry from the given one on, or at its
+     * first entry if all of them have passed. A component that isn't
+     * scheduled is propagated at once.
+     */
+    private void gatherDirtyComponents(LevelizedSchedule levels, BitSet pending, int from) {
+        PropagationProfile prof = profile;
+        for (CircuitState state : levels.getStates()) {
+            for (Object obj : state.takeDirtyComponents()) {
+                Component comp = (Component) obj;
+                int[] entries = levels.getEntries(state, comp);
+                if (entries == null) {
+                    state.propagateComponent(comp, prof);
+                    continue;
+                }
+                int entry = entries[0];
+                for (int e : entries) {
+                    if (e >= from) {
+                        entry = e;
+                        break;
+                    }
+                }
+                pending.set(entry);
+            }
+        }
     }
 
     void step(PropagationPoints changedPoints) {
@@ -150,7 +540,11 @@ public class Propagator {
         }
 
         // update clock
-        clock = toProcess.peek().time;
+        int time = toProcess.peek().time;
+        long elapsed = Integer.toUnsignedLong(time - clock);
+        clockPower *= power(HASH_BASE, elapsed);
+        clockInverse *= power(HASH_BASE_INVERSE, elapsed);
+        clock = time;
 
         // propagate all values for this clock tick
         HashMap<CircuitState, HashSet<ComponentPoint>> visited = new HashMap<>();
@@ -160,6 +554,8 @@ public class Propagator {
                 break;
             }
             toProcess.remove();
+            queueHash -= data.hashTerm;
+            eventCount++;
             CircuitState state = data.state;
 
             // if it's already handled for this clock tick, continue
@@ -190,6 +586,13 @@ public class Propagator {
             // if the value at point has changed, propagate it
             if (!newValue.equals(oldValue)) {
                 state.markPointAsDirty(data.location);
+                PropagationProfile prof = profile;
+                if (prof != null) {
+                    prof.pointToggled(state, data.location);
+                }
+                if (loopBuilder != null) {
+                    loopBuilder.addDriver(state, data.cause);
+                }
             }
         }
 
@@ -205,6 +608,9 @@ public class Propagator {
         if (oscillatorAdding) {
             oscillatorPoints.add(state, location);
         }
+        if (loopBuilder != null) {
+            loopBuilder.addTouched(state, location);
+        }
     }
 
     //
@@ -215,10 +621,11 @@ public class Propagator {
         if (cause instanceof Wire || cause instanceof Splitter) {
             return;
         }
-        if (delay <= 0) {
+        if (delay <= 0 || levelizing) {
+            // the cycle-based mode ignores delays
             delay = 1;
         }
-        int randomShift = simulateRandomShift;
+        int randomShift = levelizing ? 0 : simulateRandomShift;
         if (randomShift > 0) {
             // random noise is turned on
             // multiply the delay by 32 so that the random noise
@@ -233,8 +640,15 @@ public class Propagator {
                 }
             }
         }
-        toProcess.add(new SetData(clock + delay, setDataSerialNumber,
-            state, point, cause, value));
+        SetData data = new SetData(clock + delay, setDataSerialNumber,
+            state, point, cause, value);
+        data.hashTerm = hashTerm(state, point, cause, value) * clockPower * power(HASH_BASE, delay);
+        queueHash += data.hashTerm;
+        toProcess.add(data);
+        PropagationProfile prof = profile;
+        if (prof != null) {
+            prof.valueScheduled(state, cause);
+        }
         // TODO: DEBUGGING - comment out
 //        Logger.debugln(String.format("(Propagator.class ln:240) -> %d: set %s in %s to %s by %s after %d", clock, point, state, value, cause, delay));
 
@@ -286,6 +700,10 @@ public class Propagator {
 
     public boolean tick() {
         ticks++;
+        SimulatorMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.recordTick();
+        }
         return root.tick(ticks);
     }
 
@@ -333,6 +751,8 @@ public class Propagator {
         boolean replaced = false;
         for (SetData setData = head; setData != null; setData = setData.next) {
             if (setData.cause == data.cause) {
+                valueHash ^= hashTerm(state, data.location, data.cause, setData.value)
+                    ^ hashTerm(state, data.location, data.cause, data.value);
                 setData.value = data.value;
                 replaced = true;
                 break;
@@ -341,6 +761,7 @@ public class Propagator {
 
         // otherwise, insert to list of causes
         if (!replaced) {
+            valueHash ^= hashTerm(state, data.location, data.cause, data.value);
             if (head == null) {
                 causes.put(data.location, data);
                 head = data;
@@ -358,6 +779,7 @@ public class Propagator {
         HashMap<Location, SetData> causes = state.causes;
         if (head != null) {
             if (head.cause == cause) {
+                valueHash ^= hashTerm(state, location, cause, head.value);
                 head = head.next;
                 if (head == null) {
                     causes.remove(location);
@@ -369,6 +791,7 @@ public class Propagator {
                 SetData current = head.next;
                 while (current != null) {
                     if (current.cause == cause) {
+                        valueHash ^= hashTerm(state, location, cause, current.value);
                         previous.next = current.next;
                         break;
                     }
@@ -389,6 +812,7 @@ public class Propagator {
         private final Location location;  // the location at which value is emitted
         private Value value;        // value being emitted
         private SetData next = null;
+        private long hashTerm;      // term of the propagator's queueHash while pending
 
         private SetData(int time, int serialNumber, CircuitState state,
             Location location, Component cause, Value value) {
@@ -468,8 +892,11 @@ public class Propagator {
             Propagator propagator = propagators.get();
             if (propagator == null) {
                 event.getSource().removeAttributeListener(this);
-            } else if (event.getAttribute().equals(Options.SIMULATOR_RANDOM_ATTRIBUTE)) {
+            } else if (event.getAttribute().equals(Options.SIMULATOR_RANDOM_ATTRIBUTE)
+                || event.getAttribute().equals(Options.SIMULATOR_LIMIT_ATTRIBUTE)) {
                 propagator.updateRandomness();
+            } else if (event.getAttribute().equals(Options.SIMULATOR_MODE_ATTRIBUTE)) {
+                propagator.updateMode();
             }
         }
     }
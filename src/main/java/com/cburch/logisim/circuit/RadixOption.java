@@ -63,6 +63,14 @@ public abstract class RadixOption extends AttributeOption {
 
     public abstract int getMaxLength(BitWidth width);
 
+    /**
+     * Returns the number of decimal digits in the largest unsigned value
+     * of the given number of bits.
+     */
+    static int decimalDigits(int bits) {
+        return (int) Math.ceil(bits * Math.log10(2));
+    }
+
     public int getMaxLength(Value value) {
         return getMaxLength(value.getBitWidth());
     }
@@ -149,7 +157,7 @@ public abstract class RadixOption extends AttributeOption {
                 case 32:
                     return 11; // 1G..2G
                 default:
-                    return 1;
+                    return width.getWidth() > 32 ? decimalDigits(width.getWidth() - 1) + 1 : 1;
             }
         }
     }
@@ -207,7 +215,7 @@ public abstract class RadixOption extends AttributeOption {
                 case 32:
                     return 10;
                 default:
-                    return 1;
+                    return width.getWidth() > 32 ? decimalDigits(width.getWidth()) : 1;
             }
         }
     }
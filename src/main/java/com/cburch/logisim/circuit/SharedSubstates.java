@@ -0,0 +1,222 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.data.Direction;
+import com.cburch.logisim.data.Value;
+import com.cburch.logisim.instance.Instance;
+import com.cburch.logisim.instance.InstanceData;
+import com.cburch.logisim.instance.InstanceState;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.wiring.Pin;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * The substates shared by the instances of one subcircuit within one
+ * project. Two instances that have seen the same sequence of input values
+ * since they were reset are in the same state, so rather than each having
+ * its own tree of states they refer to a shared node, which holds the
+ * state settled after that sequence. An instance gets its own copy of the
+ * node's state only when its inputs take a value that the node has no room
+ * to follow, or when the state is wanted for viewing or logging.
+ *
+ * <p>Each new input value is settled completely before the next one is
+ * applied, and the shared outputs reach the supercircuit after a single
+ * step, so that the interior delays of a subcircuit are not seen while it
+ * is shared. A subcircuit whose hierarchy contains a clock is never
+ * shared, since its substates must tick. The nodes are discarded whenever
+ * any circuit is edited; an instance referring to a discarded node finds
+ * its place again by replaying its sequence of inputs.</p>
+ */
+class SharedSubstates {
+
+    private static final int MAX_NODES = 64;
+
+    private final Circuit circuit;
+    private final Project project;
+    private int stamp;
+    private boolean eligible;
+    private Instance[] inputPins;
+    private HashMap<Instance, Integer> inputIndex;
+    private Node root = null;
+    private int nodeCount;
+
+    SharedSubstates(Circuit circuit, Project project) {
+        this.circuit = circuit;
+        this.project = project;
+    }
+
+    /**
+     * Returns the node reached from the given node, or from a fresh state
+     * if it is null, when the inputs of the given ports take the given
+     * values, or null if the instance must have its own state.
+     */
+    synchronized Node getNode(Node from, Instance[] pins, Value[] values) {
+        validate();
+        if (!eligible) {
+            return null;
+        }
+        Value[] inputs = new Value[inputPins.length];
+        for (int i = 0; i < pins.length; i++) {
+            Integer index = inputIndex.get(pins[i]);
+            if (index != null) {
+                inputs[index] = values[i];
+            }
+        }
+        for (Value v : inputs) {
+            if (v == null) {
+                return null; // the ports are being recomputed
+            }
+        }
+        Node current = from == null ? root : find(from);
+        if (current == null) {
+            return null;
+        }
+        InputKey key = new InputKey(inputs);
+        if (key.equals(current.key)) {
+            return current;
+        }
+        return getChild(current, key);
+    }
+
+    private void validate() {
+        int current = Circuit.getModificationStamp();
+        if (root != null && stamp == current) {
+            return;
+        }
+        stamp = current;
+        eligible = !containsClock(circuit, new HashSet<>());
+        ArrayList<Instance> pins = new ArrayList<>();
+        for (Instance pin : circuit.getAppearance().getPortOffsets(Direction.EAST).values()) {
+            if (Pin.FACTORY.isInputPin(pin)) {
+                pins.add(pin);
+            }
+        }
+        inputPins = pins.toArray(new Instance[0]);
+        inputIndex = new HashMap<>();
+        for (int i = 0; i < inputPins.length; i++) {
+            inputIndex.put(inputPins[i], i);
+        }
+        root = new Node(null, null, null, null);
+        nodeCount = 0;
+    }
+
+    private static boolean containsClock(Circuit circuit, HashSet<Circuit> seen) {
+        if (!circuit.getClocks().isEmpty()) {
+            return true;
+        }
+        for (Component comp : circuit.getNonWires()) {
+            if (comp.getFactory() instanceof SubcircuitFactory) {
+                Circuit sub = ((SubcircuitFactory) comp.getFactory()).getSubcircuit();
+                if (seen.add(sub) && containsClock(sub, seen)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the current node for a node that may have been discarded,
+     * replaying the inputs that led to it.
+     */
+    private Node find(Node node) {
+        if (node.parent == null) {
+            return root;
+        }
+        if (node.root() == root) {
+            return node;
+        }
+        Node parent = find(node.parent);
+        return parent == null ? null : getChild(parent, node.key);
+    }
+
+    private Node getChild(Node parent, InputKey key) {
+        Node ret = parent.children.get(key);
+        if (ret == null) {
+            if (nodeCount >= MAX_NODES) {
+                return null;
+            }
+            CircuitState state = settle(parent.state, key.values);
+            if (state == null) {
+                return null;
+            }
+            HashMap<Instance, Value> outputs = new HashMap<>();
+            for (Instance pin : circuit.getAppearance().getPortOffsets(Direction.EAST).values()) {
+                if (!Pin.FACTORY.isInputPin(pin)) {
+                    outputs.put(pin, state.getInstanceState(pin).getPort(0));
+                }
+            }
+            ret = new Node(parent, key, state, outputs);
+            parent.children.put(key, ret);
+            nodeCount++;
+        }
+        return ret;
+    }
+
+    /**
+     * Returns a copy of the given state, or a fresh state if it is null,
+     * settled with the given inputs, or null if it oscillates.
+     */
+    private CircuitState settle(CircuitState from, Value[] inputs) {
+        CircuitState state = from == null ? new CircuitState(project, circuit) : from.cloneState();
+        Propagator prop = state.getPropagator();
+        for (int i = 0; i < inputPins.length; i++) {
+            InstanceState pinState = state.getInstanceState(inputPins[i]);
+            Pin.FACTORY.setValue(pinState, inputs[i]);
+            Pin.FACTORY.propagate(pinState);
+        }
+        prop.propagate();
+        return prop.isOscillating() ? null : state;
+    }
+
+    /**
+     * A state shared by the instances that have seen the same inputs,
+     * kept as the data of each such instance in place of its substate.
+     */
+    static class Node implements InstanceData {
+
+        private final Node parent;
+        private final InputKey key;
+        private final CircuitState state;
+        private final HashMap<Instance, Value> outputs;
+        private final HashMap<InputKey, Node> children = new HashMap<>();
+
+        private Node(Node parent, InputKey key, CircuitState state,
+            HashMap<Instance, Value> outputs) {
+            this.parent = parent;
+            this.key = key;
+            this.state = state;
+            this.outputs = outputs;
+        }
+
+        private Node root() {
+            Node ret = this;
+            while (ret.parent != null) {
+                ret = ret.parent;
+            }
+            return ret;
+        }
+
+        Value getOutput(Instance pin) {
+            return outputs.get(pin);
+        }
+
+        /**
+         * Returns a copy of the shared state, for an instance that is to
+         * have its own.
+         */
+        CircuitState copyState() {
+            return state == null ? null : state.copyState();
+        }
+
+        @Override
+        public Object clone() {
+            return this; // nodes are never changed once settled
+        }
+    }
+}
@@ -35,6 +35,8 @@ public class Simulator {
     private boolean isTicking = false;
     private boolean isExceptionEncountered = false;
     private double tickFrequency;
+    private volatile PropagationProfile profile = null;
+    private final SimulatorMetrics metrics = new SimulatorMetrics();
 
     public Simulator() {
         manager = new PropagationManager();
@@ -63,6 +65,13 @@ public class Simulator {
     }
 
     public void setCircuitState(CircuitState state) {
+        Propagator old = manager.getPropagator();
+        if (old != null) {
+            old.setProfile(null);
+            old.setMetrics(null);
+        }
+        state.getPropagator().setProfile(profile);
+        state.getPropagator().setMetrics(metrics);
         manager.setPropagator(state.getPropagator());
         renewTickerAwake();
     }
@@ -142,6 +151,33 @@ public class Simulator {
         }
     }
 
+    public SimulatorMetrics getMetrics() {
+        return metrics;
+    }
+
+    public boolean isProfiling() {
+        return profile != null;
+    }
+
+    public PropagationProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Starts collecting a fresh profile of the simulation, or stops and
+     * discards the current one.
+     */
+    public void setIsProfiling(boolean isProfiling) {
+        if (isProfiling() != isProfiling) {
+            profile = isProfiling ? new PropagationProfile() : null;
+            Propagator propagator = manager.getPropagator();
+            if (propagator != null) {
+                propagator.setProfile(profile);
+            }
+            fireSimulatorStateChanged();
+        }
+    }
+
     public void requestPropagate() {
         manager.requestPropagate();
     }
@@ -151,6 +187,15 @@ public class Simulator {
         return propagator != null && propagator.isOscillating();
     }
 
+    /**
+     * Returns the loop of components that keeps the simulated circuit
+     * oscillating, or null if it isn't oscillating.
+     */
+    public OscillationLoop getOscillationLoop() {
+        Propagator propagator = manager.getPropagator();
+        return propagator == null ? null : propagator.getOscillationLoop();
+    }
+
     public void addSimulatorListener(SimulatorListener listener) {
         listeners.add(listener);
     }
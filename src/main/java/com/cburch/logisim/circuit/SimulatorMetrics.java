@@ -0,0 +1,193 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.circuit;
+
+import com.adlerd.logger.Logger;
+import com.cburch.logisim.util.Histogram;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms for one project's simulator, registered
+ * as a platform MBean under <code>com.cburch.logisim:type=Simulator</code>
+ * while the project is open. Every recorder is lock-free, so that the
+ * simulation and painting threads never wait on a JMX client.
+ *
+ * <p>Bundle maps belong to circuits, which projects may share through
+ * libraries, so their rebuilds are counted once for the whole process and
+ * reported by every project.</p>
+ */
+public class SimulatorMetrics implements SimulatorMetricsMBean {
+
+    private static final String DOMAIN = "com.cburch.logisim";
+    // how often the achieved tick rate is recomputed
+    private static final long RATE_WINDOW = 1000000000L;
+    private static final AtomicInteger lastId = new AtomicInteger();
+
+    private static final Histogram bundleMapRebuilds = new Histogram();
+
+    private volatile String projectName = null;
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder oscillationAborts = new LongAdder();
+    private final Histogram propagations = new Histogram();
+    private final Histogram steps = new Histogram();
+    private final Histogram repaints = new Histogram();
+    private volatile int queueDepth = 0;
+    private volatile int maxQueueDepth = 0;
+    private volatile double ticksPerSecond = 0.0;
+    private long rateWindowStart = System.nanoTime();
+    private long rateWindowTicks = 0;
+    private ObjectName objectName = null;
+
+    static void recordBundleMapRebuild(long nanos) {
+        bundleMapRebuilds.record(nanos);
+    }
+
+    void recordTick() {
+        ticks.increment();
+        // ticks are only recorded by the simulation thread
+        long now = System.nanoTime();
+        long elapsed = now - rateWindowStart;
+        if (elapsed >= RATE_WINDOW) {
+            long total = ticks.sum();
+            ticksPerSecond = Math.max(0, total - rateWindowTicks) * 1e9 / elapsed;
+            rateWindowStart = now;
+            rateWindowTicks = total;
+        }
+    }
+
+    void recordPropagation(long nanos, int stepCount, int eventCount, boolean aborted) {
+        propagations.record(nanos);
+        steps.record(stepCount);
+        events.add(eventCount);
+        if (aborted) {
+            oscillationAborts.increment();
+        }
+    }
+
+    void recordQueueDepth(int depth) {
+        queueDepth = depth;
+        if (depth > maxQueueDepth) {
+            maxQueueDepth = depth;
+        }
+    }
+
+    public void recordRepaint(long nanos) {
+        repaints.record(nanos);
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under the
+     * given project name, logging rather than failing if JMX is
+     * unavailable.
+     */
+    public void register(String projectName) {
+        this.projectName = projectName;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":type=Simulator,name="
+                + ObjectName.quote(projectName + " #" + lastId.incrementAndGet()));
+            server.registerMBean(this, name);
+            objectName = name;
+        } catch (JMException | SecurityException e) {
+            Logger.warnln("could not register simulator metrics: " + e);
+        }
+    }
+
+    public void unregister() {
+        ObjectName name = objectName;
+        if (name != null) {
+            objectName = null;
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            } catch (JMException | SecurityException e) {
+                Logger.warnln("could not unregister simulator metrics: " + e);
+            }
+        }
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public long getTickCount() {
+        return ticks.sum();
+    }
+
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public long getPropagationCount() {
+        return propagations.getCount();
+    }
+
+    public double getPropagationsPerTick() {
+        long tickCount = ticks.sum();
+        return tickCount == 0 ? 0.0 : (double) propagations.getCount() / tickCount;
+    }
+
+    public double getMeanPropagationMicros() {
+        return propagations.getMean() / 1000.0;
+    }
+
+    public long getPropagation99thPercentileMicros() {
+        return propagations.getQuantile(0.99) / 1000;
+    }
+
+    public double getMeanStepsPerPropagation() {
+        return steps.getMean();
+    }
+
+    public long getEventsProcessed() {
+        return events.sum();
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public long getOscillationAborts() {
+        return oscillationAborts.sum();
+    }
+
+    public long getBundleMapRebuilds() {
+        return bundleMapRebuilds.getCount();
+    }
+
+    public double getMeanBundleMapRebuildMicros() {
+        return bundleMapRebuilds.getMean() / 1000.0;
+    }
+
+    public long getRepaintCount() {
+        return repaints.getCount();
+    }
+
+    public double getMeanRepaintLatencyMillis() {
+        return repaints.getMean() / 1000000.0;
+    }
+
+    public long getRepaintLatency99thPercentileMillis() {
+        return repaints.getQuantile(0.99) / 1000000;
+    }
+
+    public void reset() {
+        ticks.reset();
+        events.reset();
+        oscillationAborts.reset();
+        propagations.reset();
+        steps.reset();
+        repaints.reset();
+        maxQueueDepth = 0;
+    }
+}
@@ -0,0 +1,68 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.circuit;
+
+/**
+ * The management interface through which the metrics of a project's
+ * simulator are read by JMX clients such as jconsole. Times are in
+ * microseconds unless named otherwise.
+ */
+public interface SimulatorMetricsMBean {
+
+    String getProjectName();
+
+    long getTickCount();
+
+    /**
+     * Returns the tick rate achieved over the last second or so of
+     * ticking.
+     */
+    double getTicksPerSecond();
+
+    long getPropagationCount();
+
+    double getPropagationsPerTick();
+
+    double getMeanPropagationMicros();
+
+    long getPropagation99thPercentileMicros();
+
+    double getMeanStepsPerPropagation();
+
+    long getEventsProcessed();
+
+    /**
+     * Returns the number of events pending in the propagator's queue at
+     * its latest step.
+     */
+    int getQueueDepth();
+
+    int getMaxQueueDepth();
+
+    /**
+     * Returns the number of propagations abandoned because the circuit
+     * appeared to oscillate.
+     */
+    long getOscillationAborts();
+
+    /**
+     * Returns the number of times any circuit's wire bundles have been
+     * recomputed, across all projects.
+     */
+    long getBundleMapRebuilds();
+
+    double getMeanBundleMapRebuildMicros();
+
+    /**
+     * Returns the number of canvas repaints requested by the simulation,
+     * whose latency runs from the request to the end of the paint.
+     */
+    long getRepaintCount();
+
+    double getMeanRepaintLatencyMillis();
+
+    long getRepaintLatency99thPercentileMillis();
+
+    void reset();
+}
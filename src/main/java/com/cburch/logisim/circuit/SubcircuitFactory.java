@@ -11,6 +11,7 @@ import com.cburch.logisim.data.Bounds;
 import com.cburch.logisim.data.Direction;
 import com.cburch.logisim.data.Location;
 import com.cburch.logisim.data.Value;
+import com.cburch.logisim.file.Options;
 import com.cburch.logisim.instance.Instance;
 import com.cburch.logisim.instance.InstanceFactory;
 import com.cburch.logisim.instance.InstancePainter;
@@ -33,12 +34,15 @@ import java.awt.Graphics2D;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.Map;
+import java.util.WeakHashMap;
 import javax.swing.JMenuItem;
 import javax.swing.JPopupMenu;
 
 public class SubcircuitFactory extends InstanceFactory {
 
     private final Circuit source;
+    private final WeakHashMap<Project, SharedSubstates> sharedSubstates = new WeakHashMap<>();
+    private final WeakHashMap<Project, SubcircuitMemo> memos = new WeakHashMap<>();
 
     public SubcircuitFactory(Circuit source) {
         super("", null);
@@ -185,22 +189,34 @@ public class SubcircuitFactory extends InstanceFactory {
         return getSubstate(createInstanceState(superState, comp));
     }
 
-    private CircuitState getSubstate(InstanceState instanceState) {
-        CircuitState subState = (CircuitState) instanceState.getData();
+    CircuitState getSubstate(InstanceState instanceState) {
+        Object data = instanceState.getData();
+        if (data instanceof CircuitState) {
+            return (CircuitState) data;
+        }
+        CircuitState subState = null;
+        if (data instanceof SharedSubstates.Node) {
+            subState = ((SharedSubstates.Node) data).copyState();
+        }
         if (subState == null) {
             subState = new CircuitState(instanceState.getProject(), source);
-            instanceState.setData(subState);
-            instanceState.fireInvalidated();
         }
+        instanceState.setData(subState);
+        instanceState.fireInvalidated();
         return subState;
     }
 
     @Override
     public void propagate(InstanceState superState) {
-        CircuitState subState = getSubstate(superState);
-
         CircuitAttributes attrs = (CircuitAttributes) superState.getAttributeSet();
         Instance[] pins = attrs.getPinInstances();
+        Object data = superState.getData();
+        if (!(data instanceof CircuitState)
+            && (propagateMemoized(superState, data, pins) || propagateShared(superState, data, pins))) {
+            return;
+        }
+
+        CircuitState subState = getSubstate(superState);
         for (int i = 0; i < pins.length; i++) {
             Instance pin = pins[i];
             InstanceState pinState = subState.getInstanceState(pin);
@@ -218,6 +234,80 @@ public class SubcircuitFactory extends InstanceFactory {
         }
     }
 
+    /**
+     * Propagates an instance of a combinational subcircuit from the outputs
+     * memoized for its inputs, returning false if the instance must be
+     * simulated otherwise.
+     */
+    private boolean propagateMemoized(InstanceState superState, Object data, Instance[] pins) {
+        Project proj = superState.getProject();
+        if (proj == null || !proj.getOptions().getAttributeSet().getValue(Options.SIMULATOR_MEMO_ATTRIBUTE)) {
+            return false;
+        }
+        SubcircuitMemo memo;
+        synchronized (memos) {
+            memo = memos.computeIfAbsent(proj, p -> new SubcircuitMemo(source, p));
+        }
+        Value[] values = new Value[pins.length];
+        for (int i = 0; i < pins.length; i++) {
+            if (Pin.FACTORY.isInputPin(pins[i])) {
+                values[i] = superState.getPort(i);
+            }
+        }
+        Value[] outputs = memo.getOutputs(pins, values);
+        if (outputs == null) {
+            return false;
+        }
+        if (data != SubcircuitMemo.MEMOIZED) {
+            superState.setData(SubcircuitMemo.MEMOIZED);
+        }
+        for (int i = 0; i < pins.length; i++) {
+            if (outputs[i] != null) {
+                superState.setPort(i, outputs[i], 1);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Propagates an instance through a substate shared with the other
+     * instances that have seen the same inputs, returning false if the
+     * instance must have its own substate.
+     */
+    private boolean propagateShared(InstanceState superState, Object data, Instance[] pins) {
+        Project proj = superState.getProject();
+        if (proj == null || !proj.getOptions().getAttributeSet().getValue(Options.SIMULATOR_SHARE_ATTRIBUTE)) {
+            return false;
+        }
+        SharedSubstates shared;
+        synchronized (sharedSubstates) {
+            shared = sharedSubstates.computeIfAbsent(proj, p -> new SharedSubstates(source, p));
+        }
+        Value[] values = new Value[pins.length];
+        for (int i = 0; i < pins.length; i++) {
+            if (Pin.FACTORY.isInputPin(pins[i])) {
+                values[i] = superState.getPort(i);
+            }
+        }
+        SharedSubstates.Node from = data instanceof SharedSubstates.Node ? (SharedSubstates.Node) data : null;
+        SharedSubstates.Node node = shared.getNode(from, pins, values);
+        if (node == null) {
+            return false;
+        }
+        if (node != from) {
+            superState.setData(node);
+        }
+        for (int i = 0; i < pins.length; i++) {
+            if (!Pin.FACTORY.isInputPin(pins[i])) {
+                Value val = node.getOutput(pins[i]);
+                if (val != null) {
+                    superState.setPort(i, val, 1);
+                }
+            }
+        }
+        return true;
+    }
+
     //
     // user interface features
     //
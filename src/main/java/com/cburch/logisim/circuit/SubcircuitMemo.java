@@ -0,0 +1,217 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.comp.ComponentFactory;
+import com.cburch.logisim.data.Direction;
+import com.cburch.logisim.data.Value;
+import com.cburch.logisim.instance.Instance;
+import com.cburch.logisim.instance.InstanceData;
+import com.cburch.logisim.instance.InstanceState;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.wiring.Pin;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The outputs of a combinational subcircuit for each of the input values
+ * it has recently seen within one project. An instance whose inputs are
+ * found here needs no substate at all; the outputs of new input values are
+ * found by simulating a single private state of the subcircuit, which
+ * serves every instance. The least recently used entries are evicted, and
+ * all of them are discarded whenever any circuit is edited.
+ *
+ * <p>A subcircuit is combinational when nothing in its hierarchy is a
+ * clock or a sequential component and its wiring has no loop, so that its
+ * outputs depend only on its present inputs. Since such a hierarchy has
+ * nothing that changes as it is simulated, an invalidation from one of its
+ * circuits means that the contents of a component such as a ROM have been
+ * edited, and the entries are discarded then too.</p>
+ */
+class SubcircuitMemo implements CircuitListener {
+
+    /** The data of an instance whose outputs come from its memo. */
+    static final InstanceData MEMOIZED = new InstanceData() {
+        @Override
+        public Object clone() {
+            return this;
+        }
+    };
+
+    private static final int MAX_ENTRIES = 4096;
+
+    private final Circuit circuit;
+    private final Project project;
+    private int stamp;
+    private boolean combinational;
+    private HashSet<Circuit> hierarchy = new HashSet<>();
+    private Instance[] inputPins = null;
+    private Instance[] outputPins;
+    private HashMap<Instance, Integer> pinIndex;
+    private CircuitState evaluator;
+    private boolean evaluating = false;
+    private final LinkedHashMap<InputKey, Value[]> entries
+        = new LinkedHashMap<InputKey, Value[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<InputKey, Value[]> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+
+    SubcircuitMemo(Circuit circuit, Project project) {
+        this.circuit = circuit;
+        this.project = project;
+    }
+
+    /**
+     * Returns the outputs of the subcircuit when the inputs of the given
+     * ports take the given values, indexed like the ports, or null if the
+     * subcircuit isn't combinational or they can't be found because it
+     * oscillates.
+     */
+    synchronized Value[] getOutputs(Instance[] pins, Value[] values) {
+        validate();
+        if (!combinational) {
+            return null;
+        }
+        Value[] inputs = new Value[inputPins.length];
+        for (int i = 0; i < pins.length; i++) {
+            Integer index = pinIndex.get(pins[i]);
+            if (index != null && Pin.FACTORY.isInputPin(pins[i])) {
+                inputs[index] = values[i];
+            }
+        }
+        for (Value v : inputs) {
+            if (v == null) {
+                return null; // the ports are being recomputed
+            }
+        }
+        InputKey key = new InputKey(inputs);
+        Value[] outputs = entries.get(key);
+        if (outputs == null) {
+            outputs = evaluate(inputs);
+            if (outputs == null) {
+                return null;
+            }
+            entries.put(key, outputs);
+        }
+        Value[] ret = new Value[pins.length];
+        for (int i = 0; i < pins.length; i++) {
+            Integer index = pinIndex.get(pins[i]);
+            if (index != null && !Pin.FACTORY.isInputPin(pins[i])) {
+                ret[i] = outputs[index];
+            }
+        }
+        return ret;
+    }
+
+    private void validate() {
+        int current = Circuit.getModificationStamp();
+        if (inputPins != null && stamp == current) {
+            return;
+        }
+        stamp = current;
+        entries.clear();
+        int inputCount = 0;
+        int outputCount = 0;
+        pinIndex = new HashMap<>();
+        for (Instance pin : circuit.getAppearance().getPortOffsets(Direction.EAST).values()) {
+            if (Pin.FACTORY.isInputPin(pin)) {
+                pinIndex.put(pin, inputCount++);
+            } else {
+                pinIndex.put(pin, outputCount++);
+            }
+        }
+        inputPins = new Instance[inputCount];
+        outputPins = new Instance[outputCount];
+        for (Map.Entry<Instance, Integer> entry : pinIndex.entrySet()) {
+            if (Pin.FACTORY.isInputPin(entry.getKey())) {
+                inputPins[entry.getValue()] = entry.getKey();
+            } else {
+                outputPins[entry.getValue()] = entry.getKey();
+            }
+        }
+
+        for (Circuit c : hierarchy) {
+            c.removeCircuitListener(this);
+        }
+        hierarchy = new HashSet<>();
+        combinational = !containsState(circuit, hierarchy);
+        for (Circuit c : hierarchy) {
+            c.addCircuitListener(this);
+        }
+        evaluator = null;
+        if (combinational) {
+            // a loop in the wiring may hold state, as in a latch of gates
+            evaluator = new CircuitState(project, circuit);
+            evaluating = true;
+            try {
+                evaluator.getPropagator().propagate();
+            } finally {
+                evaluating = false;
+            }
+            combinational = LevelizedSchedule.create(evaluator) != null;
+        }
+    }
+
+    private static boolean containsState(Circuit circuit, HashSet<Circuit> seen) {
+        seen.add(circuit);
+        if (!circuit.getClocks().isEmpty()) {
+            return true;
+        }
+        for (Component comp : circuit.getNonWires()) {
+            ComponentFactory factory = comp.getFactory();
+            if (factory instanceof SubcircuitFactory) {
+                Circuit sub = ((SubcircuitFactory) factory).getSubcircuit();
+                if (!seen.contains(sub) && containsState(sub, seen)) {
+                    return true;
+                }
+            } else if (Boolean.TRUE.equals(factory.getFeature(ComponentFactory.SEQUENTIAL,
+                comp.getAttributeSet()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Value[] evaluate(Value[] inputs) {
+        if (evaluator == null) {
+            evaluator = new CircuitState(project, circuit);
+        }
+        Propagator prop = evaluator.getPropagator();
+        evaluating = true;
+        try {
+            for (int i = 0; i < inputPins.length; i++) {
+                InstanceState pinState = evaluator.getInstanceState(inputPins[i]);
+                if (!inputs[i].equals(Pin.FACTORY.getValue(pinState))) {
+                    Pin.FACTORY.setValue(pinState, inputs[i]);
+                    Pin.FACTORY.propagate(pinState);
+                }
+            }
+            prop.propagate();
+        } finally {
+            evaluating = false;
+        }
+        if (prop.isOscillating()) {
+            evaluator = null;
+            return null;
+        }
+        Value[] ret = new Value[outputPins.length];
+        for (int i = 0; i < outputPins.length; i++) {
+            ret[i] = evaluator.getInstanceState(outputPins[i]).getPort(0);
+        }
+        return ret;
+    }
+
+    public synchronized void circuitChanged(CircuitEvent event) {
+        if (event.getAction() == CircuitEvent.ACTION_INVALIDATE && !evaluating
+            && !entries.isEmpty()) {
+            // the instances using the old entries must be propagated again
+            Circuit.noteModified();
+        }
+    }
+}
@@ -65,9 +65,9 @@ public class SubcircuitPoker extends InstancePoker {
         if (mouseDown) {
             mouseDown = false;
             Object sub = state.getData();
-            if (e.getClickCount() == 2 && isWithin(state, e)
-                && sub instanceof CircuitState) {
-                state.getProject().setCircuitState((CircuitState) sub);
+            if (e.getClickCount() == 2 && isWithin(state, e) && sub != null) {
+                SubcircuitFactory factory = (SubcircuitFactory) state.getFactory();
+                state.getProject().setCircuitState(factory.getSubstate(state));
             } else {
                 state.getInstance().fireInvalidated();
             }
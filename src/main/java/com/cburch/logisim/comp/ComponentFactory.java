@@ -23,6 +23,8 @@ public interface ComponentFactory extends AttributeDefaultProvider {
     Object SHOULD_SNAP = new Object();
     Object TOOL_TIP = new Object();
     Object FACING_ATTRIBUTE_KEY = new Object();
+    Object SEQUENTIAL = new Object();
+    Object WIDTH_LIMIT = new Object();
 
     String getName();
 
@@ -55,8 +57,13 @@ public interface ComponentFactory extends AttributeDefaultProvider {
      * implementation of that interface if it supports the feature.
      *
      * As of this writing, possible values for <code>key</code> include:
-     * <code>TOOL_TIP</code> (return a <code>String</code>) and
-     * <code>SHOULD_SNAP</code> (return a <code>Boolean</code>).
+     * <code>TOOL_TIP</code> (return a <code>String</code>),
+     * <code>SHOULD_SNAP</code> (return a <code>Boolean</code>),
+     * <code>SEQUENTIAL</code> (return <code>Boolean.TRUE</code> if the
+     * component holds state that changes only on a clock edge or an
+     * asynchronous control, as a register does) and
+     * <code>WIDTH_LIMIT</code> (return an <code>Integer</code>, the widest
+     * setting the component's width attribute can take).
      *
      * @param key an object representing a feature.
      * @return an object representing information about how the component
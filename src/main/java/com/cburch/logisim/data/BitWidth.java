@@ -12,6 +12,9 @@ public class BitWidth implements Comparable<BitWidth> {
     public static final BitWidth UNKNOWN = new BitWidth(0);
     public static final BitWidth ONE = new BitWidth(1);
 
+    // the widths beyond 32 offered in the default attribute choices
+    private static final int[] WIDE_CHOICES = {64, 128, 256};
+
     private static BitWidth[] prefab = null;
     final int width;
 
@@ -61,7 +64,7 @@ public class BitWidth implements Comparable<BitWidth> {
     public int getMask() {
         if (width == 0) {
             return 0;
-        } else if (width == 32) {
+        } else if (width >= 32) {
             return -1;
         } else {
             return (1 << width) - 1;
@@ -91,14 +94,22 @@ public class BitWidth implements Comparable<BitWidth> {
         return "" + width;
     }
 
-    static class Attribute extends com.cburch.logisim.data.Attribute<BitWidth> {
+    public static class Attribute extends com.cburch.logisim.data.Attribute<BitWidth> {
 
         private final BitWidth[] choices;
 
         public Attribute(String name, StringGetter disp) {
             super(name, disp);
             ensurePrefab();
-            choices = prefab;
+            int wide = 0;
+            while (wide < WIDE_CHOICES.length && WIDE_CHOICES[wide] <= Value.MAX_WIDTH) {
+                wide++;
+            }
+            choices = new BitWidth[prefab.length + wide];
+            System.arraycopy(prefab, 0, choices, 0, prefab.length);
+            for (int i = 0; i < wide; i++) {
+                choices[prefab.length + i] = BitWidth.create(WIDE_CHOICES[i]);
+            }
         }
 
         public Attribute(String name, StringGetter disp, int min, int max) {
@@ -116,10 +127,24 @@ public class BitWidth implements Comparable<BitWidth> {
 
         @Override
         public java.awt.Component getCellEditor(BitWidth value) {
-            JComboBox<BitWidth> combo = new JComboBox<>(choices);
+            return getCellEditor(value, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Returns an editor offering only the choices up to <code>limit</code>
+         * bits, for a component that can't hold any wider value.
+         */
+        public java.awt.Component getCellEditor(BitWidth value, int limit) {
+            JComboBox<BitWidth> combo = new JComboBox<>();
+            boolean found = false;
+            for (BitWidth choice : choices) {
+                if (choice.getWidth() <= limit) {
+                    combo.addItem(choice);
+                    found |= choice.equals(value);
+                }
+            }
             if (value != null) {
-                int wid = value.getWidth();
-                if (wid <= 0 || wid > prefab.length) {
+                if (!found) {
                     combo.addItem(value);
                 }
                 combo.setSelectedItem(value);
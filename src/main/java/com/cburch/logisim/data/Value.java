@@ -5,6 +5,7 @@ package com.cburch.logisim.data;
 
 import com.cburch.logisim.util.Cache;
 import java.awt.Color;
+import java.math.BigInteger;
 import java.util.Arrays;
 
 public class Value {
@@ -15,7 +16,13 @@ public class Value {
     public static final Value ERROR = new Value(1, 1, 0, 0);
     public static final Value NIL = new Value(0, 0, 0, 0);
 
-    public static final int MAX_WIDTH = 32;
+    public static final int MAX_WIDTH = 256;
+
+    /**
+     * Values up to this width keep their bits in <code>int</code> masks;
+     * wider values also carry the full masks in <code>long</code> words.
+     */
+    private static final int INT_WIDTH = 32;
 
     public static final Color NIL_COLOR = Color.GRAY;
     public static final Color FALSE_COLOR = new Color(0, 100, 0);
@@ -25,11 +32,15 @@ public class Value {
     public static final Color WIDTH_ERROR_COLOR = new Color(255, 123, 0);
     public static final Color MULTI_COLOR = Color.BLACK;
 
-    private static final Cache cache = new Cache();
+    private static final Cache cache = new Cache(12);
     private final int width;
     private final int error;
     private final int unknown;
     private final int value;
+    // the full masks for values wider than INT_WIDTH, null otherwise
+    private final long[] errorWords;
+    private final long[] unknownWords;
+    private final long[] valueWords;
 
     private Value(int width, int error, int unknown, int value) {
         // To ensure that the one-bit values are unique, this should be called only
@@ -38,6 +49,19 @@ public class Value {
         this.error = error;
         this.unknown = unknown;
         this.value = value;
+        this.errorWords = null;
+        this.unknownWords = null;
+        this.valueWords = null;
+    }
+
+    private Value(int width, long[] error, long[] unknown, long[] value) {
+        this.width = width;
+        this.error = (int) error[0];
+        this.unknown = (int) unknown[0];
+        this.value = (int) value[0];
+        this.errorWords = error;
+        this.unknownWords = unknown;
+        this.valueWords = value;
     }
 
     public static Value create(Value[] values) {
@@ -52,19 +76,19 @@ public class Value {
         }
 
         int width = values.length;
-        int value = 0;
-        int unknown = 0;
-        int error = 0;
+        long[] value = new long[wordCount(width)];
+        long[] unknown = new long[value.length];
+        long[] error = new long[value.length];
         for (int i = 0; i < values.length; i++) {
-            int mask = 1 << i;
+            long mask = 1L << i;
             if (values[i] == TRUE) {
-                value |= mask;
+                value[i >> 6] |= mask;
             } else if (values[i] == FALSE) {
                 /* do nothing */
             } else if (values[i] == UNKNOWN) {
-                unknown |= mask;
+                unknown[i >> 6] |= mask;
             } else if (values[i] == ERROR) {
-                error |= mask;
+                error[i >> 6] |= mask;
             } else {
                 throw new RuntimeException("unrecognized value "
                     + values[i]);
@@ -77,16 +101,75 @@ public class Value {
         return Value.create(bits.getWidth(), 0, 0, value);
     }
 
+    /**
+     * Creates a fully defined value from its bits, least significant word
+     * first; missing words are taken as zero.
+     */
+    public static Value createKnown(BitWidth bits, long[] value) {
+        int words = wordCount(bits.getWidth());
+        return Value.create(bits.getWidth(), new long[words], new long[words], Arrays.copyOf(value, words));
+    }
+
+    /**
+     * Creates a fully defined value from the low bits of an integer;
+     * negative integers are taken in two's complement.
+     */
+    public static Value createKnown(BitWidth bits, BigInteger value) {
+        int width = bits.getWidth();
+        if (width <= INT_WIDTH) {
+            return createKnown(bits, value.intValue());
+        }
+        long[] words = new long[wordCount(width)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = value.shiftRight(64 * i).longValue();
+        }
+        return createKnown(bits, words);
+    }
+
     public static Value createUnknown(BitWidth bits) {
+        if (bits.getWidth() > INT_WIDTH) {
+            int words = wordCount(bits.getWidth());
+            return Value.create(bits.getWidth(), new long[words], filledWords(words), new long[words]);
+        }
         return Value.create(bits.getWidth(), 0, -1, 0);
     }
 
     public static Value createError(BitWidth bits) {
+        if (bits.getWidth() > INT_WIDTH) {
+            int words = wordCount(bits.getWidth());
+            return Value.create(bits.getWidth(), filledWords(words), new long[words], new long[words]);
+        }
         return Value.create(bits.getWidth(), -1, 0, 0);
     }
 
-    private static Value create(int width, int error, int unknown, int value) {
-        if (width == 0) {
+    private static int wordCount(int width) {
+        return (width + 63) >> 6;
+    }
+
+    private static long[] filledWords(int words) {
+        long[] ret = new long[words];
+        Arrays.fill(ret, -1L);
+        return ret;
+    }
+
+    /**
+     * Creates a value directly from its bit masks, so that code working
+     * on the masks of several values need only materialize the result.
+     * Bits beyond the width are ignored; an error bit takes precedence
+     * over an unknown bit, which takes precedence over a value bit. For
+     * widths beyond 32, the bits above the masks are zero.
+     */
+    public static Value create(int width, int error, int unknown, int value) {
+        if (width > INT_WIDTH) {
+            int words = wordCount(width);
+            long[] errorWords = new long[words];
+            long[] unknownWords = new long[words];
+            long[] valueWords = new long[words];
+            errorWords[0] = error & 0xFFFFFFFFL;
+            unknownWords[0] = unknown & 0xFFFFFFFFL;
+            valueWords[0] = value & 0xFFFFFFFFL;
+            return create(width, errorWords, unknownWords, valueWords);
+        } else if (width == 0) {
             return Value.NIL;
         } else if (width == 1) {
             if ((error & 1) != 0) {
@@ -105,6 +188,11 @@ public class Value {
             value = value & mask & ~unknown & ~error;
 
             int hashCode = 31 * (31 * (31 * width + error) + unknown) + value;
+            // spread high-order bits into the slot index: otherwise values
+            // differing only above the low bits all land in the same slot
+            hashCode ^= hashCode >>> 16;
+            hashCode *= 0x85EBCA6B;
+            hashCode ^= hashCode >>> 13;
             Object cached = cache.get(hashCode);
             if (cached != null) {
                 Value val = (Value) cached;
@@ -119,6 +207,51 @@ public class Value {
         }
     }
 
+    /**
+     * Creates a value of any width from its bit masks, least significant
+     * word first. The arrays are taken over by the new value and must not
+     * be modified afterwards; words beyond the width are dropped.
+     */
+    public static Value create(int width, long[] error, long[] unknown, long[] value) {
+        if (width <= INT_WIDTH) {
+            return create(width, (int) error[0], (int) unknown[0], (int) value[0]);
+        }
+        int words = wordCount(width);
+        if (error.length != words) {
+            error = Arrays.copyOf(error, words);
+        }
+        if (unknown.length != words) {
+            unknown = Arrays.copyOf(unknown, words);
+        }
+        if (value.length != words) {
+            value = Arrays.copyOf(value, words);
+        }
+        long topMask = (width & 63) == 0 ? -1L : (1L << (width & 63)) - 1;
+        int hashCode = width;
+        for (int i = 0; i < words; i++) {
+            long mask = i == words - 1 ? topMask : -1L;
+            error[i] &= mask;
+            unknown[i] &= mask & ~error[i];
+            value[i] &= mask & ~unknown[i] & ~error[i];
+            hashCode = 31 * (31 * (31 * hashCode + Long.hashCode(error[i]))
+                + Long.hashCode(unknown[i])) + Long.hashCode(value[i]);
+        }
+        hashCode ^= hashCode >>> 16;
+        hashCode *= 0x85EBCA6B;
+        hashCode ^= hashCode >>> 13;
+        Object cached = cache.get(hashCode);
+        if (cached != null) {
+            Value val = (Value) cached;
+            if (val.width == width && Arrays.equals(val.valueWords, value)
+                && Arrays.equals(val.unknownWords, unknown) && Arrays.equals(val.errorWords, error)) {
+                return val;
+            }
+        }
+        Value ret = new Value(width, error, unknown, value);
+        cache.put(hashCode, ret);
+        return ret;
+    }
+
     public static Value repeat(Value base, int bits) {
         if (base.getWidth() != 1) {
             throw new IllegalArgumentException("first parameter must be one bit");
@@ -133,13 +266,41 @@ public class Value {
     }
 
     public boolean isErrorValue() {
+        if (errorWords != null) {
+            return !isZero(errorWords);
+        }
         return error != 0;
     }
 
+    private static boolean isZero(long[] words) {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public Value extendWidth(int newWidth, Value others) {
         if (width == newWidth) {
             return this;
         }
+        if (width > INT_WIDTH || newWidth > INT_WIDTH) {
+            // narrowing drops the words above the new width
+            int words = wordCount(newWidth);
+            long[] newError = getErrorWords(words);
+            long[] newUnknown = getUnknownWords(words);
+            long[] newValue = getValueWords(words);
+            long[] fill = others == Value.ERROR ? newError
+                : others == Value.TRUE ? newValue
+                : others == Value.FALSE ? null : newUnknown;
+            if (fill != null) {
+                for (int i = width; i < newWidth; i++) {
+                    fill[i >> 6] |= 1L << i;
+                }
+            }
+            return Value.create(newWidth, newError, newUnknown, newValue);
+        }
         int maskInverse = (width == 32 ? 0 : (-1 << width));
         if (others == Value.ERROR) {
             return Value.create(newWidth, error | maskInverse, unknown, value);
@@ -153,7 +314,10 @@ public class Value {
     }
 
     public boolean isUnknown() {
-        if (width == 32) {
+        if (errorWords != null) {
+            return isZero(errorWords)
+                && Value.createUnknown(getBitWidth()).equals(this);
+        } else if (width == 32) {
             return error == 0 && unknown == -1;
         } else {
             return error == 0 && unknown == ((1 << width) - 1);
@@ -161,6 +325,9 @@ public class Value {
     }
 
     public boolean isFullyDefined() {
+        if (errorWords != null) {
+            return isZero(errorWords) && isZero(unknownWords);
+        }
         return width > 0 && error == 0 && unknown == 0;
     }
 
@@ -171,6 +338,16 @@ public class Value {
             throw new RuntimeException("Attempt to set outside value's width");
         } else if (width == 1) {
             return val;
+        } else if (errorWords != null) {
+            long[] newError = errorWords.clone();
+            long[] newUnknown = unknownWords.clone();
+            long[] newValue = valueWords.clone();
+            long mask = 1L << which;
+            int word = which >> 6;
+            newError[word] = (newError[word] & ~mask) | (val.error != 0 ? mask : 0);
+            newUnknown[word] = (newUnknown[word] & ~mask) | (val.unknown != 0 ? mask : 0);
+            newValue[word] = (newValue[word] & ~mask) | (val.value != 0 ? mask : 0);
+            return Value.create(width, newError, newUnknown, newValue);
         } else {
             int mask = ~(1 << which);
             return Value.create(this.width,
@@ -192,6 +369,19 @@ public class Value {
         if (which < 0 || which >= width) {
             return ERROR;
         }
+        if (errorWords != null) {
+            long mask = 1L << which;
+            int word = which >> 6;
+            if ((errorWords[word] & mask) != 0) {
+                return ERROR;
+            } else if ((unknownWords[word] & mask) != 0) {
+                return UNKNOWN;
+            } else if ((valueWords[word] & mask) != 0) {
+                return TRUE;
+            } else {
+                return FALSE;
+            }
+        }
         int mask = 1 << which;
         if ((error & mask) != 0) {
             return ERROR;
@@ -204,6 +394,69 @@ public class Value {
         }
     }
 
+    /**
+     * Returns the low 32 bits of the error mask; see
+     * {@link #getErrorWords} for the full mask of a wider value.
+     */
+    public int getErrorBits() {
+        return error;
+    }
+
+    public int getUnknownBits() {
+        return unknown;
+    }
+
+    public int getValueBits() {
+        return value;
+    }
+
+    private long[] toWords(long[] words, int bits, int count) {
+        long[] ret = new long[count];
+        if (words != null) {
+            System.arraycopy(words, 0, ret, 0, Math.min(words.length, count));
+        } else {
+            ret[0] = bits & 0xFFFFFFFFL;
+        }
+        return ret;
+    }
+
+    /**
+     * Returns a copy of the error mask, least significant word first,
+     * padded with zero words to the requested length.
+     */
+    public long[] getErrorWords(int count) {
+        return toWords(errorWords, error, Math.max(1, count));
+    }
+
+    public long[] getUnknownWords(int count) {
+        return toWords(unknownWords, unknown, Math.max(1, count));
+    }
+
+    public long[] getValueWords(int count) {
+        return toWords(valueWords, value, Math.max(1, count));
+    }
+
+    /**
+     * Returns the value as an unsigned integer, or null if it is not
+     * fully defined.
+     */
+    public BigInteger toBigInteger() {
+        if (!isFullyDefined()) {
+            return null;
+        }
+        if (valueWords == null) {
+            return BigInteger.valueOf(value & 0xFFFFFFFFL);
+        }
+        byte[] bytes = new byte[8 * valueWords.length + 1];
+        for (int i = 0; i < valueWords.length; i++) {
+            long word = valueWords[i];
+            for (int j = 0; j < 8; j++) {
+                bytes[bytes.length - 1 - 8 * i - j] = (byte) (word >>> (8 * j));
+            }
+        }
+        return new BigInteger(bytes);
+    }
+
     public BitWidth getBitWidth() {
         return BitWidth.create(width);
     }
@@ -221,7 +474,10 @@ public class Value {
         boolean ret = this.width == other.width
             && this.error == other.error
             && this.unknown == other.unknown
-            && this.value == other.value;
+            && this.value == other.value
+            && Arrays.equals(this.errorWords, other.errorWords)
+            && Arrays.equals(this.unknownWords, other.unknownWords)
+            && Arrays.equals(this.valueWords, other.valueWords);
         return ret;
     }
 
@@ -231,10 +487,21 @@ public class Value {
         ret = 31 * ret + error;
         ret = 31 * ret + unknown;
         ret = 31 * ret + value;
+        if (valueWords != null) {
+            ret = 31 * ret + Arrays.hashCode(valueWords);
+            ret = 31 * ret + Arrays.hashCode(unknownWords);
+        }
         return ret;
     }
 
+    /**
+     * Returns the value, or its low 32 bits if wider, or -1 if it is not
+     * fully defined.
+     */
     public int toIntValue() {
+        if (errorWords != null) {
+            return isFullyDefined() ? value : -1;
+        }
         if (error != 0) {
             return -1;
         }
@@ -350,6 +617,14 @@ public class Value {
             return Strings.get("valueUnknown");
         }
 
+        if (width > INT_WIDTH) {
+            BigInteger big = toBigInteger();
+            if (signed && big.testBit(width - 1)) {
+                big = big.subtract(BigInteger.ONE.shiftLeft(width));
+            }
+            return big.toString();
+        }
+
         int value = toIntValue();
         if (signed) {
             if (width < 32 && (value >> (width - 1)) != 0) {
@@ -379,6 +654,9 @@ public class Value {
                 if (!isFullyDefined()) {
                     return Strings.get("valueUnknown");
                 }
+                if (width > INT_WIDTH) {
+                    return toBigInteger().toString(radix);
+                }
                 return Integer.toString(toIntValue(), radix);
         }
     }
@@ -430,6 +708,21 @@ public class Value {
                 return this;
             }
             return ERROR;
+        } else if (this.errorWords != null || other.errorWords != null) {
+            int words = wordCount(Math.max(this.width, other.width));
+            long[] ae = this.getErrorWords(words);
+            long[] au = this.getUnknownWords(words);
+            long[] av = this.getValueWords(words);
+            long[] be = other.getErrorWords(words);
+            long[] bu = other.getUnknownWords(words);
+            long[] bv = other.getValueWords(words);
+            for (int i = 0; i < words; i++) {
+                long disagree = (av[i] ^ bv[i]) & ~(au[i] | bu[i]);
+                ae[i] |= be[i] | disagree;
+                av[i] = (av[i] & ~au[i]) | (bv[i] & ~bu[i]);
+                au[i] &= bu[i];
+            }
+            return Value.create(Math.max(this.width, other.width), ae, au, av);
         } else {
             int disagree = (this.value ^ other.value)
                 & ~(this.unknown | other.unknown);
@@ -452,6 +745,21 @@ public class Value {
                 return TRUE;
             }
             return ERROR;
+        } else if (this.errorWords != null || other.errorWords != null) {
+            int words = wordCount(Math.max(this.width, other.width));
+            long[] ae = this.getErrorWords(words);
+            long[] au = this.getUnknownWords(words);
+            long[] av = this.getValueWords(words);
+            long[] be = other.getErrorWords(words);
+            long[] bu = other.getUnknownWords(words);
+            long[] bv = other.getValueWords(words);
+            for (int i = 0; i < words; i++) {
+                long falses = (~av[i] & ~ae[i] & ~au[i]) | (~bv[i] & ~be[i] & ~bu[i]);
+                ae[i] = (ae[i] | be[i] | au[i] | bu[i]) & ~falses;
+                au[i] = 0;
+                av[i] &= bv[i];
+            }
+            return Value.create(Math.max(this.width, other.width), ae, au, av);
         } else {
             int false0 = ~this.value & ~this.error & ~this.unknown;
             int false1 = ~other.value & ~other.error & ~other.unknown;
@@ -475,6 +783,21 @@ public class Value {
                 return FALSE;
             }
             return ERROR;
+        } else if (this.errorWords != null || other.errorWords != null) {
+            int words = wordCount(Math.max(this.width, other.width));
+            long[] ae = this.getErrorWords(words);
+            long[] au = this.getUnknownWords(words);
+            long[] av = this.getValueWords(words);
+            long[] be = other.getErrorWords(words);
+            long[] bu = other.getUnknownWords(words);
+            long[] bv = other.getValueWords(words);
+            for (int i = 0; i < words; i++) {
+                long trues = (av[i] & ~ae[i] & ~au[i]) | (bv[i] & ~be[i] & ~bu[i]);
+                ae[i] = (ae[i] | be[i] | au[i] | bu[i]) & ~trues;
+                au[i] = 0;
+                av[i] |= bv[i];
+            }
+            return Value.create(Math.max(this.width, other.width), ae, au, av);
         } else {
             int true0 = this.value & ~this.error & ~this.unknown;
             int true1 = other.value & ~other.error & ~other.unknown;
@@ -504,6 +827,20 @@ public class Value {
                 return FALSE;
             }
             return TRUE;
+        } else if (this.errorWords != null || other.errorWords != null) {
+            int words = wordCount(Math.max(this.width, other.width));
+            long[] ae = this.getErrorWords(words);
+            long[] au = this.getUnknownWords(words);
+            long[] av = this.getValueWords(words);
+            long[] be = other.getErrorWords(words);
+            long[] bu = other.getUnknownWords(words);
+            long[] bv = other.getValueWords(words);
+            for (int i = 0; i < words; i++) {
+                ae[i] |= be[i] | au[i] | bu[i];
+                au[i] = 0;
+                av[i] ^= bv[i];
+            }
+            return Value.create(Math.max(this.width, other.width), ae, au, av);
         } else {
             return Value.create(Math.max(this.width, other.width),
                 this.error | other.error | this.unknown | other.unknown,
@@ -521,6 +858,15 @@ public class Value {
                 return TRUE;
             }
             return ERROR;
+        } else if (errorWords != null) {
+            int words = errorWords.length;
+            long[] newError = new long[words];
+            long[] newValue = new long[words];
+            for (int i = 0; i < words; i++) {
+                newError[i] = errorWords[i] | unknownWords[i];
+                newValue[i] = ~valueWords[i];
+            }
+            return Value.create(this.width, newError, new long[words], newValue);
         } else {
             return Value.create(this.width,
                 this.error | this.unknown,
@@ -530,7 +876,7 @@ public class Value {
     }
 
     public Color getColor() {
-        if (error != 0) {
+        if (isErrorValue()) {
             return ERROR_COLOR;
         } else if (width == 0) {
             return NIL_COLOR;
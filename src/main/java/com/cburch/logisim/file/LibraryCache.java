@@ -0,0 +1,372 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.file;
+
+import com.adlerd.logger.Logger;
+import com.cburch.logisim.util.StringUtil;
+import com.cburch.logisim.util.ZipClassLoader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Keeps what was learned from loading libraries so that it needn't be
+ * learned again. A library file is kept as its parsed XML document, in a
+ * compact binary form stored in a directory shared by all sessions and
+ * named by a hash of the file's contents, so that every copy of a course
+ * library is parsed only once. A file whose size and modification time
+ * are unchanged since it was last seen isn't even read to compute its
+ * hash. Class loaders for JAR libraries are shared in the same way within
+ * a session, so the classes of a JAR are read and defined once however
+ * many projects use it.
+ */
+class LibraryCache {
+
+    static final LibraryCache instance = new LibraryCache();
+
+    private static final int MAGIC = 0x4c434443; // "LCDC"
+    private static final int VERSION = 1;
+    private static final String INDEX_NAME = "index";
+    private static final String SUFFIX = ".bin";
+    // the most documents kept on disk; the least recently stored go first
+    private static final int MAX_ENTRIES = 256;
+
+    private static final byte NODE_ELEMENT = 1;
+    private static final byte NODE_TEXT = 2;
+
+    private final File directory;
+    private HashMap<String, Stamp> index = null;
+    private final HashMap<String, SoftReference<byte[]>> documents = new HashMap<>();
+    private final HashMap<String, SoftReference<JarEntry>> jars = new HashMap<>();
+
+    private LibraryCache() {
+        String path = System.getProperty("logisim.libcache");
+        if (path == null) {
+            path = System.getProperty("user.home") + File.separator + ".logisim"
+                + File.separator + "libcache";
+        }
+        directory = path.isEmpty() ? null : new File(path);
+    }
+
+    /**
+     * Returns the XML document held in the given file, or null if it can't
+     * be read or parsed, in which case the caller should read the file
+     * itself so that the problem is reported as usual.
+     */
+    synchronized Document getDocument(File file) {
+        try {
+            String key = file.getCanonicalPath();
+            Stamp stamp = getIndex().get(key);
+            byte[] contents = null;
+            if (stamp == null || !stamp.matches(file)) {
+                contents = Files.readAllBytes(file.toPath());
+                stamp = new Stamp(file, StringUtil.sha256(contents));
+                index.put(key, stamp);
+                writeIndex();
+            }
+
+            byte[] data = findDocument(stamp.hash);
+            if (data != null) {
+                try {
+                    return decode(data);
+                } catch (IOException | RuntimeException e) {
+                    Logger.debugln("discarding cached library " + stamp.hash + ": " + e);
+                }
+            }
+
+            if (contents == null) {
+                contents = Files.readAllBytes(file.toPath());
+            }
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            Document document = factory.newDocumentBuilder()
+                .parse(new ByteArrayInputStream(contents));
+            storeDocument(stamp.hash, encode(document));
+            return document;
+        } catch (IOException | SAXException | ParserConfigurationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns a class loader for the given JAR file, shared with any other
+     * library loaded from it since it last changed.
+     */
+    synchronized ZipClassLoader getClassLoader(File file) {
+        String key;
+        try {
+            key = file.getCanonicalPath();
+        } catch (IOException e) {
+            return new ZipClassLoader(file);
+        }
+        SoftReference<JarEntry> ref = jars.get(key);
+        JarEntry entry = ref == null ? null : ref.get();
+        if (entry == null || !entry.stamp.matches(file)) {
+            entry = new JarEntry(new Stamp(file, ""), new ZipClassLoader(file));
+            jars.put(key, new SoftReference<>(entry));
+        }
+        return entry.loader;
+    }
+
+    private byte[] findDocument(String hash) {
+        SoftReference<byte[]> ref = documents.get(hash);
+        byte[] data = ref == null ? null : ref.get();
+        if (data == null && directory != null) {
+            File cached = new File(directory, hash + SUFFIX);
+            if (cached.isFile()) {
+                try {
+                    data = Files.readAllBytes(cached.toPath());
+                    documents.put(hash, new SoftReference<>(data));
+                } catch (IOException e) {
+                    data = null;
+                }
+            }
+        }
+        return data;
+    }
+
+    private void storeDocument(String hash, byte[] data) {
+        documents.put(hash, new SoftReference<>(data));
+        if (directory == null || !(directory.isDirectory() || directory.mkdirs())) {
+            return;
+        }
+        try {
+            File temp = File.createTempFile(hash, ".tmp", directory);
+            Files.write(temp.toPath(), data);
+            Files.move(temp.toPath(), new File(directory, hash + SUFFIX).toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Logger.debugln("could not store cached library: " + e);
+            return;
+        }
+
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files != null && files.length > MAX_ENTRIES) {
+            Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+            for (int i = 0; i < files.length - MAX_ENTRIES; i++) {
+                files[i].delete();
+            }
+        }
+    }
+
+    //
+    // index of the files seen, kept so that unchanged files aren't hashed
+    //
+    private HashMap<String, Stamp> getIndex() {
+        if (index == null) {
+            index = new HashMap<>();
+            File file = directory == null ? null : new File(directory, INDEX_NAME);
+            if (file != null && file.isFile()) {
+                try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                    Files.readAllBytes(file.toPath())))) {
+                    if (in.readInt() == MAGIC && in.readInt() == VERSION) {
+                        for (int i = in.readInt(); i > 0; i--) {
+                            String path = in.readUTF();
+                            long length = in.readLong();
+                            long modified = in.readLong();
+                            index.put(path, new Stamp(length, modified, in.readUTF()));
+                        }
+                    }
+                } catch (IOException e) {
+                    index.clear();
+                }
+            }
+        }
+        return index;
+    }
+
+    private void writeIndex() {
+        if (directory == null || !(directory.isDirectory() || directory.mkdirs())) {
+            return;
+        }
+        // forget files that are gone, and the oldest entries past the limit
+        index.keySet().removeIf(path -> !new File(path).exists());
+        while (index.size() > 4 * MAX_ENTRIES) {
+            index.remove(index.keySet().iterator().next());
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(index.size());
+            for (HashMap.Entry<String, Stamp> entry : index.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().length);
+                out.writeLong(entry.getValue().modified);
+                out.writeUTF(entry.getValue().hash);
+            }
+            out.flush();
+            File temp = File.createTempFile(INDEX_NAME, ".tmp", directory);
+            Files.write(temp.toPath(), bytes.toByteArray());
+            Files.move(temp.toPath(), new File(directory, INDEX_NAME).toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Logger.debugln("could not store library cache index: " + e);
+        }
+    }
+
+    //
+    // binary form of a document: a table of the distinct strings it uses,
+    // followed by its elements and text, each string given by its index
+    //
+    static byte[] encode(Document document) throws IOException {
+        HashMap<String, Integer> ids = new HashMap<>();
+        ArrayList<String> strings = new ArrayList<>();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        encodeNode(new DataOutputStream(body), document.getDocumentElement(), ids, strings);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(strings.size());
+        for (String s : strings) {
+            byte[] utf = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf.length);
+            out.write(utf);
+        }
+        body.writeTo(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void encodeNode(DataOutputStream out, Node node,
+        HashMap<String, Integer> ids, ArrayList<String> strings) throws IOException {
+        if (node.getNodeType() == Node.ELEMENT_NODE) {
+            out.writeByte(NODE_ELEMENT);
+            out.writeInt(id(((Element) node).getTagName(), ids, strings));
+            NamedNodeMap attrs = node.getAttributes();
+            out.writeInt(attrs.getLength());
+            for (int i = 0; i < attrs.getLength(); i++) {
+                Node attr = attrs.item(i);
+                out.writeInt(id(attr.getNodeName(), ids, strings));
+                out.writeInt(id(attr.getNodeValue(), ids, strings));
+            }
+            NodeList children = node.getChildNodes();
+            int count = 0;
+            for (int i = 0; i < children.getLength(); i++) {
+                if (isKept(children.item(i))) {
+                    count++;
+                }
+            }
+            out.writeInt(count);
+            for (int i = 0; i < children.getLength(); i++) {
+                if (isKept(children.item(i))) {
+                    encodeNode(out, children.item(i), ids, strings);
+                }
+            }
+        } else {
+            out.writeByte(NODE_TEXT);
+            out.writeInt(id(node.getNodeValue(), ids, strings));
+        }
+    }
+
+    private static boolean isKept(Node node) {
+        short type = node.getNodeType();
+        return type == Node.ELEMENT_NODE || type == Node.TEXT_NODE
+            || type == Node.CDATA_SECTION_NODE;
+    }
+
+    private static int id(String s, HashMap<String, Integer> ids, ArrayList<String> strings) {
+        Integer ret = ids.get(s);
+        if (ret == null) {
+            ret = strings.size();
+            ids.put(s, ret);
+            strings.add(s);
+        }
+        return ret;
+    }
+
+    static Document decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("not a cached library");
+        }
+        String[] strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] utf = new byte[in.readInt()];
+            in.readFully(utf);
+            strings[i] = new String(utf, StandardCharsets.UTF_8);
+        }
+        Document document;
+        try {
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new IOException(e);
+        }
+        if (in.readByte() != NODE_ELEMENT) {
+            throw new IOException("document has no root element");
+        }
+        document.appendChild(decodeElement(in, document, strings));
+        return document;
+    }
+
+    private static Element decodeElement(DataInputStream in, Document document, String[] strings)
+        throws IOException {
+        Element element = document.createElement(strings[in.readInt()]);
+        for (int i = in.readInt(); i > 0; i--) {
+            String name = strings[in.readInt()];
+            element.setAttribute(name, strings[in.readInt()]);
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            if (in.readByte() == NODE_ELEMENT) {
+                element.appendChild(decodeElement(in, document, strings));
+            } else {
+                element.appendChild(document.createTextNode(strings[in.readInt()]));
+            }
+        }
+        return element;
+    }
+
+    private static class Stamp {
+
+        private final long length;
+        private final long modified;
+        private final String hash;
+
+        Stamp(File file, String hash) {
+            this(file.length(), file.lastModified(), hash);
+        }
+
+        Stamp(long length, long modified, String hash) {
+            this.length = length;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+        boolean matches(File file) {
+            return file.length() == length && file.lastModified() == modified;
+        }
+    }
+
+    private static class JarEntry {
+
+        private final Stamp stamp;
+        private final ZipClassLoader loader;
+
+        JarEntry(Stamp stamp, ZipClassLoader loader) {
+            this.stamp = stamp;
+            this.loader = loader;
+        }
+    }
+}
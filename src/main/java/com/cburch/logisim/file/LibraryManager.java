@@ -7,7 +7,7 @@ import com.cburch.logisim.tools.Library;
 import com.cburch.logisim.util.StringUtil;
 import java.io.File;
 import java.io.IOException;
-import java.lang.ref.WeakReference;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -18,7 +18,9 @@ class LibraryManager {
     public static final LibraryManager instance = new LibraryManager();
 
     private static final char DESCRIPTOR_SEPARATOR = '#';
-    private final HashMap<LibraryDescriptor, WeakReference<LoadedLibrary>> fileMap;
+    // libraries are held softly, so that one used by a project that was
+    // closed is still at hand when the next project using it is opened
+    private final HashMap<LibraryDescriptor, KnownLibrary> fileMap;
     private final WeakHashMap<LoadedLibrary, LibraryDescriptor> invMap;
 
     private LibraryManager() {
@@ -55,7 +57,7 @@ class LibraryManager {
     }
 
     void setDirty(File file, boolean isDirty) {
-        LoadedLibrary library = findKnown(file);
+        LoadedLibrary library = file == null ? null : findKnown(new LogisimProjectDescriptor(file));
         if (library != null) {
             library.setDirty(isDirty);
         }
@@ -108,7 +110,7 @@ class LibraryManager {
     }
 
     public LoadedLibrary loadLogisimLibrary(Loader loader, File fileToRead) {
-        LoadedLibrary loadedLibrary = findKnown(fileToRead);
+        LoadedLibrary loadedLibrary = findCurrent(new LogisimProjectDescriptor(fileToRead));
         if (loadedLibrary != null) {
             return loadedLibrary;
         }
@@ -121,14 +123,14 @@ class LibraryManager {
         }
 
         LogisimProjectDescriptor descriptor = new LogisimProjectDescriptor(fileToRead);
-        fileMap.put(descriptor, new WeakReference<>(loadedLibrary));
+        fileMap.put(descriptor, new KnownLibrary(loadedLibrary, fileToRead));
         invMap.put(loadedLibrary, descriptor);
         return loadedLibrary;
     }
 
     public LoadedLibrary loadJarLibrary(Loader loader, File fileToRead, String className) {
         JarDescriptor jarDescriptor = new JarDescriptor(fileToRead, className);
-        LoadedLibrary loadedLibrary = findKnown(jarDescriptor);
+        LoadedLibrary loadedLibrary = findCurrent(jarDescriptor);
         if (loadedLibrary != null) {
             return loadedLibrary;
         }
@@ -140,7 +142,7 @@ class LibraryManager {
             return null;
         }
 
-        fileMap.put(jarDescriptor, new WeakReference<>(loadedLibrary));
+        fileMap.put(jarDescriptor, new KnownLibrary(loadedLibrary, fileToRead));
         invMap.put(loadedLibrary, jarDescriptor);
         return loadedLibrary;
     }
@@ -153,6 +155,10 @@ class LibraryManager {
         } else {
             try {
                 descriptor.setBase(loader, loadedLibrary);
+                KnownLibrary known = fileMap.get(descriptor);
+                if (known != null) {
+                    known.updateStamp();
+                }
             } catch (LoadFailedException e) {
                 loader.showError(e.getMessage());
             }
@@ -181,17 +187,20 @@ class LibraryManager {
     }
 
     public void fileSaved(Loader loader, File destination, File oldFile, LogisimFile file) {
-        LoadedLibrary oldLibrary = findKnown(oldFile);
+        LoadedLibrary oldLibrary = oldFile == null ? null
+            : findKnown(new LogisimProjectDescriptor(oldFile));
         if (oldLibrary != null) {
             oldLibrary.setDirty(false);
         }
 
-        LoadedLibrary loadedLibrary = findKnown(destination);
+        LogisimProjectDescriptor descriptor = new LogisimProjectDescriptor(destination);
+        LoadedLibrary loadedLibrary = findKnown(descriptor);
         if (loadedLibrary != null) {
             LogisimFile clone = file.cloneLogisimFile(loader);
             clone.setName(file.getName());
             clone.setDirty(false);
             loadedLibrary.setLibrary(clone);
+            fileMap.get(descriptor).updateStamp();
         }
     }
 
@@ -210,13 +219,12 @@ class LibraryManager {
         }
     }
 
-    @SuppressWarnings("SuspiciousMethodCalls")
-    private LoadedLibrary findKnown(Object key) {
-        WeakReference<LoadedLibrary> returnLibraryReference = fileMap.get(key);
-        if (returnLibraryReference == null) {
+    private LoadedLibrary findKnown(LibraryDescriptor key) {
+        KnownLibrary known = fileMap.get(key);
+        if (known == null) {
             return null;
         } else {
-            LoadedLibrary loadedLibrary = returnLibraryReference.get();
+            LoadedLibrary loadedLibrary = known.reference.get();
             if (loadedLibrary == null) {
                 fileMap.remove(key);
                 return null;
@@ -226,6 +234,41 @@ class LibraryManager {
         }
     }
 
+    // finds a known library, unless its file has changed since it was read
+    // and it hasn't been modified here, in which case it is read again
+    private LoadedLibrary findCurrent(LibraryDescriptor key) {
+        LoadedLibrary loadedLibrary = findKnown(key);
+        if (loadedLibrary != null && !loadedLibrary.isDirty()
+            && !fileMap.get(key).isCurrent()) {
+            fileMap.remove(key);
+            return null;
+        }
+        return loadedLibrary;
+    }
+
+    private static class KnownLibrary {
+
+        private final SoftReference<LoadedLibrary> reference;
+        private final File file;
+        private long length;
+        private long modified;
+
+        KnownLibrary(LoadedLibrary library, File file) {
+            this.reference = new SoftReference<>(library);
+            this.file = file;
+            updateStamp();
+        }
+
+        void updateStamp() {
+            length = file.length();
+            modified = file.lastModified();
+        }
+
+        boolean isCurrent() {
+            return file.length() == length && file.lastModified() == modified;
+        }
+    }
+
     private static abstract class LibraryDescriptor {
 
         abstract boolean concernsFile(File query);
@@ -262,7 +262,7 @@ public class Loader implements LibraryLoader {
         LogisimFile logisimFile;
         filesOpening.push(actualFile);
         try {
-            logisimFile = LogisimFile.load(actualFile, this);
+            logisimFile = LogisimFile.loadLibrary(actualFile, this);
         } catch (IOException e) {
             throw new LoadFailedException(StringUtil.format(Strings.get("logisimLoadError"),
                 toProjectName(actualFile), e.toString()));
@@ -282,8 +282,9 @@ public class Loader implements LibraryLoader {
         // is based on something downloaded off a forum, and I'm not as sure
         // that it works as well. It certainly does more file accesses.
 
-        // Anyway, here's the line for this new version:
-        ZipClassLoader loader = new ZipClassLoader(actual);
+        // Anyway, here's the line for this new version, which shares one
+        // loader among all the libraries read from the same file:
+        ZipClassLoader loader = LibraryCache.instance.getClassLoader(actual);
 
         // And here's the code that was present up until 2.1.8, and which I
         // know to work well except for the closing-files bit. If necessary, we
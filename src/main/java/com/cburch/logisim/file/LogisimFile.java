@@ -31,6 +31,7 @@ import java.util.List;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
+import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
 public class LogisimFile extends Library implements LibraryEventSource {
@@ -104,6 +105,20 @@ public class LogisimFile extends Library implements LibraryEventSource {
         return null;
     }
 
+    /**
+     * Loads a file used as a library, through the cache shared by every
+     * project, falling back to reading the file as usual.
+     */
+    static LogisimFile loadLibrary(File file, Loader loader) throws IOException {
+        Document document = LibraryCache.instance.getDocument(file);
+        if (document == null) {
+            return load(file, loader);
+        }
+        LogisimFile ret = new XmlReader(loader).readLibrary(document);
+        ret.loader = loader;
+        return ret;
+    }
+
     public static LogisimFile load(InputStream in, Loader loader)
         throws IOException {
         try {
@@ -15,6 +15,10 @@ public class Options {
         = new AttributeOption("ignore", Strings.getter("gateUndefinedIgnore"));
     public static final AttributeOption GATE_UNDEFINED_ERROR
         = new AttributeOption("error", Strings.getter("gateUndefinedError"));
+    public static final AttributeOption SIMULATOR_MODE_EVENT
+        = new AttributeOption("event", Strings.getter("simModeEvent"));
+    public static final AttributeOption SIMULATOR_MODE_CYCLE
+        = new AttributeOption("cycle", Strings.getter("simModeCycle"));
     public static final Attribute<Integer> SIMULATOR_LIMIT_ATTRIBUTE
         = Attributes.forInteger("simlimit", Strings.getter("simLimitOption"));
     public static final Attribute<Integer> SIMULATOR_RANDOM_ATTRIBUTE
@@ -22,11 +26,20 @@ public class Options {
     public static final Attribute<AttributeOption> ATTR_GATE_UNDEFINED
         = Attributes.forOption("gateUndefined", Strings.getter("gateUndefinedOption"),
         new AttributeOption[]{GATE_UNDEFINED_IGNORE, GATE_UNDEFINED_ERROR});
+    public static final Attribute<AttributeOption> SIMULATOR_MODE_ATTRIBUTE
+        = Attributes.forOption("simmode", Strings.getter("simModeOption"),
+        new AttributeOption[]{SIMULATOR_MODE_EVENT, SIMULATOR_MODE_CYCLE});
+    public static final Attribute<Boolean> SIMULATOR_SHARE_ATTRIBUTE
+        = Attributes.forBoolean("simshare", Strings.getter("simShareOption"));
+    public static final Attribute<Boolean> SIMULATOR_MEMO_ATTRIBUTE
+        = Attributes.forBoolean("simmemo", Strings.getter("simMemoOption"));
     public static final Integer SIMULATOR_RANDOM_DEFAULT = 32;
     private static final Attribute<?>[] ATTRIBUTES = {
-        ATTR_GATE_UNDEFINED, SIMULATOR_LIMIT_ATTRIBUTE, SIMULATOR_RANDOM_ATTRIBUTE
+        ATTR_GATE_UNDEFINED, SIMULATOR_LIMIT_ATTRIBUTE, SIMULATOR_RANDOM_ATTRIBUTE,
+        SIMULATOR_MODE_ATTRIBUTE, SIMULATOR_SHARE_ATTRIBUTE, SIMULATOR_MEMO_ATTRIBUTE
     };
-    private static final Object[] DEFAULTS = {GATE_UNDEFINED_IGNORE, 1000, 0};
+    private static final Object[] DEFAULTS = {GATE_UNDEFINED_IGNORE, 1000, 0, SIMULATOR_MODE_EVENT,
+        Boolean.FALSE, Boolean.FALSE};
 
     private final AttributeSet attributeSet;
     private final MouseMappings mouseMappings;
@@ -51,7 +51,10 @@ class XmlReader {
     }
 
     LogisimFile readLibrary(InputStream stream) throws IOException, SAXException {
-        Document document = loadXmlFrom(stream);
+        return readLibrary(loadXmlFrom(stream));
+    }
+
+    LogisimFile readLibrary(Document document) {
         Element element = document.getDocumentElement();
         considerRepairs(document, element);
         LogisimFile file = new LogisimFile((Loader) loader);
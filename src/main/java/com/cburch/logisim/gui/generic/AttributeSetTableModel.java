@@ -3,10 +3,12 @@
 
 package com.cburch.logisim.gui.generic;
 
+import com.cburch.logisim.comp.ComponentFactory;
 import com.cburch.logisim.data.Attribute;
 import com.cburch.logisim.data.AttributeEvent;
 import com.cburch.logisim.data.AttributeListener;
 import com.cburch.logisim.data.AttributeSet;
+import com.cburch.logisim.data.BitWidth;
 import java.awt.Component;
 import java.awt.Window;
 import java.util.ArrayList;
@@ -37,6 +39,19 @@ public abstract class AttributeSetTableModel implements AttrTableModel, Attribut
 
     public abstract String getTitle();
 
+    /**
+     * Returns the widest setting the width attributes of the edited
+     * components can take, as reported by their factories.
+     */
+    protected int getWidthLimit() {
+        return Integer.MAX_VALUE;
+    }
+
+    protected static int getWidthLimit(ComponentFactory factory, AttributeSet attributes) {
+        Object limit = factory.getFeature(ComponentFactory.WIDTH_LIMIT, attributes);
+        return limit instanceof Integer ? (Integer) limit : Integer.MAX_VALUE;
+    }
+
     public AttributeSet getAttributes() {
         return attributes;
     }
@@ -209,6 +224,10 @@ public abstract class AttributeSetTableModel implements AttrTableModel, Attribut
 
         public Component getEditor(Window parent) {
             Object value = attributes.getValue(attribute);
+            Attribute<?> widthAttribute = attribute;
+            if (widthAttribute instanceof BitWidth.Attribute) {
+                return ((BitWidth.Attribute) widthAttribute).getCellEditor((BitWidth) value, getWidthLimit());
+            }
             return attribute.getCellEditor(parent, value);
         }
     }
@@ -63,15 +63,20 @@ public class HexFile {
     public static void open(HexModel dst, Reader in) throws IOException {
         HexReader reader = new HexReader(new BufferedReader(in));
         long offs = dst.getFirstOffset();
+        long size = dst.getLastOffset() - offs + 1;
+        int cur = 0;
+        int[] data = new int[(int) Math.min(size, 4096)];
         while (reader.hasNext()) {
             int[] values = reader.next();
-            if (offs + values.length - 1 > dst.getLastOffset()) {
+            if (cur + values.length > size) {
                 throw new IOException(Strings.get("hexFileSizeError"));
             }
-            dst.set(offs, values);
-            offs += values.length;
+            data = append(data, cur, values);
+            cur += values.length;
         }
-        dst.fill(offs, dst.getLastOffset() - offs + 1, 0);
+        // the image is stored as one range, so listeners hear of it at once
+        dst.set(offs, cur == data.length ? data : Arrays.copyOf(data, cur));
+        dst.fill(offs + cur, size - cur, 0);
     }
 
     public static int[] parse(Reader in) throws IOException {
@@ -80,19 +85,17 @@ public class HexFile {
         int[] data = new int[4096];
         while (reader.hasNext()) {
             int[] values = reader.next();
-            if (cur + values.length > data.length) {
-                int[] oldData = data;
-                data = new int[Math.max(cur + values.length, 3 * data.length / 2)];
-                System.arraycopy(oldData, 0, data, 0, cur);
-            }
-            System.arraycopy(values, 0, data, cur, values.length);
+            data = append(data, cur, values);
             cur += values.length;
         }
-        if (cur != data.length) {
-            int[] oldData = data;
-            data = new int[cur];
-            System.arraycopy(oldData, 0, data, 0, cur);
+        return cur == data.length ? data : Arrays.copyOf(data, cur);
+    }
+
+    private static int[] append(int[] data, int cur, int[] values) {
+        if (cur + values.length > data.length) {
+            data = Arrays.copyOf(data, Math.max(cur + values.length, 3 * data.length / 2));
         }
+        System.arraycopy(values, 0, data, cur, values.length);
         return data;
     }
 
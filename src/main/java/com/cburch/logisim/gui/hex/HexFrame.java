@@ -5,6 +5,7 @@ package com.cburch.logisim.gui.hex;
 
 import com.cburch.hex.HexEditor;
 import com.cburch.hex.HexModel;
+import com.cburch.hex.SearchableHexModel;
 import com.cburch.logisim.gui.generic.LFrame;
 import com.cburch.logisim.gui.menu.LogisimMenuBar;
 import com.cburch.logisim.proj.Project;
@@ -23,9 +24,11 @@ import java.io.IOException;
 import javax.swing.JButton;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.JTextField;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
@@ -39,6 +42,11 @@ public class HexFrame extends LFrame {
     private final JButton open = new JButton();
     private final JButton save = new JButton();
     private final JButton close = new JButton();
+    private final JLabel findLabel = new JLabel();
+    private final JTextField findField = new JTextField(16);
+    private final JButton find = new JButton();
+    private final JLabel findStatus = new JLabel();
+    private final Search search;
 
     public HexFrame(Project proj, HexModel model) {
         setDefaultCloseOperation(HIDE_ON_CLOSE);
@@ -68,6 +76,19 @@ public class HexFrame extends LFrame {
         Container contents = getContentPane();
         contents.add(scroll, BorderLayout.CENTER);
         contents.add(buttonPanel, BorderLayout.SOUTH);
+        if (model instanceof SearchableHexModel) {
+            search = new Search(editor, (SearchableHexModel) model, findStatus);
+            JPanel findPanel = new JPanel();
+            findPanel.add(findLabel);
+            findPanel.add(findField);
+            findPanel.add(find);
+            findPanel.add(findStatus);
+            findField.addActionListener(myListener);
+            find.addActionListener(myListener);
+            contents.add(findPanel, BorderLayout.NORTH);
+        } else {
+            search = null;
+        }
 
         LocaleManager.addLocaleListener(myListener);
         myListener.localeChanged();
@@ -147,6 +168,8 @@ public class HexFrame extends LFrame {
                             Strings.get("hexSaveErrorTitle"), JOptionPane.ERROR_MESSAGE);
                     }
                 }
+            } else if (src == find || src == findField) {
+                search.find(findField.getText());
             } else if (src == close) {
                 WindowEvent e = new WindowEvent(HexFrame.this,
                     WindowEvent.WINDOW_CLOSING);
@@ -159,6 +182,8 @@ public class HexFrame extends LFrame {
             open.setText(Strings.get("openButton"));
             save.setText(Strings.get("saveButton"));
             close.setText(Strings.get("closeButton"));
+            findLabel.setText(Strings.get("hexFindLabel"));
+            find.setText(Strings.get("hexFindButton"));
         }
     }
 
@@ -0,0 +1,203 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.gui.hex;
+
+import com.cburch.hex.Caret;
+import com.cburch.hex.HexEditor;
+import com.cburch.hex.HexModel;
+import com.cburch.hex.HexModelListener;
+import com.cburch.hex.HexPattern;
+import com.cburch.hex.SearchableHexModel;
+import com.cburch.logisim.util.StringUtil;
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.StringTokenizer;
+import java.util.TreeMap;
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+
+/**
+ * Searches the editor's model for a pattern typed by the user. The search
+ * runs on a thread of its own; matches are highlighted as they arrive, and
+ * once it is done, each further request for the same text moves the caret
+ * to the next match. A pattern is a series of hex values separated by
+ * spaces or commas, in which a <code>?</code> stands for any digit.
+ */
+class Search implements HexModelListener {
+
+    private static final Color MATCH_COLOR = new Color(255, 224, 128);
+    // beyond this many, matches are counted but not highlighted
+    private static final int MAX_HIGHLIGHTS = 10000;
+
+    private final HexEditor editor;
+    private final SearchableHexModel model;
+    private final JLabel status;
+    private final ArrayList<Object> highlights = new ArrayList<>();
+    // runs of consecutive match addresses, from first to last
+    private final TreeMap<Long, Long> matches = new TreeMap<>();
+    private String text = null;
+    private HexPattern pattern = null;
+    private SearchThread thread = null;
+    private long count = 0;
+    private boolean stale = true;
+
+    Search(HexEditor editor, SearchableHexModel model, JLabel status) {
+        this.editor = editor;
+        this.model = model;
+        this.status = status;
+        model.addHexModelListener(this);
+    }
+
+    /**
+     * Searches for the given text, or if it was found by the last search
+     * and nothing has changed since, selects the next match.
+     */
+    void find(String value) {
+        value = value.trim();
+        if (value.equals(text) && !stale) {
+            if (thread == null) {
+                selectMatch(editor.getCaret().getDot() + 1);
+            }
+            return;
+        }
+
+        HexPattern newPattern = parse(value, model.getValueWidth());
+        if (newPattern == null) {
+            status.setText(Strings.get("hexFindFormatError"));
+            return;
+        }
+        if (thread != null) {
+            thread.cancelled = true;
+        }
+        editor.removeHighlights(highlights);
+        highlights.clear();
+        matches.clear();
+        count = 0;
+        text = value;
+        pattern = newPattern;
+        stale = false;
+        status.setText(Strings.get("hexFindSearching"));
+        thread = new SearchThread(newPattern);
+        thread.start();
+    }
+
+    private void addMatches(SearchThread source, long start, long length) {
+        if (source != thread) {
+            return;
+        }
+        long last = start + length - 1;
+        matches.put(start, last);
+        count += length;
+        if (highlights.size() < MAX_HIGHLIGHTS) {
+            Object tag = editor.addHighlight(start, last + pattern.getLength() - 1, MATCH_COLOR);
+            if (tag != null) {
+                highlights.add(tag);
+            }
+        }
+    }
+
+    private void searchDone(SearchThread source) {
+        if (source != thread) {
+            return;
+        }
+        thread = null;
+        if (count == 0) {
+            status.setText(Strings.get("hexFindNoneMsg"));
+        } else {
+            status.setText(StringUtil.format(Strings.get("hexFindCountMsg"), "" + count));
+            selectMatch(Math.max(0, editor.getCaret().getDot()));
+        }
+    }
+
+    // selects the first match at or after the address, wrapping around
+    private void selectMatch(long address) {
+        if (matches.isEmpty()) {
+            return;
+        }
+        long found;
+        Map.Entry<Long, Long> run = matches.floorEntry(address);
+        if (run != null && address <= run.getValue()) {
+            found = address;
+        } else {
+            Long next = matches.ceilingKey(address);
+            found = next != null ? next : matches.firstKey();
+        }
+        Caret caret = editor.getCaret();
+        caret.setDot(found + pattern.getLength() - 1, false);
+        caret.setDot(found, true);
+        editor.scrollAddressToVisible(found, found + pattern.getLength() - 1);
+    }
+
+    static HexPattern parse(String text, int width) {
+        int chars = (width + 3) / 4;
+        int widthMask = width >= 32 ? -1 : (1 << width) - 1;
+        StringTokenizer tokens = new StringTokenizer(text, " \t,");
+        int n = tokens.countTokens();
+        if (n == 0) {
+            return null;
+        }
+        int[] values = new int[n];
+        int[] masks = new int[n];
+        for (int i = 0; i < n; i++) {
+            String token = tokens.nextToken();
+            if (token.length() > chars) {
+                return null;
+            }
+            int value = 0;
+            int mask = 0;
+            for (int j = 0; j < token.length(); j++) {
+                char c = token.charAt(j);
+                int digit = Character.digit(c, 16);
+                value <<= 4;
+                mask <<= 4;
+                if (digit >= 0) {
+                    value |= digit;
+                    mask |= 0xf;
+                } else if (c != '?') {
+                    return null;
+                }
+            }
+            // digits the user left out at the left are zero
+            mask |= widthMask & ~(token.length() >= 8 ? 0 : (1 << (4 * token.length())) - 1);
+            values[i] = value;
+            masks[i] = mask & widthMask;
+        }
+        return HexPattern.createMasked(values, masks);
+    }
+
+    public void metaInfoChanged(HexModel source) {
+        stale = true;
+    }
+
+    public void bytesChanged(HexModel source, long start, long numBytes, int[] oldValues) {
+        stale = true;
+    }
+
+    private class SearchThread extends Thread {
+
+        private final HexPattern pattern;
+        private volatile boolean cancelled = false;
+
+        SearchThread(HexPattern pattern) {
+            this.pattern = pattern;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                model.search(pattern, (start, length) -> {
+                    if (cancelled) {
+                        return false;
+                    }
+                    SwingUtilities.invokeLater(() -> addMatches(this, start, length));
+                    return true;
+                });
+            } finally {
+                SwingUtilities.invokeLater(() -> searchDone(this));
+            }
+        }
+    }
+}
@@ -37,6 +37,11 @@ class AttrTableComponentModel extends AttributeSetTableModel {
         return component.getFactory().getDisplayName();
     }
 
+    @Override
+    protected int getWidthLimit() {
+        return getWidthLimit(component.getFactory(), component.getAttributeSet());
+    }
+
     @Override
     public void setValueRequested(Attribute<Object> attribute, Object value)
         throws AttrTableSetException {
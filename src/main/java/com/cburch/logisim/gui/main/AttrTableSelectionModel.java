@@ -71,6 +71,15 @@ class AttrTableSelectionModel extends AttributeSetTableModel implements Selectio
         }
     }
 
+    @Override
+    protected int getWidthLimit() {
+        int limit = super.getWidthLimit();
+        for (Component comp : frame.getCanvas().getSelection().getComponents()) {
+            limit = Math.min(limit, getWidthLimit(comp.getFactory(), comp.getAttributeSet()));
+        }
+        return limit;
+    }
+
     @Override
     public void setValueRequested(Attribute<Object> attribute, Object value)
         throws AttrTableSetException {
@@ -6,6 +6,7 @@ package com.cburch.logisim.gui.main;
 import com.cburch.logisim.data.Attribute;
 import com.cburch.logisim.gui.generic.AttributeSetTableModel;
 import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.tools.AddTool;
 import com.cburch.logisim.tools.Tool;
 
 public class AttrTableToolModel extends AttributeSetTableModel {
@@ -28,6 +29,14 @@ public class AttrTableToolModel extends AttributeSetTableModel {
         return tool;
     }
 
+    @Override
+    protected int getWidthLimit() {
+        if (tool instanceof AddTool) {
+            return getWidthLimit(((AddTool) tool).getFactory(), tool.getAttributeSet());
+        }
+        return super.getWidthLimit();
+    }
+
     @Override
     public void setValueRequested(Attribute<Object> attribute, Object value) {
         project.doAction(ToolAttributeAction.create(tool, attribute, value));
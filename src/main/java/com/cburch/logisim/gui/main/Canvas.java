@@ -301,6 +301,10 @@ public class Canvas extends JPanel implements LocaleListener, CanvasPaneContents
                 viewport.paintContents(g);
             }
         } finally {
+            long requested = paintThread.takeRequestTime();
+            if (requested != 0) {
+                proj.getSimulator().getMetrics().recordRepaint(System.nanoTime() - requested);
+            }
             inPaint = false;
             synchronized (repaintLock) {
                 repaintLock.notifyAll();
@@ -811,6 +815,8 @@ public class Canvas extends JPanel implements LocaleListener, CanvasPaneContents
         }
 
         public void simulatorStateChanged(SimulatorEvent e) {
+            // the profile overlay may have been switched on or off
+            repaint();
         }
 
         public void attributeListChanged(AttributeEvent e) {
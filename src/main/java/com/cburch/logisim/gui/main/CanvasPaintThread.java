@@ -4,6 +4,7 @@
 package com.cburch.logisim.gui.main;
 
 import java.awt.Rectangle;
+import java.util.concurrent.atomic.AtomicLong;
 
 class CanvasPaintThread extends Thread {
 
@@ -15,6 +16,9 @@ class CanvasPaintThread extends Thread {
     private long nextRepaint;
     private boolean alive;
     private Rectangle repaintRectangle;
+    private long requestTime;
+    // when the repaint now pending in Swing was first requested, or 0
+    private final AtomicLong paintRequestTime = new AtomicLong();
 
     public CanvasPaintThread(Canvas canvas) {
         this.canvas = canvas;
@@ -40,6 +44,7 @@ class CanvasPaintThread extends Thread {
             } else {
                 repaintRequested = true;
                 repaintRectangle = rect;
+                requestTime = System.nanoTime();
                 lock.notifyAll();
             }
         }
@@ -50,15 +55,25 @@ class CanvasPaintThread extends Thread {
             if (!repaintRequested) {
                 repaintRequested = true;
                 repaintRectangle = null;
+                requestTime = System.nanoTime();
                 lock.notifyAll();
             }
         }
     }
 
+    /**
+     * Returns the time at which the repaint being painted was requested,
+     * or 0 if the paint was not requested through this thread.
+     */
+    long takeRequestTime() {
+        return paintRequestTime.getAndSet(0);
+    }
+
     @Override
     public void run() {
         while (alive) {
             long now = System.currentTimeMillis();
+            long requested;
             synchronized (lock) {
                 long wait = nextRepaint - now;
                 while (alive && !(repaintRequested && wait <= 0)) {
@@ -79,7 +94,9 @@ class CanvasPaintThread extends Thread {
                 }
                 repaintRequested = false;
                 nextRepaint = now + REPAINT_TIMESPAN;
+                requested = requestTime;
             }
+            paintRequestTime.compareAndSet(0, requested);
             canvas.repaint();
         }
     }
@@ -5,6 +5,7 @@ package com.cburch.logisim.gui.main;
 
 import com.cburch.logisim.circuit.Circuit;
 import com.cburch.logisim.circuit.CircuitState;
+import com.cburch.logisim.circuit.PropagationProfile;
 import com.cburch.logisim.circuit.WidthIncompatibilityData;
 import com.cburch.logisim.circuit.WireSet;
 import com.cburch.logisim.comp.Component;
@@ -127,6 +128,10 @@ class CanvasPainter implements PropertyChangeListener {
         ComponentDrawContext ptContext = new ComponentDrawContext(canvas,
             circ, circState, g, gScaled);
         ptContext.setHighlightedWires(highlightedWires);
+        PropagationProfile profile = proj.getSimulator().getProfile();
+        if (profile != null) {
+            profile.draw(ptContext);
+        }
         gScaled.setColor(Color.RED);
         circState.drawOscillatingPoints(ptContext);
         gScaled.setColor(Color.BLUE);
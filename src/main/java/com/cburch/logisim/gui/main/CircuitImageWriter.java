@@ -0,0 +1,178 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.gui.main;
+
+import com.cburch.logisim.circuit.Circuit;
+import com.cburch.logisim.circuit.CircuitState;
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.comp.ComponentDrawContext;
+import com.cburch.logisim.data.Bounds;
+import com.cburch.logisim.util.PngEncoder;
+import com.cburch.logisim.util.SvgGraphics;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * Draws a circuit, scaled and with a small border, into an image. A PNG
+ * image is drawn in strips of the full width, each holding only the
+ * components that reach into it, and each strip is written as soon as it
+ * is drawn, so that the size of the image is limited only by the disk.
+ * Drawing needs no display, so that images can be written by the export
+ * dialog and from the command line alike.
+ */
+public class CircuitImageWriter {
+
+    /**
+     * Reports progress as a PNG image is written.
+     */
+    public interface Progress {
+
+        /**
+         * Notes that the given number of further rows have been written,
+         * returning false if the rest of the image isn't wanted.
+         */
+        boolean rowsWritten(int rows);
+    }
+
+    private static final int BORDER_SIZE = 5;
+    // height in pixels of the strips in which a PNG image is drawn
+    private static final int STRIP_HEIGHT = 256;
+    // room for strokes drawn just outside a component's bounds
+    private static final int STROKE_MARGIN = 10;
+
+    private final Circuit circuit;
+    private final CircuitState circuitState;
+    private final java.awt.Component dest;
+    private final double scale;
+    private final boolean printerView;
+    private final Bounds bounds;
+    private final int width;
+    private final int height;
+
+    /**
+     * Creates a writer for the circuit in the given state, measuring text
+     * with the given graphics. The destination, which may be null, is the
+     * component given to the components as they draw.
+     */
+    public CircuitImageWriter(Circuit circuit, CircuitState circuitState,
+        java.awt.Component dest, Graphics measure, double scale, boolean printerView) {
+        this.circuit = circuit;
+        this.circuitState = circuitState;
+        this.dest = dest;
+        this.scale = scale;
+        this.printerView = printerView;
+        this.bounds = circuit.getBounds(measure).expand(BORDER_SIZE);
+        this.width = Math.max(1, (int) Math.round(bounds.getWidth() * scale));
+        this.height = Math.max(1, (int) Math.round(bounds.getHeight() * scale));
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Draws the whole circuit into a new image.
+     */
+    public BufferedImage createImage() {
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        draw(img, 0, null);
+        return img;
+    }
+
+    /**
+     * Writes the circuit as a PNG image, returning false if the progress
+     * asked to stop before the image was complete.
+     */
+    public boolean writePng(OutputStream out, Progress progress) throws IOException {
+        int stripHeight = Math.min(STRIP_HEIGHT, height);
+        BufferedImage strip = new BufferedImage(width, stripHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics measure = strip.getGraphics();
+        ArrayList<Component> comps = new ArrayList<>(circuit.getNonWires());
+        comps.addAll(circuit.getWires());
+        Bounds[] compBounds = new Bounds[comps.size()];
+        for (int i = 0; i < compBounds.length; i++) {
+            Bounds b = comps.get(i).getBounds(measure);
+            compBounds[i] = b == null ? Bounds.EMPTY_BOUNDS : b;
+        }
+        measure.dispose();
+
+        try (PngEncoder encoder = new PngEncoder(out, width, height)) {
+            for (int top = 0; top < height; top += stripHeight) {
+                int rows = Math.min(stripHeight, height - top);
+                int y0 = bounds.getY() + (int) Math.floor(top / scale);
+                int y1 = bounds.getY() + (int) Math.ceil((top + rows) / scale);
+                Bounds region = Bounds.create(bounds.getX(), y0, bounds.getWidth(), y1 - y0)
+                    .expand(STROKE_MARGIN);
+                HashSet<Component> hidden = new HashSet<>();
+                for (int i = 0; i < compBounds.length; i++) {
+                    if (!overlaps(region, compBounds[i])) {
+                        hidden.add(comps.get(i));
+                    }
+                }
+                if (hidden.size() < compBounds.length) {
+                    draw(strip, top, hidden);
+                } else {
+                    clear(strip);
+                }
+                encoder.writeRows(strip, rows);
+                if (progress != null && !progress.rowsWritten(rows)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the circuit as an SVG document.
+     */
+    public void writeSvg(Writer out) throws IOException {
+        SvgGraphics svg = new SvgGraphics(width, height);
+        draw(svg, 0, null);
+        svg.writeTo(out);
+    }
+
+    private void draw(BufferedImage img, int top, Collection<Component> hidden) {
+        clear(img);
+        Graphics base = img.getGraphics();
+        draw((Graphics2D) base, top, hidden);
+        base.dispose();
+    }
+
+    private void draw(Graphics2D base, int top, Collection<Component> hidden) {
+        Graphics2D g = (Graphics2D) base.create();
+        g.setColor(Color.black);
+        g.translate(0, -top);
+        g.scale(scale, scale);
+        g.translate(-bounds.getX(), -bounds.getY());
+        ComponentDrawContext context = new ComponentDrawContext(dest,
+            circuit, circuitState, base, g, printerView);
+        circuit.draw(context, hidden);
+        g.dispose();
+    }
+
+    private static void clear(BufferedImage img) {
+        Graphics g = img.getGraphics();
+        g.setColor(Color.white);
+        g.fillRect(0, 0, img.getWidth(), img.getHeight());
+        g.dispose();
+    }
+
+    private static boolean overlaps(Bounds a, Bounds b) {
+        return b.getX() <= a.getX() + a.getWidth() && a.getX() <= b.getX() + b.getWidth()
+            && b.getY() <= a.getY() + a.getHeight() && a.getY() <= b.getY() + b.getHeight();
+    }
+}
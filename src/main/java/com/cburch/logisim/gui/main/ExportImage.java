@@ -3,24 +3,31 @@
 
 package com.cburch.logisim.gui.main;
 
+import com.adlerd.logger.Logger;
 import com.cburch.logisim.circuit.Circuit;
 import com.cburch.logisim.circuit.CircuitState;
-import com.cburch.logisim.comp.ComponentDrawContext;
-import com.cburch.logisim.data.Bounds;
 import com.cburch.logisim.file.Loader;
 import com.cburch.logisim.proj.Project;
 import com.cburch.logisim.util.GifEncoder;
 import com.cburch.logisim.util.StringGetter;
-import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Graphics;
-import java.awt.Graphics2D;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.imageio.ImageIO;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -49,7 +56,6 @@ class ExportImage {
     private static final int FORMAT_PNG = 1;
     private static final int FORMAT_JPG = 2;
 
-    private static final int BORDER_SIZE = 5;
 
     private ExportImage() {
     }
@@ -304,6 +310,9 @@ class ExportImage {
         double scale;
         boolean printerView;
         ProgressMonitor monitor;
+        private final AtomicLong rowsDone = new AtomicLong();
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private long rowsTotal;
 
         ExportThread(Frame frame, Canvas canvas, File dest, ImageFileFilter f,
             List<Circuit> circuits, double scale, boolean printerView,
@@ -320,37 +329,41 @@ class ExportImage {
 
         @Override
         public void run() {
+            // the states and bounds are found here, since finding them
+            // may change the project
+            List<Callable<Void>> tasks = new ArrayList<>();
             for (Circuit circ : circuits) {
-                export(circ);
+                CircuitState circuitState = canvas.getProject().getCircuitState(circ);
+                CircuitImageWriter writer = new CircuitImageWriter(circ, circuitState,
+                    canvas, canvas.getGraphics(), scale, printerView);
+                rowsTotal += writer.getHeight();
+                tasks.add(() -> {
+                    export(circ, writer);
+                    return null;
+                });
             }
-        }
 
-        private void export(Circuit circuit) {
-            Bounds bds = circuit.getBounds(canvas.getGraphics())
-                .expand(BORDER_SIZE);
-            int width = (int) Math.round(bds.getWidth() * scale);
-            int height = (int) Math.round(bds.getHeight() * scale);
-            BufferedImage img = new BufferedImage(width, height,
-                BufferedImage.TYPE_INT_RGB);
-            Graphics base = img.getGraphics();
-            Graphics g = base.create();
-            g.setColor(Color.white);
-            g.fillRect(0, 0, width, height);
-            g.setColor(Color.black);
-            if (g instanceof Graphics2D) {
-                ((Graphics2D) g).scale(scale, scale);
-                g.translate(-bds.getX(), -bds.getY());
-            } else {
-                JOptionPane.showMessageDialog(frame,
-                    Strings.get("couldNotCreateImage"));
+            int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+            try {
+                for (Future<Void> result : pool.invokeAll(tasks)) {
+                    result.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Logger.errorln(String.valueOf(e.getCause()));
+                fail("couldNotCreateImage");
+            } finally {
+                pool.shutdownNow();
                 monitor.close();
             }
+        }
 
-            CircuitState circuitState = canvas.getProject().getCircuitState(circuit);
-            ComponentDrawContext context = new ComponentDrawContext(canvas,
-                circuit, circuitState, base, g, printerView);
-            circuit.draw(context, null);
-
+        private void export(Circuit circuit, CircuitImageWriter writer) {
+            if (failed.get() || monitor.isCanceled()) {
+                return;
+            }
             File where;
             if (dest.isDirectory()) {
                 where = new File(dest, circuit.getName() + filter.extensions[0]);
@@ -361,25 +374,42 @@ class ExportImage {
                 where = new File(dest.getParentFile(), newName);
             }
             try {
+                if (filter.type == FORMAT_PNG) {
+                    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(where))) {
+                        writer.writePng(out, rows -> {
+                            addProgress(rows);
+                            return !failed.get() && !monitor.isCanceled();
+                        });
+                    }
+                    return;
+                }
+                BufferedImage img = writer.createImage();
+                addProgress(writer.getHeight());
                 switch (filter.type) {
                     case FORMAT_GIF:
                         GifEncoder.toFile(img, where, monitor);
                         break;
-                    case FORMAT_PNG:
-                        ImageIO.write(img, "PNG", where);
-                        break;
                     case FORMAT_JPG:
                         ImageIO.write(img, "JPEG", where);
                         break;
                 }
+            } catch (OutOfMemoryError e) {
+                fail("couldNotCreateImage");
             } catch (Exception e) {
-                JOptionPane.showMessageDialog(frame,
-                    Strings.get("couldNotCreateFile"));
+                fail("couldNotCreateFile");
+            }
+        }
+
+        private void addProgress(int rows) {
+            long done = rowsDone.addAndGet(rows);
+            monitor.setProgress((int) (10000 * done / Math.max(1, rowsTotal)));
+        }
+
+        private void fail(String message) {
+            if (failed.compareAndSet(false, true)) {
+                JOptionPane.showMessageDialog(frame, Strings.get(message));
                 monitor.close();
-                return;
             }
-            g.dispose();
-            monitor.close();
         }
     }
 }
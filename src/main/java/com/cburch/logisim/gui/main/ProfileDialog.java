@@ -0,0 +1,139 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.gui.main;
+
+import com.cburch.logisim.circuit.PropagationProfile;
+import com.cburch.logisim.util.TableSorter;
+import java.awt.BorderLayout;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.List;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+
+public class ProfileDialog extends JDialog implements ActionListener {
+
+    private ProfileDialog(JFrame parent, PropagationProfile profile) {
+        super(parent, true);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setTitle(Strings.get("profileDialogTitle"));
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab(Strings.get("profileFactoryTab"),
+            createTablePane(profile.getFactoryCounts(), Strings.get("profileFactoryColumn")));
+        tabs.addTab(Strings.get("profileCircuitTab"),
+            createTablePane(profile.getCircuitCounts(), Strings.get("profileCircuitColumn")));
+        tabs.addTab(Strings.get("profilePointTab"),
+            createTablePane(profile.getPointCounts(), Strings.get("profilePointColumn")));
+
+        JButton button = new JButton(Strings.get("statsCloseButton"));
+        button.addActionListener(this);
+        JPanel buttonPanel = new JPanel();
+        buttonPanel.add(button);
+
+        Container contents = this.getContentPane();
+        contents.setLayout(new BorderLayout());
+        contents.add(tabs, BorderLayout.CENTER);
+        contents.add(buttonPanel, BorderLayout.PAGE_END);
+        this.pack();
+
+        Dimension pref = contents.getPreferredSize();
+        if (pref.width > 750 || pref.height > 550) {
+            if (pref.width > 750) {
+                pref.width = 750;
+            }
+            if (pref.height > 550) {
+                pref.height = 550;
+            }
+            this.setSize(pref);
+        }
+    }
+
+    private static JScrollPane createTablePane(List<PropagationProfile.Count> counts, String nameColumn) {
+        JTable table = new JTable();
+        TableSorter sorter = new TableSorter(new ProfileTableModel(counts, nameColumn), table.getTableHeader());
+        table.setModel(sorter);
+        return new JScrollPane(table);
+    }
+
+    public static void show(JFrame parent, PropagationProfile profile) {
+        ProfileDialog dlog = new ProfileDialog(parent, profile);
+        dlog.setVisible(true);
+    }
+
+    public void actionPerformed(ActionEvent e) {
+        this.dispose();
+    }
+
+    private static class ProfileTableModel extends AbstractTableModel {
+
+        private final List<PropagationProfile.Count> counts;
+        private final String nameColumn;
+
+        ProfileTableModel(List<PropagationProfile.Count> counts, String nameColumn) {
+            this.counts = counts;
+            this.nameColumn = nameColumn;
+        }
+
+        public int getColumnCount() {
+            return 5;
+        }
+
+        public int getRowCount() {
+            return counts.size();
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 0 ? String.class : Long.class;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            switch (column) {
+                case 0:
+                    return nameColumn;
+                case 1:
+                    return Strings.get("profileCallsColumn");
+                case 2:
+                    return Strings.get("profileTimeColumn");
+                case 3:
+                    return Strings.get("profileEventsColumn");
+                case 4:
+                    return Strings.get("profileTogglesColumn");
+                default:
+                    return "??"; // should never happen
+            }
+        }
+
+        public Object getValueAt(int row, int column) {
+            if (row < 0 || row >= counts.size()) {
+                return "";
+            }
+            PropagationProfile.Count count = counts.get(row);
+            switch (column) {
+                case 0:
+                    return count.getName();
+                case 1:
+                    return count.getCalls();
+                case 2:
+                    return count.getNanos() / 1000;
+                case 3:
+                    return count.getEvents();
+                case 4:
+                    return count.getToggles();
+                default:
+                    return ""; // should never happen
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@
 
 package com.cburch.logisim.gui.main;
 
+import com.cburch.logisim.circuit.Circuit;
 import com.cburch.logisim.circuit.CircuitAttributes;
 import com.cburch.logisim.circuit.CircuitEvent;
 import com.cburch.logisim.circuit.CircuitListener;
@@ -24,9 +25,10 @@ class SimulationTreeCircuitNode extends SimulationTreeNode
 
     private final SimulationTreeModel model;
     private final SimulationTreeCircuitNode parent;
-    private final CircuitState circuitState;
+    private final Circuit circuit;
     private final Component subcircuitComp;
-    private ArrayList<TreeNode> children;
+    private CircuitState circuitState; // null until wanted for a subcircuit
+    private ArrayList<TreeNode> children; // null until first expanded
 
     public SimulationTreeCircuitNode(SimulationTreeModel model,
         SimulationTreeCircuitNode parent, CircuitState circuitState,
@@ -35,28 +37,53 @@ class SimulationTreeCircuitNode extends SimulationTreeNode
         this.parent = parent;
         this.circuitState = circuitState;
         this.subcircuitComp = subcircuitComp;
-        this.children = new ArrayList<>();
-        circuitState.getCircuit().addCircuitListener(this);
+        this.circuit = subcircuitComp == null ? circuitState.getCircuit()
+            : ((SubcircuitFactory) subcircuitComp.getFactory()).getSubcircuit();
+        this.children = null;
+        circuit.addCircuitListener(this);
         if (subcircuitComp != null) {
             subcircuitComp.getAttributeSet().addAttributeListener(this);
         } else {
-            circuitState.getCircuit().getStaticAttributes().addAttributeListener(this);
+            circuit.getStaticAttributes().addAttributeListener(this);
         }
-        computeChildren();
     }
 
+    /**
+     * Returns the state of this node's circuit, creating the substate of
+     * a subcircuit that has none of its own yet.
+     */
     public CircuitState getCircuitState() {
+        if (circuitState == null) {
+            SubcircuitFactory factory = (SubcircuitFactory) subcircuitComp.getFactory();
+            circuitState = factory.getSubstate(parent.getCircuitState(), subcircuitComp);
+        }
+        return circuitState;
+    }
+
+    /**
+     * Returns the state of this node's circuit, or null if a subcircuit
+     * has none of its own.
+     */
+    CircuitState peekCircuitState() {
+        if (circuitState == null && parent != null) {
+            CircuitState parentState = parent.peekCircuitState();
+            Object data = parentState == null ? null : parentState.getData(subcircuitComp);
+            if (data instanceof CircuitState) {
+                circuitState = (CircuitState) data;
+            }
+        }
         return circuitState;
     }
 
     @Override
     public ComponentFactory getComponentFactory() {
-        return circuitState.getCircuit().getSubcircuitFactory();
+        return circuit.getSubcircuitFactory();
     }
 
     @Override
     public boolean isCurrentView(SimulationTreeModel model) {
-        return model.getCurrentView() == circuitState;
+        CircuitState view = model.getCurrentView();
+        return view != null && view == peekCircuitState();
     }
 
     @Override
@@ -67,7 +94,7 @@ class SimulationTreeCircuitNode extends SimulationTreeNode
                 return label;
             }
         }
-        String ret = circuitState.getCircuit().getName();
+        String ret = circuit.getName();
         if (subcircuitComp != null) {
             ret += subcircuitComp.getLocation();
         }
@@ -76,12 +103,12 @@ class SimulationTreeCircuitNode extends SimulationTreeNode
 
     @Override
     public TreeNode getChildAt(int index) {
-        return children.get(index);
+        return getChildren().get(index);
     }
 
     @Override
     public int getChildCount() {
-        return children.size();
+        return getChildren().size();
     }
 
     @Override
@@ -91,7 +118,7 @@ class SimulationTreeCircuitNode extends SimulationTreeNode
 
     @Override
     public int getIndex(TreeNode node) {
-        return children.indexOf(node);
+        return getChildren().indexOf(node);
     }
 
     @Override
@@ -106,7 +133,7 @@ class SimulationTreeCircuitNode extends SimulationTreeNode
 
     @Override
     public Enumeration<TreeNode> children() {
-        return Collections.enumeration(children);
+        return Collections.enumeration(getChildren());
     }
 
     public void circuitChanged(CircuitEvent event) {
@@ -114,17 +141,25 @@ class SimulationTreeCircuitNode extends SimulationTreeNode
         if (action == CircuitEvent.ACTION_SET_NAME) {
             model.fireNodeChanged(this);
         } else {
-            if (computeChildren()) {
+            if (children != null && computeChildren()) {
                 model.fireStructureChanged(this);
             }
         }
     }
 
+    private ArrayList<TreeNode> getChildren() {
+        if (children == null) {
+            children = new ArrayList<>();
+            computeChildren();
+        }
+        return children;
+    }
+
     // returns true if changed
     private boolean computeChildren() {
         ArrayList<TreeNode> newChildren = new ArrayList<>();
         ArrayList<Component> subcircs = new ArrayList<>();
-        for (Component comp : circuitState.getCircuit().getNonWires()) {
+        for (Component comp : circuit.getNonWires()) {
             if (comp.getFactory() instanceof SubcircuitFactory) {
                 subcircs.add(comp);
             } else {
@@ -136,21 +171,24 @@ class SimulationTreeCircuitNode extends SimulationTreeNode
         }
         newChildren.sort(new CompareByName());
         subcircs.sort(this);
+        // the substates are looked up only when they are wanted, so that
+        // browsing the tree doesn't give every shared subcircuit its own
+        CircuitState state = peekCircuitState();
         for (Component component : subcircs) {
-            SubcircuitFactory factory = (SubcircuitFactory) component.getFactory();
-            CircuitState state = factory.getSubstate(circuitState, component);
+            Object data = state == null ? null : state.getData(component);
             SimulationTreeCircuitNode toAdd = null;
             for (TreeNode child : children) {
                 if (child instanceof SimulationTreeCircuitNode) {
                     SimulationTreeCircuitNode node = (SimulationTreeCircuitNode) child;
-                    if (node.circuitState == state) {
+                    if (node.subcircuitComp == component
+                        && (node.circuitState == null || node.circuitState == data)) {
                         toAdd = node;
                         break;
                     }
                 }
             }
             if (toAdd == null) {
-                toAdd = new SimulationTreeCircuitNode(model, this, state, component);
+                toAdd = new SimulationTreeCircuitNode(model, this, null, component);
             }
             newChildren.add(toAdd);
         }
@@ -83,7 +83,7 @@ public class SimulationTreeModel implements TreeModel {
                 Object child = node.getChildAt(j);
                 if (child instanceof SimulationTreeCircuitNode) {
                     SimulationTreeCircuitNode circNode = (SimulationTreeCircuitNode) child;
-                    if (circNode.getCircuitState() == current) {
+                    if (circNode.peekCircuitState() == current) {
                         node = circNode;
                         break;
                     }
@@ -7,10 +7,12 @@ import com.cburch.logisim.circuit.Circuit;
 import com.cburch.logisim.circuit.CircuitEvent;
 import com.cburch.logisim.circuit.CircuitListener;
 import com.cburch.logisim.circuit.CircuitState;
+import com.cburch.logisim.circuit.PropagationProfile;
 import com.cburch.logisim.circuit.Simulator;
 import com.cburch.logisim.circuit.SimulatorEvent;
 import com.cburch.logisim.circuit.SimulatorListener;
 import com.cburch.logisim.gui.log.LogFrame;
+import com.cburch.logisim.gui.main.ProfileDialog;
 import com.cburch.logisim.proj.Project;
 import com.cburch.logisim.util.StringUtil;
 import java.awt.event.ActionEvent;
@@ -18,6 +20,7 @@ import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.util.ArrayList;
 import javax.swing.ButtonGroup;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JMenu;
 import javax.swing.JMenuItem;
 import javax.swing.JRadioButtonMenuItem;
@@ -57,6 +60,8 @@ class MenuSimulate extends Menu {
     private final JMenu upStateMenu = new JMenu();
     private final ArrayList<CircuitStateMenuItem> upStateItems = new ArrayList<>();
     private final JMenuItem log = new JMenuItem();
+    private final JCheckBoxMenuItem profile = new JCheckBoxMenuItem();
+    private final JMenuItem profileSummary = new JMenuItem();
     private CircuitState currentState = null;
     private CircuitState bottomState = null;
     private Simulator currentSim = null;
@@ -104,6 +109,8 @@ class MenuSimulate extends Menu {
         add(tickFreq);
         addSeparator();
         add(log);
+        add(profile);
+        add(profileSummary);
 
         setEnabled(false);
         run.setEnabled(false);
@@ -114,6 +121,8 @@ class MenuSimulate extends Menu {
         tickOnce.setEnabled(false);
         ticksEnabled.setEnabled(false);
         tickFreq.setEnabled(false);
+        profile.setEnabled(false);
+        profileSummary.setEnabled(false);
 
         run.addChangeListener(myListener);
         menubar.addActionListener(LogisimMenuBar.SIMULATE_ENABLE, myListener);
@@ -126,6 +135,8 @@ class MenuSimulate extends Menu {
         // tickOnce.addActionListener(myListener);
         // ticksEnabled.addActionListener(myListener);
         log.addActionListener(myListener);
+        profile.addActionListener(myListener);
+        profileSummary.addActionListener(myListener);
 
         computeEnabled();
     }
@@ -144,6 +155,8 @@ class MenuSimulate extends Menu {
         downStateMenu.setText(Strings.get("simulateDownStateMenu"));
         upStateMenu.setText(Strings.get("simulateUpStateMenu"));
         log.setText(Strings.get("simulateLogItem"));
+        profile.setText(Strings.get("simulateProfileItem"));
+        profileSummary.setText(Strings.get("simulateProfileSummaryItem"));
     }
 
     public void setCurrentState(Simulator simulator, CircuitState state) {
@@ -249,6 +262,8 @@ class MenuSimulate extends Menu {
         tickOnce.setEnabled(present);
         ticksEnabled.setEnabled(present && simRunning);
         tickFreq.setEnabled(present);
+        profile.setEnabled(present);
+        profileSummary.setEnabled(present && sim != null && sim.isProfiling());
         menubar.fireEnableChanged();
     }
 
@@ -351,6 +366,15 @@ class MenuSimulate extends Menu {
                 assert menubar.getMenuProject() != null;
                 LogFrame frame = menubar.getMenuProject().getLogFrame(true);
                 frame.setVisible(true);
+            } else if (source.equals(profile)) {
+                if (simulator != null) {
+                    simulator.setIsProfiling(!simulator.isProfiling());
+                }
+            } else if (source.equals(profileSummary)) {
+                PropagationProfile current = simulator == null ? null : simulator.getProfile();
+                if (current != null) {
+                    ProfileDialog.show(project.getFrame(), current);
+                }
             }
         }
 
@@ -368,6 +392,7 @@ class MenuSimulate extends Menu {
             computeEnabled();
             run.setSelected(simulator.isRunning());
             ticksEnabled.setSelected(simulator.isTicking());
+            profile.setSelected(simulator.isProfiling());
             double frequency = simulator.getTickFrequency();
             for (TickFrequencyChoice item : tickFrequencies) {
                 item.setSelected(frequency == item.frequency);
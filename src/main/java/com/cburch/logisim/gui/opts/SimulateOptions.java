@@ -32,11 +32,18 @@ class SimulateOptions extends OptionsPanel {
         50000,
     });
     private final JCheckBox simRandomness = new JCheckBox();
+    private final JCheckBox simShare = new JCheckBox();
+    private final JCheckBox simMemo = new JCheckBox();
     private final JLabel gateUndefinedLabel = new JLabel();
     private final JComboBox<Object> gateUndefined = new JComboBox<>(new Object[]{
         new ComboOption(Options.GATE_UNDEFINED_IGNORE),
         new ComboOption(Options.GATE_UNDEFINED_ERROR)
     });
+    private final JLabel simModeLabel = new JLabel();
+    private final JComboBox<Object> simMode = new JComboBox<>(new Object[]{
+        new ComboOption(Options.SIMULATOR_MODE_EVENT),
+        new ComboOption(Options.SIMULATOR_MODE_CYCLE)
+    });
 
     public SimulateOptions(OptionsFrame window) {
         super(window);
@@ -51,18 +58,31 @@ class SimulateOptions extends OptionsPanel {
         gateUndefinedPanel.add(gateUndefined);
         gateUndefined.addActionListener(myListener);
 
+        JPanel simModePanel = new JPanel();
+        simModePanel.add(simModeLabel);
+        simModePanel.add(simMode);
+        simMode.addActionListener(myListener);
+
         simRandomness.addActionListener(myListener);
+        simShare.addActionListener(myListener);
+        simMemo.addActionListener(myListener);
 
         setLayout(new TableLayout(1));
         add(simLimitPanel);
         add(gateUndefinedPanel);
+        add(simModePanel);
         add(simRandomness);
+        add(simShare);
+        add(simMemo);
 
         window.getOptions().getAttributeSet().addAttributeListener(myListener);
         AttributeSet attrs = getOptions().getAttributeSet();
         myListener.loadSimLimit(attrs.getValue(Options.SIMULATOR_LIMIT_ATTRIBUTE));
         myListener.loadGateUndefined(attrs.getValue(Options.ATTR_GATE_UNDEFINED));
         myListener.loadSimRandomness(attrs.getValue(Options.SIMULATOR_RANDOM_ATTRIBUTE));
+        myListener.loadSimMode(attrs.getValue(Options.SIMULATOR_MODE_ATTRIBUTE));
+        myListener.loadSimShare(attrs.getValue(Options.SIMULATOR_SHARE_ATTRIBUTE));
+        myListener.loadSimMemo(attrs.getValue(Options.SIMULATOR_MEMO_ATTRIBUTE));
     }
 
     @Override
@@ -79,7 +99,10 @@ class SimulateOptions extends OptionsPanel {
     public void localeChanged() {
         simLimitLabel.setText(Strings.get("simulateLimit"));
         gateUndefinedLabel.setText(Strings.get("gateUndefined"));
+        simModeLabel.setText(Strings.get("simulateMode"));
         simRandomness.setText(Strings.get("simulateRandomness"));
+        simShare.setText(Strings.get("simulateShare"));
+        simMemo.setText(Strings.get("simulateMemo"));
     }
 
     private class MyListener implements ActionListener, AttributeListener {
@@ -99,6 +122,14 @@ class SimulateOptions extends OptionsPanel {
                     : Integer.valueOf(0);
                 getProject().doAction(OptionsActions.setAttribute(attrs,
                     Options.SIMULATOR_RANDOM_ATTRIBUTE, val));
+            } else if (source == simShare) {
+                AttributeSet attrs = getOptions().getAttributeSet();
+                getProject().doAction(OptionsActions.setAttribute(attrs,
+                    Options.SIMULATOR_SHARE_ATTRIBUTE, simShare.isSelected()));
+            } else if (source == simMemo) {
+                AttributeSet attrs = getOptions().getAttributeSet();
+                getProject().doAction(OptionsActions.setAttribute(attrs,
+                    Options.SIMULATOR_MEMO_ATTRIBUTE, simMemo.isSelected()));
             } else if (source == gateUndefined) {
                 ComboOption opt = (ComboOption) gateUndefined.getSelectedItem();
                 if (opt != null) {
@@ -106,6 +137,13 @@ class SimulateOptions extends OptionsPanel {
                     getProject().doAction(OptionsActions.setAttribute(attrs,
                         Options.ATTR_GATE_UNDEFINED, opt.getValue()));
                 }
+            } else if (source == simMode) {
+                ComboOption opt = (ComboOption) simMode.getSelectedItem();
+                if (opt != null) {
+                    AttributeSet attrs = getOptions().getAttributeSet();
+                    getProject().doAction(OptionsActions.setAttribute(attrs,
+                        Options.SIMULATOR_MODE_ATTRIBUTE, opt.getValue()));
+                }
             }
         }
 
@@ -119,6 +157,12 @@ class SimulateOptions extends OptionsPanel {
                 loadSimLimit((Integer) val);
             } else if (attr == Options.SIMULATOR_RANDOM_ATTRIBUTE) {
                 loadSimRandomness((Integer) val);
+            } else if (attr == Options.SIMULATOR_MODE_ATTRIBUTE) {
+                loadSimMode(val);
+            } else if (attr == Options.SIMULATOR_SHARE_ATTRIBUTE) {
+                loadSimShare((Boolean) val);
+            } else if (attr == Options.SIMULATOR_MEMO_ATTRIBUTE) {
+                loadSimMemo((Boolean) val);
             }
         }
 
@@ -140,5 +184,17 @@ class SimulateOptions extends OptionsPanel {
         private void loadSimRandomness(Integer val) {
             simRandomness.setSelected(val > 0);
         }
+
+        private void loadSimMode(Object val) {
+            ComboOption.setSelected(simMode, val);
+        }
+
+        private void loadSimShare(Boolean val) {
+            simShare.setSelected(val);
+        }
+
+        private void loadSimMemo(Boolean val) {
+            simMemo.setSelected(val);
+        }
     }
 }
@@ -0,0 +1,143 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.gui.start;
+
+import com.cburch.logisim.circuit.Circuit;
+import com.cburch.logisim.circuit.CircuitState;
+import com.cburch.logisim.file.LoadFailedException;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.file.LogisimFile;
+import com.cburch.logisim.gui.main.CircuitImageWriter;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.util.StringUtil;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes images of the circuits of a file from the command line, without
+ * a display, as a documentation build would. Each circuit is drawn in
+ * printer view by its own worker, in a state of its own that has been
+ * propagated once, into a file named after the circuit.
+ */
+class CircuitExporter {
+
+    static final String FORMAT_PNG = "png";
+    static final String FORMAT_SVG = "svg";
+
+    private CircuitExporter() {
+    }
+
+    static void run(Startup args) {
+        File fileToOpen = args.getFilesToOpen().get(0);
+        Loader loader = new Loader(null);
+        LogisimFile file;
+        try {
+            file = loader.openLogisimFile(fileToOpen, args.getSubstitutions());
+        } catch (LoadFailedException e) {
+            System.err.println(Strings.get("ttyLoadError", fileToOpen.getName())); //OK
+            System.exit(-1);
+            return;
+        }
+
+        List<Circuit> circuits = new ArrayList<>();
+        if (args.getExportCircuits().isEmpty()) {
+            circuits.addAll(file.getCircuits());
+        } else {
+            for (String name : args.getExportCircuits()) {
+                Circuit circuit = file.getCircuit(name);
+                if (circuit == null) {
+                    System.err.println(StringUtil.format(Strings.get("exportNoCircuitError"), name)); //OK
+                    System.exit(-1);
+                    return;
+                }
+                circuits.add(circuit);
+            }
+        }
+        File dir = args.getExportDirectory();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.err.println(StringUtil.format(Strings.get("exportDirectoryError"), dir.getPath())); //OK
+            System.exit(-1);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Project proj = new Project(file);
+        String format = args.getExportFormat();
+        double scale = args.getExportScale();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Circuit circuit : circuits) {
+            File dest = new File(dir, toFileName(circuit.getName()) + "." + format);
+            tasks.add(() -> {
+                export(proj, circuit, format, scale, dest);
+                return null;
+            });
+        }
+        int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        int code = 0;
+        try {
+            List<Future<Void>> results = pool.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    results.get(i).get();
+                } catch (ExecutionException e) {
+                    System.err.println(StringUtil.format(Strings.get("exportError"), //OK
+                        circuits.get(i).getName(), String.valueOf(e.getCause())));
+                    code = -1;
+                }
+            }
+        } catch (InterruptedException e) {
+            code = -1;
+        } finally {
+            pool.shutdown();
+        }
+        if (code == 0) {
+            System.out.println(StringUtil.format(Strings.get("exportDoneMsg"), //OK
+                "" + circuits.size(), dir.getPath(), "" + (System.currentTimeMillis() - start)));
+        }
+        System.exit(code);
+    }
+
+    private static void export(Project proj, Circuit circuit, String format, double scale,
+        File dest) throws IOException {
+        CircuitState state = new CircuitState(proj, circuit);
+        state.getPropagator().propagate();
+        Graphics measure = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).getGraphics();
+        CircuitImageWriter writer = new CircuitImageWriter(circuit, state, null, measure, scale, true);
+        measure.dispose();
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(dest))) {
+            if (format.equals(FORMAT_SVG)) {
+                Writer text = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                writer.writeSvg(text);
+                text.flush();
+            } else {
+                writer.writePng(out, null);
+            }
+        }
+    }
+
+    private static String toFileName(String name) {
+        StringBuilder ret = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            ret.append("/\\:*?\"<>|".indexOf(c) >= 0 || c < 0x20 ? '_' : c);
+        }
+        return ret.length() == 0 ? "_" : ret.toString();
+    }
+}
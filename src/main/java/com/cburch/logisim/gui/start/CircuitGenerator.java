@@ -0,0 +1,453 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.gui.start;
+
+import com.cburch.logisim.circuit.Circuit;
+import com.cburch.logisim.circuit.CircuitMutation;
+import com.cburch.logisim.circuit.Wire;
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.comp.ComponentFactory;
+import com.cburch.logisim.comp.EndData;
+import com.cburch.logisim.data.Attribute;
+import com.cburch.logisim.data.AttributeSet;
+import com.cburch.logisim.data.BitWidth;
+import com.cburch.logisim.data.Direction;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.file.LoadFailedException;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.file.LogisimFile;
+import com.cburch.logisim.instance.StdAttr;
+import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.tools.AddTool;
+import com.cburch.logisim.tools.Library;
+import com.cburch.logisim.util.StringUtil;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds large synthetic circuits of a given shape and size, for profiling
+ * the loader, the bundle map, the canvas and the simulator at scale. Every
+ * circuit is assembled through a {@link CircuitMutation}, as an editing
+ * session would, and depends only on its shape and size, so that the same
+ * command line always produces the same file.
+ */
+public class CircuitGenerator {
+
+    public static final List<String> SHAPES = Arrays.asList(
+        "adder", "chain", "fanout", "memory", "mesh", "nest", "tunnels");
+
+    private static final String TEMPLATE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+        + "<project version=\"1.0\">"
+        + " <lib name=\"0\" desc=\"#Wiring\" />"
+        + " <lib name=\"1\" desc=\"#Gates\" />"
+        + " <lib name=\"2\" desc=\"#Arithmetic\" />"
+        + " <lib name=\"3\" desc=\"#Memory\" />"
+        + " <lib name=\"4\" desc=\"#Base\" />"
+        + " <circuit name=\"main\" />"
+        + "</project>";
+
+    // gates per row of an inverter chain
+    private static final int CHAIN_ROW = 32;
+    // spacing of the cells of a gate mesh
+    private static final int MESH_DX = 120;
+    private static final int MESH_DY = 60;
+    // memories per row of a memory array
+    private static final int MEMORY_ROW = 16;
+
+    private final LogisimFile file;
+
+    public CircuitGenerator(Loader loader) throws LoadFailedException, IOException {
+        file = loader.openLogisimFile(new ByteArrayInputStream(TEMPLATE.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static void run(Startup args) {
+        File destination = args.getFilesToOpen().get(0);
+        int[] size = args.getGenerateSize();
+        Loader loader = new Loader(null);
+        long start = System.currentTimeMillis();
+        Circuit circuit;
+        try {
+            CircuitGenerator generator = new CircuitGenerator(loader);
+            circuit = generator.generate(args.getGenerateShape(), size[0], size[1]);
+            if (!loader.save(generator.getFile(), destination)) {
+                System.exit(-1);
+            }
+        } catch (LoadFailedException | IOException e) {
+            System.err.println(Strings.get("generateError") + ": " + e); //OK
+            System.exit(-1);
+            return;
+        }
+        System.out.println(StringUtil.format(Strings.get("generateDoneMsg"), //OK
+            "" + circuit.getNonWires().size(), "" + circuit.getWires().size(),
+            "" + (System.currentTimeMillis() - start)));
+        System.exit(0);
+    }
+
+    public LogisimFile getFile() {
+        return file;
+    }
+
+    public Circuit getMain() {
+        return file.getMainCircuit();
+    }
+
+    /**
+     * Fills the main circuit with a circuit of the given shape, one of
+     * {@link #SHAPES}. The meaning of the two size parameters depends on
+     * the shape; shapes with a single parameter ignore the second.
+     */
+    public Circuit generate(String shape, int size, int second) {
+        switch (shape) {
+            case "adder":
+                return rippleAdder(size, false);
+            case "chain":
+                return inverterChain(size);
+            case "fanout":
+                return splitterFanout(size, second);
+            case "memory":
+                return memoryArray(size, second);
+            case "mesh":
+                return gateMesh(size, second, false);
+            case "nest":
+                return hierarchy(size, second);
+            case "tunnels":
+                return gateMesh(size, second, true);
+            default:
+                throw new IllegalArgumentException("unknown shape " + shape);
+        }
+    }
+
+    private ComponentFactory getFactory(String library, String name) {
+        Library lib = file.getLibrary(library);
+        return ((AddTool) lib.getTool(name)).getFactory();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void setValue(AttributeSet attrs, String name, V value) {
+        attrs.setValue((Attribute<V>) attrs.getAttribute(name), value);
+    }
+
+    private static Location getEnd(Component comp, boolean input) {
+        for (EndData end : comp.getEnds()) {
+            if (input ? end.isInput() : end.isOutput()) {
+                return end.getLocation();
+            }
+        }
+        throw new IllegalArgumentException("no " + (input ? "input" : "output") + " on " + comp);
+    }
+
+    private Component createPin(Location loc, String label, boolean output, BitWidth width) {
+        ComponentFactory factory = getFactory("Wiring", "Pin");
+        AttributeSet attrs = factory.createAttributeSet();
+        attrs.setValue(StdAttr.LABEL, label);
+        attrs.setValue(StdAttr.WIDTH, width);
+        if (output) {
+            attrs.setValue(Pin.ATTR_TYPE, Boolean.TRUE);
+            attrs.setValue(StdAttr.FACING, Direction.WEST);
+        }
+        return factory.createComponent(loc, attrs);
+    }
+
+    private Component createPin(Location loc, String label, boolean output) {
+        return createPin(loc, label, output, BitWidth.ONE);
+    }
+
+    private Component createTunnel(Location loc, String label, BitWidth width) {
+        ComponentFactory factory = getFactory("Wiring", "Tunnel");
+        AttributeSet attrs = factory.createAttributeSet();
+        attrs.setValue(StdAttr.LABEL, label);
+        attrs.setValue(StdAttr.WIDTH, width);
+        return factory.createComponent(loc, attrs);
+    }
+
+    /**
+     * Fills the main circuit with a ripple-carry adder of one-bit adders,
+     * with input pins <code>a<i>i</i></code> and <code>b<i>i</i></code>,
+     * output pins <code>s<i>i</i></code> and <code>cout</code>, and a
+     * carry in driven by a clock or, if unclocked, by the pin
+     * <code>cin</code>.
+     */
+    public Circuit rippleAdder(int bits, boolean clocked) {
+        Circuit circ = getMain();
+        CircuitMutation xn = new CircuitMutation(circ);
+        ComponentFactory adder = getFactory("Arithmetic", "Adder");
+        AttributeSet attrs = adder.createAttributeSet();
+        attrs.setValue(StdAttr.WIDTH, BitWidth.ONE);
+
+        Location prevCarry = null;
+        for (int i = 0; i < bits; i++) {
+            Component comp = adder.createComponent(Location.create(200, 100 + 60 * i), (AttributeSet) attrs.clone());
+            Location carryIn = comp.getEnd(3).getLocation();
+            xn.add(comp);
+            xn.add(createPin(comp.getEnd(0).getLocation(), "a" + i, false));
+            xn.add(createPin(comp.getEnd(1).getLocation(), "b" + i, false));
+            xn.add(createPin(comp.getEnd(2).getLocation(), "s" + i, true));
+            if (prevCarry == null) {
+                Location driver = carryIn.translate(0, -20);
+                if (clocked) {
+                    ComponentFactory clock = getFactory("Wiring", "Clock");
+                    xn.add(clock.createComponent(driver, clock.createAttributeSet()));
+                } else {
+                    xn.add(createPin(driver, "cin", false));
+                }
+                xn.add(Wire.create(driver, carryIn));
+            } else {
+                xn.add(Wire.create(prevCarry, carryIn));
+            }
+            prevCarry = comp.getEnd(4).getLocation();
+        }
+        Location carryOut = prevCarry.translate(0, 20);
+        xn.add(Wire.create(prevCarry, carryOut));
+        xn.add(createPin(carryOut, "cout", true));
+        xn.execute();
+        return circ;
+    }
+
+    /**
+     * Fills the main circuit with a chain of NOT gates laid out in rows,
+     * driven by the pin <code>in</code> and ending at the pin
+     * <code>out</code>, with a wire between each pair of gates.
+     */
+    public Circuit inverterChain(int count) {
+        Circuit circ = getMain();
+        CircuitMutation xn = new CircuitMutation(circ);
+        ComponentFactory not = getFactory("Gates", "NOT Gate");
+
+        Location prevOut = null;
+        for (int i = 0; i < count; i++) {
+            int row = i / CHAIN_ROW;
+            int col = i % CHAIN_ROW;
+            Component comp = not.createComponent(Location.create(100 + 60 * col, 100 + 40 * row),
+                not.createAttributeSet());
+            Location in = getEnd(comp, true);
+            xn.add(comp);
+            if (prevOut == null) {
+                xn.add(createPin(in, "in", false));
+            } else if (col > 0) {
+                xn.add(Wire.create(prevOut, in));
+            } else {
+                // turn back to the start of the next row below the gates
+                Location down = prevOut.translate(0, 20);
+                Location back = Location.create(in.getX() - 10, down.getY());
+                Location across = Location.create(back.getX(), in.getY());
+                xn.add(Wire.create(prevOut, down));
+                xn.add(Wire.create(down, back));
+                xn.add(Wire.create(back, across));
+                xn.add(Wire.create(across, in));
+            }
+            prevOut = getEnd(comp, false);
+        }
+        xn.add(createPin(prevOut, "out", true));
+        xn.execute();
+        return circ;
+    }
+
+    /**
+     * Adds circuits nested <code>depth</code> deep, each holding
+     * <code>fan</code> instances of the one below in series, down to a
+     * single NOT gate, and places the outermost in the main circuit
+     * between the pins <code>in</code> and <code>out</code>.
+     */
+    public Circuit hierarchy(int depth, int fan) {
+        Circuit inner = new Circuit("level0");
+        CircuitMutation xn = new CircuitMutation(inner);
+        ComponentFactory not = getFactory("Gates", "NOT Gate");
+        Component gate = not.createComponent(Location.create(200, 100), not.createAttributeSet());
+        xn.add(gate);
+        xn.add(createPin(getEnd(gate, true), "in", false));
+        xn.add(createPin(getEnd(gate, false), "out", true));
+        xn.execute();
+        file.addCircuit(inner);
+
+        for (int level = 1; level <= depth; level++) {
+            Circuit outer = level == depth ? getMain() : new Circuit("level" + level);
+            xn = new CircuitMutation(outer);
+            ComponentFactory sub = inner.getSubcircuitFactory();
+            // shift each instance so that its input meets the previous one's output
+            Component probe = sub.createComponent(Location.create(200, 100), sub.createAttributeSet());
+            int dx = getEnd(probe, false).getX() - getEnd(probe, true).getX();
+            int dy = getEnd(probe, false).getY() - getEnd(probe, true).getY();
+            Component first = null;
+            Component last = null;
+            for (int i = 0; i < fan; i++) {
+                last = sub.createComponent(Location.create(200 + i * dx, 100 + i * dy), sub.createAttributeSet());
+                xn.add(last);
+                if (first == null) {
+                    first = last;
+                }
+            }
+            xn.add(createPin(getEnd(first, true), "in", false));
+            xn.add(createPin(getEnd(last, false), "out", true));
+            xn.execute();
+            if (outer != getMain()) {
+                file.addCircuit(outer);
+            }
+            inner = outer;
+        }
+        return getMain();
+    }
+
+    /**
+     * Fills the main circuit with a grid of two-input XOR gates, each fed
+     * by the gates to its left and above, with the pins
+     * <code>l<i>r</i></code> and <code>t<i>c</i></code> along the left and
+     * top edges and <code>o<i>r</i></code> along the right. The gates are
+     * connected either by wires or, for a tunnel-heavy layout, by a pair
+     * of tunnels for each connection.
+     */
+    public Circuit gateMesh(int rows, int cols, boolean tunnels) {
+        Circuit circ = getMain();
+        CircuitMutation xn = new CircuitMutation(circ);
+        ComponentFactory xor = getFactory("Gates", "XOR Gate");
+        AttributeSet attrs = xor.createAttributeSet();
+        setValue(attrs, "inputs", 2);
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int x = 100 + MESH_DX * (c + 1);
+                int y = 100 + MESH_DY * (r + 1);
+                Component gate = xor.createComponent(Location.create(x, y), (AttributeSet) attrs.clone());
+                xn.add(gate);
+                Location out = gate.getEnd(0).getLocation();
+                Location inA = gate.getEnd(1).getLocation();
+                Location inB = gate.getEnd(2).getLocation();
+                // the outputs of the cells to the left and above, or the edge pins standing in for them
+                Location left = Location.create(x - MESH_DX, y);
+                Location above = Location.create(x, y - MESH_DY);
+                String leftName = c == 0 ? "l" + r : "n" + r + "_" + (c - 1);
+                String aboveName = r == 0 ? "t" + c : "n" + (r - 1) + "_" + c;
+                if (c == 0) {
+                    xn.add(createPin(left, leftName, false));
+                }
+                if (r == 0) {
+                    xn.add(createPin(above, aboveName, false));
+                }
+                if (c == cols - 1) {
+                    if (tunnels) {
+                        xn.add(createPin(out, "o" + r, true));
+                    } else {
+                        // leave room for the tap feeding the cell below
+                        xn.add(Wire.create(out, out.translate(40, 0)));
+                        xn.add(createPin(out.translate(40, 0), "o" + r, true));
+                    }
+                }
+
+                if (tunnels) {
+                    if (c == 0) {
+                        xn.add(createTunnel(left, leftName, BitWidth.ONE));
+                    }
+                    if (r == 0) {
+                        xn.add(createTunnel(above, aboveName, BitWidth.ONE));
+                    }
+                    xn.add(createTunnel(out, "n" + r + "_" + c, BitWidth.ONE));
+                    xn.add(createTunnel(inA, leftName, BitWidth.ONE));
+                    xn.add(createTunnel(inB, aboveName, BitWidth.ONE));
+                } else {
+                    // a stub to the right of each output carries it both to
+                    // the next cell's upper input and down to the lower input
+                    // of the cell below
+                    Location turnA = Location.create(inA.getX() - 20, left.getY());
+                    xn.add(Wire.create(left, turnA));
+                    xn.add(Wire.create(turnA, Location.create(turnA.getX(), inA.getY())));
+                    xn.add(Wire.create(Location.create(turnA.getX(), inA.getY()), inA));
+                    if (r == 0) {
+                        xn.add(Wire.create(above, above.translate(30, 0)));
+                    }
+                    Location tap = above.translate(20, 0);
+                    Location down = tap.translate(0, MESH_DY / 2);
+                    Location turnB = Location.create(inB.getX() - 10, down.getY());
+                    xn.add(Wire.create(tap, down));
+                    xn.add(Wire.create(down, turnB));
+                    xn.add(Wire.create(turnB, Location.create(turnB.getX(), inB.getY())));
+                    xn.add(Wire.create(Location.create(turnB.getX(), inB.getY()), inB));
+                }
+            }
+        }
+        xn.execute();
+        return circ;
+    }
+
+    /**
+     * Fills the main circuit with <code>count</code> splitters hanging off
+     * a single bus driven by the <code>width</code>-bit pin
+     * <code>in</code>, each fanning out to every bit. Bit <i>k</i> of each
+     * splitter ends in a tunnel labeled <code>b<i>k</i></code>, so that the
+     * bits of all splitters are joined again.
+     */
+    public Circuit splitterFanout(int count, int width) {
+        Circuit circ = getMain();
+        CircuitMutation xn = new CircuitMutation(circ);
+        ComponentFactory splitter = getFactory("Wiring", "Splitter");
+        AttributeSet attrs = splitter.createAttributeSet();
+        setValue(attrs, "fanout", width);
+        setValue(attrs, "incoming", BitWidth.create(width));
+
+        BitWidth busWidth = BitWidth.create(width);
+        int spacing = 10 * width + 20;
+        Location top = Location.create(100, 100 + spacing);
+        xn.add(createPin(top.translate(-40, 0), "in", false, busWidth));
+        xn.add(Wire.create(top.translate(-40, 0), top));
+        if (count > 1) {
+            xn.add(Wire.create(top, top.translate(0, spacing * (count - 1))));
+        }
+        for (int i = 0; i < count; i++) {
+            Component comp = splitter.createComponent(top.translate(0, spacing * i), (AttributeSet) attrs.clone());
+            xn.add(comp);
+            List<EndData> ends = comp.getEnds();
+            for (int k = 1; k < ends.size(); k++) {
+                xn.add(createTunnel(ends.get(k).getLocation(), "b" + (k - 1), BitWidth.ONE));
+            }
+        }
+        xn.execute();
+        return circ;
+    }
+
+    /**
+     * Fills the main circuit with <code>count</code> memories, alternately
+     * ROMs filled with pseudo-random bytes and RAMs, all addressed through
+     * tunnels from the <code>addrBits</code>-bit pin <code>addr</code>.
+     */
+    public Circuit memoryArray(int count, int addrBits) {
+        Circuit circ = getMain();
+        CircuitMutation xn = new CircuitMutation(circ);
+        ComponentFactory rom = getFactory("Memory", "ROM");
+        ComponentFactory ram = getFactory("Memory", "RAM");
+        BitWidth addrWidth = BitWidth.create(addrBits);
+
+        Location pin = Location.create(60, 60);
+        xn.add(createPin(pin, "addr", false, addrWidth));
+        xn.add(createTunnel(pin, "addr", addrWidth));
+        for (int i = 0; i < count; i++) {
+            boolean isRom = i % 2 == 0;
+            ComponentFactory factory = isRom ? rom : ram;
+            AttributeSet attrs = factory.createAttributeSet();
+            setValue(attrs, "addrWidth", addrWidth);
+            if (isRom) {
+                Attribute<?> contents = attrs.getAttribute("contents");
+                setValue(attrs, "contents", contents.parse(randomContents(addrBits, i)));
+            }
+            Location loc = Location.create(300 + 300 * (i % MEMORY_ROW), 160 + 160 * (i / MEMORY_ROW));
+            Component comp = factory.createComponent(loc, attrs);
+            xn.add(comp);
+            xn.add(createTunnel(comp.getEnd(1).getLocation(), "addr", addrWidth));
+        }
+        xn.execute();
+        return circ;
+    }
+
+    private static String randomContents(int addrBits, int seed) {
+        Random random = new Random(seed);
+        StringBuilder ret = new StringBuilder("addr/data: " + addrBits + " 8\n");
+        for (int i = 0; i < (1 << addrBits); i++) {
+            ret.append(Integer.toHexString(random.nextInt(256)));
+            ret.append(i % 16 == 15 ? '\n' : ' ');
+        }
+        return ret.toString();
+    }
+}
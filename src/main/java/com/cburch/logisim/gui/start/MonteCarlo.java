@@ -0,0 +1,224 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.gui.start;
+
+import com.cburch.logisim.circuit.Circuit;
+import com.cburch.logisim.circuit.CircuitState;
+import com.cburch.logisim.circuit.Propagator;
+import com.cburch.logisim.data.Value;
+import com.cburch.logisim.file.LoadFailedException;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.file.LogisimFile;
+import com.cburch.logisim.file.Options;
+import com.cburch.logisim.instance.Instance;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.util.StringUtil;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a circuit many times with random delays, as requested with the
+ * -runs option, and reports how the runs ended. Run number i draws its
+ * delays from the seed given with -seed plus i, so that any run can be
+ * repeated alone, and the runs are shared among as many threads as there
+ * are processors, each simulating its own copy of the file. Runs that end
+ * the same way, with the same values on the output pins, are reported
+ * together; the program exits with 0 only if every run ended alike.
+ */
+class MonteCarlo {
+
+    // runs end here if neither a halt pin nor -ticks ends them sooner
+    private static final long DEFAULT_TICKS = 100000;
+
+    private MonteCarlo() {
+    }
+
+    public static void run(Startup args) {
+        int runs = args.getRunCount();
+        long seed = args.getRunSeed();
+        long ticks = args.getTickLimit() == Long.MAX_VALUE ? DEFAULT_TICKS : args.getTickLimit();
+        File fileToOpen = args.getFilesToOpen().get(0);
+
+        int threadCount = Math.min(runs, Runtime.getRuntime().availableProcessors());
+        Worker[] workers = new Worker[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            workers[i] = Worker.create(args, fileToOpen, seed);
+        }
+        StartupProfile.mark("startupTimingSimulation");
+
+        long start = System.currentTimeMillis();
+        Outcome[] outcomes = new Outcome[runs];
+        AtomicInteger nextRun = new AtomicInteger();
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            Worker worker = workers[i];
+            threads[i] = new Thread(() -> {
+                for (int run = nextRun.getAndIncrement(); run < runs; run = nextRun.getAndIncrement()) {
+                    outcomes[run] = worker.simulate(seed + run, ticks);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.exit(-1);
+            }
+        }
+        long elapse = System.currentTimeMillis() - start;
+
+        LinkedHashMap<String, Group> groups = new LinkedHashMap<>();
+        for (int run = 0; run < runs; run++) {
+            Outcome outcome = outcomes[run];
+            String key = outcome.code + "\n" + outcome.outputs;
+            Group group = groups.get(key);
+            if (group == null) {
+                group = new Group(outcome, seed + run);
+                groups.put(key, group);
+            }
+            group.add(outcome);
+        }
+
+        System.out.println(StringUtil.format(Strings.get("runsHeader"), //OK
+            "" + runs, "" + threadCount, "" + elapse));
+        for (Group group : groups.values()) {
+            String reason;
+            if (group.code == 0) {
+                reason = Strings.get("ttyHaltReasonPin");
+            } else if (group.code == 1) {
+                reason = Strings.get("ttyHaltReasonOscillation");
+            } else {
+                reason = Strings.get("ttyHaltReasonTicks");
+            }
+            System.out.println(StringUtil.format(Strings.get("runsGroupMsg"), //OK
+                "" + group.count, reason, "" + group.firstSeed));
+            System.out.println(StringUtil.format(Strings.get("runsTicksMsg"), //OK
+                "" + group.minTick, "" + group.maxTick));
+            if (!group.outputs.isEmpty()) {
+                System.out.println("\t" + group.outputs); //OK
+            }
+        }
+        System.exit(groups.size() == 1 ? 0 : 1);
+    }
+
+    private static class Worker {
+
+        private final CircuitState initial;
+        private final ArrayList<Instance> outputPins = new ArrayList<>();
+        private final Instance haltPin;
+
+        private Worker(LogisimFile file, File loadFile, long seed) throws IOException {
+            Options options = file.getOptions();
+            if (options.getAttributeSet().getValue(Options.SIMULATOR_RANDOM_ATTRIBUTE) == 0) {
+                // the runs would all be alike without noise
+                options.getAttributeSet().setValue(Options.SIMULATOR_RANDOM_ATTRIBUTE,
+                    Options.SIMULATOR_RANDOM_DEFAULT);
+            }
+            Circuit circuit = file.getMainCircuit();
+            haltPin = TtyInterface.findOutputPins(circuit, outputPins);
+            initial = new CircuitState(new Project(file), circuit);
+            // every worker begins from the same state, so that runs are the
+            // same whichever worker happens to do them
+            initial.getPropagator().setNoiseSeed(seed);
+            initial.getPropagator().propagate();
+            if (loadFile != null && !TtyInterface.loadRam(initial, loadFile)) {
+                System.err.println(Strings.get("loadNoRamError")); //OK
+                System.exit(-1);
+            }
+        }
+
+        static Worker create(Startup args, File fileToOpen, long seed) {
+            Loader loader = new Loader(null);
+            try {
+                LogisimFile file = loader.openLogisimFile(fileToOpen, args.getSubstitutions());
+                return new Worker(file, args.getLoadFile(), seed);
+            } catch (LoadFailedException e) {
+                System.err.println(Strings.get("ttyLoadError", fileToOpen.getName())); //OK
+            } catch (IOException e) {
+                System.err.println(Strings.get("loadIoError") + ": " + e); //OK
+            }
+            System.exit(-1);
+            return null;
+        }
+
+        Outcome simulate(long seed, long ticks) {
+            CircuitState state = initial.cloneState();
+            Propagator prop = state.getPropagator();
+            prop.setNoiseSeed(seed);
+            long tick = 0;
+            int code;
+            while (true) {
+                if (haltPin != null
+                    && Pin.FACTORY.getValue(state.getInstanceState(haltPin)).equals(Value.TRUE)) {
+                    code = 0;
+                    break;
+                }
+                if (prop.isOscillating()) {
+                    code = 1;
+                    break;
+                }
+                if (tick >= ticks) {
+                    code = 2;
+                    break;
+                }
+                tick++;
+                prop.tick();
+                prop.propagate();
+            }
+
+            StringBuilder outputs = new StringBuilder();
+            for (Instance pin : outputPins) {
+                if (pin != haltPin) {
+                    if (outputs.length() > 0) {
+                        outputs.append('\t');
+                    }
+                    outputs.append(Pin.FACTORY.getValue(state.getInstanceState(pin)));
+                }
+            }
+            prop.dispose();
+            return new Outcome(code, tick, outputs.toString());
+        }
+    }
+
+    private static class Outcome {
+
+        private final int code;
+        private final long tick;
+        private final String outputs;
+
+        Outcome(int code, long tick, String outputs) {
+            this.code = code;
+            this.tick = tick;
+            this.outputs = outputs;
+        }
+    }
+
+    private static class Group {
+
+        private final int code;
+        private final String outputs;
+        private final long firstSeed;
+        private int count = 0;
+        private long minTick = Long.MAX_VALUE;
+        private long maxTick = Long.MIN_VALUE;
+
+        Group(Outcome first, long firstSeed) {
+            this.code = first.code;
+            this.outputs = first.outputs;
+            this.firstSeed = firstSeed;
+        }
+
+        void add(Outcome outcome) {
+            count++;
+            minTick = Math.min(minTick, outcome.tick);
+            maxTick = Math.max(maxTick, outcome.tick);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.gui.start;
+
+import com.cburch.logisim.circuit.Circuit;
+import com.cburch.logisim.circuit.CircuitState;
+import com.cburch.logisim.circuit.PropagationProfile;
+import com.cburch.logisim.file.LoadFailedException;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.file.LogisimFile;
+import com.cburch.logisim.instance.Instance;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.util.StringUtil;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs simulations on request for as long as the standard input stays
+ * open, so that many runs of the same circuit pay for loading it, and for
+ * warming up the virtual machine, only once. Each line of input is a
+ * request such as
+ *
+ * <pre>run file=cpu.circ load=test1.img ticks=100000 format=tty,halt</pre>
+ *
+ * in which only the file is required and a value holding spaces may be
+ * written in double quotes; without a tick limit, the one given by -ticks
+ * applies. A request's output is exactly what the same -tty run would
+ * print, followed by a line <code>end</code> and the run's exit code: 0 if
+ * it halted, 1 if it oscillated, 2 if it ran out of ticks and -1 if it
+ * couldn't run. A line <code>quit</code> ends the server.
+ *
+ * <p>Loaded circuits are kept by file contents. Each run begins from a
+ * copy of the circuit's initial state, so runs never see each other's
+ * memory or registers.
+ */
+class SimulationServer {
+
+    // the most circuits kept loaded; the least recently run go first
+    private static final int MAX_PROJECTS = 16;
+
+    private final Startup args;
+    private final LinkedHashMap<String, Prepared> prepared
+        = new LinkedHashMap<String, Prepared>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Prepared> eldest) {
+            return size() > MAX_PROJECTS;
+        }
+    };
+
+    private SimulationServer(Startup args) {
+        this.args = args;
+    }
+
+    public static void run(Startup args) {
+        SimulationServer server = new SimulationServer(args);
+        for (File file : args.getFilesToOpen()) {
+            server.prepare(file);
+        }
+        StartupProfile.mark("startupTimingFile");
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.equals("quit")) {
+                    break;
+                } else if (!line.isEmpty()) {
+                    int code = server.handle(line);
+                    System.out.println("end " + code); //OK
+                    System.out.flush();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage()); //OK
+        }
+        System.exit(0);
+    }
+
+    private int handle(String line) {
+        HashMap<String, String> request = parseRequest(line);
+        if (request == null || !request.containsKey("file")) {
+            System.err.println(StringUtil.format(Strings.get("serverRequestError"), line)); //OK
+            return -1;
+        }
+
+        int format = TtyInterface.FORMAT_HALT;
+        if (request.containsKey("format")) {
+            format = Startup.parseTtyFormat(request.get("format"));
+        }
+        long ticks = args.getTickLimit();
+        if (request.containsKey("ticks")) {
+            try {
+                ticks = Long.parseLong(request.get("ticks"));
+            } catch (NumberFormatException e) {
+                System.err.println(StringUtil.format(Strings.get("serverRequestError"), line)); //OK
+                return -1;
+            }
+        }
+
+        Prepared circuit = prepare(new File(request.get("file")));
+        if (circuit == null) {
+            return -1;
+        }
+        if ((format & TtyInterface.FORMAT_STATISTICS) != 0) {
+            format &= ~TtyInterface.FORMAT_STATISTICS;
+            TtyInterface.displayStatistics(circuit.file);
+        }
+        if (format == 0) {
+            return 0;
+        }
+
+        CircuitState state = circuit.initial.cloneState();
+        try {
+            if (request.containsKey("load")) {
+                try {
+                    if (!TtyInterface.loadRam(state, new File(request.get("load")))) {
+                        System.err.println(Strings.get("loadNoRamError")); //OK
+                        return -1;
+                    }
+                } catch (IOException e) {
+                    System.err.println(Strings.get("loadIoError") + ": " + e); //OK
+                    return -1;
+                }
+            }
+            PropagationProfile profile = null;
+            if ((format & TtyInterface.FORMAT_PROFILE) != 0) {
+                profile = new PropagationProfile();
+                state.getPropagator().setProfile(profile);
+            }
+            int code = TtyInterface.runSimulation(state, circuit.outputPins, circuit.haltPin,
+                format, ticks, false);
+            if (profile != null) {
+                TtyInterface.displayProfile(profile);
+            }
+            return code;
+        } finally {
+            // the server never ends, so each run's propagator has to let
+            // go of the options shared by all runs of the file
+            state.getPropagator().dispose();
+        }
+    }
+
+    // finds the circuit held in the file, loading it if it's new or changed
+    private Prepared prepare(File file) {
+        String key;
+        try {
+            key = file.getCanonicalPath() + "#" + StringUtil.sha256(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            System.err.println(Strings.get("ttyLoadError", file.getName())); //OK
+            return null;
+        }
+        Prepared ret = prepared.get(key);
+        if (ret == null) {
+            Loader loader = new Loader(null);
+            LogisimFile logisimFile;
+            try {
+                logisimFile = loader.openLogisimFile(file, args.getSubstitutions());
+            } catch (LoadFailedException e) {
+                System.err.println(Strings.get("ttyLoadError", file.getName())); //OK
+                return null;
+            }
+            ret = new Prepared(logisimFile);
+            prepared.put(key, ret);
+        }
+        return ret;
+    }
+
+    // splits "run name=value ..." into its values, or returns null
+    private static HashMap<String, String> parseRequest(String line) {
+        if (!line.startsWith("run ")) {
+            return null;
+        }
+        HashMap<String, String> ret = new HashMap<>();
+        int pos = 4;
+        int length = line.length();
+        while (pos < length) {
+            if (Character.isWhitespace(line.charAt(pos))) {
+                pos++;
+                continue;
+            }
+            int equals = line.indexOf('=', pos);
+            if (equals < 0) {
+                return null;
+            }
+            String name = line.substring(pos, equals);
+            int end;
+            String value;
+            if (equals + 1 < length && line.charAt(equals + 1) == '"') {
+                end = line.indexOf('"', equals + 2);
+                if (end < 0) {
+                    return null;
+                }
+                value = line.substring(equals + 2, end);
+                end++;
+            } else {
+                end = equals + 1;
+                while (end < length && !Character.isWhitespace(line.charAt(end))) {
+                    end++;
+                }
+                value = line.substring(equals + 1, end);
+            }
+            ret.put(name, value);
+            pos = end;
+        }
+        return ret;
+    }
+
+    private static class Prepared {
+
+        private final LogisimFile file;
+        private final CircuitState initial;
+        private final ArrayList<Instance> outputPins = new ArrayList<>();
+        private final Instance haltPin;
+
+        Prepared(LogisimFile file) {
+            this.file = file;
+            Circuit circuit = file.getMainCircuit();
+            haltPin = TtyInterface.findOutputPins(circuit, outputPins);
+            initial = new CircuitState(new Project(file), circuit);
+            // as in a -tty run, the first propagation populates the substates
+            initial.getPropagator().propagate();
+        }
+    }
+}
@@ -32,6 +32,8 @@ import javax.swing.UnsupportedLookAndFeelException;
 
 public class Startup {
 
+    // when the program began, as near as we can tell without the system's help
+    private static final long MAIN_NANOS = System.nanoTime();
     private static Startup startupTemp = null;
     // based on command line
     private final ArrayList<File> filesToOpen = new ArrayList<>();
@@ -43,7 +45,17 @@ public class Startup {
     private boolean showSplash;
     private File loadFile;
     private boolean initialized = false;
+    private boolean isServer = false;
     private int ttyFormat = 0;
+    private long tickLimit = Long.MAX_VALUE;
+    private int runCount = 0;
+    private long runSeed = 0;
+    private String generateShape = null;
+    private int[] generateSize = null;
+    private String exportFormat = null;
+    private double exportScale = 1.0;
+    private File exportDirectory = null;
+    private final ArrayList<String> exportCircuits = new ArrayList<>();
     // from other sources
     private SplashScreen monitor = null;
     private File templateFile = null;
@@ -104,39 +116,7 @@ public class Startup {
         System.exit(-1);
     }
 
-    public static Startup parseArgs(String[] args) {
-        // see whether we'll be using any graphics
-        boolean isTty = false;
-        boolean isClearPreferences = false;
-        for (String arg : args) {
-            if (arg.equals("-tty")) {
-                isTty = true;
-            } else if (arg.equals("-clearprefs") || arg.equals("-clearprops")) {
-                isClearPreferences = true;
-            }
-        }
-
-        if (!isTty) {
-            // we're using the GUI: Set up the Look&Feel to match the platform
-            System.setProperty("com.apple.mrj.application.apple.menu.about.name", "Logisim");
-            System.setProperty("apple.laf.useScreenMenuBar", "true");
-
-            LocaleManager.setReplaceAccents(false);
-
-            // Initialize graphics acceleration if appropriate
-            AppPreferences.handleGraphicsAcceleration();
-        }
-
-        Startup startup = new Startup(isTty);
-        startupTemp = startup;
-        if (!isTty) {
-            registerHandler();
-        }
-
-        if (isClearPreferences) {
-            AppPreferences.clear();
-        }
-
+    private static void setLookAndFeel() {
         String theme;
         String os = System.getProperty("os.name").split(" ")[0]; // Get the first word of the os.name string
 
@@ -170,43 +150,108 @@ public class Startup {
             errorln("Using the default look and feel.");
             e.printStackTrace(System.err);
         }
+    }
+
+    public static Startup parseArgs(String[] args) {
+        // see whether we'll be using any graphics
+        boolean isTty = false;
+        boolean isClearPreferences = false;
+        for (String arg : args) {
+            if (arg.equals("-tty") || arg.equals("-generate") || arg.equals("-server")
+                || arg.equals("-runs")) {
+                isTty = true;
+            } else if (arg.equals("-export")) {
+                // images are drawn without a display
+                isTty = true;
+                System.setProperty("java.awt.headless", "true");
+            } else if (arg.equals("-clearprefs") || arg.equals("-clearprops")) {
+                isClearPreferences = true;
+            } else if (arg.equals("-timing")) {
+                StartupProfile.enable(MAIN_NANOS);
+            }
+        }
+
+        if (!isTty) {
+            // we're using the GUI: Set up the Look&Feel to match the platform
+            System.setProperty("com.apple.mrj.application.apple.menu.about.name", "Logisim");
+            System.setProperty("apple.laf.useScreenMenuBar", "true");
+
+            LocaleManager.setReplaceAccents(false);
+
+            // Initialize graphics acceleration if appropriate
+            AppPreferences.handleGraphicsAcceleration();
+        }
+
+        Startup startup = new Startup(isTty);
+        startupTemp = startup;
+        if (!isTty) {
+            registerHandler();
+            setLookAndFeel();
+        }
+
+        if (isClearPreferences) {
+            AppPreferences.clear();
+        }
+
         // parse arguments
         for (int i = 0; i < args.length; i++) {
             String arg = args[i];
             if (arg.equals("-tty")) {
                 if (i + 1 < args.length) {
                     i++;
-                    String[] formats = args[i].split(",");
-                    if (formats.length == 0) {
-                        errorln(Strings.get("ttyFormatError")); //OK
-                    }
-                    for (String format : formats) {
-                        String fmt = format.trim();
-                        switch (fmt) {
-                            case "table":
-                                startup.ttyFormat |= TtyInterface.FORMAT_TABLE;
-                                break;
-                            case "speed":
-                                startup.ttyFormat |= TtyInterface.FORMAT_SPEED;
-                                break;
-                            case "tty":
-                                startup.ttyFormat |= TtyInterface.FORMAT_TTY;
-                                break;
-                            case "halt":
-                                startup.ttyFormat |= TtyInterface.FORMAT_HALT;
-                                break;
-                            case "stats":
-                                startup.ttyFormat |= TtyInterface.FORMAT_STATISTICS;
-                                break;
-                            default:
-                                errorln(Strings.get("ttyFormatError")); //OK
-                                break;
-                        }
-                    }
+                    startup.ttyFormat |= parseTtyFormat(args[i]);
                 } else {
                     errorln(Strings.get("ttyFormatError")); //OK
                     return null;
                 }
+            } else if (arg.equals("-server")) {
+                startup.isServer = true;
+            } else if (arg.equals("-ticks")) {
+                startup.tickLimit = i + 1 < args.length ? parsePositive(args[++i]) : -1;
+                if (startup.tickLimit < 0) {
+                    errorln(Strings.get("ticksFormatError")); //OK
+                    return null;
+                }
+            } else if (arg.equals("-runs")) {
+                long count = i + 1 < args.length ? parsePositive(args[++i]) : -1;
+                if (count < 0 || count > Integer.MAX_VALUE) {
+                    errorln(Strings.get("runsFormatError")); //OK
+                    return null;
+                }
+                startup.runCount = (int) count;
+            } else if (arg.equals("-seed")) {
+                try {
+                    startup.runSeed = Long.parseLong(args[++i]);
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    errorln(Strings.get("seedFormatError")); //OK
+                    return null;
+                }
+            } else if (arg.equals("-generate")) {
+                if (i + 2 < args.length && CircuitGenerator.SHAPES.contains(args[i + 1])) {
+                    startup.generateShape = args[i + 1];
+                    startup.generateSize = parseGenerateSize(args[i + 2]);
+                    i += 2;
+                }
+                if (startup.generateSize == null) {
+                    errorln(Strings.get("generateFormatError")); //OK
+                    return null;
+                }
+            } else if (arg.equals("-export")) {
+                if (i + 2 < args.length && parseExportFormat(startup, args[i + 1])) {
+                    startup.exportDirectory = new File(args[i + 2]);
+                    i += 2;
+                } else {
+                    errorln(Strings.get("exportFormatError")); //OK
+                    return null;
+                }
+            } else if (arg.equals("-circuit")) {
+                if (i + 1 < args.length) {
+                    i++;
+                    startup.exportCircuits.add(args[i]);
+                } else {
+                    errorln(Strings.get("exportCircuitError")); //OK
+                    return null;
+                }
             } else if (arg.equals("-sub")) {
                 if (i + 2 < args.length) {
                     File a = new File(args[i + 1]);
@@ -301,6 +346,8 @@ public class Startup {
                 }
             } else if (arg.equals("-nosplash")) {
                 startup.showSplash = false;
+            } else if (arg.equals("-timing")) {
+                // already handled above
 //			} else if (arg.equals("-clearprefs")) {
                 // already handled above
             } else if (arg.charAt(0) == '-') {
@@ -310,10 +357,26 @@ public class Startup {
                 startup.filesToOpen.add(new File(arg));
             }
         }
-        if (startup.isTty && startup.filesToOpen.isEmpty()) {
+        if (startup.exportFormat != null && startup.filesToOpen.size() != 1) {
+            errorln(Strings.get("exportNeedsFileError")); //OK
+            return null;
+        }
+        if (startup.isTty && startup.filesToOpen.isEmpty() && !startup.isServer) {
             errorln(Strings.get("ttyNeedsFileError")); //OK
             return null;
         }
+        if (!startup.exportCircuits.isEmpty() && startup.exportFormat == null) {
+            errorln(Strings.get("exportCircuitError")); //OK
+            return null;
+        }
+        if (startup.runCount > 0 && (startup.isServer || startup.ttyFormat != 0)) {
+            errorln(Strings.get("runsTtyError")); //OK
+            return null;
+        }
+        if (startup.generateShape != null && startup.filesToOpen.size() != 1) {
+            errorln(Strings.get("generateNeedsFileError")); //OK
+            return null;
+        }
         if (startup.loadFile != null && !startup.isTty) {
             errorln(Strings.get("loadNeedsTtyError")); //OK
             return null;
@@ -321,21 +384,120 @@ public class Startup {
         return startup;
     }
 
+    /**
+     * Returns the flags of TtyInterface named in a list such as
+     * table,halt, reporting any names that aren't known.
+     */
+    static int parseTtyFormat(String spec) {
+        int format = 0;
+        String[] names = spec.split(",");
+        if (names.length == 0) {
+            errorln(Strings.get("ttyFormatError")); //OK
+        }
+        for (String name : names) {
+            switch (name.trim()) {
+                case "table":
+                    format |= TtyInterface.FORMAT_TABLE;
+                    break;
+                case "speed":
+                    format |= TtyInterface.FORMAT_SPEED;
+                    break;
+                case "tty":
+                    format |= TtyInterface.FORMAT_TTY;
+                    break;
+                case "halt":
+                    format |= TtyInterface.FORMAT_HALT;
+                    break;
+                case "stats":
+                    format |= TtyInterface.FORMAT_STATISTICS;
+                    break;
+                case "prof":
+                    format |= TtyInterface.FORMAT_PROFILE;
+                    break;
+                default:
+                    errorln(Strings.get("ttyFormatError")); //OK
+                    break;
+            }
+        }
+        return format;
+    }
+
+    // returns the positive number given, or -1 if it isn't one
+    private static long parsePositive(String value) {
+        try {
+            long ret = Long.parseLong(value);
+            return ret > 0 ? ret : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int[] parseGenerateSize(String size) {
+        String[] parts = size.split("x");
+        if (parts.length > 2) {
+            return null;
+        }
+        int[] ret = {0, 1};
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                ret[i] = Integer.parseInt(parts[i]);
+                if (ret[i] <= 0) {
+                    return null;
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return ret;
+    }
+
+    /**
+     * Parses a format such as png or svg:2 for the -export option, which
+     * may be followed by a scale.
+     */
+    private static boolean parseExportFormat(Startup startup, String spec) {
+        String[] parts = spec.split(":");
+        if (parts.length > 2
+            || !(parts[0].equals(CircuitExporter.FORMAT_PNG) || parts[0].equals(CircuitExporter.FORMAT_SVG))) {
+            return false;
+        }
+        startup.exportFormat = parts[0];
+        if (parts.length == 2) {
+            try {
+                startup.exportScale = Double.parseDouble(parts[1]);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (!(startup.exportScale > 0 && startup.exportScale <= 64)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static void printUsage() {
         outputln(StringUtil.format(Strings.get("argUsage"), Startup.class.getName())); //OK
         outputln(""); //OK
         outputln(Strings.get("argOptionHeader")); //OK
         outputln("   " + Strings.get("argAccentsOption")); //OK
         outputln("   " + Strings.get("argClearOption")); //OK
+        outputln("   " + Strings.get("argCircuitOption")); //OK
         outputln("   " + Strings.get("argEmptyOption")); //OK
+        outputln("   " + Strings.get("argExportOption")); //OK
         outputln("   " + Strings.get("argGatesOption")); //OK
+        outputln("   " + Strings.get("argGenerateOption")); //OK
         outputln("   " + Strings.get("argHelpOption")); //OK
         outputln("   " + Strings.get("argLoadOption")); //OK
         outputln("   " + Strings.get("argLocaleOption")); //OK
         outputln("   " + Strings.get("argNoSplashOption")); //OK
         outputln("   " + Strings.get("argPlainOption")); //OK
+        outputln("   " + Strings.get("argRunsOption")); //OK
+        outputln("   " + Strings.get("argSeedOption")); //OK
+        outputln("   " + Strings.get("argServerOption")); //OK
         outputln("   " + Strings.get("argSubOption")); //OK
         outputln("   " + Strings.get("argTemplateOption")); //OK
+        outputln("   " + Strings.get("argTicksOption")); //OK
+        outputln("   " + Strings.get("argTimingOption")); //OK
         outputln("   " + Strings.get("argTtyOption")); //OK
         outputln("   " + Strings.get("argVersionOption")); //OK
         System.exit(-1);
@@ -371,15 +533,68 @@ public class Startup {
         return loadFile;
     }
 
+    String getGenerateShape() {
+        return generateShape;
+    }
+
+    int[] getGenerateSize() {
+        return generateSize;
+    }
+
+    String getExportFormat() {
+        return exportFormat;
+    }
+
+    double getExportScale() {
+        return exportScale;
+    }
+
+    File getExportDirectory() {
+        return exportDirectory;
+    }
+
+    List<String> getExportCircuits() {
+        return exportCircuits;
+    }
+
     int getTtyFormat() {
         return ttyFormat;
     }
 
+    long getTickLimit() {
+        return tickLimit;
+    }
+
+    int getRunCount() {
+        return runCount;
+    }
+
+    long getRunSeed() {
+        return runSeed;
+    }
+
     Map<File, File> getSubstitutions() {
         return Collections.unmodifiableMap(substitutions);
     }
 
     public void run() {
+        StartupProfile.mark("startupTimingArgs");
+        if (generateShape != null) {
+            CircuitGenerator.run(this);
+            return;
+        }
+        if (exportFormat != null) {
+            CircuitExporter.run(this);
+            return;
+        }
+        if (isServer) {
+            SimulationServer.run(this);
+            return;
+        }
+        if (runCount > 0) {
+            MonteCarlo.run(this);
+            return;
+        }
         if (isTty) {
             try {
                 TtyInterface.run(this);
@@ -416,6 +631,7 @@ public class Startup {
             // this will never happen, but the optimizer doesn't know that...
             Logger.errorln("FATAL ERROR - no components", true, -1); //OK
         }
+        StartupProfile.mark("startupTimingLibraries");
 
         // load in template
         loadTemplate(templateLoader, templateFile, templateEmpty);
@@ -434,6 +650,7 @@ public class Startup {
             // will occur eventually anyway; we might as well do it when the
             // monitor says we are
         }
+        StartupProfile.mark("startupTimingInterface");
 
         // if user has double-clicked a file to open, we'll
         // use that as the file to open now.
@@ -464,6 +681,8 @@ public class Startup {
             }
         }
 
+        StartupProfile.mark("startupTimingWindow");
+
         for (File fileToPrint : filesToPrint) {
             doPrintFile(fileToPrint);
         }
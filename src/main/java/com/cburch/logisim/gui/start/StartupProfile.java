@@ -0,0 +1,59 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.gui.start;
+
+import com.cburch.logisim.util.StringUtil;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Reports how long each stage of starting up takes, when requested with
+ * the -timing option. Times are written to the standard error stream so
+ * that they don't mix with the output of a -tty run, and are measured
+ * from the start of the virtual machine where the system reports it.
+ */
+class StartupProfile {
+
+    private static boolean enabled = false;
+    private static long startNanos;
+    private static long lastNanos;
+
+    private StartupProfile() {
+    }
+
+    /**
+     * Starts reporting, given the time at which the program's main method
+     * was reached.
+     */
+    static void enable(long mainNanos) {
+        long now = System.nanoTime();
+        startNanos = mainNanos;
+        Instant vmStart = ProcessHandle.current().info().startInstant().orElse(null);
+        if (vmStart != null) {
+            long sinceStart = Duration.between(vmStart, Instant.now()).toNanos();
+            if (sinceStart > now - mainNanos) {
+                startNanos = now - sinceStart;
+            }
+        }
+        lastNanos = startNanos;
+        enabled = true;
+        mark("startupTimingMain", mainNanos);
+    }
+
+    /**
+     * Notes that the stage with the given description key has just ended.
+     */
+    static void mark(String stageKey) {
+        if (enabled) {
+            mark(stageKey, System.nanoTime());
+        }
+    }
+
+    private static void mark(String stageKey, long now) {
+        System.err.println(StringUtil.format(Strings.get("startupTimingMsg"), //OK
+            Strings.get(stageKey), "" + (now - startNanos) / 1000000,
+            "" + (now - lastNanos) / 1000000));
+        lastNanos = now;
+    }
+}
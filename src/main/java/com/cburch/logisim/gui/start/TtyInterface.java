@@ -6,6 +6,8 @@ package com.cburch.logisim.gui.start;
 import com.cburch.logisim.circuit.Analyze;
 import com.cburch.logisim.circuit.Circuit;
 import com.cburch.logisim.circuit.CircuitState;
+import com.cburch.logisim.circuit.OscillationLoop;
+import com.cburch.logisim.circuit.PropagationProfile;
 import com.cburch.logisim.circuit.Propagator;
 import com.cburch.logisim.comp.Component;
 import com.cburch.logisim.data.Value;
@@ -27,6 +29,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 public class TtyInterface {
@@ -36,6 +39,10 @@ public class TtyInterface {
     public static final int FORMAT_TTY = 4;
     public static final int FORMAT_HALT = 8;
     public static final int FORMAT_STATISTICS = 16;
+    public static final int FORMAT_PROFILE = 32;
+
+    // rows of each section of the profile to display
+    private static final int PROFILE_ROWS = 20;
 
     private static boolean lastIsNewline = true;
 
@@ -62,6 +69,7 @@ public class TtyInterface {
             System.exit(-1);
             return;
         }
+        StartupProfile.mark("startupTimingFile");
 
         int format = args.getTtyFormat();
         if ((format & FORMAT_STATISTICS) != 0) {
@@ -74,21 +82,15 @@ public class TtyInterface {
 
         Project proj = new Project(file);
         Circuit circuit = file.getMainCircuit();
-        Map<Instance, String> pinNames = Analyze.getPinLabels(circuit);
         ArrayList<Instance> outputPins = new ArrayList<>();
-        Instance haltPin = null;
-        for (Map.Entry<Instance, String> entry : pinNames.entrySet()) {
-            Instance pin = entry.getKey();
-            String pinName = entry.getValue();
-            if (!Pin.FACTORY.isInputPin(pin)) {
-                outputPins.add(pin);
-                if (pinName.equals("halt")) {
-                    haltPin = pin;
-                }
-            }
-        }
+        Instance haltPin = findOutputPins(circuit, outputPins);
 
         CircuitState circState = new CircuitState(proj, circuit);
+        PropagationProfile profile = null;
+        if ((format & FORMAT_PROFILE) != 0) {
+            profile = new PropagationProfile();
+            circState.getPropagator().setProfile(profile);
+        }
         // we have to do our initial propagation before the simulation starts -
         // it's necessary to populate the circuit with substates.
         circState.getPropagator().propagate();
@@ -104,12 +106,34 @@ public class TtyInterface {
                 System.exit(-1);
             }
         }
+        StartupProfile.mark("startupTimingSimulation");
         int ttyFormat = args.getTtyFormat();
-        int simCode = runSimulation(circState, outputPins, haltPin, ttyFormat);
+        int simCode = runSimulation(circState, outputPins, haltPin, ttyFormat, args.getTickLimit(), true);
+        if (profile != null) {
+            displayProfile(profile);
+        }
         System.exit(simCode);
     }
 
-    private static void displayStatistics(LogisimFile file) {
+    /**
+     * Adds the circuit's output pins to the list, returning the one
+     * labeled "halt" if there is one.
+     */
+    static Instance findOutputPins(Circuit circuit, ArrayList<Instance> outputPins) {
+        Instance haltPin = null;
+        for (Map.Entry<Instance, String> entry : Analyze.getPinLabels(circuit).entrySet()) {
+            Instance pin = entry.getKey();
+            if (!Pin.FACTORY.isInputPin(pin)) {
+                outputPins.add(pin);
+                if (entry.getValue().equals("halt")) {
+                    haltPin = pin;
+                }
+            }
+        }
+        return haltPin;
+    }
+
+    static void displayStatistics(LogisimFile file) {
         FileStatistics stats = FileStatistics.compute(file, file.getMainCircuit());
         FileStatistics.Count total = stats.getTotalWithSubcircuits();
         int maxName = 0;
@@ -140,6 +164,42 @@ public class TtyInterface {
             Strings.get("statsTotalWith"));
     }
 
+    static void displayProfile(PropagationProfile profile) {
+        System.out.println(StringUtil.format(Strings.get("ttyProfileHeader"), //OK
+            "" + profile.getElapsedNanos() / 1000000));
+        displayProfileSection(Strings.get("ttyProfileFactories"), profile.getFactoryCounts());
+        displayProfileSection(Strings.get("ttyProfileCircuits"), profile.getCircuitCounts());
+        displayProfileSection(Strings.get("ttyProfilePoints"), profile.getPointCounts());
+    }
+
+    private static void displayProfileSection(String title, List<PropagationProfile.Count> counts) {
+        System.out.println(title); //OK
+        int rows = Math.min(counts.size(), PROFILE_ROWS);
+        for (int i = 0; i < rows; i++) {
+            PropagationProfile.Count count = counts.get(i);
+            System.out.printf("%12d\t%12d\t%12d\t%12d\t%s\n", //OK
+                count.getCalls(), count.getNanos() / 1000, count.getEvents(),
+                count.getToggles(), count.getName());
+        }
+    }
+
+    private static void displayOscillationLoop(OscillationLoop loop) {
+        if (loop == null || loop.isEmpty()) {
+            return;
+        }
+        if (loop.getPeriod() > 0) {
+            System.out.println(Strings.get("ttyOscillationPeriod", "" + loop.getPeriod())); //OK
+        } else {
+            System.out.println(Strings.get("ttyOscillationLoop")); //OK
+        }
+        for (CircuitState state : loop.getStates()) {
+            for (Component comp : loop.getComponents(state)) {
+                System.out.println("\t" + state.getCircuit().getName() + "\t" //OK
+                    + comp.getFactory().getDisplayName() + "\t" + comp.getLocation());
+            }
+        }
+    }
+
     private static int countDigits(int num) {
         int digits = 1;
         int lessThan = 10;
@@ -150,7 +210,7 @@ public class TtyInterface {
         return digits;
     }
 
-    private static boolean loadRam(CircuitState circState, File loadFile)
+    static boolean loadRam(CircuitState circState, File loadFile)
         throws IOException {
         if (loadFile == null) {
             return false;
@@ -193,7 +253,14 @@ public class TtyInterface {
         return found;
     }
 
-    private static int runSimulation(CircuitState circuitState, ArrayList<Instance> outputPins, Instance haltPin, int format) {
+    /**
+     * Runs the simulation until the halt pin is set, the circuit oscillates
+     * or the given number of ticks have passed, returning 0, 1 or 2
+     * respectively, or -1 if the run could not begin. Keyboards read from
+     * the standard input only if readStdin is set.
+     */
+    static int runSimulation(CircuitState circuitState, ArrayList<Instance> outputPins, Instance haltPin,
+        int format, long tickLimit, boolean readStdin) {
         boolean showTable = (format & FORMAT_TABLE) != 0;
         boolean showSpeed = (format & FORMAT_SPEED) != 0;
         boolean showTty = (format & FORMAT_TTY) != 0;
@@ -206,9 +273,9 @@ public class TtyInterface {
             boolean ttyFound = prepareForTty(circuitState, keyboardStates);
             if (!ttyFound) {
                 System.err.println(Strings.get("ttyNoTtyError")); //OK
-                System.exit(-1);
+                return -1;
             }
-            if (keyboardStates.isEmpty()) {
+            if (keyboardStates.isEmpty() || !readStdin) {
                 keyboardStates = null;
             } else {
                 stdinThread = new StdinThread();
@@ -245,6 +312,10 @@ public class TtyInterface {
                 retCode = 1; // abnormal exit
                 break;
             }
+            if (tickCount >= tickLimit) {
+                retCode = 2; // out of time
+                break;
+            }
             if (keyboardStates != null) {
                 char[] buffer = stdinThread.getBuffer();
                 if (buffer != null) {
@@ -267,6 +338,9 @@ public class TtyInterface {
                 System.out.println(Strings.get("ttyHaltReasonPin")); //OK
             } else if (retCode == 1) {
                 System.out.println(Strings.get("ttyHaltReasonOscillation")); //OK
+                displayOscillationLoop(prop.getOscillationLoop());
+            } else if (retCode == 2) {
+                System.out.println(Strings.get("ttyHaltReasonTicks")); //OK
             }
         }
         if (showSpeed) {
@@ -48,6 +48,8 @@ public abstract class InstanceFactory extends AbstractComponentFactory {
     private List<Port> portList;
     private Attribute<Direction> facingAttribute;
     private Boolean shouldSnap;
+    private Boolean sequential;
+    private Integer widthLimit;
     private KeyConfigurator keyConfigurator;
     private Class<? extends InstancePoker> pokerClass;
     private Class<? extends InstanceLogger> loggerClass;
@@ -68,6 +70,7 @@ public abstract class InstanceFactory extends AbstractComponentFactory {
         this.keyConfigurator = null;
         this.facingAttribute = null;
         this.shouldSnap = Boolean.TRUE;
+        this.sequential = Boolean.FALSE;
     }
 
     @Override
@@ -235,6 +238,14 @@ public abstract class InstanceFactory extends AbstractComponentFactory {
         this.shouldSnap = shouldSnap;
     }
 
+    public void setSequential(boolean sequential) {
+        this.sequential = sequential;
+    }
+
+    public void setWidthLimit(int widthLimit) {
+        this.widthLimit = widthLimit;
+    }
+
     private boolean isClassOk(Class<?> subclass, Class<?> superclass) {
         boolean isSubclass = superclass.isAssignableFrom(subclass);
         if (!isSubclass) {
@@ -263,6 +274,12 @@ public abstract class InstanceFactory extends AbstractComponentFactory {
         if (key == SHOULD_SNAP) {
             return shouldSnap;
         }
+        if (key == SEQUENTIAL) {
+            return sequential;
+        }
+        if (key == WIDTH_LIMIT) {
+            return widthLimit;
+        }
         return super.getFeature(key, attributeSet);
     }
 
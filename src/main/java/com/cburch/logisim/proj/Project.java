@@ -24,6 +24,7 @@ import com.cburch.logisim.tools.Library;
 import com.cburch.logisim.tools.Tool;
 import com.cburch.logisim.util.EventSourceWeakSupport;
 import com.cburch.logisim.util.JFileChoosers;
+import java.lang.ref.WeakReference;
 import java.util.HashMap;
 import java.util.LinkedList;
 import javax.swing.JFileChooser;
@@ -382,7 +383,12 @@ public class Project {
     public void undoAction() {
         if (undoLog != null && undoLog.size() > 0) {
             ActionData data = undoLog.removeLast();
-            setCircuitState(data.circuitState);
+            CircuitState state = data.getCircuitState();
+            if (state != null) {
+                setCircuitState(state);
+            } else if (data.circuit != null) {
+                setCurrentCircuit(data.circuit);
+            }
             Action action = data.action;
             if (action.isModification()) {
                 --undoMods;
@@ -406,15 +412,27 @@ public class Project {
         fireEvent(new ProjectEvent(ProjectEvent.REPAINT_REQUEST, this, null));
     }
 
+    /**
+     * An entry of the undo log. The state in which the action was done is
+     * held weakly, so that the log doesn't keep alive the state trees of
+     * circuits that have since been left or reset; if the state is gone by
+     * the time the action is undone, the circuit's current state is used.
+     */
     private static class ActionData {
 
-        CircuitState circuitState;
-        Action action;
+        final Circuit circuit;
+        final WeakReference<CircuitState> circuitState;
+        final Action action;
 
         public ActionData(CircuitState circuitState, Action action) {
-            this.circuitState = circuitState;
+            this.circuit = circuitState == null ? null : circuitState.getCircuit();
+            this.circuitState = circuitState == null ? null : new WeakReference<>(circuitState);
             this.action = action;
         }
+
+        CircuitState getCircuitState() {
+            return circuitState == null ? null : circuitState.get();
+        }
     }
 
     private class MyListener implements Selection.Listener, LibraryListener {
@@ -37,6 +37,7 @@ public class Projects {
         MyListener listener) {
         frame.removeWindowListener(listener);
         openProjects.remove(proj);
+        proj.getSimulator().getMetrics().unregister();
         proj.getSimulator().shutDown();
         propertySupport.firePropertyChange(projectListProperty, null, null);
     }
@@ -193,6 +194,7 @@ public class Projects {
 
             if (frame == project.getFrame() && !openProjects.contains(project)) {
                 openProjects.add(project);
+                project.getSimulator().getMetrics().register(project.getLogisimFile().getName());
                 propertySupport.firePropertyChange(projectListProperty, null, null);
             }
         }
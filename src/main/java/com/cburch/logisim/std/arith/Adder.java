@@ -45,7 +45,7 @@ public class Adder extends InstanceFactory {
         ports[IN1] = new Port(-40, 10, Port.INPUT, StdAttr.WIDTH);
         ports[OUT] = new Port(0, 0, Port.OUTPUT, StdAttr.WIDTH);
         ports[C_IN] = new Port(-20, -20, Port.INPUT, 1);
-        ports[C_OUT] = new Port(-20, 20, Port.INPUT, 1);
+        ports[C_OUT] = new Port(-20, 20, Port.OUTPUT, 1);
         ports[IN0].setToolTip(Strings.getter("adderInputTip"));
         ports[IN1].setToolTip(Strings.getter("adderInputTip"));
         ports[OUT].setToolTip(Strings.getter("adderOutputTip"));
@@ -60,7 +60,24 @@ public class Adder extends InstanceFactory {
             cIn = Value.FALSE;
         }
         if (a.isFullyDefined() && b.isFullyDefined() && cIn.isFullyDefined()) {
-            if (width >= 32) {
+            if (width > 32) {
+                // add a word at a time, carrying between words
+                int words = (width + 63) / 64;
+                long[] ax = a.getValueWords(words);
+                long[] bx = b.getValueWords(words);
+                long carry = cIn.toIntValue() & 1;
+                for (int i = 0; i < words; i++) {
+                    long sum = ax[i] + bx[i] + carry;
+                    carry = Long.compareUnsigned(sum, ax[i]) < 0
+                        || (carry != 0 && sum == ax[i]) ? 1 : 0;
+                    ax[i] = sum;
+                }
+                int top = width % 64;
+                boolean carryOut = top == 0 ? carry != 0
+                    : ((ax[words - 1] >>> top) & 1) != 0;
+                return new Value[]{Value.createKnown(bitWidth, ax),
+                    carryOut ? Value.TRUE : Value.FALSE};
+            } else if (width >= 32) {
                 long mask = (1L << width) - 1;
                 long ax = (long) a.toIntValue() & mask;
                 long bx = (long) b.toIntValue() & mask;
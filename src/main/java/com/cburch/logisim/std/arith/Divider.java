@@ -18,6 +18,7 @@ import com.cburch.logisim.tools.key.BitWidthConfigurator;
 import com.cburch.logisim.util.GraphicsUtil;
 import java.awt.Color;
 import java.awt.Graphics;
+import java.math.BigInteger;
 
 public class Divider extends InstanceFactory {
 
@@ -55,7 +56,15 @@ public class Divider extends InstanceFactory {
         if (upper == Value.NIL || upper.isUnknown()) {
             upper = Value.createKnown(width, 0);
         }
-        if (a.isFullyDefined() && b.isFullyDefined() && upper.isFullyDefined()) {
+        if (w > 32 && a.isFullyDefined() && b.isFullyDefined() && upper.isFullyDefined()) {
+            BigInteger num = upper.toBigInteger().shiftLeft(w).or(a.toBigInteger());
+            BigInteger den = b.toBigInteger();
+            if (den.signum() == 0) {
+                den = BigInteger.ONE;
+            }
+            BigInteger[] result = num.divideAndRemainder(den);
+            return new Value[]{Value.createKnown(width, result[0]), Value.createKnown(width, result[1])};
+        } else if (a.isFullyDefined() && b.isFullyDefined() && upper.isFullyDefined()) {
             long num = ((long) upper.toIntValue() << w) | ((long) a.toIntValue() & 0xFFFFFFFFL);
             long den = (long) b.toIntValue() & 0xFFFFFFFFL;
             if (den == 0) {
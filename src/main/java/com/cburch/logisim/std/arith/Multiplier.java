@@ -18,6 +18,7 @@ import com.cburch.logisim.tools.key.BitWidthConfigurator;
 import com.cburch.logisim.util.GraphicsUtil;
 import java.awt.Color;
 import java.awt.Graphics;
+import java.math.BigInteger;
 
 public class Multiplier extends InstanceFactory {
 
@@ -55,7 +56,9 @@ public class Multiplier extends InstanceFactory {
         if (c_in == Value.NIL || c_in.isUnknown()) {
             c_in = Value.createKnown(width, 0);
         }
-        if (a.isFullyDefined() && b.isFullyDefined() && c_in.isFullyDefined()) {
+        if (w > 32) {
+            return computeWideProduct(width, a, b, c_in);
+        } else if (a.isFullyDefined() && b.isFullyDefined() && c_in.isFullyDefined()) {
             long sum = (long) a.toIntValue() * (long) b.toIntValue() + (long) c_in.toIntValue();
             return new Value[]{Value.createKnown(width, (int) sum), Value.createKnown(width, (int) (sum >> w))};
         } else {
@@ -91,6 +94,47 @@ public class Multiplier extends InstanceFactory {
         }
     }
 
+    private static Value[] computeWideProduct(BitWidth width, Value a, Value b, Value c_in) {
+        int w = width.getWidth();
+        if (a.isFullyDefined() && b.isFullyDefined() && c_in.isFullyDefined()) {
+            BigInteger sum = a.toBigInteger().multiply(b.toBigInteger()).add(c_in.toBigInteger());
+            return new Value[]{Value.createKnown(width, sum), Value.createKnown(width, sum.shiftRight(w))};
+        } else {
+            Value[] aValues = a.getAll();
+            Value[] bValues = b.getAll();
+            Value[] cValues = c_in.getAll();
+            int known = Math.min(Math.min(findUnknown(aValues), findUnknown(bValues)), findUnknown(cValues));
+            int error = Math.min(Math.min(findError(aValues), findError(bValues)), findError(cValues));
+            BigInteger ret = getWideKnown(aValues).multiply(getWideKnown(bValues)).add(getWideKnown(cValues));
+
+            Value[] bits = new Value[w];
+            for (int i = 0; i < w; i++) {
+                if (i < known) {
+                    bits[i] = ret.testBit(i) ? Value.TRUE : Value.FALSE;
+                } else if (i < error) {
+                    bits[i] = Value.UNKNOWN;
+                } else {
+                    bits[i] = Value.ERROR;
+                }
+            }
+            return new Value[]{Value.create(bits),
+                error < w ? Value.createError(width) : Value.createUnknown(width)};
+        }
+    }
+
+    private static BigInteger getWideKnown(Value[] values) {
+        BigInteger ret = BigInteger.ZERO;
+        for (int i = 0; i < values.length; i++) {
+            if (!values[i].isFullyDefined()) {
+                return ret;
+            }
+            if (values[i] == Value.TRUE) {
+                ret = ret.setBit(i);
+            }
+        }
+        return ret;
+    }
+
     private static int findUnknown(Value[] values) {
         for (int i = 0; i < values.length; i++) {
             if (!values[i].isFullyDefined()) {
@@ -43,7 +43,9 @@ public class Negator extends InstanceFactory {
         // compute outputs
         Value in = state.getPort(IN);
         Value out;
-        if (in.isFullyDefined()) {
+        if (in.isFullyDefined() && in.getWidth() > 32) {
+            out = Value.createKnown(in.getBitWidth(), in.toBigInteger().negate());
+        } else if (in.isFullyDefined()) {
             out = Value.createKnown(in.getBitWidth(), -in.toIntValue());
         } else {
             Value[] bits = in.getAll();
@@ -98,7 +98,7 @@ public class Shifter extends InstanceFactory {
             Object shift = state.getAttributeValue(ATTR_SHIFT);
             if (d == 0) {
                 vy = vx;
-            } else if (vx.isFullyDefined()) {
+            } else if (vx.isFullyDefined() && bits <= 32) {
                 int x = vx.toIntValue();
                 int y;
                 if (shift == SHIFT_LOGICAL_RIGHT) {
@@ -17,19 +17,9 @@ import java.util.List;
 
 public class Base extends Library {
 
-    private final List<Tool> tools;
+    private List<Tool> tools = null;
 
     public Base() {
-        SelectTool select = new SelectTool();
-        WiringTool wiring = new WiringTool();
-
-        tools = Arrays.asList(new PokeTool(),
-            new EditTool(select, wiring),
-            select,
-            wiring,
-            new TextTool(),
-            new MenuTool(),
-            new AddTool(Text.FACTORY));
     }
 
     @Override
@@ -44,6 +34,18 @@ public class Base extends Library {
 
     @Override
     public List<Tool> getTools() {
+        if (tools == null) {
+            SelectTool select = new SelectTool();
+            WiringTool wiring = new WiringTool();
+
+            tools = Arrays.asList(new PokeTool(),
+                new EditTool(select, wiring),
+                select,
+                wiring,
+                new TextTool(),
+                new MenuTool(),
+                new AddTool(Text.FACTORY));
+        }
         return tools;
     }
 }
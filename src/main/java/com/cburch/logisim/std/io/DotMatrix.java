@@ -42,10 +42,10 @@ public class DotMatrix extends InstanceFactory {
         new AttributeOption[]{INPUT_COLUMN, INPUT_ROW, INPUT_SELECT});
     static final Attribute<Integer> ATTR_MATRIX_COLS
         = Attributes.forIntegerRange("matrixcols",
-        Strings.getter("ioMatrixCols"), 1, Value.MAX_WIDTH);
+        Strings.getter("ioMatrixCols"), 1, 32);
     static final Attribute<Integer> ATTR_MATRIX_ROWS
         = Attributes.forIntegerRange("matrixrows",
-        Strings.getter("ioMatrixRows"), 1, Value.MAX_WIDTH);
+        Strings.getter("ioMatrixRows"), 1, 32);
     static final Attribute<AttributeOption> ATTR_DOT_SHAPE
         = Attributes.forOption("dotshape", Strings.getter("ioMatrixShape"),
         new AttributeOption[]{SHAPE_CIRCLE, SHAPE_SQUARE});
@@ -53,6 +53,7 @@ public class Keyboard extends InstanceFactory {
         setOffsetBounds(Bounds.create(0, -15, WIDTH, HEIGHT));
         setIconName("keyboard.gif");
         setInstancePoker(Poker.class);
+        setSequential(true);
 
         Port[] ps = new Port[5];
         ps[CLR] = new Port(20, 10, Port.INPUT, 1);
@@ -58,6 +58,7 @@ public class Tty extends InstanceFactory {
             }
         );
         setIconName("tty.gif");
+        setSequential(true);
 
         Port[] ports = new Port[4];
         ports[CLR] = new Port(20, 10, Port.INPUT, 1);
@@ -47,6 +47,7 @@ abstract class AbstractFlipFlop extends InstanceFactory {
         );
         setOffsetBounds(Bounds.create(-40, -10, 40, 40));
         setInstancePoker(Poker.class);
+        setSequential(true);
         setInstanceLogger(Logger.class);
 
         Port[] ports = new Port[numInputs + STD_PORTS];
@@ -53,8 +53,10 @@ public class Counter extends InstanceFactory {
         setOffsetBounds(Bounds.create(-30, -20, 30, 40));
         setIconName("counter.gif");
         setInstancePoker(RegisterPoker.class);
+        setSequential(true);
         setInstanceLogger(RegisterLogger.class);
-        setKeyConfigurator(new BitWidthConfigurator(StdAttr.WIDTH));
+        setKeyConfigurator(new BitWidthConfigurator(StdAttr.WIDTH, 1, 32));
+        setWidthLimit(32);
 
         Port[] ports = new Port[7];
         ports[OUT] = new Port(0, 0, Port.OUTPUT, StdAttr.WIDTH);
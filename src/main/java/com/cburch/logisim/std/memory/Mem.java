@@ -6,6 +6,7 @@ package com.cburch.logisim.std.memory;
 import com.cburch.hex.HexModel;
 import com.cburch.hex.HexModelListener;
 import com.cburch.logisim.circuit.CircuitState;
+import com.cburch.logisim.circuit.Simulator;
 import com.cburch.logisim.data.Attribute;
 import com.cburch.logisim.data.AttributeSet;
 import com.cburch.logisim.data.Attributes;
@@ -31,6 +32,8 @@ import java.awt.Graphics;
 import java.io.File;
 import java.io.IOException;
 import java.util.WeakHashMap;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 abstract class Mem extends InstanceFactory {
 
@@ -44,7 +47,7 @@ abstract class Mem extends InstanceFactory {
     public static final Attribute<BitWidth> ADDR_ATTR = Attributes.forBitWidth(
         "addrWidth", Strings.getter("ramAddrWidthAttr"), 2, 24);
     public static final Attribute<BitWidth> DATA_ATTR = Attributes.forBitWidth(
-        "dataWidth", Strings.getter("ramDataWidthAttr"));
+        "dataWidth", Strings.getter("ramDataWidthAttr"), 1, 32);
 
     // port-related constants
     static final int DATA = 0;
@@ -63,7 +66,7 @@ abstract class Mem extends InstanceFactory {
         setInstancePoker(MemPoker.class);
         setKeyConfigurator(JoinedConfigurator.create(
             new BitWidthConfigurator(ADDR_ATTR, 2, 24, 0),
-            new BitWidthConfigurator(DATA_ATTR)));
+            new BitWidthConfigurator(DATA_ATTR, 1, 32)));
 
         setOffsetBounds(Bounds.create(-140, -40, 140, 80));
     }
@@ -160,6 +163,29 @@ abstract class Mem extends InstanceFactory {
         this.setCurrentImage(instanceState.getInstance(), imageFile);
     }
 
+    /**
+     * Notes an access to the memory if it is being observed, and stops the
+     * clock ticking if the access falls within a watchpoint.
+     */
+    static void noteAccess(InstanceState state, MemState memState, byte kind, int address,
+        int oldValue, int newValue) {
+        if (memState.getTrace() == null
+            || !memState.noteAccess(state.getTickCount(), kind, address, oldValue, newValue)) {
+            return;
+        }
+        Project proj = state.getProject();
+        Simulator sim = proj == null ? null : proj.getSimulator();
+        if (sim != null && sim.isTicking()) {
+            sim.setIsTicking(false);
+            if (proj.getFrame() != null) {
+                String msg = StringUtil.format(Strings.get(kind == MemTrace.WRITE
+                    ? "memWatchWriteMsg" : "memWatchReadMsg"), Integer.toHexString(address));
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(proj.getFrame(), msg,
+                    Strings.get("memWatchTitle"), JOptionPane.INFORMATION_MESSAGE));
+            }
+        }
+    }
+
     @Override
     protected Object getInstanceFeature(Instance instance, Object key) {
         if (key == MenuExtender.class) {
@@ -6,14 +6,22 @@ package com.cburch.logisim.std.memory;
 import com.adlerd.logger.Logger;
 import com.cburch.hex.HexModel;
 import com.cburch.hex.HexModelListener;
+import com.cburch.hex.HexPattern;
+import com.cburch.hex.HexSearchListener;
+import com.cburch.hex.SearchableHexModel;
 import com.cburch.logisim.util.EventSourceWeakSupport;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
 
-class MemContents implements Cloneable, HexModel {
+class MemContents implements Cloneable, SearchableHexModel {
 
     private static final int PAGE_SIZE_BITS = 12;
     private static final int PAGE_SIZE = 1 << PAGE_SIZE_BITS;
     private static final int PAGE_MASK = PAGE_SIZE - 1;
+    // memories of at least this many pages are searched in parallel
+    private static final int PARALLEL_SEARCH_PAGES = 64;
     private EventSourceWeakSupport<HexModelListener> listeners = null;
     private int width;
     private int addressBits;
@@ -43,7 +51,7 @@ class MemContents implements Cloneable, HexModel {
         if (listeners == null) {
             return;
         }
-        listeners.add(listener);
+        listeners.remove(listener);
         if (listeners.isEmpty()) {
             listeners = null;
         }
@@ -143,202 +151,169 @@ class MemContents implements Cloneable, HexModel {
     }
 
     public void set(long start, int[] values) {
-        if (values.length == 0) {
-            return;
-        }
+        store(start, values.length, values, 0);
+    }
 
-        int pageStart = (int) (start >>> PAGE_SIZE_BITS);
-        int startOffset = (int) (start & PAGE_MASK);
-        int pageEnd = (int) ((start + values.length - 1) >>> PAGE_SIZE_BITS);
-        int endOffset = (int) ((start + values.length - 1) & PAGE_MASK);
-
-        if (pageStart == pageEnd) {
-            ensurePage(pageStart);
-            MemContentsSub.ContentsInterface page = pages[pageStart];
-            if (!page.matches(values, startOffset, mask)) {
-                int[] oldValues = page.get(startOffset, values.length);
-                page.load(startOffset, values, mask);
-                if (page.isClear()) {
-                    pages[pageStart] = null;
-                }
-                fireBytesChanged(start, values.length, oldValues);
-            }
-        } else {
-            int nextOffset;
-            if (startOffset == 0) {
-                pageStart--;
-                nextOffset = 0;
+    public void fill(long start, long length, int value) {
+        store(start, length, null, value & mask);
+    }
+
+    public void clear() {
+        store(0, getLastOffset() + 1, null, 0);
+    }
+
+    /**
+     * Stores a range of values, taken from the given array or, if it is
+     * null, all equal to the fill value. Each page is updated in place,
+     * pages that would hold only zeroes are released, and listeners hear
+     * of the change once for each run of adjacent changed pages, so that
+     * changes far apart don't make an event spanning the memory between.
+     */
+    private void store(long start, long length, int[] values, int fill) {
+        long end = start + length;
+        ArrayList<Long> runStarts = new ArrayList<>();
+        ArrayList<int[]> runValues = new ArrayList<>();
+        long runStart = -1;
+        int runLength = 0;
+        int[] oldValues = null;
+        for (long addr = start; addr < end; ) {
+            int index = (int) (addr >>> PAGE_SIZE_BITS);
+            int offset = (int) (addr & PAGE_MASK);
+            int n = (int) Math.min(PAGE_SIZE - offset, end - addr);
+            int from = (int) (addr - start);
+            MemContentsSub.ContentsInterface page = pages[index];
+            boolean zero = values == null ? fill == 0 : isZero(values, from, n);
+            boolean changed;
+            if (page == null) {
+                changed = !zero;
+            } else if (values == null) {
+                changed = !page.matches(fill, offset, n, mask);
             } else {
-                ensurePage(pageStart);
-                int[] vals = new int[PAGE_SIZE - startOffset];
-                System.arraycopy(values, 0, vals, 0, vals.length);
-                MemContentsSub.ContentsInterface page = pages[pageStart];
-                if (!page.matches(vals, startOffset, mask)) {
-                    int[] oldValues = page.get(startOffset, vals.length);
-                    page.load(startOffset, vals, mask);
-                    if (page.isClear()) {
-                        pages[pageStart] = null;
-                    }
-                    fireBytesChanged(start, PAGE_SIZE - pageStart, oldValues);
-                }
-                nextOffset = vals.length;
+                changed = !page.matches(values, from, offset, n, mask);
             }
-            int[] vals = new int[PAGE_SIZE];
-            int offset = nextOffset;
-            for (int i = pageStart + 1; i < pageEnd; i++, offset += PAGE_SIZE) {
-                MemContentsSub.ContentsInterface page = pages[i];
-                if (page == null) {
-                    boolean allZeroes = true;
-                    for (int j = 0; j < PAGE_SIZE; j++) {
-                        if ((values[offset + j] & mask) != 0) {
-                            allZeroes = false;
-                            break;
-                        }
-                    }
-                    if (!allZeroes) {
-                        page = MemContentsSub.createContents(PAGE_SIZE, width);
-                        pages[i] = page;
-                    }
+            if (!changed) {
+                if (oldValues != null) {
+                    runStarts.add(runStart);
+                    runValues.add(Arrays.copyOf(oldValues, runLength));
+                    oldValues = null;
                 }
-                if (page != null) {
-                    System.arraycopy(values, offset, vals, 0, PAGE_SIZE);
-                    if (!page.matches(vals, startOffset, mask)) {
-                        int[] oldValues = page.get(0, PAGE_SIZE);
-                        page.load(0, vals, mask);
-                        if (page.isClear()) {
-                            pages[i] = null;
-                        }
-                        fireBytesChanged((long) i << PAGE_SIZE_BITS, PAGE_SIZE, oldValues);
-                    }
+                if (zero && page != null && page.isClear()) {
+                    pages[index] = null;
                 }
+                addr += n;
+                continue;
             }
-            if (endOffset >= 0) {
-                ensurePage(pageEnd);
-                vals = new int[endOffset + 1];
-                System.arraycopy(values, offset, vals, 0, endOffset + 1);
-                MemContentsSub.ContentsInterface page = pages[pageEnd];
-                if (!page.matches(vals, startOffset, mask)) {
-                    int[] oldValues = page.get(0, endOffset + 1);
-                    page.load(0, vals, mask);
-                    if (page.isClear()) {
-                        pages[pageEnd] = null;
-                    }
-                    fireBytesChanged((long) pageEnd << PAGE_SIZE_BITS, endOffset + 1, oldValues);
-                }
-            }
-        }
-    }
 
-    public void fill(long start, long length, int value) {
-        if (length == 0) {
-            return;
-        }
-
-        int pageStart = (int) (start >>> PAGE_SIZE_BITS);
-        int startOffset = (int) (start & PAGE_MASK);
-        int pageEnd = (int) ((start + length - 1) >>> PAGE_SIZE_BITS);
-        int endOffset = (int) ((start + length - 1) & PAGE_MASK);
-        value &= mask;
-
-        if (pageStart == pageEnd) {
-            ensurePage(pageStart);
-            int[] vals = new int[(int) length];
-            Arrays.fill(vals, value);
-            MemContentsSub.ContentsInterface page = pages[pageStart];
-            if (!page.matches(vals, startOffset, mask)) {
-                int[] oldValues = page.get(startOffset, (int) length);
-                page.load(startOffset, vals, mask);
-                if (value == 0 && page.isClear()) {
-                    pages[pageStart] = null;
-                }
-                fireBytesChanged(start, length, oldValues);
+            if (oldValues == null) {
+                runStart = addr;
+                runLength = 0;
+                oldValues = new int[(int) Math.min(end - addr, Math.max(n, PAGE_SIZE))];
             }
-        } else {
-            if (startOffset == 0) {
-                pageStart--;
+            if (runLength + n > oldValues.length) {
+                long size = Math.min(end - runStart, 2L * oldValues.length + n);
+                oldValues = Arrays.copyOf(oldValues, (int) size);
+            }
+            if (page == null) {
+                ensurePage(index);
+                page = pages[index];
             } else {
-                if (value == 0 && pages[pageStart] == null) {
-                    // nothing to do
-                } else {
-                    ensurePage(pageStart);
-                    int[] vals = new int[PAGE_SIZE - startOffset];
-                    Arrays.fill(vals, value);
-                    MemContentsSub.ContentsInterface page = pages[pageStart];
-                    if (!page.matches(vals, startOffset, mask)) {
-                        int[] oldValues = page.get(startOffset, vals.length);
-                        page.load(startOffset, vals, mask);
-                        if (value == 0 && page.isClear()) {
-                            pages[pageStart] = null;
-                        }
-                        fireBytesChanged(start, PAGE_SIZE - pageStart, oldValues);
-                    }
-                }
+                page.get(offset, oldValues, runLength, n, mask);
             }
-            if (value == 0) {
-                for (int i = pageStart + 1; i < pageEnd; i++) {
-                    if (pages[i] != null) {
-                        clearPage(i);
-                    }
-                }
+            runLength += n;
+            if (values == null) {
+                page.fill(offset, n, fill);
             } else {
-                int[] vals = new int[PAGE_SIZE];
-                Arrays.fill(vals, value);
-                for (int i = pageStart + 1; i < pageEnd; i++) {
-                    ensurePage(i);
-                    MemContentsSub.ContentsInterface page = pages[i];
-                    if (!page.matches(vals, 0, mask)) {
-                        int[] oldValues = page.get(0, PAGE_SIZE);
-                        page.load(0, vals, mask);
-                        fireBytesChanged((long) i << PAGE_SIZE_BITS, PAGE_SIZE, oldValues);
-                    }
-                }
+                page.load(offset, values, from, n, mask);
             }
-            if (endOffset >= 0) {
-                MemContentsSub.ContentsInterface page = pages[pageEnd];
-                if (value == 0 && page == null) {
-                    // nothing to do
-                } else {
-                    ensurePage(pageEnd);
-                    int[] vals = new int[endOffset + 1];
-                    Arrays.fill(vals, value);
-                    if (!page.matches(vals, 0, mask)) {
-                        int[] oldValues = page.get(0, endOffset + 1);
-                        page.load(0, vals, mask);
-                        if (value == 0 && page.isClear()) {
-                            pages[pageEnd] = null;
-                        }
-                        fireBytesChanged((long) pageEnd << PAGE_SIZE_BITS, endOffset + 1, oldValues);
-                    }
-                }
+            if (zero && page.isClear()) {
+                pages[index] = null;
             }
+            addr += n;
+        }
+        if (oldValues != null) {
+            runStarts.add(runStart);
+            runValues.add(Arrays.copyOf(oldValues, runLength));
+        }
+        for (int i = 0; i < runStarts.size(); i++) {
+            int[] old = runValues.get(i);
+            fireBytesChanged(runStarts.get(i), old.length, old);
         }
     }
 
-    public void clear() {
-        for (int i = 0; i < pages.length; i++) {
-            if (pages[i] != null) {
-                if (pages[i] != null) {
-                    clearPage(i);
-                }
+    private boolean isZero(int[] values, int from, int length) {
+        for (int i = from, n = from + length; i < n; i++) {
+            if ((values[i] & mask) != 0) {
+                return false;
             }
         }
+        return true;
+    }
+
+    /**
+     * Searches the pages as they stand when the search begins, each page on
+     * its own and those of a large memory in parallel. A page that was
+     * never written holds only zeroes, so unless the pattern matches zeroes
+     * only the matches that begin in it and run into the next page are
+     * looked for.
+     */
+    public void search(HexPattern pattern, HexSearchListener listener) {
+        MemContentsSub.ContentsInterface[] snapshot = pages;
+        long last = getLastOffset();
+        if (pattern.getLength() - 1 > last) {
+            return;
+        }
+        AtomicBoolean stopped = new AtomicBoolean(false);
+        IntStream indexes = IntStream.range(0, snapshot.length);
+        if (snapshot.length >= PARALLEL_SEARCH_PAGES) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(index -> {
+            if (!stopped.get() && !searchPage(snapshot, index, last, pattern, listener)) {
+                stopped.set(true);
+            }
+        });
     }
 
-    private void clearPage(int index) {
-        MemContentsSub.ContentsInterface page = pages[index];
-        int[] oldValues = new int[page.getLength()];
-        boolean changed = false;
-        for (int j = 0; j < oldValues.length; j++) {
-            int val = page.get(j) & mask;
-            oldValues[j] = val;
-            if (val != 0) {
-                changed = true;
+    private boolean searchPage(MemContentsSub.ContentsInterface[] snapshot, int index,
+        long last, HexPattern pattern, HexSearchListener listener) {
+        int length = pattern.getLength();
+        long base = (long) index << PAGE_SIZE_BITS;
+        // addresses at which a match may begin, the first being base + from
+        long end = Math.min(base + PAGE_SIZE, last - length + 2);
+        int from = 0;
+        if (snapshot[index] == null && !pattern.matchesZeroes()) {
+            from = Math.max(0, PAGE_SIZE - (length - 1));
+        }
+        if (base + from >= end) {
+            return true;
+        }
+
+        int[] data = new int[(int) (end - base - from) + length - 1];
+        long dataEnd = base + from + data.length;
+        for (long addr = base + from; addr < dataEnd; ) {
+            int offset = (int) (addr & PAGE_MASK);
+            int n = (int) Math.min(PAGE_SIZE - offset, dataEnd - addr);
+            MemContentsSub.ContentsInterface page = snapshot[(int) (addr >>> PAGE_SIZE_BITS)];
+            if (page != null) {
+                page.get(offset, data, (int) (addr - base - from), n, mask);
             }
+            addr += n;
         }
-        if (changed) {
-            pages[index] = null;
-            fireBytesChanged((long) index << PAGE_SIZE_BITS, oldValues.length, oldValues);
+
+        long runStart = -1;
+        for (int i = 0, n = (int) (end - base - from); i < n; i++) {
+            if (pattern.matches(data, i)) {
+                if (runStart < 0) {
+                    runStart = base + from + i;
+                }
+            } else if (runStart >= 0) {
+                if (!listener.found(runStart, base + from + i - runStart)) {
+                    return false;
+                }
+                runStart = -1;
+            }
         }
+        return runStart < 0 || listener.found(runStart, end - runStart);
     }
 
     public void setDimensions(int addressBits, int width) {
@@ -39,23 +39,32 @@ class MemContentsSub {
 
         abstract void clear();
 
-        abstract void load(int start, int[] values, int mask);
+        abstract void load(int start, int[] values, int from, int length, int mask);
 
-        boolean matches(int[] values, int start, int mask) {
-            for (int i = 0; i < values.length; i++) {
-                if (get(start + i) != (values[i] & mask)) {
+        abstract void fill(int start, int length, int value);
+
+        boolean matches(int[] values, int from, int start, int length, int mask) {
+            for (int i = 0; i < length; i++) {
+                if ((get(start + i) & mask) != (values[from + i] & mask)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean matches(int value, int start, int length, int mask) {
+            for (int i = 0; i < length; i++) {
+                if ((get(start + i) & mask) != value) {
                     return false;
                 }
             }
             return true;
         }
 
-        int[] get(int start, int length) {
-            int[] ret = new int[length];
-            for (int i = 0; i < ret.length; i++) {
-                ret[i] = get(start + i);
+        void get(int start, int[] dest, int from, int length, int mask) {
+            for (int i = 0; i < length; i++) {
+                dest[from + i] = get(start + i) & mask;
             }
-            return ret;
         }
 
         boolean isClear() {
@@ -113,12 +122,17 @@ class MemContentsSub {
         }
 
         @Override
-        void load(int start, int[] values, int mask) {
-            int n = Math.min(values.length, data.length - start);
+        void load(int start, int[] values, int from, int length, int mask) {
+            int n = Math.min(length, data.length - start);
             for (int i = 0; i < n; i++) {
-                data[start + i] = (byte) (values[i] & mask);
+                data[start + i] = (byte) (values[from + i] & mask);
             }
         }
+
+        @Override
+        void fill(int start, int length, int value) {
+            Arrays.fill(data, start, Math.min(start + length, data.length), (byte) value);
+        }
     }
 
     private static class ShortContents extends ContentsInterface {
@@ -166,12 +180,17 @@ class MemContentsSub {
         }
 
         @Override
-        void load(int start, int[] values, int mask) {
-            int n = Math.min(values.length, data.length - start);
+        void load(int start, int[] values, int from, int length, int mask) {
+            int n = Math.min(length, data.length - start);
             for (int i = 0; i < n; i++) {
-                data[start + i] = (short) (values[i] & mask);
+                data[start + i] = (short) (values[from + i] & mask);
             }
         }
+
+        @Override
+        void fill(int start, int length, int value) {
+            Arrays.fill(data, start, Math.min(start + length, data.length), (short) value);
+        }
     }
 
     private static class IntContents extends ContentsInterface {
@@ -219,11 +238,16 @@ class MemContentsSub {
         }
 
         @Override
-        void load(int start, int[] values, int mask) {
-            int n = Math.min(values.length, data.length - start);
+        void load(int start, int[] values, int from, int length, int mask) {
+            int n = Math.min(length, data.length - start);
             for (int i = 0; i < n; i++) {
-                data[i] = values[i] & mask;
+                data[start + i] = values[from + i] & mask;
             }
         }
+
+        @Override
+        void fill(int start, int length, int value) {
+            Arrays.fill(data, start, Math.min(start + length, data.length), value);
+        }
     }
 }
@@ -10,14 +10,22 @@ import com.cburch.logisim.instance.Instance;
 import com.cburch.logisim.proj.Project;
 import com.cburch.logisim.tools.MenuExtender;
 import java.awt.Frame;
+import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import javax.swing.JComboBox;
 import javax.swing.JFileChooser;
+import javax.swing.JLabel;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
+import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
+import javax.swing.JTextField;
 
 class MemMenu implements ActionListener, MenuExtender {
 
@@ -30,6 +38,10 @@ class MemMenu implements ActionListener, MenuExtender {
     private JMenuItem clearItem;
     private JMenuItem loadItem;
     private JMenuItem saveItem;
+    private JMenuItem traceItem;
+    private JMenuItem saveTraceItem;
+    private JMenuItem watchItem;
+    private JMenuItem clearWatchItem;
 
     MemMenu(Mem factory, Instance instance) {
         this.factory = factory;
@@ -52,11 +64,24 @@ class MemMenu implements ActionListener, MenuExtender {
         loadItem = createItem(enabled, Strings.get("ramLoadMenuItem"));
         saveItem = createItem(enabled, Strings.get("ramSaveMenuItem"));
 
+        MemTrace trace = enabled ? factory.getState(instance, circuitState).getTrace() : null;
+        boolean recording = trace != null && trace.isRecording();
+        traceItem = createItem(enabled, Strings.get(recording ? "memTraceStopMenuItem" : "memTraceStartMenuItem"));
+        saveTraceItem = createItem(recording, Strings.get("memTraceSaveMenuItem"));
+        watchItem = createItem(enabled, Strings.get("memWatchAddMenuItem"));
+        clearWatchItem = createItem(trace != null && trace.hasWatchpoints(),
+            Strings.get("memWatchClearMenuItem"));
+
         menu.addSeparator();
         menu.add(editItem);
         menu.add(clearItem);
         menu.add(loadItem);
         menu.add(saveItem);
+        menu.addSeparator();
+        menu.add(traceItem);
+        menu.add(saveTraceItem);
+        menu.add(watchItem);
+        menu.add(clearWatchItem);
     }
 
     private JMenuItem createItem(boolean enabled, String label) {
@@ -76,6 +101,14 @@ class MemMenu implements ActionListener, MenuExtender {
             doLoad();
         } else if (source == saveItem) {
             doSave();
+        } else if (source == traceItem) {
+            doTrace();
+        } else if (source == saveTraceItem) {
+            doSaveTrace();
+        } else if (source == watchItem) {
+            doAddWatchpoint();
+        } else if (source == clearWatchItem) {
+            doClearWatchpoints();
         }
     }
 
@@ -149,4 +182,81 @@ class MemMenu implements ActionListener, MenuExtender {
             }
         }
     }
+
+    private void doTrace() {
+        MemState state = factory.getState(instance, circuitState);
+        MemTrace trace = state.getOrCreateTrace();
+        trace.setCapacity(trace.isRecording() ? 0 : MemTrace.DEFAULT_CAPACITY);
+        state.releaseTrace();
+    }
+
+    private void doSaveTrace() {
+        MemState state = factory.getState(instance, circuitState);
+        MemTrace trace = state.getTrace();
+        if (trace == null) {
+            return;
+        }
+
+        JFileChooser chooser = project.createChooser();
+        chooser.setDialogTitle(Strings.get("memTraceSaveDialogTitle"));
+        int choice = chooser.showSaveDialog(frame);
+        if (choice == JFileChooser.APPROVE_OPTION) {
+            File f = chooser.getSelectedFile();
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(f))) {
+                trace.write(out, state.getAddressBits(), state.getDataBits());
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(frame,
+                    e.getMessage(),
+                    Strings.get("ramSaveErrorTitle"),
+                    JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    private void doAddWatchpoint() {
+        MemState state = factory.getState(instance, circuitState);
+        JTextField range = new JTextField(12);
+        JComboBox<String> kind = new JComboBox<>(new String[]{
+            Strings.get("memWatchWrites"), Strings.get("memWatchReads"), Strings.get("memWatchAll")});
+        JPanel panel = new JPanel(new GridLayout(2, 2, 5, 5));
+        panel.add(new JLabel(Strings.get("memWatchRangeLabel")));
+        panel.add(range);
+        panel.add(new JLabel(Strings.get("memWatchKindLabel")));
+        panel.add(kind);
+        int choice = JOptionPane.showConfirmDialog(frame, panel,
+            Strings.get("memWatchTitle"), JOptionPane.OK_CANCEL_OPTION);
+        if (choice != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        String text = range.getText().trim();
+        int dash = text.indexOf('-');
+        long start;
+        long end;
+        try {
+            start = Long.parseLong((dash < 0 ? text : text.substring(0, dash)).trim(), 16);
+            end = dash < 0 ? start : Long.parseLong(text.substring(dash + 1).trim(), 16);
+        } catch (NumberFormatException e) {
+            start = -1;
+            end = -1;
+        }
+        if (start < 0 || end < start || end > state.getLastAddress()) {
+            JOptionPane.showMessageDialog(frame,
+                Strings.get("memWatchRangeError"),
+                Strings.get("memWatchTitle"),
+                JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        int index = kind.getSelectedIndex();
+        state.getOrCreateTrace().addWatchpoint(start, end, index != 0, index != 1);
+    }
+
+    private void doClearWatchpoints() {
+        MemState state = factory.getState(instance, circuitState);
+        MemTrace trace = state.getTrace();
+        if (trace != null) {
+            trace.clearWatchpoints();
+            state.releaseTrace();
+        }
+    }
 }
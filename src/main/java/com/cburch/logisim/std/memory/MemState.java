@@ -34,6 +34,7 @@ class MemState implements InstanceData, Cloneable, HexModelListener {
     private long currentScroll = 0;
     private long cursorLocation = -1;
     private long currentAddress = -1;
+    private volatile MemTrace trace = null;
 
     MemState(MemContents contents) {
         this.contents = contents;
@@ -47,6 +48,7 @@ class MemState implements InstanceData, Cloneable, HexModelListener {
             MemState state = (MemState) super.clone();
             state.contents = contents.clone();
             state.contents.addHexModelListener(state);
+            state.trace = null;
             return state;
         } catch (CloneNotSupportedException e) {
             Logger.debugln(e.getMessage());
@@ -90,6 +92,35 @@ class MemState implements InstanceData, Cloneable, HexModelListener {
         return contents;
     }
 
+    //
+    // methods for observing accesses
+    //
+    MemTrace getTrace() {
+        return trace;
+    }
+
+    MemTrace getOrCreateTrace() {
+        if (trace == null) {
+            trace = new MemTrace();
+        }
+        return trace;
+    }
+
+    void releaseTrace() {
+        if (trace != null && trace.isEmpty()) {
+            trace = null;
+        }
+    }
+
+    /**
+     * Notes an access if the memory is being observed, returning true if
+     * it falls within a watchpoint.
+     */
+    boolean noteAccess(long tick, byte kind, int address, int oldValue, int newValue) {
+        MemTrace t = trace;
+        return t != null && t.record(tick, kind, address, oldValue, newValue);
+    }
+
     //
     // methods for accessing data within memory
     //
@@ -0,0 +1,151 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.std.memory;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+/**
+ * Observes the accesses made to one memory as it is simulated. While
+ * recording, each access is kept in a ring buffer of primitive arrays, so
+ * that only the most recent accesses are kept and recording allocates
+ * nothing. Independently, accesses falling in a watched range of addresses
+ * are reported so that the simulation can be paused.
+ *
+ * <p>A trace is saved in a binary form made for analysis by other programs.
+ * All numbers are big-endian. The file begins with the four bytes
+ * <code>LMTR</code>, the format version (an int, now 1), the address and
+ * data widths in bits (an int each), the number of accesses lost because
+ * the buffer was full (a long) and the number of accesses that follow (an
+ * int). Each access, oldest first, is the simulation tick (a long), the
+ * kind (a byte, 0 for a read and 1 for a write), the address, the value
+ * before the access and the value after it (an int each).
+ */
+class MemTrace {
+
+    static final byte READ = 0;
+    static final byte WRITE = 1;
+
+    static final int DEFAULT_CAPACITY = 1 << 20;
+
+    private static final byte[] MAGIC = {'L', 'M', 'T', 'R'};
+    private static final int VERSION = 1;
+
+    private final ArrayList<Watchpoint> watchpoints = new ArrayList<>();
+    private long[] ticks = null;
+    private byte[] kinds = null;
+    private int[] addresses = null;
+    private int[] oldValues = null;
+    private int[] newValues = null;
+    private long count = 0;
+
+    synchronized boolean isRecording() {
+        return ticks != null;
+    }
+
+    /**
+     * Starts recording into an empty buffer of the given size, or stops
+     * recording and discards the buffer if the size is 0.
+     */
+    synchronized void setCapacity(int capacity) {
+        if (capacity <= 0) {
+            ticks = null;
+            kinds = null;
+            addresses = null;
+            oldValues = null;
+            newValues = null;
+        } else {
+            ticks = new long[capacity];
+            kinds = new byte[capacity];
+            addresses = new int[capacity];
+            oldValues = new int[capacity];
+            newValues = new int[capacity];
+        }
+        count = 0;
+    }
+
+    synchronized long getCount() {
+        return count;
+    }
+
+    synchronized boolean isEmpty() {
+        return !isRecording() && watchpoints.isEmpty();
+    }
+
+    synchronized void addWatchpoint(long start, long end, boolean reads, boolean writes) {
+        watchpoints.add(new Watchpoint(start, end, reads, writes));
+    }
+
+    synchronized void clearWatchpoints() {
+        watchpoints.clear();
+    }
+
+    synchronized boolean hasWatchpoints() {
+        return !watchpoints.isEmpty();
+    }
+
+    /**
+     * Notes an access, returning true if it falls within a watchpoint.
+     */
+    synchronized boolean record(long tick, byte kind, int address, int oldValue, int newValue) {
+        if (ticks != null) {
+            int i = (int) (count % ticks.length);
+            ticks[i] = tick;
+            kinds[i] = kind;
+            addresses[i] = address;
+            oldValues[i] = oldValue;
+            newValues[i] = newValue;
+            count++;
+        }
+        for (Watchpoint watch : watchpoints) {
+            if (watch.matches(kind, address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized void write(OutputStream out, int addressBits, int dataBits) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        int capacity = ticks == null ? 0 : ticks.length;
+        int n = (int) Math.min(count, capacity);
+        data.write(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(addressBits);
+        data.writeInt(dataBits);
+        data.writeLong(count - n);
+        data.writeInt(n);
+        for (long k = count - n; k < count; k++) {
+            int i = (int) (k % capacity);
+            data.writeLong(ticks[i]);
+            data.writeByte(kinds[i]);
+            data.writeInt(addresses[i]);
+            data.writeInt(oldValues[i]);
+            data.writeInt(newValues[i]);
+        }
+        data.flush();
+    }
+
+    private static class Watchpoint {
+
+        private final long start;
+        private final long end;
+        private final boolean reads;
+        private final boolean writes;
+
+        Watchpoint(long start, long end, boolean reads, boolean writes) {
+            this.start = start;
+            this.end = end;
+            this.reads = reads;
+            this.writes = writes;
+        }
+
+        boolean matches(byte kind, int address) {
+            return (kind == WRITE ? writes : reads)
+                && address >= start && address <= end;
+        }
+    }
+}
@@ -57,6 +57,7 @@ public class Ram extends Mem {
         super("RAM", Strings.getter("ramComponent"), 3);
         setIconName("ram.gif");
         setInstanceLogger(Logger.class);
+        setSequential(true);
     }
 
     @Override
@@ -182,11 +183,13 @@ public class Ram extends Mem {
         if (!addressValue.isFullyDefined() || address < 0) {
             return;
         }
-        if (address != myState.getCurrent()) {
+        boolean moved = address != myState.getCurrent();
+        if (moved) {
             myState.setCurrent(address);
             myState.scrollToShow(address);
         }
 
+        boolean stored = false;
         if (!shouldClear && isTriggered) {
             boolean shouldStore;
             if (isSeparate) {
@@ -196,12 +199,24 @@ public class Ram extends Mem {
             }
             if (shouldStore) {
                 Value dataValue = state.getPort(isSeparate ? DIN : DATA);
-                myState.getContents().set(address, dataValue.toIntValue());
+                MemContents contents = myState.getContents();
+                if (myState.getTrace() == null) {
+                    contents.set(address, dataValue.toIntValue());
+                } else {
+                    int old = contents.get(address);
+                    contents.set(address, dataValue.toIntValue());
+                    noteAccess(state, myState, MemTrace.WRITE, address, old, contents.get(address));
+                }
+                stored = true;
             }
         }
 
         if (outputEnabled) {
             int value = myState.getContents().get(address);
+            // a read is an access to a new address or on a clock edge
+            if (!stored && (moved || (isTriggered && !isAsynch))) {
+                noteAccess(state, myState, MemTrace.READ, address, value, value);
+            }
             state.setPort(DATA, Value.createKnown(dataBits, value), DELAY);
         } else {
             state.setPort(DATA, Value.createUnknown(dataBits), DELAY);
@@ -48,9 +48,11 @@ public class Random extends InstanceFactory {
                 StdAttr.DEFAULT_LABEL_FONT
             }
         );
-        setKeyConfigurator(new BitWidthConfigurator(StdAttr.WIDTH));
+        setKeyConfigurator(new BitWidthConfigurator(StdAttr.WIDTH, 1, 32));
+        setWidthLimit(32);
 
         setOffsetBounds(Bounds.create(-30, -20, 30, 40));
+        setSequential(true);
         setIconName("random.gif");
         setInstanceLogger(Logger.class);
 
@@ -44,10 +44,12 @@ public class Register extends InstanceFactory {
                 StdAttr.DEFAULT_LABEL_FONT
             }
         );
-        setKeyConfigurator(new BitWidthConfigurator(StdAttr.WIDTH));
+        setKeyConfigurator(new BitWidthConfigurator(StdAttr.WIDTH, 1, 32));
+        setWidthLimit(32);
         setOffsetBounds(Bounds.create(-30, -20, 30, 40));
         setIconName("register.gif");
         setInstancePoker(RegisterPoker.class);
+        setSequential(true);
         setInstanceLogger(RegisterLogger.class);
 
         Port[] ports = new Port[5];
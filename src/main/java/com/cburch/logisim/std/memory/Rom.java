@@ -103,12 +103,13 @@ public class Rom extends Mem {
         if (!addressValue.isFullyDefined() || address < 0) {
             return;
         }
+        int value = myState.getContents().get(address);
         if (address != myState.getCurrent()) {
             myState.setCurrent(address);
             myState.scrollToShow(address);
+            noteAccess(state, myState, MemTrace.READ, address, value, value);
         }
 
-        int value = myState.getContents().get(address);
         state.setPort(DATA, Value.createKnown(dataBits, value), DELAY);
     }
 
@@ -148,7 +149,7 @@ public class Rom extends Mem {
             int address = state.getLogLength();
             int data = state.getWidth();
             StringWriter writer = new StringWriter();
-            writer.write("address/data: " + address + " " + data + "\n");
+            writer.write("addr/data: " + address + " " + data + "\n");
             try {
                 HexFile.save(writer, state);
             } catch (IOException e) {
@@ -57,12 +57,14 @@ public class ShiftRegister extends InstanceFactory {
         );
         setKeyConfigurator(JoinedConfigurator.create(
             new IntegerConfigurator(ATTR_LENGTH, 1, 32, 0),
-            new BitWidthConfigurator(StdAttr.WIDTH)
+            new BitWidthConfigurator(StdAttr.WIDTH, 1, 32)
         ));
+        setWidthLimit(32);
 
         setIconName("shiftreg.gif");
         setInstanceLogger(ShiftRegisterLogger.class);
         setInstancePoker(ShiftRegisterPoker.class);
+        setSequential(true);
     }
 
     @Override
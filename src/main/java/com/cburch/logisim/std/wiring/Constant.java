@@ -41,7 +41,8 @@ public class Constant extends InstanceFactory {
     public Constant() {
         super("Constant", Strings.getter("constantComponent"));
         setFacingAttribute(StdAttr.FACING);
-        setKeyConfigurator(JoinedConfigurator.create(new ConstantConfigurator(), new BitWidthConfigurator(StdAttr.WIDTH)));
+        setKeyConfigurator(JoinedConfigurator.create(new ConstantConfigurator(), new BitWidthConfigurator(StdAttr.WIDTH, 1, 32)));
+        setWidthLimit(32);
     }
 
     @Override
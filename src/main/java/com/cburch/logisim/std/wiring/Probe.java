@@ -323,6 +323,19 @@ public class Probe extends InstanceFactory {
                     break;
             }
         }
+        if (bounds == null && len > 32) {
+            // wide buses: keep eight digits per row, as for 32 bits
+            int rows = (len + 7) / 8;
+            if (dir == Direction.EAST) {
+                bounds = Bounds.create(-80, -10 * rows, 80, 20 * rows);
+            } else if (dir == Direction.WEST) {
+                bounds = Bounds.create(0, -10 * rows, 80, 20 * rows);
+            } else if (dir == Direction.SOUTH) {
+                bounds = Bounds.create(-40, -20 * rows, 80, 20 * rows);
+            } else if (dir == Direction.NORTH) {
+                bounds = Bounds.create(-40, 0, 80, 20 * rows);
+            }
+        }
         if (bounds == null) {
             bounds = Bounds.create(0, -10, 20, 20); // should never happen
         }
@@ -22,16 +22,6 @@ public class Wiring extends Library {
     static final Attribute<AttributeOption> ATTR_GATE = Attributes.forOption("gate", Strings.getter("wiringGateAttr"),
         new AttributeOption[]{GATE_TOP_LEFT, GATE_BOTTOM_RIGHT});
 
-    private static final Tool[] ADD_TOOLS = {
-        new AddTool(SplitterFactory.instance),
-        new AddTool(Pin.FACTORY),
-        new AddTool(Probe.FACTORY),
-        new AddTool(Tunnel.FACTORY),
-        new AddTool(PullResistor.FACTORY),
-        new AddTool(Clock.FACTORY),
-        new AddTool(Constant.FACTORY),
-    };
-
     private static final FactoryDescription[] DESCRIPTIONS = {
         new FactoryDescription("Power", Strings.getter("powerComponent"), "power.gif",
             "Power"),
@@ -63,8 +53,14 @@ public class Wiring extends Library {
     @Override
     public List<Tool> getTools() {
         if (tools == null) {
-            List<Tool> tools = new ArrayList<>(ADD_TOOLS.length + DESCRIPTIONS.length);
-            Collections.addAll(tools, ADD_TOOLS);
+            List<Tool> tools = new ArrayList<>();
+            Collections.addAll(tools, new AddTool(SplitterFactory.instance),
+                new AddTool(Pin.FACTORY),
+                new AddTool(Probe.FACTORY),
+                new AddTool(Tunnel.FACTORY),
+                new AddTool(PullResistor.FACTORY),
+                new AddTool(Clock.FACTORY),
+                new AddTool(Constant.FACTORY));
             tools.addAll(FactoryDescription.getTools(Wiring.class, DESCRIPTIONS));
             this.tools = tools;
         }
@@ -47,7 +47,6 @@ public class AddTool extends Tool {
     private static final int SHOW_ADD = 2;
     private static final int SHOW_ADD_NO = 3;
 
-    private static final Cursor cursor = Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR);
     private final FactoryDescription description;
     private final AttributeSet attributes;
     private Class<? extends Library> descriptionBase;
@@ -501,7 +500,7 @@ public class AddTool extends Tool {
 
     @Override
     public Cursor getCursor() {
-        return cursor;
+        return Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR);
     }
 
     private void setState(Canvas canvas, int value) {
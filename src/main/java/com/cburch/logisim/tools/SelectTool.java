@@ -211,7 +211,16 @@ public class SelectTool extends Tool {
 
     @Override
     public void deselect(Canvas canvas) {
-        moveGesture = null;
+        dropMoveGesture();
+    }
+
+    // the gesture's speculative requests would otherwise still be
+    // computed by the connector thread after the move is over
+    private void dropMoveGesture() {
+        if (moveGesture != null) {
+            moveGesture.cancelSpeculativeRequests();
+            moveGesture = null;
+        }
     }
 
     @Override
@@ -227,7 +236,7 @@ public class SelectTool extends Tool {
         start = Location.create(e.getX(), e.getY());
         currentDx = 0;
         currentDy = 0;
-        moveGesture = null;
+        dropMoveGesture();
 
         // if the user clicks into the selection,
         // selection is being modified
@@ -361,7 +370,7 @@ public class SelectTool extends Tool {
                     project.doAction(SelectionActions.translate(selection, dx, dy, replacementMap));
                 }
             }
-            moveGesture = null;
+            dropMoveGesture();
             project.repaintCanvas();
         } else if (state == RECT_SELECT) {
             Bounds bounds = Bounds.create(start).add(start.getX() + currentDx, start.getY() + currentDy);
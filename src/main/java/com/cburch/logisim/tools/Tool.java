@@ -21,7 +21,6 @@ import java.util.Set;
 //
 public abstract class Tool implements AttributeDefaultProvider {
 
-    private static final Cursor DEFAULT_CURSOR = Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR);
 
     public abstract String getName();
 
@@ -111,7 +110,7 @@ public abstract class Tool implements AttributeDefaultProvider {
     }
 
     public Cursor getCursor() {
-        return DEFAULT_CURSOR;
+        return Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR);
     }
 
 }
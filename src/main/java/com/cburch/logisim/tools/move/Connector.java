@@ -13,8 +13,13 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 class Connector {
 
@@ -25,10 +30,23 @@ class Connector {
     private static final int MAX_ORDERING_TRIES = 10;
     private static final int MAX_SEARCH_ITERATIONS = 20000;
 
+    // connection orderings are tried concurrently, sharing the best result found so far
+    private static final ExecutorService ORDERING_POOL = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(MAX_ORDERING_TRIES, Runtime.getRuntime().availableProcessors())),
+        runnable -> {
+            Thread thread = new Thread(runnable, "Connector ordering");
+            thread.setDaemon(true);
+            return thread;
+        });
+
     private Connector() {
     }
 
-    static MoveResult computeWires(MoveRequest req) {
+    /**
+     * Computes the wires for a request, giving up and returning null once
+     * the cancel flag is set.
+     */
+    static MoveResult computeWires(MoveRequest req, AtomicBoolean cancel) {
         MoveGesture gesture = req.getMoveGesture();
         int dx = req.getDeltaX();
         int dy = req.getDeltaY();
@@ -66,10 +84,9 @@ class Connector {
                 tries = MAX_ORDERING_TRIES;
         }
         long stopTime = System.currentTimeMillis() + MAX_SECONDS * 1000;
-        for (int tryNum = 0; tryNum < tries && stopTime - System.currentTimeMillis() > 0; tryNum++) {
-            if (ConnectorThread.isOverrideRequested()) {
-                return null;
-            }
+        AtomicLong bound = new AtomicLong(Long.MAX_VALUE);
+        ArrayList<Future<MoveResult>> candidates = new ArrayList<>();
+        for (int tryNum = 0; tryNum < tries; tryNum++) {
             ArrayList<ConnectionData> connects;
             connects = new ArrayList<>(baseConnects);
             if (tryNum < 2) {
@@ -80,25 +97,42 @@ class Connector {
             } else {
                 Collections.shuffle(connects);
             }
+            candidates.add(ORDERING_POOL.submit(() ->
+                tryList(req, gesture, connects, dx, dy, pathLocations, initNodes, stopTime, bound, cancel)));
+        }
 
-            MoveResult candidate = tryList(req, gesture, connects, dx, dy, pathLocations, initNodes, stopTime);
-            if (candidate == null) {
-                return null;
-            } else if (bestResult == null) {
-                bestResult = candidate;
-            } else {
-                int unsatisfied1 = bestResult.getUnsatisfiedConnections().size();
-                int unsatisfied2 = candidate.getUnsatisfiedConnections().size();
-                if (unsatisfied2 < unsatisfied1) {
+        try {
+            for (Future<MoveResult> future : candidates) {
+                MoveResult candidate = future.get();
+                if (candidate == null) {
+                    if (cancel.get()) {
+                        cancelAll(candidates, cancel);
+                        return null;
+                    }
+                    // otherwise this ordering was abandoned as worse than another
+                } else if (bestResult == null) {
                     bestResult = candidate;
-                } else if (unsatisfied2 == unsatisfied1) {
-                    int dist1 = bestResult.getTotalDistance();
-                    int dist2 = candidate.getTotalDistance();
-                    if (dist2 < dist1) {
+                } else {
+                    int unsatisfied1 = bestResult.getUnsatisfiedConnections().size();
+                    int unsatisfied2 = candidate.getUnsatisfiedConnections().size();
+                    if (unsatisfied2 < unsatisfied1) {
                         bestResult = candidate;
+                    } else if (unsatisfied2 == unsatisfied1) {
+                        int dist1 = bestResult.getTotalDistance();
+                        int dist2 = candidate.getTotalDistance();
+                        if (dist2 < dist1) {
+                            bestResult = candidate;
+                        }
                     }
                 }
             }
+        } catch (InterruptedException e) {
+            cancelAll(candidates, cancel);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            cancelAll(candidates, cancel);
+            throw new RuntimeException(e.getCause());
         }
         if (bestResult == null) { // should only happen for no connections
             bestResult = new MoveResult(req, new ReplacementMap(), impossible, 0);
@@ -108,6 +142,24 @@ class Connector {
         return bestResult;
     }
 
+    private static void cancelAll(List<Future<MoveResult>> candidates, AtomicBoolean cancel) {
+        // orderings already running stop at their next look at the flag
+        cancel.set(true);
+        for (Future<MoveResult> future : candidates) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Packs a result's quality into a single number ordered the same way
+     * as results are compared: by unsatisfied connections, then by
+     * distance. Both only grow as an ordering is worked through, so the
+     * packed value of a partial result is a lower bound on its final value.
+     */
+    private static long toBound(int unsatisfied, int totalDistance) {
+        return ((long) unsatisfied << 32) | totalDistance;
+    }
+
     private static ArrayList<ConnectionData> pruneImpossible(
         ArrayList<ConnectionData> connections, AvoidanceMap avoid, int dx, int dy) {
         ArrayList<Wire> pathWires = new ArrayList<>();
@@ -198,7 +250,8 @@ class Connector {
 
     private static MoveResult tryList(MoveRequest request, MoveGesture gesture, ArrayList<ConnectionData> connections,
         int dx, int dy, HashMap<ConnectionData, Set<Location>> pathLocations,
-        HashMap<ConnectionData, List<SearchNode>> initNodes, long stopTime) {
+        HashMap<ConnectionData, List<SearchNode>> initNodes, long stopTime, AtomicLong bound,
+        AtomicBoolean cancel) {
         AvoidanceMap avoid = gesture.getFixedAvoidanceMap().cloneMap();
         avoid.markAll(gesture.getSelected(), dx, dy);
 
@@ -206,42 +259,57 @@ class Connector {
         ArrayList<ConnectionData> unconnected = new ArrayList<>();
         int totalDistance = 0;
         for (ConnectionData connection : connections) {
-            if (ConnectorThread.isOverrideRequested()) {
+            if (cancel.get()) {
                 return null;
             }
+            long best = bound.get();
+            if (toBound(unconnected.size(), totalDistance) > best) {
+                return null; // another ordering has already done better
+            }
             if (System.currentTimeMillis() - stopTime > 0) {
                 unconnected.add(connection);
                 continue;
             }
+            int distanceLimit = Integer.MAX_VALUE;
+            if (best >>> 32 == unconnected.size()) {
+                distanceLimit = (int) best - totalDistance;
+            }
             List<SearchNode> connectionNodes = initNodes.get(connection);
             Set<Location> connectionPathLocations = pathLocations.get(connection);
-            SearchNode node = findShortestPath(connectionNodes, connectionPathLocations, avoid);
+            SearchNode node = findShortestPath(connectionNodes, connectionPathLocations, avoid, distanceLimit,
+                cancel);
             if (node != null) { // normal case - a path was found
                 totalDistance += node.getDistance();
                 ArrayList<Location> path = convertToPath(node);
                 processPath(path, connection, avoid, replacements, connectionPathLocations);
-            } else if (ConnectorThread.isOverrideRequested()) {
+            } else if (cancel.get()) {
                 return null; // search was aborted: return null to indicate this
             } else {
                 unconnected.add(connection);
             }
         }
+        long result = toBound(unconnected.size(), totalDistance);
+        bound.accumulateAndGet(result, Math::min);
         return new MoveResult(request, replacements, unconnected, totalDistance);
     }
 
-    private static SearchNode findShortestPath(List<SearchNode> nodes, Set<Location> pathLocations, AvoidanceMap avoid) {
-        PriorityQueue<SearchNode> queue = new PriorityQueue<>(nodes);
-        HashSet<SearchNode> visited = new HashSet<>();
+    private static SearchNode findShortestPath(List<SearchNode> nodes, Set<Location> pathLocations, AvoidanceMap avoid,
+        int distanceLimit, AtomicBoolean cancel) {
+        SearchQueue queue = new SearchQueue(nodes);
+        VisitedSet visited = new VisitedSet();
         int iterations = 0;
         while (!queue.isEmpty() && iterations < MAX_SEARCH_ITERATIONS) {
             iterations++;
             SearchNode node = queue.remove();
-            if (iterations % 64 == 0 && ConnectorThread.isOverrideRequested() || node == null) {
+            if (iterations % 64 == 0 && cancel.get() || node == null) {
                 return null;
             }
             if (node.isDestination()) {
                 return node;
             }
+            if (node.getDistance() > distanceLimit) {
+                continue; // any path through here loses to another ordering's result
+            }
             boolean added = visited.add(node);
             if (!added) {
                 continue;
@@ -5,6 +5,9 @@ package com.cburch.logisim.tools.move;
 
 import com.adlerd.logger.Logger;
 import com.cburch.logisim.circuit.ReplacementMap;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 class ConnectorThread extends Thread {
 
@@ -15,12 +18,18 @@ class ConnectorThread extends Thread {
     }
 
     private final Object lock;
-    private transient boolean overrideRequest;
+    private final ArrayDeque<MoveRequest> speculativeRequests;
+    private boolean overrideRequest;
     private MoveRequest nextRequest;
     private MoveRequest processingRequest;
+    private boolean processingSpeculative;
+    // set to abandon the request being processed; each request has its
+    // own, so that a superseded search stops even once the next has begun
+    private AtomicBoolean processingCancel;
 
     private ConnectorThread() {
         lock = new Object();
+        speculativeRequests = new ArrayDeque<>();
         overrideRequest = false;
         nextRequest = null;
     }
@@ -30,17 +39,37 @@ class ConnectorThread extends Thread {
             if (!request.equals(INSTANCE.processingRequest)) {
                 INSTANCE.nextRequest = request;
                 INSTANCE.overrideRequest = priority;
+                if (priority || INSTANCE.processingSpeculative) {
+                    INSTANCE.cancelProcessing();
+                }
                 INSTANCE.lock.notifyAll();
             }
         }
     }
 
-    public static boolean isOverrideRequested() {
-        return INSTANCE.overrideRequest;
+    /**
+     * Replaces the requests to be computed whenever no real request is
+     * pending. These are guesses at where a drag is heading, so they are
+     * abandoned as soon as a real request arrives, and a guess being
+     * computed is abandoned too if it isn't among the new ones.
+     */
+    public static void setSpeculativeRequests(List<MoveRequest> requests) {
+        synchronized (INSTANCE.lock) {
+            if (INSTANCE.processingSpeculative && !requests.contains(INSTANCE.processingRequest)) {
+                INSTANCE.cancelProcessing();
+            }
+            INSTANCE.speculativeRequests.clear();
+            INSTANCE.speculativeRequests.addAll(requests);
+            if (!requests.isEmpty()) {
+                INSTANCE.lock.notifyAll();
+            }
+        }
     }
 
-    public boolean isAbortRequested() {
-        return overrideRequest;
+    private void cancelProcessing() {
+        if (processingCancel != null) {
+            processingCancel.set(true);
+        }
     }
 
     @Override
@@ -48,9 +77,12 @@ class ConnectorThread extends Thread {
         while (true) {
             MoveRequest request;
             boolean wasOverride;
+            AtomicBoolean cancel = new AtomicBoolean(false);
             synchronized (lock) {
                 processingRequest = null;
-                while (nextRequest == null) {
+                processingSpeculative = false;
+                processingCancel = null;
+                while (nextRequest == null && speculativeRequests.isEmpty()) {
                     try {
                         lock.wait();
                     } catch (InterruptedException e) {
@@ -59,15 +91,22 @@ class ConnectorThread extends Thread {
                         return;
                     }
                 }
-                request = nextRequest;
-                wasOverride = overrideRequest;
-                nextRequest = null;
-                overrideRequest = false;
+                if (nextRequest != null) {
+                    request = nextRequest;
+                    wasOverride = overrideRequest;
+                    nextRequest = null;
+                    overrideRequest = false;
+                } else {
+                    request = speculativeRequests.poll();
+                    wasOverride = false;
+                    processingSpeculative = true;
+                }
                 processingRequest = request;
+                processingCancel = cancel;
             }
 
             try {
-                MoveResult result = Connector.computeWires(request);
+                MoveResult result = Connector.computeWires(request, cancel);
                 if (result != null) {
                     MoveGesture gesture = request.getMoveGesture();
                     gesture.notifyResult(request, result);
@@ -13,19 +13,28 @@ import com.cburch.logisim.data.Location;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class MoveGesture {
 
+    private static final int MAX_CACHED_RESULTS = 64;
+    private static final int MAX_SPECULATIVE_REQUESTS = 8;
+    private static final int GRID_SIZE = 10;
+
     private final MoveRequestListener listener;
     private final Circuit circuit;
     private final HashSet<Component> selected;
-    private final HashMap<MoveRequest, MoveResult> cachedResults;
+    private final LinkedHashMap<MoveRequest, MoveResult> cachedResults;
     private transient Set<ConnectionData> connections;
     private transient AvoidanceMap initAvoid;
+    private int lastDx = 0;
+    private int lastDy = 0;
+    private int velocityX = 0;
+    private int velocityY = 0;
 
     public MoveGesture(MoveRequestListener listener, Circuit circuit, Collection<Component> selected) {
         this.listener = listener;
@@ -33,7 +42,12 @@ public class MoveGesture {
         this.selected = new HashSet<>(selected);
         this.connections = null;
         this.initAvoid = null;
-        this.cachedResults = new HashMap<>();
+        this.cachedResults = new LinkedHashMap<MoveRequest, MoveResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MoveRequest, MoveResult> eldest) {
+                return size() > MAX_CACHED_RESULTS;
+            }
+        };
     }
 
     private static Set<ConnectionData> computeConnections(Circuit circuit, Set<Component> selected) {
@@ -142,19 +156,85 @@ public class MoveGesture {
 
     public boolean enqueueRequest(int dx, int dy) {
         MoveRequest request = new MoveRequest(this, dx, dy);
+        if (dx != lastDx || dy != lastDy) {
+            velocityX = dx - lastDx;
+            velocityY = dy - lastDy;
+            lastDx = dx;
+            lastDy = dy;
+        }
+        boolean queued;
         synchronized (cachedResults) {
             Object result = cachedResults.get(request);
             if (result == null) {
                 ConnectorThread.enqueueRequest(request, false);
-                return true;
+                queued = true;
             } else {
-                return false;
+                queued = false;
+            }
+        }
+        ConnectorThread.setSpeculativeRequests(computeSpeculativeRequests(dx, dy));
+        return queued;
+    }
+
+    /**
+     * Guesses the offsets the drag is likely to reach next: the grid points
+     * around the current offset, those lying in the direction the mouse has
+     * been moving first, preceded by the point two steps along that
+     * direction.
+     */
+    private List<MoveRequest> computeSpeculativeRequests(int dx, int dy) {
+        if (dx % GRID_SIZE != 0 || dy % GRID_SIZE != 0) {
+            return Collections.emptyList();
+        }
+        final int vx = Integer.signum(velocityX);
+        final int vy = Integer.signum(velocityY);
+        ArrayList<int[]> steps = new ArrayList<>();
+        for (int sx = -1; sx <= 1; sx++) {
+            for (int sy = -1; sy <= 1; sy++) {
+                if (sx != 0 || sy != 0) {
+                    steps.add(new int[]{sx, sy});
+                }
+            }
+        }
+        steps.sort((a, b) -> (b[0] * vx + b[1] * vy) - (a[0] * vx + a[1] * vy));
+        if (vx != 0 || vy != 0) {
+            steps.add(0, new int[]{2 * vx, 2 * vy});
+        }
+
+        ArrayList<MoveRequest> ret = new ArrayList<>();
+        synchronized (cachedResults) {
+            for (int[] step : steps) {
+                int x = dx + step[0] * GRID_SIZE;
+                int y = dy + step[1] * GRID_SIZE;
+                MoveRequest request = new MoveRequest(this, x, y);
+                if ((x != 0 || y != 0) && !cachedResults.containsKey(request)) {
+                    ret.add(request);
+                    if (ret.size() >= MAX_SPECULATIVE_REQUESTS) {
+                        break;
+                    }
+                }
             }
         }
+        return ret;
+    }
+
+    /**
+     * Drops the requests guessed for this gesture that the connector thread
+     * has yet to compute, as when the gesture ends without a final request.
+     */
+    public void cancelSpeculativeRequests() {
+        ConnectorThread.setSpeculativeRequests(Collections.emptyList());
     }
 
     public MoveResult forceRequest(int dx, int dy) {
         MoveRequest request = new MoveRequest(this, dx, dy);
+        ConnectorThread.setSpeculativeRequests(Collections.emptyList());
+        synchronized (cachedResults) {
+            MoveResult result = cachedResults.get(request);
+            if (result != null) {
+                return result;
+            }
+        }
         ConnectorThread.enqueueRequest(request, true);
         synchronized (cachedResults) {
             MoveResult result = cachedResults.get(request);
@@ -0,0 +1,85 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.tools.move;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The open list of a path search: a binary min-heap of search nodes
+ * ordered by their heuristic values, which are kept in a parallel
+ * <code>int</code> array so that sifting never calls back into the nodes.
+ */
+class SearchQueue {
+
+    private int[] keys;
+    private SearchNode[] nodes;
+    private int size;
+
+    SearchQueue(Collection<SearchNode> initial) {
+        int capacity = Math.max(64, Integer.highestOneBit(initial.size()) * 2);
+        keys = new int[capacity];
+        nodes = new SearchNode[capacity];
+        size = 0;
+        for (SearchNode node : initial) {
+            add(node);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void add(SearchNode node) {
+        if (size == nodes.length) {
+            keys = Arrays.copyOf(keys, 2 * size);
+            nodes = Arrays.copyOf(nodes, 2 * size);
+        }
+        int key = node.getHeuristicValue();
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[i] = keys[parent];
+            nodes[i] = nodes[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        nodes[i] = node;
+    }
+
+    public SearchNode remove() {
+        if (size == 0) {
+            return null;
+        }
+        SearchNode ret = nodes[0];
+        size--;
+        int key = keys[size];
+        SearchNode node = nodes[size];
+        nodes[size] = null;
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            keys[i] = keys[child];
+            nodes[i] = nodes[child];
+            i = child;
+        }
+        if (size > 0) {
+            keys[i] = key;
+            nodes[i] = node;
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,104 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.tools.move;
+
+import com.cburch.logisim.data.Direction;
+import com.cburch.logisim.data.Location;
+
+/**
+ * The set of search nodes already expanded by a single path search. Since
+ * every node of one search shares a destination, a node is identified by
+ * its grid location and direction alone; the set is an open-addressed
+ * table keyed on the packed coordinates, with the directions seen at each
+ * location kept as a bit mask.
+ */
+class VisitedSet {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private long[] keys;
+    private byte[] directions;
+    private int size;
+
+    VisitedSet() {
+        keys = new long[INITIAL_CAPACITY];
+        directions = new byte[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    private static long toKey(Location location) {
+        return ((long) location.getX() << 32) | (location.getY() & 0xFFFFFFFFL);
+    }
+
+    private static int toBit(Direction direction) {
+        if (direction == Direction.EAST) {
+            return 1;
+        } else if (direction == Direction.WEST) {
+            return 2;
+        } else if (direction == Direction.NORTH) {
+            return 4;
+        } else if (direction == Direction.SOUTH) {
+            return 8;
+        } else {
+            return 16;
+        }
+    }
+
+    private static int hash(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    public boolean contains(SearchNode node) {
+        long key = toKey(node.getLocation());
+        int mask = keys.length - 1;
+        for (int i = hash(key, mask); directions[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (directions[i] & toBit(node.getDirection())) != 0;
+            }
+        }
+        return false;
+    }
+
+    public boolean add(SearchNode node) {
+        long key = toKey(node.getLocation());
+        int bit = toBit(node.getDirection());
+        int mask = keys.length - 1;
+        int i = hash(key, mask);
+        for (; directions[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                if ((directions[i] & bit) != 0) {
+                    return false;
+                }
+                directions[i] |= (byte) bit;
+                return true;
+            }
+        }
+        keys[i] = key;
+        directions[i] = (byte) bit;
+        size++;
+        if (2 * size > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        byte[] oldDirections = directions;
+        keys = new long[2 * oldKeys.length];
+        directions = new byte[2 * oldKeys.length];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldDirections[j] != 0) {
+                int i = hash(oldKeys[j], mask);
+                while (directions[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                directions[i] = oldDirections[j];
+            }
+        }
+    }
+}
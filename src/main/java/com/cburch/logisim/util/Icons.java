@@ -17,12 +17,18 @@ public class Icons {
     private Icons() {
     }
 
+    /**
+     * Returns the named icon, or null if there is no such icon. The image
+     * is read only when the icon is first drawn or measured, so that the
+     * many icons held by component factories cost nothing until they are
+     * shown, and nothing at all when running without a window.
+     */
     public static Icon getIcon(String name) {
         java.net.URL url = Icons.class.getClassLoader().getResource(path + "/" + name);
         if (url == null) {
             return null;
         }
-        return new ImageIcon(url);
+        return new LazyIcon(url);
     }
 
     public static void paintRotated(Graphics g, int x, int y, Direction dir, Icon icon, Component dest) {
@@ -46,4 +52,33 @@ public class Icons {
         icon.paintIcon(dest, g2, x, y);
         g2.dispose();
     }
+
+    private static class LazyIcon implements Icon {
+
+        private final java.net.URL url;
+        private ImageIcon icon = null;
+
+        LazyIcon(java.net.URL url) {
+            this.url = url;
+        }
+
+        private ImageIcon getLoaded() {
+            if (icon == null) {
+                icon = new ImageIcon(url);
+            }
+            return icon;
+        }
+
+        public void paintIcon(Component c, Graphics g, int x, int y) {
+            getLoaded().paintIcon(c, g, x, y);
+        }
+
+        public int getIconWidth() {
+            return getLoaded().getIconWidth();
+        }
+
+        public int getIconHeight() {
+            return getLoaded().getIconHeight();
+        }
+    }
 }
@@ -0,0 +1,160 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.util;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes an RGB image to a stream in the PNG format a band of rows at a
+ * time, so that an image far too large to hold in memory can be drawn and
+ * saved in strips. The encoder is created with the size of the whole
+ * image; each call to <code>writeRows</code> appends rows taken from the
+ * top of a strip, and <code>close</code> finishes the file.
+ */
+public class PngEncoder implements AutoCloseable {
+
+    private static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final DataOutputStream out;
+    private final int width;
+    private final int height;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final DeflaterOutputStream data;
+    private final int[] pixels;
+    private final byte[] row;
+    private int rowsWritten = 0;
+
+    public PngEncoder(OutputStream out, int width, int height) throws IOException {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("image must not be empty");
+        }
+        this.out = new DataOutputStream(out);
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width];
+        this.row = new byte[1 + 3 * width];
+        this.data = new DeflaterOutputStream(new ChunkStream(), deflater, CHUNK_SIZE);
+
+        this.out.write(SIGNATURE);
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerData = new DataOutputStream(header);
+        headerData.writeInt(width);
+        headerData.writeInt(height);
+        headerData.writeByte(8); // bits per sample
+        headerData.writeByte(2); // truecolor
+        headerData.writeByte(0); // deflate
+        headerData.writeByte(0); // adaptive filtering
+        headerData.writeByte(0); // no interlace
+        writeChunk("IHDR", header.toByteArray(), header.size());
+    }
+
+    /**
+     * Appends the given number of rows from the top of the given image,
+     * which must be as wide as the encoded image.
+     */
+    public void writeRows(BufferedImage strip, int rows) throws IOException {
+        if (strip.getWidth() != width) {
+            throw new IllegalArgumentException("strip width " + strip.getWidth()
+                + " does not match image width " + width);
+        }
+        if (rowsWritten + rows > height) {
+            throw new IllegalArgumentException("too many rows");
+        }
+        for (int y = 0; y < rows; y++) {
+            strip.getRGB(0, y, width, 1, pixels, 0, width);
+            row[0] = 0; // no filter
+            int j = 1;
+            for (int x = 0; x < width; x++) {
+                int rgb = pixels[x];
+                row[j++] = (byte) (rgb >> 16);
+                row[j++] = (byte) (rgb >> 8);
+                row[j++] = (byte) rgb;
+            }
+            data.write(row);
+        }
+        rowsWritten += rows;
+    }
+
+    /**
+     * Finishes the image, or if some of its rows were never written, just
+     * releases the encoder, leaving the file incomplete.
+     */
+    public void close() throws IOException {
+        try {
+            if (rowsWritten == height) {
+                data.finish();
+                data.flush();
+                writeChunk("IEND", new byte[0], 0);
+                out.flush();
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeChunk(String type, byte[] buf, int len) throws IOException {
+        byte[] typeBytes = type.getBytes("US-ASCII");
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(buf, 0, len);
+        out.writeInt(len);
+        out.write(typeBytes);
+        out.write(buf, 0, len);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /** Collects compressed data into IDAT chunks of bounded size. */
+    private class ChunkStream extends OutputStream {
+
+        private final byte[] buf = new byte[CHUNK_SIZE];
+        private int len = 0;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (len == buf.length) {
+                flushChunk();
+            }
+            buf[len++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int n) throws IOException {
+            while (n > 0) {
+                if (len == buf.length) {
+                    flushChunk();
+                }
+                int count = Math.min(n, buf.length - len);
+                System.arraycopy(b, off, buf, len, count);
+                len += count;
+                off += count;
+                n -= count;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushChunk();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flushChunk();
+        }
+
+        private void flushChunk() throws IOException {
+            if (len > 0) {
+                writeChunk("IDAT", buf, len);
+                len = 0;
+            }
+        }
+    }
+}
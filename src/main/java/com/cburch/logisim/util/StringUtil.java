@@ -3,6 +3,9 @@
 
 package com.cburch.logisim.util;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 public class StringUtil {
 
     private StringUtil() {
@@ -107,4 +110,22 @@ public class StringUtil {
         }
         return builder.toString();
     }
+
+    /**
+     * Returns the SHA-256 digest of the given bytes as lowercase hex, as
+     * used to tell whether a file has changed since it was last read.
+     */
+    public static String sha256(byte[] contents) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(contents);
+            StringBuilder ret = new StringBuilder();
+            for (byte b : digest) {
+                ret.append(Character.forDigit((b >> 4) & 0xf, 16));
+                ret.append(Character.forDigit(b & 0xf, 16));
+            }
+            return ret.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,765 @@
+/* Copyright (c) 2010, Carl Burch. License information is located in the
+ * com.cburch.logisim.Main source code and at www.cburch.com/logisim/. */
+
+package com.cburch.logisim.util;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Paint;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Path2D;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.renderable.RenderableImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.AttributedCharacterIterator;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+/**
+ * A graphics context that records what is drawn on it as an SVG document
+ * rather than as pixels, so that circuits can be exported in a vector
+ * format without a display. Shapes and text keep the transform in effect
+ * when they were drawn, so that strokes and fonts scale with them. XOR
+ * mode, composites and rendering hints have no effect.
+ */
+public class SvgGraphics extends Graphics2D {
+
+    /** Measures text for every SVG context, so that none needs its own. */
+    private static final Graphics2D MEASURE
+        = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+
+    /** The elements drawn by a graphics context and all of its copies. */
+    private static class Document {
+
+        private final StringBuilder defs = new StringBuilder();
+        private final StringBuilder body = new StringBuilder();
+        private final HashMap<Area, String> clipIds = new HashMap<>();
+    }
+
+    private final Document doc;
+    private final int width;
+    private final int height;
+    private AffineTransform transform;
+    private Area clip;
+    private Color color;
+    private Color background;
+    private Stroke stroke;
+    private Font font;
+    private final RenderingHints hints;
+
+    public SvgGraphics(int width, int height) {
+        this.doc = new Document();
+        this.width = width;
+        this.height = height;
+        this.transform = new AffineTransform();
+        this.clip = null;
+        this.color = Color.BLACK;
+        this.background = Color.WHITE;
+        this.stroke = new BasicStroke(1.0f);
+        this.font = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+        this.hints = new RenderingHints(null);
+    }
+
+    private SvgGraphics(SvgGraphics src) {
+        this.doc = src.doc;
+        this.width = src.width;
+        this.height = src.height;
+        this.transform = new AffineTransform(src.transform);
+        this.clip = src.clip;
+        this.color = src.color;
+        this.background = src.background;
+        this.stroke = src.stroke;
+        this.font = src.font;
+        this.hints = (RenderingHints) src.hints.clone();
+    }
+
+    /**
+     * Writes everything drawn so far on this context and its copies as a
+     * complete SVG document.
+     */
+    public void writeTo(Writer out) throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<svg xmlns=\"http://www.w3.org/2000/svg\""
+            + " xmlns:xlink=\"http://www.w3.org/1999/xlink\" version=\"1.1\""
+            + " width=\"" + width + "\" height=\"" + height + "\""
+            + " viewBox=\"0 0 " + width + " " + height + "\">\n");
+        if (doc.defs.length() > 0) {
+            out.write("<defs>\n");
+            out.write(doc.defs.toString());
+            out.write("</defs>\n");
+        }
+        out.write(doc.body.toString());
+        out.write("</svg>\n");
+    }
+
+    //
+    // output of elements
+    //
+    private void emitShape(Shape shape, boolean fill) {
+        StringBuilder b = doc.body;
+        String close = openClip(b);
+        b.append("<path d=\"");
+        appendPath(b, shape, null);
+        b.append('"');
+        if (fill) {
+            b.append(" fill=\"").append(toHex(color)).append('"');
+            appendOpacity(b, "fill-opacity");
+            b.append(" stroke=\"none\"");
+        } else {
+            b.append(" fill=\"none\" stroke=\"").append(toHex(color)).append('"');
+            appendOpacity(b, "stroke-opacity");
+            appendStroke(b);
+        }
+        appendTransform(b);
+        b.append("/>").append(close).append('\n');
+    }
+
+    private void appendPath(StringBuilder b, Shape shape, AffineTransform xform) {
+        PathIterator it = shape.getPathIterator(xform);
+        double[] c = new double[6];
+        while (!it.isDone()) {
+            switch (it.currentSegment(c)) {
+                case PathIterator.SEG_MOVETO:
+                    b.append('M').append(num(c[0])).append(' ').append(num(c[1]));
+                    break;
+                case PathIterator.SEG_LINETO:
+                    b.append('L').append(num(c[0])).append(' ').append(num(c[1]));
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    b.append('Q').append(num(c[0])).append(' ').append(num(c[1]))
+                        .append(' ').append(num(c[2])).append(' ').append(num(c[3]));
+                    break;
+                case PathIterator.SEG_CUBICTO:
+                    b.append('C').append(num(c[0])).append(' ').append(num(c[1]))
+                        .append(' ').append(num(c[2])).append(' ').append(num(c[3]))
+                        .append(' ').append(num(c[4])).append(' ').append(num(c[5]));
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    b.append('Z');
+                    break;
+            }
+            it.next();
+        }
+    }
+
+    private void appendStroke(StringBuilder b) {
+        if (!(stroke instanceof BasicStroke)) {
+            return;
+        }
+        BasicStroke s = (BasicStroke) stroke;
+        b.append(" stroke-width=\"").append(num(s.getLineWidth())).append('"');
+        switch (s.getEndCap()) {
+            case BasicStroke.CAP_ROUND:
+                b.append(" stroke-linecap=\"round\"");
+                break;
+            case BasicStroke.CAP_SQUARE:
+                b.append(" stroke-linecap=\"square\"");
+                break;
+        }
+        switch (s.getLineJoin()) {
+            case BasicStroke.JOIN_ROUND:
+                b.append(" stroke-linejoin=\"round\"");
+                break;
+            case BasicStroke.JOIN_BEVEL:
+                b.append(" stroke-linejoin=\"bevel\"");
+                break;
+        }
+        float[] dash = s.getDashArray();
+        if (dash != null && dash.length > 0) {
+            b.append(" stroke-dasharray=\"");
+            for (int i = 0; i < dash.length; i++) {
+                if (i > 0) {
+                    b.append(',');
+                }
+                b.append(num(dash[i]));
+            }
+            b.append('"');
+        }
+    }
+
+    private void appendOpacity(StringBuilder b, String attr) {
+        if (color.getAlpha() < 255) {
+            b.append(' ').append(attr).append("=\"").append(num(color.getAlpha() / 255.0)).append('"');
+        }
+    }
+
+    private void appendTransform(StringBuilder b) {
+        if (!transform.isIdentity()) {
+            b.append(" transform=\"matrix(")
+                .append(num(transform.getScaleX())).append(' ')
+                .append(num(transform.getShearY())).append(' ')
+                .append(num(transform.getShearX())).append(' ')
+                .append(num(transform.getScaleY())).append(' ')
+                .append(num(transform.getTranslateX())).append(' ')
+                .append(num(transform.getTranslateY())).append(")\"");
+        }
+    }
+
+    /**
+     * Starts a group for the clip in effect, if any, returning the text
+     * that closes it. The clip is kept in device space, so it can't be an
+     * attribute of a transformed element.
+     */
+    private String openClip(StringBuilder b) {
+        if (clip == null) {
+            return "";
+        }
+        String id = doc.clipIds.get(clip);
+        if (id == null) {
+            id = "clip" + doc.clipIds.size();
+            doc.clipIds.put(clip, id);
+            doc.defs.append("<clipPath id=\"").append(id).append("\"><path d=\"");
+            appendPath(doc.defs, clip, null);
+            doc.defs.append("\"/></clipPath>\n");
+        }
+        b.append("<g clip-path=\"url(#").append(id).append(")\">");
+        return "</g>";
+    }
+
+    private static String num(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e9) {
+            return Long.toString((long) value);
+        }
+        String ret = String.format(Locale.US, "%.3f", value);
+        int end = ret.length();
+        while (ret.charAt(end - 1) == '0') {
+            end--;
+        }
+        if (ret.charAt(end - 1) == '.') {
+            end--;
+        }
+        return ret.substring(0, end);
+    }
+
+    private static String toHex(Color c) {
+        return String.format("#%02x%02x%02x", c.getRed(), c.getGreen(), c.getBlue());
+    }
+
+    private static String escape(String text) {
+        StringBuilder ret = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    ret.append("&lt;");
+                    break;
+                case '>':
+                    ret.append("&gt;");
+                    break;
+                case '&':
+                    ret.append("&amp;");
+                    break;
+                case '"':
+                    ret.append("&quot;");
+                    break;
+                default:
+                    if (c < 0x20 && c != '\t') {
+                        ret.append(' ');
+                    } else {
+                        ret.append(c);
+                    }
+            }
+        }
+        return ret.toString();
+    }
+
+    //
+    // Graphics2D shapes
+    //
+    @Override
+    public void draw(Shape s) {
+        emitShape(s, false);
+    }
+
+    @Override
+    public void fill(Shape s) {
+        emitShape(s, true);
+    }
+
+    @Override
+    public void drawString(String str, int x, int y) {
+        drawString(str, (float) x, (float) y);
+    }
+
+    @Override
+    public void drawString(String str, float x, float y) {
+        if (str == null || str.isEmpty()) {
+            return;
+        }
+        StringBuilder b = doc.body;
+        String close = openClip(b);
+        b.append("<text x=\"").append(num(x)).append("\" y=\"").append(num(y)).append('"')
+            .append(" font-family=\"").append(escape(font.getFamily())).append('"')
+            .append(" font-size=\"").append(num(font.getSize2D())).append('"');
+        if (font.isBold()) {
+            b.append(" font-weight=\"bold\"");
+        }
+        if (font.isItalic()) {
+            b.append(" font-style=\"italic\"");
+        }
+        b.append(" fill=\"").append(toHex(color)).append('"');
+        appendOpacity(b, "fill-opacity");
+        b.append(" xml:space=\"preserve\"");
+        appendTransform(b);
+        b.append('>').append(escape(str)).append("</text>").append(close).append('\n');
+    }
+
+    @Override
+    public void drawString(AttributedCharacterIterator iterator, int x, int y) {
+        drawString(iterator, (float) x, (float) y);
+    }
+
+    @Override
+    public void drawString(AttributedCharacterIterator iterator, float x, float y) {
+        TextLayout layout = new TextLayout(iterator, getFontRenderContext());
+        fill(layout.getOutline(AffineTransform.getTranslateInstance(x, y)));
+    }
+
+    @Override
+    public void drawGlyphVector(GlyphVector g, float x, float y) {
+        fill(g.getOutline(x, y));
+    }
+
+    @Override
+    public boolean hit(Rectangle rect, Shape s, boolean onStroke) {
+        Shape shape = onStroke ? stroke.createStrokedShape(s) : s;
+        return transform.createTransformedShape(shape).intersects(rect);
+    }
+
+    //
+    // Graphics primitives
+    //
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        draw(new Line2D.Double(x1, y1, x2, y2));
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height) {
+        fill(new Rectangle(x, y, width, height));
+    }
+
+    @Override
+    public void drawRect(int x, int y, int width, int height) {
+        draw(new Rectangle(x, y, width, height));
+    }
+
+    @Override
+    public void clearRect(int x, int y, int width, int height) {
+        Color old = color;
+        color = background;
+        fillRect(x, y, width, height);
+        color = old;
+    }
+
+    @Override
+    public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+        draw(new RoundRectangle2D.Double(x, y, width, height, arcWidth, arcHeight));
+    }
+
+    @Override
+    public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+        fill(new RoundRectangle2D.Double(x, y, width, height, arcWidth, arcHeight));
+    }
+
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        draw(new Ellipse2D.Double(x, y, width, height));
+    }
+
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        fill(new Ellipse2D.Double(x, y, width, height));
+    }
+
+    @Override
+    public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+        draw(new Arc2D.Double(x, y, width, height, startAngle, arcAngle, Arc2D.OPEN));
+    }
+
+    @Override
+    public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+        fill(new Arc2D.Double(x, y, width, height, startAngle, arcAngle, Arc2D.PIE));
+    }
+
+    @Override
+    public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints) {
+        if (nPoints <= 0) {
+            return;
+        }
+        Path2D.Double path = new Path2D.Double();
+        path.moveTo(xPoints[0], yPoints[0]);
+        for (int i = 1; i < nPoints; i++) {
+            path.lineTo(xPoints[i], yPoints[i]);
+        }
+        draw(path);
+    }
+
+    @Override
+    public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+        draw(new Polygon(xPoints, yPoints, nPoints));
+    }
+
+    @Override
+    public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+        fill(new Polygon(xPoints, yPoints, nPoints));
+    }
+
+    //
+    // images
+    //
+    @Override
+    public boolean drawImage(Image img, int x, int y, int width, int height, ImageObserver observer) {
+        if (img == null) {
+            return true;
+        }
+        int w = img.getWidth(observer);
+        int h = img.getHeight(observer);
+        if (w <= 0 || h <= 0) {
+            return false;
+        }
+        BufferedImage copy = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics g = copy.getGraphics();
+        g.drawImage(img, 0, 0, observer);
+        g.dispose();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(copy, "PNG", png);
+        } catch (IOException e) {
+            return false;
+        }
+        StringBuilder b = doc.body;
+        String close = openClip(b);
+        b.append("<image x=\"").append(x).append("\" y=\"").append(y)
+            .append("\" width=\"").append(width).append("\" height=\"").append(height)
+            .append("\" xlink:href=\"data:image/png;base64,")
+            .append(Base64.getEncoder().encodeToString(png.toByteArray())).append('"');
+        appendTransform(b);
+        b.append("/>").append(close).append('\n');
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(Image img, int x, int y, ImageObserver observer) {
+        return drawImage(img, x, y, img.getWidth(observer), img.getHeight(observer), observer);
+    }
+
+    @Override
+    public boolean drawImage(Image img, int x, int y, Color bgcolor, ImageObserver observer) {
+        return drawImage(img, x, y, observer);
+    }
+
+    @Override
+    public boolean drawImage(Image img, int x, int y, int width, int height, Color bgcolor,
+        ImageObserver observer) {
+        return drawImage(img, x, y, width, height, observer);
+    }
+
+    @Override
+    public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2,
+        int sx1, int sy1, int sx2, int sy2, ImageObserver observer) {
+        int w = Math.abs(sx2 - sx1);
+        int h = Math.abs(sy2 - sy1);
+        if (w == 0 || h == 0) {
+            return true;
+        }
+        BufferedImage part = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics g = part.getGraphics();
+        g.drawImage(img, 0, 0, w, h, sx1, sy1, sx2, sy2, observer);
+        g.dispose();
+        return drawImage(part, Math.min(dx1, dx2), Math.min(dy1, dy2),
+            Math.abs(dx2 - dx1), Math.abs(dy2 - dy1), observer);
+    }
+
+    @Override
+    public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2,
+        int sx1, int sy1, int sx2, int sy2, Color bgcolor, ImageObserver observer) {
+        return drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, observer);
+    }
+
+    @Override
+    public boolean drawImage(Image img, AffineTransform xform, ImageObserver obs) {
+        AffineTransform old = transform;
+        transform = new AffineTransform(transform);
+        transform.concatenate(xform);
+        boolean ret = drawImage(img, 0, 0, obs);
+        transform = old;
+        return ret;
+    }
+
+    @Override
+    public void drawImage(BufferedImage img, BufferedImageOp op, int x, int y) {
+        drawImage(op == null ? img : op.filter(img, null), x, y, null);
+    }
+
+    @Override
+    public void drawRenderedImage(RenderedImage img, AffineTransform xform) {
+        if (img instanceof BufferedImage) {
+            drawImage((BufferedImage) img, xform, null);
+        }
+    }
+
+    @Override
+    public void drawRenderableImage(RenderableImage img, AffineTransform xform) {
+        drawRenderedImage(img.createDefaultRendering(), xform);
+    }
+
+    @Override
+    public void copyArea(int x, int y, int width, int height, int dx, int dy) {
+        // a vector document has no pixels to copy
+    }
+
+    //
+    // state
+    //
+    @Override
+    public Graphics create() {
+        return new SvgGraphics(this);
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    @Override
+    public Color getColor() {
+        return color;
+    }
+
+    @Override
+    public void setColor(Color c) {
+        if (c != null) {
+            color = c;
+        }
+    }
+
+    @Override
+    public Paint getPaint() {
+        return color;
+    }
+
+    @Override
+    public void setPaint(Paint paint) {
+        if (paint instanceof Color) {
+            color = (Color) paint;
+        }
+    }
+
+    @Override
+    public void setPaintMode() {
+    }
+
+    @Override
+    public void setXORMode(Color c1) {
+    }
+
+    @Override
+    public Composite getComposite() {
+        return java.awt.AlphaComposite.SrcOver;
+    }
+
+    @Override
+    public void setComposite(Composite comp) {
+    }
+
+    @Override
+    public Color getBackground() {
+        return background;
+    }
+
+    @Override
+    public void setBackground(Color color) {
+        background = color;
+    }
+
+    @Override
+    public Stroke getStroke() {
+        return stroke;
+    }
+
+    @Override
+    public void setStroke(Stroke s) {
+        stroke = s;
+    }
+
+    @Override
+    public Font getFont() {
+        return font;
+    }
+
+    @Override
+    public void setFont(Font f) {
+        if (f != null) {
+            font = f;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public FontMetrics getFontMetrics(Font f) {
+        return MEASURE.getFontMetrics(f);
+    }
+
+    @Override
+    public FontRenderContext getFontRenderContext() {
+        return new FontRenderContext(new AffineTransform(), true, true);
+    }
+
+    @Override
+    public GraphicsConfiguration getDeviceConfiguration() {
+        return MEASURE.getDeviceConfiguration();
+    }
+
+    @Override
+    public void setRenderingHint(RenderingHints.Key hintKey, Object hintValue) {
+        hints.put(hintKey, hintValue);
+    }
+
+    @Override
+    public Object getRenderingHint(RenderingHints.Key hintKey) {
+        return hints.get(hintKey);
+    }
+
+    @Override
+    public void setRenderingHints(Map<?, ?> newHints) {
+        hints.clear();
+        hints.putAll(newHints);
+    }
+
+    @Override
+    public void addRenderingHints(Map<?, ?> newHints) {
+        hints.putAll(newHints);
+    }
+
+    @Override
+    public RenderingHints getRenderingHints() {
+        return (RenderingHints) hints.clone();
+    }
+
+    //
+    // transform
+    //
+    @Override
+    public void translate(int x, int y) {
+        transform.translate(x, y);
+    }
+
+    @Override
+    public void translate(double tx, double ty) {
+        transform.translate(tx, ty);
+    }
+
+    @Override
+    public void rotate(double theta) {
+        transform.rotate(theta);
+    }
+
+    @Override
+    public void rotate(double theta, double x, double y) {
+        transform.rotate(theta, x, y);
+    }
+
+    @Override
+    public void scale(double sx, double sy) {
+        transform.scale(sx, sy);
+    }
+
+    @Override
+    public void shear(double shx, double shy) {
+        transform.shear(shx, shy);
+    }
+
+    @Override
+    public void transform(AffineTransform tx) {
+        transform.concatenate(tx);
+    }
+
+    @Override
+    public void setTransform(AffineTransform tx) {
+        transform = new AffineTransform(tx);
+    }
+
+    @Override
+    public AffineTransform getTransform() {
+        return new AffineTransform(transform);
+    }
+
+    //
+    // clip, kept in device space
+    //
+    @Override
+    public Shape getClip() {
+        if (clip == null) {
+            return null;
+        }
+        try {
+            return transform.createInverse().createTransformedShape(clip);
+        } catch (NoninvertibleTransformException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Rectangle getClipBounds() {
+        Shape s = getClip();
+        return s == null ? null : s.getBounds();
+    }
+
+    @Override
+    public void clipRect(int x, int y, int width, int height) {
+        clip(new Rectangle(x, y, width, height));
+    }
+
+    @Override
+    public void setClip(int x, int y, int width, int height) {
+        setClip(new Rectangle(x, y, width, height));
+    }
+
+    @Override
+    public void setClip(Shape s) {
+        clip = s == null ? null : new Area(transform.createTransformedShape(s));
+    }
+
+    @Override
+    public void clip(Shape s) {
+        if (s == null) {
+            clip = null;
+            return;
+        }
+        Area area = new Area(transform.createTransformedShape(s));
+        if (clip != null) {
+            area.intersect(clip);
+        }
+        clip = area;
+    }
+}
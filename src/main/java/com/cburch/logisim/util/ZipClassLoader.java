@@ -8,7 +8,9 @@ import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -33,6 +35,9 @@ public class ZipClassLoader extends ClassLoader {
     private final HashMap<String, Object> classes = new HashMap<>();
     private final Object bgLock = new Object();
     private WorkThread bgThread = null;
+    // names of the entries in the file, read when it is first opened so
+    // that requests for anything else needn't wait on the work thread
+    private volatile HashSet<String> entryNames = null;
 
     public ZipClassLoader(String zipFileName) {
         this(new File(zipFileName));
@@ -108,6 +113,10 @@ public class ZipClassLoader extends ClassLoader {
     }
 
     private Object request(int action, String resourceName) {
+        HashSet<String> names = entryNames;
+        if (names != null && !names.contains(resourceName)) {
+            return null;
+        }
         Request request;
         synchronized (bgLock) {
             if (bgThread == null) { // start the thread if it isn't working
@@ -342,6 +351,14 @@ public class ZipClassLoader extends ClassLoader {
                     if (DEBUG >= 1) {
                         Logger.debugln("  ZIP opened");  //OK
                     }
+                    if (entryNames == null) {
+                        HashSet<String> names = new HashSet<>();
+                        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                        while (entries.hasMoreElements()) {
+                            names.add(entries.nextElement().getName());
+                        }
+                        entryNames = names;
+                    }
                 } catch (IOException e) {
                     if (DEBUG >= 1) {
                         Logger.debugln("  error opening ZIP file"); //OK